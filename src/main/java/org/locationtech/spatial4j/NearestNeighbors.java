@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds the k shapes nearest to a point ("k nearest neighbors"), per {@link ShapeUtils#distance(Shape, Point)},
+ * without measuring every shape.  The shapes' bounding boxes are indexed once, grouped by
+ * proximity (sort-tile-recursive), in a {@link PackedBBoxIndex}.  A query visits boxes best-first
+ * by their distance from the point, which is dateline aware in a geo context, and only measures
+ * the exact distance to a shape when its box is the nearest left.
+ * <p>
+ * The shapes must not change while indexed.  Empty shapes are never found.  This class is
+ * thread-safe.
+ */
+public class NearestNeighbors {
+
+  private final List<Shape> shapes;//in index order
+  private final int[] shapeIndexes;//the caller's index of each shape, in index order
+  private final PackedBBoxIndex index;
+
+  public NearestNeighbors(List<? extends Shape> shapes, SpatialContext ctx) {
+    final int size = shapes.size();
+    final Rectangle[] bboxes = new Rectangle[size];
+    final Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      bboxes[i] = shapes.get(i).getBoundingBox();
+      order[i] = i;
+    }
+    sortTileRecursive(order, bboxes);
+    this.shapes = new ArrayList<>(size);
+    this.shapeIndexes = new int[size];
+    final double[] boxes = new double[size * 4];
+    for (int i = 0; i < size; i++) {
+      final int shapeIndex = order[i];
+      final Rectangle bbox = bboxes[shapeIndex];
+      this.shapes.add(shapes.get(shapeIndex));
+      this.shapeIndexes[i] = shapeIndex;
+      boxes[i * 4] = bbox.getMinX();
+      boxes[i * 4 + 1] = bbox.getMaxX();
+      boxes[i * 4 + 2] = bbox.getMinY();
+      boxes[i * 4 + 3] = bbox.getMaxY();
+    }
+    this.index = new PackedBBoxIndex(boxes, PackedBBoxIndex.DEFAULT_NODE_SIZE, ctx);
+  }
+
+  /**
+   * Orders the shapes so that each run of a node's worth is compact: sorted by the center's x,
+   * then in vertical slices of about the square root of the number of nodes, sorted by y.  Empty
+   * shapes (NaN centers) sort last.
+   */
+  private static void sortTileRecursive(Integer[] order, final Rectangle[] bboxes) {
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Double.compare(bboxes[a].getCenter().getX(), bboxes[b].getCenter().getX());
+      }
+    });
+    final int nodeSize = PackedBBoxIndex.DEFAULT_NODE_SIZE;
+    final int numNodes = (order.length + nodeSize - 1) / nodeSize;
+    final int sliceSize = (int) Math.ceil(Math.sqrt(numNodes)) * nodeSize;
+    final Comparator<Integer> byY = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return Double.compare(bboxes[a].getCenter().getY(), bboxes[b].getCenter().getY());
+      }
+    };
+    for (int from = 0; from < order.length; from += sliceSize) {
+      Arrays.sort(order, from, Math.min(order.length, from + sliceSize), byY);
+    }
+  }
+
+  /** The number of shapes. */
+  public int size() {
+    return shapes.size();
+  }
+
+  /**
+   * Finds the {@code k} shapes nearest to {@code from}.
+   *
+   * @param indexes receives the index (in the list given at construction) of each shape found, in
+   *                order of increasing distance; length &gt;= k.
+   * @param distances receives their distances, or may be null; length &gt;= k.
+   * @return the number of shapes found; less than k only if there are fewer non-empty shapes.
+   */
+  public int nearest(final Point from, int k, int[] indexes, double[] distances) {
+    if (distances == null)
+      distances = new double[k];
+    final int found = index.nearest(from, k, new PackedBBoxIndex.ItemDistance() {
+      @Override
+      public double distance(int i) {
+        return ShapeUtils.distance(shapes.get(i), from);
+      }
+    }, indexes, distances);
+    for (int i = 0; i < found; i++) {
+      indexes[i] = shapeIndexes[indexes[i]];
+    }
+    return found;
+  }
+
+  /** The indexes of the {@code k} shapes nearest to {@code from}, nearest first. */
+  public int[] nearest(Point from, int k) {
+    final int[] indexes = new int[k];
+    return Arrays.copyOf(indexes, nearest(from, k, indexes, null));
+  }
+}
@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the pairs of shapes from two lists for which a {@link SpatialPredicate} holds, without
+ * evaluating every pair.  First, a plane sweep over the bounding boxes (sorted by minX) finds the
+ * pairs whose boxes intersect; in a geo context a box crossing or touching the dateline is swept as
+ * two boxes, and a pair is found once no matter how many of their boxes intersect.  The candidate pairs
+ * are evaluated as the sweep finds them, a fixed size buffer at a time (optionally across a
+ * {@link ForkJoinPool}), so memory doesn't grow with their number.  A query shape with several
+ * candidates is {@link ShapeUtils#prepare(Shape) prepared} first.
+ * <p>
+ * Predicates that can hold for shapes with disjoint bounding boxes (i.e. Disjoint) aren't
+ * supported, since nearly every pair would match; nor are those that don't declare they can't
+ * (see {@link SpatialPredicate#canSkipBBoxDisjoint()}).  Empty shapes never match.  This class is
+ * thread-safe.
+ */
+public class SpatialJoin {
+
+  /** Receives the matching pairs, by their index in each list. */
+  public interface PairCollector {
+    void collect(int indexedIndex, int queryIndex);
+  }
+
+  /** The number of evaluations per task given to the ForkJoinPool. */
+  private static final int BATCH_SIZE = 512;
+
+  /** A query shape is prepared only if it has at least this many candidates, since that takes time. */
+  private static final int MIN_CANDIDATES_TO_PREPARE = 8;
+
+  private final SpatialPredicate predicate;
+  private final SpatialContext ctx;
+  private final ForkJoinPool pool;
+
+  /**
+   * @param predicate evaluated as {@code predicate.evaluate(indexedShape, queryShape)}.
+   * @param pool if non-null, candidate pairs are evaluated across this pool and the calling thread
+   *             waits for them.  The shapes must then be safe to relate concurrently, which they are
+   *             unless they are being mutated.
+   */
+  public SpatialJoin(SpatialPredicate predicate, SpatialContext ctx, ForkJoinPool pool) {
+    if (!predicate.canSkipBBoxDisjoint() || predicate.evaluateBBoxDisjoint())
+      throw new IllegalArgumentException("Unsupported predicate since it might hold for shapes with disjoint"
+          + " bounding boxes: " + predicate);
+    this.predicate = predicate;
+    this.ctx = ctx;
+    this.pool = pool;
+  }
+
+  /**
+   * Calls {@code collector} with each pair for which the predicate holds, from the calling thread,
+   * in no particular order.
+   */
+  public void join(List<? extends Shape> indexedShapes, List<? extends Shape> queryShapes, PairCollector collector) {
+    if (!(indexedShapes instanceof RandomAccess))
+      indexedShapes = new ArrayList<>(indexedShapes);
+    if (!(queryShapes instanceof RandomAccess))
+      queryShapes = new ArrayList<>(queryShapes);
+    final Evaluator evaluator = new Evaluator(indexedShapes, queryShapes, collector);
+    sweep(new Boxes(indexedShapes), new Boxes(queryShapes), evaluator);
+    evaluator.flush();
+  }
+
+  private static long candidate(int indexedIndex, int queryIndex) {
+    return ((long) queryIndex << 32) | indexedIndex;
+  }
+
+  private static int indexedIndex(long candidate) {
+    return (int) candidate;
+  }
+
+  private static int queryIndex(long candidate) {
+    return (int) (candidate >>> 32);
+  }
+
+  /** Plane sweep; adds the candidate pairs whose bounding boxes intersect to the evaluator. */
+  private void sweep(Boxes a, Boxes b, Evaluator evaluator) {
+    final int[] activeA = new int[a.size], activeB = new int[b.size];
+    int numActiveA = 0, numActiveB = 0;
+    int i = 0, j = 0;
+    while (i < a.size || j < b.size) {
+      final boolean nextIsA = j == b.size || i < a.size && a.minX(a.order[i]) <= b.minX(b.order[j]);
+      final Boxes next = nextIsA ? a : b, other = nextIsA ? b : a;
+      final int box = nextIsA ? a.order[i] : b.order[j];
+      final int[] otherActive = nextIsA ? activeB : activeA;
+      int numOtherActive = nextIsA ? numActiveB : numActiveA;
+      final double minX = next.minX(box), minY = next.minY(box), maxY = next.maxY(box);
+      for (int k = 0; k < numOtherActive; k++) {
+        final int otherBox = otherActive[k];
+        if (other.maxX(otherBox) < minX) {//it's behind the sweep line now
+          otherActive[k--] = otherActive[--numOtherActive];
+          continue;
+        }
+        if (other.minY(otherBox) > maxY || other.maxY(otherBox) < minY)
+          continue;
+        final int boxOfA = nextIsA ? box : otherBox, boxOfB = nextIsA ? otherBox : box;
+        if (!isFirstIntersectingPiece(a, boxOfA, b, boxOfB))
+          continue;
+        evaluator.add(a.shapes[boxOfA], b.shapes[boxOfB]);
+      }
+      if (nextIsA) {
+        numActiveB = numOtherActive;
+        activeA[numActiveA++] = box;
+        i++;
+      } else {
+        numActiveA = numOtherActive;
+        activeB[numActiveB++] = box;
+        j++;
+      }
+    }
+  }
+
+  /**
+   * A pair of shapes crossing the dateline might have several pairs of boxes that intersect; only
+   * the first (lowest piece numbers) counts.  Y ranges are the same for each piece of a shape.
+   */
+  private static boolean isFirstIntersectingPiece(Boxes a, int boxA, Boxes b, int boxB) {
+    final int pieceA = a.piece(boxA), pieceB = b.piece(boxB);
+    if (pieceA == 0 && pieceB == 0)
+      return true;
+    final int firstA = boxA - pieceA, firstB = boxB - pieceB;
+    for (int pa = 0; pa <= pieceA; pa++) {
+      final int numPiecesB = pa < pieceA ? b.numPieces(firstB) : pieceB;
+      for (int pb = 0; pb < numPiecesB; pb++) {
+        if (a.minX(firstA + pa) <= b.maxX(firstB + pb) && b.minX(firstB + pb) <= a.maxX(firstA + pa))
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The bounding boxes of a list of shapes, split at the dateline, and sorted by minX.  The pieces
+   * of a shape are adjacent.
+   */
+  private class Boxes {
+    final int size;
+    final double[] boxes;//minX, maxX, minY, maxY
+    final int[] shapes;//shape index per box
+    final int[] order;//box indexes sorted by minX
+
+    Boxes(List<? extends Shape> shapeList) {
+      double[] boxes = new double[shapeList.size() * 4];
+      int[] shapes = new int[shapeList.size()];
+      int size = 0;
+      for (int s = 0; s < shapeList.size(); s++) {
+        final Rectangle bbox = shapeList.get(s).getBoundingBox();
+        if (bbox.isEmpty())
+          continue;
+        if (size + 2 > shapes.length) {
+          shapes = Arrays.copyOf(shapes, shapes.length * 2 + 2);
+          boxes = Arrays.copyOf(boxes, shapes.length * 4);
+        }
+        final double worldMinX = ctx.getWorldBounds().getMinX(), worldMaxX = ctx.getWorldBounds().getMaxX();
+        final double minX = bbox.getMinX(), maxX = bbox.getMaxX(), minY = bbox.getMinY(), maxY = bbox.getMaxY();
+        if (bbox.getCrossesDateLine()) {
+          size = add(boxes, shapes, size, s, minX, worldMaxX, minY, maxY);
+          size = add(boxes, shapes, size, s, worldMinX, maxX, minY, maxY);
+        } else {
+          size = add(boxes, shapes, size, s, minX, maxX, minY, maxY);
+          // the dateline is at both ends; a box touching one end touches the other
+          if (ctx.isGeo() && bbox.getWidth() < 360) {
+            if (minX == worldMinX)
+              size = add(boxes, shapes, size, s, worldMaxX, worldMaxX, minY, maxY);
+            else if (maxX == worldMaxX)
+              size = add(boxes, shapes, size, s, worldMinX, worldMinX, minY, maxY);
+          }
+        }
+      }
+      this.size = size;
+      this.boxes = boxes;
+      this.shapes = shapes;
+      this.order = new int[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      sortByMinX(0, size - 1);
+    }
+
+    private int add(double[] boxes, int[] shapes, int size, int shape,
+                    double minX, double maxX, double minY, double maxY) {
+      boxes[size * 4] = minX;
+      boxes[size * 4 + 1] = maxX;
+      boxes[size * 4 + 2] = minY;
+      boxes[size * 4 + 3] = maxY;
+      shapes[size] = shape;
+      return size + 1;
+    }
+
+    double minX(int box) { return boxes[box * 4]; }
+    double maxX(int box) { return boxes[box * 4 + 1]; }
+    double minY(int box) { return boxes[box * 4 + 2]; }
+    double maxY(int box) { return boxes[box * 4 + 3]; }
+
+    /** 0 for the first box of a shape, 1 for the second (on the other side of the dateline). */
+    int piece(int box) {
+      return box > 0 && shapes[box - 1] == shapes[box] ? 1 : 0;
+    }
+
+    int numPieces(int firstBox) {
+      return firstBox + 1 < size && shapes[firstBox + 1] == shapes[firstBox] ? 2 : 1;
+    }
+
+    /** Quicksort of {@link #order} by minX, from lo to hi inclusive. */
+    private void sortByMinX(int lo, int hi) {
+      while (lo < hi) {
+        final double pivot = minX(order[(lo + hi) >>> 1]);
+        int i = lo, j = hi;
+        while (i <= j) {
+          while (minX(order[i]) < pivot) i++;
+          while (minX(order[j]) > pivot) j--;
+          if (i <= j) {
+            final int tmp = order[i];
+            order[i++] = order[j];
+            order[j--] = tmp;
+          }
+        }
+        // recurse into the smaller part to bound the stack depth
+        if (j - lo < hi - i) {
+          sortByMinX(lo, j);
+          lo = i;
+        } else {
+          sortByMinX(i, hi);
+          hi = j;
+        }
+      }
+    }
+  }
+
+  /**
+   * Buffers the candidate pairs found by the sweep, and evaluates them a buffer at a time.  A query
+   * shape is prepared once it has had {@link #MIN_CANDIDATES_TO_PREPARE} candidates.
+   */
+  private class Evaluator {
+    final List<? extends Shape> indexedShapes, queryShapes;
+    final PairCollector collector;
+    final Shape[] preparedQueryShapes;//null until prepared
+    final int[] numQueryCandidates;
+    final long[] candidates;
+    final boolean[] matches;
+    int numCandidates = 0;
+
+    Evaluator(List<? extends Shape> indexedShapes, List<? extends Shape> queryShapes, PairCollector collector) {
+      this.indexedShapes = indexedShapes;
+      this.queryShapes = queryShapes;
+      this.collector = collector;
+      this.preparedQueryShapes = new Shape[queryShapes.size()];
+      this.numQueryCandidates = new int[queryShapes.size()];
+      // enough for each thread of the pool to get a few batches
+      final int bufferSize = pool == null ? BATCH_SIZE : BATCH_SIZE * pool.getParallelism() * 4;
+      this.candidates = new long[bufferSize];
+      this.matches = new boolean[bufferSize];
+    }
+
+    void add(int indexedIndex, int queryIndex) {
+      if (preparedQueryShapes[queryIndex] == null
+          && ++numQueryCandidates[queryIndex] == MIN_CANDIDATES_TO_PREPARE)
+        preparedQueryShapes[queryIndex] = ShapeUtils.prepare(queryShapes.get(queryIndex));
+      candidates[numCandidates++] = candidate(indexedIndex, queryIndex);
+      if (numCandidates == candidates.length)
+        flush();
+    }
+
+    /** Evaluates the buffered candidates and collects the matches. */
+    void flush() {
+      final EvaluateTask task = new EvaluateTask(this, 0, numCandidates);
+      if (pool == null || numCandidates <= BATCH_SIZE)
+        task.compute();
+      else
+        pool.invoke(task);
+      for (int c = 0; c < numCandidates; c++) {
+        if (matches[c])
+          collector.collect(indexedIndex(candidates[c]), queryIndex(candidates[c]));
+      }
+      numCandidates = 0;
+    }
+
+    boolean evaluate(long candidate) {
+      final int queryIndex = queryIndex(candidate);
+      Shape queryShape = preparedQueryShapes[queryIndex];
+      if (queryShape == null)
+        queryShape = queryShapes.get(queryIndex);
+      return predicate.evaluate(indexedShapes.get(indexedIndex(candidate)), queryShape);
+    }
+  }
+
+  /** Evaluates a range of buffered candidates, splitting it in two while it's bigger than a batch. */
+  private class EvaluateTask extends RecursiveAction {
+    final Evaluator evaluator;
+    final int from, to;
+
+    EvaluateTask(Evaluator evaluator, int from, int to) {
+      this.evaluator = evaluator;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (pool != null && to - from > BATCH_SIZE) {
+        final int mid = (from + to) >>> 1;
+        invokeAll(new EvaluateTask(evaluator, from, mid), new EvaluateTask(evaluator, mid, to));
+        return;
+      }
+      for (int c = from; c < to; c++) {
+        evaluator.matches[c] = evaluator.evaluate(evaluator.candidates[c]);
+      }
+    }
+  }
+}
@@ -19,16 +19,22 @@ package org.locationtech.spatial4j;
 
 // NOTE: we keep the header as it came from ASF; it did not originate in Spatial4j
 
-import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A predicate that compares a stored geometry to a supplied geometry. It's enum-like. For more
@@ -53,42 +59,41 @@ public abstract class SpatialPredicate implements Serializable {
   // Geometry Operations
 
   /** Bounding box of the *indexed* shape, then {@link #Intersects}. */
-  public static final SpatialPredicate BBoxIntersects = new SpatialPredicate("BBoxIntersects") {
+  public static final SpatialPredicate BBoxIntersects = new SpatialPredicate("BBoxIntersects", true) {
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      return indexedShape.getBoundingBox().relate(queryShape).intersects();
+      return ShapeUtils.intersects(indexedShape.getBoundingBox(), queryShape);
     }
   };
   /** Bounding box of the *indexed* shape, then {@link #IsWithin}. */
-  public static final SpatialPredicate BBoxWithin     = new SpatialPredicate("BBoxWithin") {
+  public static final SpatialPredicate BBoxWithin     = new SpatialPredicate("BBoxWithin", true) {
     {
       register("BBoxCoveredBy");//alias -- the better name
     }
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      Rectangle bbox = indexedShape.getBoundingBox();
-      return bbox.relate(queryShape) == SpatialRelation.WITHIN || bbox.equals(queryShape);
+      return ShapeUtils.within(indexedShape.getBoundingBox(), queryShape);
     }
   };
   /** Meets the "Covers" OGC definition (boundary-neutral). */
-  public static final SpatialPredicate Contains       = new SpatialPredicate("Contains") {
+  public static final SpatialPredicate Contains       = new SpatialPredicate("Contains", true) {
     {
       register("Covers");//alias -- the better name
     }
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      return indexedShape.relate(queryShape) == SpatialRelation.CONTAINS || indexedShape.equals(queryShape);
+      return ShapeUtils.contains(indexedShape, queryShape);
     }
   };
   /** Meets the "Intersects" OGC definition. */
-  public static final SpatialPredicate Intersects     = new SpatialPredicate("Intersects") {
+  public static final SpatialPredicate Intersects     = new SpatialPredicate("Intersects", true) {
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      return indexedShape.relate(queryShape).intersects();
+      return ShapeUtils.intersects(indexedShape, queryShape);
     }
   };
   /** Meets the "Equals" OGC definition. */
-  public static final SpatialPredicate IsEqualTo      = new SpatialPredicate("Equals") {
+  public static final SpatialPredicate IsEqualTo      = new SpatialPredicate("Equals", true) {
     {
       register("IsEqualTo");//alias (deprecated)
     }
@@ -98,38 +103,52 @@ public abstract class SpatialPredicate implements Serializable {
     }
   };
   /** Meets the "Disjoint" OGC definition. */
-  public static final SpatialPredicate IsDisjointTo   = new SpatialPredicate("Disjoint") {
+  public static final SpatialPredicate IsDisjointTo   = new SpatialPredicate("Disjoint", true) {
     {
       register("IsDisjointTo");//alias (deprecated)
     }
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      return ! indexedShape.relate(queryShape).intersects();
+      return ! ShapeUtils.intersects(indexedShape, queryShape);
+    }
+
+    @Override
+    protected boolean evaluateBBoxDisjoint() {
+      return true;
     }
   };
   /** Meets the "CoveredBy" OGC definition (boundary-neutral). */
-  public static final SpatialPredicate IsWithin       = new SpatialPredicate("Within") {
+  public static final SpatialPredicate IsWithin       = new SpatialPredicate("Within", true) {
     {
       register("IsWithin");//alias (deprecated)
       register("CoveredBy");//alias -- the more appropriate name.
     }
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
-      return indexedShape.relate(queryShape) == SpatialRelation.WITHIN || indexedShape.equals(queryShape);
+      return ShapeUtils.within(indexedShape, queryShape);
     }
   };
   /** Almost meets the "Overlaps" OGC definition, but boundary-neutral (boundary==interior). */
-  public static final SpatialPredicate Overlaps       = new SpatialPredicate("Overlaps") {
+  public static final SpatialPredicate Overlaps       = new SpatialPredicate("Overlaps", true) {
     @Override
     public boolean evaluate(Shape indexedShape, Shape queryShape) {
       return indexedShape.relate(queryShape) == SpatialRelation.INTERSECTS;//not Contains or Within or Disjoint
     }
   };
 
+  /** The number of evaluations per task given to a ForkJoinPool in {@link #evaluateAll}. */
+  private static final int EVALUATE_ALL_BATCH_SIZE = 512;
+
   private final String name;
+  private final boolean canSkipBBoxDisjoint;
 
   protected SpatialPredicate(String name) {
+    this(name, false);
+  }
+
+  private SpatialPredicate(String name, boolean canSkipBBoxDisjoint) {
     this.name = name;
+    this.canSkipBBoxDisjoint = canSkipBBoxDisjoint;
     register(name);
     list.add( this );
   }
@@ -169,6 +188,139 @@ public abstract class SpatialPredicate implements Serializable {
    */
   public abstract boolean evaluate(Shape indexedShape, Shape queryShape);
 
+  /**
+   * Whether {@link #evaluate(Shape, Shape)} always returns {@link #evaluateBBoxDisjoint()} when the
+   * bounding boxes of the (non-empty) shapes are disjoint, thus such pairs needn't be evaluated.  It's
+   * true for the predicates defined here, and false by default for others; override both methods to
+   * opt in.
+   */
+  protected boolean canSkipBBoxDisjoint() {
+    return canSkipBBoxDisjoint;
+  }
+
+  /**
+   * The result of {@link #evaluate(Shape, Shape)} when the bounding boxes of the (non-empty) shapes
+   * are disjoint; it's false for all predicates here except {@link #IsDisjointTo}.  Only used if
+   * {@link #canSkipBBoxDisjoint()}.
+   */
+  protected boolean evaluateBBoxDisjoint() {
+    return false;
+  }
+
+  /** Same as {@link #evaluateAll(List, Shape, ForkJoinPool)} with no pool. */
+  public BitSet evaluateAll(List<? extends Shape> indexedShapes, Shape queryShape) {
+    return evaluateAll(indexedShapes, queryShape, null);
+  }
+
+  /**
+   * Same as {@link #evaluateAll(List, PackedBBoxIndex, Shape, ForkJoinPool)} with the bounding boxes
+   * indexed for this call.  To evaluate the same indexed shapes against several query shapes, index
+   * them once and pass that instead.
+   */
+  public BitSet evaluateAll(List<? extends Shape> indexedShapes, Shape queryShape, ForkJoinPool pool) {
+    if (!(indexedShapes instanceof RandomAccess))
+      indexedShapes = new ArrayList<>(indexedShapes);
+    return evaluateAll(indexedShapes, new PackedBBoxIndex(indexedShapes, queryShape.getContext()), queryShape, pool);
+  }
+
+  /**
+   * Evaluates many indexed shapes against one query shape, returning the indexes of those for which
+   * the predicate holds. The query shape is {@link ShapeUtils#prepare(Shape) prepared} once, and if
+   * {@link #canSkipBBoxDisjoint()} then indexed shapes whose bounding box is disjoint from the query's,
+   * per {@code bboxIndex}, are decided by {@link #evaluateBBoxDisjoint()} without evaluating.
+   *
+   * @param bboxIndex the bounding boxes of {@code indexedShapes}, in the same order, e.g.
+   *                  {@code new PackedBBoxIndex(indexedShapes, ctx)}; it can be reused across calls.
+   * @param pool if non-null, the remaining evaluations are split across this pool and the calling
+   *             thread waits for them.  The shapes must then be safe to relate concurrently,
+   *             which they are unless they are being mutated.
+   */
+  public BitSet evaluateAll(List<? extends Shape> indexedShapes, PackedBBoxIndex bboxIndex, Shape queryShape,
+                            ForkJoinPool pool) {
+    if (bboxIndex.size() != indexedShapes.size())
+      throw new IllegalArgumentException("bboxIndex has " + bboxIndex.size() + " boxes but there are "
+          + indexedShapes.size() + " shapes");
+    if (!(indexedShapes instanceof RandomAccess))
+      indexedShapes = new ArrayList<>(indexedShapes);
+    final Shape query = ShapeUtils.prepare(queryShape);
+    final BitSet result = new BitSet(indexedShapes.size());
+    // filter by bounding box; the remaining candidates are evaluated
+    final boolean skipBBoxDisjoint = canSkipBBoxDisjoint() && !query.isEmpty();
+    final boolean bboxDisjointResult = evaluateBBoxDisjoint();
+    final BitSet bboxIntersects = new BitSet(indexedShapes.size());
+    if (skipBBoxDisjoint) {
+      bboxIndex.query(query.getBoundingBox(), new PackedBBoxIndex.Visitor() {
+        @Override
+        public boolean visit(int index) {
+          bboxIntersects.set(index);
+          return true;
+        }
+      });
+    }
+    int[] candidates = new int[Math.min(indexedShapes.size(), 1024)];
+    int numCandidates = 0;
+    for (int i = 0; i < indexedShapes.size(); i++) {
+      // an empty box (NaN) never matches the index, but the shape is still evaluated
+      if (!skipBBoxDisjoint || bboxIntersects.get(i) || Double.isNaN(bboxIndex.getMinX(i))) {
+        if (numCandidates == candidates.length)
+          candidates = Arrays.copyOf(candidates, candidates.length * 2);
+        candidates[numCandidates++] = i;
+      } else if (bboxDisjointResult) {
+        result.set(i);
+      }
+    }
+    if (pool == null || numCandidates <= EVALUATE_ALL_BATCH_SIZE) {
+      for (int c = 0; c < numCandidates; c++) {
+        final int i = candidates[c];
+        if (evaluate(indexedShapes.get(i), query))
+          result.set(i);
+      }
+    } else {
+      // a BitSet isn't thread-safe, so each task writes to its own range of this array
+      final boolean[] matches = new boolean[numCandidates];
+      pool.invoke(new EvaluateTask(this, indexedShapes, query, candidates, matches, 0, numCandidates));
+      for (int c = 0; c < numCandidates; c++) {
+        if (matches[c])
+          result.set(candidates[c]);
+      }
+    }
+    return result;
+  }
+
+  /** Evaluates a range of candidates, splitting it in two while it's bigger than a batch. */
+  private static class EvaluateTask extends RecursiveAction {
+    final SpatialPredicate predicate;
+    final List<? extends Shape> indexedShapes;
+    final Shape query;
+    final int[] candidates;
+    final boolean[] matches;
+    final int from, to;
+
+    EvaluateTask(SpatialPredicate predicate, List<? extends Shape> indexedShapes, Shape query,
+                 int[] candidates, boolean[] matches, int from, int to) {
+      this.predicate = predicate;
+      this.indexedShapes = indexedShapes;
+      this.query = query;
+      this.candidates = candidates;
+      this.matches = matches;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= EVALUATE_ALL_BATCH_SIZE) {
+        for (int c = from; c < to; c++) {
+          matches[c] = predicate.evaluate(indexedShapes.get(candidates[c]), query);
+        }
+      } else {
+        final int mid = (from + to) >>> 1;
+        invokeAll(new EvaluateTask(predicate, indexedShapes, query, candidates, matches, from, mid),
+            new EvaluateTask(predicate, indexedShapes, query, candidates, matches, mid, to));
+      }
+    }
+  }
+
   public String getName() {
     return name;
   }
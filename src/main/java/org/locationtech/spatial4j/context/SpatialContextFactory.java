@@ -50,6 +50,9 @@ import java.util.*;
  * <DD>Comma separated list of {@link org.locationtech.spatial4j.io.ShapeWriter} class names</DD>
  * <DT>binaryCodecClass</DT>
  * <DD>Java class of the {@link org.locationtech.spatial4j.io.BinaryCodec}</DD>
+ * <DT>binaryCodecPrecision</DT>
+ * <DD>-1 (default; full doubles) | 0-15 -- the number of decimal places that the
+ * {@link org.locationtech.spatial4j.io.BinaryCodec} keeps in its compact form</DD>
  * </DL>
  */
 public class SpatialContextFactory {
@@ -69,6 +72,7 @@ public class SpatialContextFactory {
 
   public Class<? extends ShapeFactory> shapeFactoryClass = ShapeFactoryImpl.class;
   public Class<? extends BinaryCodec> binaryCodecClass = BinaryCodec.class;
+  public int binaryCodecPrecision = -1;
   public final List<Class<? extends ShapeReader>> readers = new ArrayList<Class<? extends ShapeReader>>();
   public final List<Class<? extends ShapeWriter>> writers = new ArrayList<Class<? extends ShapeWriter>>();
   public boolean hasFormatConfig = false;
@@ -126,6 +130,7 @@ public class SpatialContextFactory {
     initField("normWrapLongitude");
 
     initField("binaryCodecClass");
+    initField("binaryCodecPrecision");
   }
 
   /** Gets {@code name} from args and populates a field by the same name with the value. */
@@ -143,6 +148,10 @@ public class SpatialContextFactory {
         Object o;
         if (field.getType() == Boolean.TYPE) {
           o = Boolean.valueOf(str);
+        } else if (field.getType() == Integer.TYPE) {
+          o = Integer.valueOf(str);
+        } else if (field.getType() == Double.TYPE) {
+          o = Double.valueOf(str);
         } else if (field.getType() == Class.class) {
           try {
             o = classLoader.loadClass(str);
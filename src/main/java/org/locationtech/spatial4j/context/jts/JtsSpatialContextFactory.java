@@ -15,6 +15,7 @@ import org.locationtech.spatial4j.io.LegacyShapeWriter;
 import org.locationtech.spatial4j.io.PolyshapeReader;
 import org.locationtech.spatial4j.io.WKTReader;
 import org.locationtech.spatial4j.io.jts.*;
+import org.locationtech.spatial4j.shape.jts.JtsCirclePolygonizer;
 import org.locationtech.spatial4j.shape.jts.JtsShapeFactory;
 import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
 import com.vividsolutions.jts.geom.GeometryFactory;
@@ -22,6 +23,7 @@ import com.vividsolutions.jts.geom.PrecisionModel;
 import com.vividsolutions.jts.geom.impl.CoordinateArraySequenceFactory;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * See {@link SpatialContextFactory#makeSpatialContext(java.util.Map, ClassLoader)}.
@@ -46,7 +48,14 @@ import java.util.Map;
  *  -- see {@link com.vividsolutions.jts.geom.PrecisionModel#getScale()}</DD>
  * <DT>useJtsPoint, useJtsLineString, useJtsMulti</DT>
  * <DD>All default to true. See corresponding methods on {@link JtsShapeFactory}.</DD>
+ * <DT>geodesicCircleRelate</DT>
+ * <DD>true|false(default) -- see {@link JtsShapeFactory#isGeodesicCircleRelate()}</DD>
+ * <DT>circleMaxErrorRatio, circleMaxError, circleCacheMaxVertexes</DT>
+ * <DD>How circles are converted to polygons
+ *  -- see {@link JtsCirclePolygonizer}</DD>
  * </DL>
+ * The {@link #constructionExecutor} can only be set programmatically; see
+ * {@link JtsShapeFactory#getConstructionExecutor()}.
  */
 public class JtsSpatialContextFactory extends SpatialContextFactory {
 
@@ -68,6 +77,12 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
   public boolean useJtsPoint = true;
   public boolean useJtsLineString = true;
   public boolean useJtsMulti = true;
+  public boolean geodesicCircleRelate = false;
+  public double circleMaxErrorRatio = JtsCirclePolygonizer.DEFAULT_MAX_ERROR_RATIO;
+  public double circleMaxError = Double.POSITIVE_INFINITY;
+  public int circleCacheMaxVertexes = JtsCirclePolygonizer.DEFAULT_CACHE_MAX_VERTEXES;
+  /** If non-null, used to construct JtsGeometry in parallel. Not settable via args. */
+  public Executor constructionExecutor = null;
 
   public JtsSpatialContextFactory() {
     super.shapeFactoryClass = JtsShapeFactory.class;
@@ -101,6 +116,10 @@ public class JtsSpatialContextFactory extends SpatialContextFactory {
     initField("useJtsPoint");
     initField("useJtsLineString");
     initField("useJtsMulti");
+    initField("geodesicCircleRelate");
+    initField("circleMaxErrorRatio");
+    initField("circleMaxError");
+    initField("circleCacheMaxVertexes");
 
     String scaleStr = args.get("precisionScale");
     String modelStr = args.get("precisionModel");
@@ -9,6 +9,7 @@
 package org.locationtech.spatial4j.distance;
 
 import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
 
 /**
  */
@@ -19,6 +20,33 @@ public abstract class AbstractDistanceCalculator implements DistanceCalculator {
     return distance(from, to.getX(), to.getY());
   }
 
+  /**
+   * The distance between <code>from</code> and the nearest point of <code>to</code>; 0 if it's
+   * within.  In a geo context the rectangle may cross the dateline.  For any calculator, use
+   * {@link DistanceUtils#distance(DistanceCalculator, Point, Rectangle)}.
+   * <p>
+   * Derived from {@link #distance(Point, double, double)}, so it suits both a plane and a sphere:
+   * if the point's longitude is within the rectangle's, the nearest point is straight north or
+   * south; otherwise it's on one of the two vertical edges.
+   * Subclasses may override with a closed form.
+   */
+  public double distance(Point from, Rectangle to) {
+    return DistanceUtils.distanceToRectangleEdges(this, from, to);
+  }
+
+  /**
+   * The distance between <code>from</code> and the nearest point of the line segment from
+   * <code>Point(vX,vY)</code> to <code>Point(wX,wY)</code>.  For any calculator, use
+   * {@link DistanceUtils#distanceToLineSegment(DistanceCalculator, Point, double, double, double, double)}.
+   * <p>
+   * Derived from {@link #distance(Point, double, double)} along a segment that's straight in
+   * degrees; see {@link DistanceUtils#distanceToStraightSegment}.  That's exact in a plane, but
+   * a geodesic calculator should override it to follow the great circle.
+   */
+  public double distanceToLineSegment(Point from, double vX, double vY, double wX, double wY) {
+    return DistanceUtils.distanceToStraightSegment(this, from, vX, vY, wX, wY);
+  }
+
   @Override
   public boolean within(Point from, double toX, double toY, double distance) {
     return distance(from, toX, toY) <= distance;
@@ -57,7 +57,7 @@ public class CartesianDistCalc extends AbstractDistanceCalculator {
    * Distance from point to a line segment formed between points 'v' and 'w'.
    * It respects the "squared" option.
    */
-  // TODO add to generic DistanceCalculator and develop geo versions.
+  @Override
   public double distanceToLineSegment(Point point, double vX, double vY, double wX, double wY) {
     // Translated from: http://bl.ocks.org/mbostock/4218871
     double d = distanceSquared(vX, vY, wX, wY);
@@ -83,6 +83,20 @@ public class CartesianDistCalc extends AbstractDistanceCalculator {
     return distance(point, toX, toY);
   }
 
+  /** It respects the "squared" option. */
+  @Override
+  public double distance(Point from, Rectangle to) {
+    if (to.isEmpty())
+      return Double.NaN;
+    final double x = from.getX(), y = from.getY();
+    final double deltaX = x < to.getMinX() ? to.getMinX() - x : x > to.getMaxX() ? x - to.getMaxX() : 0;
+    final double deltaY = y < to.getMinY() ? to.getMinY() - y : y > to.getMaxY() ? y - to.getMaxY() : 0;
+    final double xSquaredPlusYSquared = deltaX*deltaX + deltaY*deltaY;
+    if (squared)
+      return xSquaredPlusYSquared;
+    return Math.sqrt(xSquaredPlusYSquared);
+  }
+
   @Override
   public boolean within(Point from, double toX, double toY, double distance) {
     double deltaX = from.getX() - toX;
@@ -390,6 +390,90 @@ public class DistanceUtils {
     return result;
   }
 
+  /**
+   * The distance, per <code>calc</code>, between <code>from</code> and the nearest point of
+   * <code>to</code>; 0 if it's within.  It's {@link AbstractDistanceCalculator#distance(Point, Rectangle)}
+   * for calculators that have it, else derived the same way from the distance between points.
+   */
+  public static double distance(DistanceCalculator calc, Point from, Rectangle to) {
+    if (calc instanceof AbstractDistanceCalculator)
+      return ((AbstractDistanceCalculator) calc).distance(from, to);
+    return distanceToRectangleEdges(calc, from, to);
+  }
+
+  /**
+   * If the point's longitude is within the rectangle's, the nearest point is straight north or
+   * south; otherwise it's on one of the two vertical edges.
+   */
+  static double distanceToRectangleEdges(DistanceCalculator calc, Point from, Rectangle to) {
+    if (to.isEmpty())
+      return Double.NaN;
+    final double x = from.getX(), y = from.getY();
+    final double minX = to.getMinX(), maxX = to.getMaxX(), minY = to.getMinY(), maxY = to.getMaxY();
+    final boolean inXRange = to.getCrossesDateLine() ? (x >= minX || x <= maxX) : (x >= minX && x <= maxX);
+    if (inXRange)
+      return y > maxY ? calc.distance(from, x, maxY) : y < minY ? calc.distance(from, x, minY) : 0;
+    return Math.min(distanceToStraightSegment(calc, from, minX, minY, minX, maxY),
+        distanceToStraightSegment(calc, from, maxX, minY, maxX, maxY));
+  }
+
+  /**
+   * The distance, per <code>calc</code>, between <code>from</code> and the nearest point of the
+   * line segment from <code>Point(vX,vY)</code> to <code>Point(wX,wY)</code>.  It's
+   * {@link AbstractDistanceCalculator#distanceToLineSegment} for calculators that have it, else
+   * {@link #distanceToStraightSegment}.
+   */
+  public static double distanceToLineSegment(DistanceCalculator calc, Point from,
+                                             double vX, double vY, double wX, double wY) {
+    if (calc instanceof AbstractDistanceCalculator)
+      return ((AbstractDistanceCalculator) calc).distanceToLineSegment(from, vX, vY, wX, wY);
+    return distanceToStraightSegment(calc, from, vX, vY, wX, wY);
+  }
+
+  /**
+   * The minimum distance, per <code>calc</code>, from <code>from</code> to the segment from
+   * <code>Point(vX,vY)</code> to <code>Point(wX,wY)</code> that is straight in degrees, as opposed to
+   * following a great circle.  The segment is sampled coarsely and then the nearest sample's
+   * neighborhood is narrowed by golden-section search, so it's exact (to floating point) unless the
+   * distance has more than one local minimum along a sixteenth of the segment.
+   */
+  public static double distanceToStraightSegment(DistanceCalculator calc, Point from,
+                                                 double vX, double vY, double wX, double wY) {
+    final int samples = 16;
+    final double dX = wX - vX, dY = wY - vY;
+    int nearest = 0;
+    double min = calc.distance(from, vX, vY);
+    for (int i = 1; i <= samples; i++) {
+      final double dist = calc.distance(from, vX + dX * i / samples, vY + dY * i / samples);
+      if (dist < min) {
+        min = dist;
+        nearest = i;
+      }
+    }
+    if (min == 0 || (dX == 0 && dY == 0))
+      return min;
+    final double invPhi = (Math.sqrt(5) - 1) / 2;
+    double lo = Math.max(0, nearest - 1) / (double) samples, hi = Math.min(samples, nearest + 1) / (double) samples;
+    double t1 = hi - invPhi * (hi - lo), t2 = lo + invPhi * (hi - lo);
+    double d1 = calc.distance(from, vX + dX * t1, vY + dY * t1), d2 = calc.distance(from, vX + dX * t2, vY + dY * t2);
+    for (int i = 0; i < 60; i++) {//shrinks the bracket by 1e-13
+      if (d1 < d2) {
+        hi = t2;
+        t2 = t1;
+        d2 = d1;
+        t1 = hi - invPhi * (hi - lo);
+        d1 = calc.distance(from, vX + dX * t1, vY + dY * t1);
+      } else {
+        lo = t1;
+        t1 = t2;
+        d1 = d2;
+        t2 = lo + invPhi * (hi - lo);
+        d2 = calc.distance(from, vX + dX * t2, vY + dY * t2);
+      }
+    }
+    return Math.min(min, Math.min(d1, d2));
+  }
+
   /**
    *
    * @param lat1     The y coordinate of the first point, in radians
@@ -85,6 +85,71 @@ public abstract class GeodesicSphereDistCalc extends AbstractDistanceCalculator
 
   protected abstract double distanceLatLonRAD(double lat1, double lon1, double lat2, double lon2);
 
+  /**
+   * Distance from point to the great circle arc between points 'v' and 'w' (the shorter way
+   * around). It's the geodesic counterpart to
+   * {@link CartesianDistCalc#distanceToLineSegment(Point, double, double, double, double)}.
+   */
+  @Override
+  public double distanceToLineSegment(Point point, double vX, double vY, double wX, double wY) {
+    // with unit vectors: project the point onto the great circle's plane, and see if that's on the
+    // arc; else the nearest point is an end.  Unlike cross-track & along-track distances, this
+    // holds for points more than 90 degrees away.
+    final double cosLatV = Math.cos(toRadians(vY)), cosLatW = Math.cos(toRadians(wY));
+    final double v0 = cosLatV * Math.cos(toRadians(vX)), v1 = cosLatV * Math.sin(toRadians(vX)), v2 = Math.sin(toRadians(vY));
+    final double w0 = cosLatW * Math.cos(toRadians(wX)), w1 = cosLatW * Math.sin(toRadians(wX)), w2 = Math.sin(toRadians(wY));
+    double n0 = v1 * w2 - v2 * w1, n1 = v2 * w0 - v0 * w2, n2 = v0 * w1 - v1 * w0;
+    final double nLength = Math.sqrt(n0 * n0 + n1 * n1 + n2 * n2);
+    if (nLength > 1e-12) {//else v & w are the same (or antipodal, which is ambiguous)
+      n0 /= nLength;
+      n1 /= nLength;
+      n2 /= nLength;
+      final double cosLat = Math.cos(toRadians(point.getY()));
+      final double p0 = cosLat * Math.cos(toRadians(point.getX())), p1 = cosLat * Math.sin(toRadians(point.getX())),
+          p2 = Math.sin(toRadians(point.getY()));
+      final double pDotN = p0 * n0 + p1 * n1 + p2 * n2;
+      final double c0 = p0 - pDotN * n0, c1 = p1 - pDotN * n1, c2 = p2 - pDotN * n2;
+      // c is between v & w if both (v x c) and (c x w) point the same way as n
+      final double vCrossCDotN = (v1 * c2 - v2 * c1) * n0 + (v2 * c0 - v0 * c2) * n1 + (v0 * c1 - v1 * c0) * n2;
+      final double cCrossWDotN = (c1 * w2 - c2 * w1) * n0 + (c2 * w0 - c0 * w2) * n1 + (c0 * w1 - c1 * w0) * n2;
+      if (vCrossCDotN >= 0 && cCrossWDotN >= 0)
+        return toDegrees(Math.atan2(Math.abs(pDotN), Math.sqrt(c0 * c0 + c1 * c1 + c2 * c2)));
+    }
+    return Math.min(distance(point, vX, vY), distance(point, wX, wY));
+  }
+
+  /**
+   * Distance from point to the meridian at {@code lonDEG}, between two latitudes.  With the
+   * spherical law of cosines, the cosine of the distance to latitude φ is {@code a sin φ + b cos φ},
+   * a sinusoid whose maximum (the nearest point) is at {@code atan2(a, b)} if that's in range, else
+   * at an end.
+   */
+  private double distanceToMeridian(Point point, double lonDEG, double minLatDEG, double maxLatDEG) {
+    final double lat = toRadians(point.getY());
+    final double a = Math.sin(lat), b = Math.cos(lat) * Math.cos(toRadians(point.getX() - lonDEG));
+    final double nearestLatDEG = toDegrees(Math.atan2(a, b));
+    if (nearestLatDEG > minLatDEG && nearestLatDEG < maxLatDEG)
+      return distance(point, lonDEG, nearestLatDEG);
+    return Math.min(distance(point, lonDEG, minLatDEG), distance(point, lonDEG, maxLatDEG));
+  }
+
+  /**
+   * If the point's longitude is within the rectangle's, the nearest point is straight north or
+   * south.  Otherwise it's on the nearer of the two meridian edges, since the distance along a
+   * parallel only grows away from the point's longitude.
+   */
+  @Override
+  public double distance(Point from, Rectangle to) {
+    if (to.isEmpty())
+      return Double.NaN;
+    final double x = from.getX(), y = from.getY();
+    final double minX = to.getMinX(), maxX = to.getMaxX(), minY = to.getMinY(), maxY = to.getMaxY();
+    final boolean inXRange = to.getCrossesDateLine() ? (x >= minX || x <= maxX) : (x >= minX && x <= maxX);
+    if (inXRange)
+      return y > maxY ? y - maxY : y < minY ? minY - y : 0;
+    return Math.min(distanceToMeridian(from, minX, minY, maxY), distanceToMeridian(from, maxX, minY, maxY));
+  }
+
   public static class Haversine extends GeodesicSphereDistCalc {
 
     @Override
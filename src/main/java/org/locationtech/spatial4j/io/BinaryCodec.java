@@ -16,10 +16,18 @@ import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.ShapeFactory;
+import org.locationtech.spatial4j.shape.impl.BBoxCalculator;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 /**
@@ -27,6 +35,16 @@ import java.util.ArrayList;
  * Binary (WKB). The initial release is simple but it could get more optimized to use fewer bytes or
  * to write &amp; read pre-computed index structures.
  * <p>
+ * If {@link SpatialContextFactory#binaryCodecPrecision} is set, shapes are written in a compact
+ * form, in the spirit of TWKB: a leading {@link #FORMAT_COMPACT} byte and the precision, then the
+ * same structure, but with each coordinate rounded to that many decimal places and written as the
+ * zig-zag varint of its difference from the previous X or Y.  Nearby coordinates thus take a byte
+ * or two each instead of eight.  Either form is read regardless of the setting.
+ * <p>
+ * A shape written as a record, by {@link #writeRecord(DataOutput, Shape)}, is preceded by a header
+ * with its bounding box, so that {@link #readLazyShape(ByteBuffer, boolean)} can answer most
+ * relations without decoding it.
+ * <p>
  * Immutable and thread-safe.
  */
 public class BinaryCodec {
@@ -38,17 +56,49 @@ public class BinaryCodec {
       TYPE_COLL = 4,
       TYPE_GEOM = 5;
 
+  /** Leads a shape in the compact form (version 1); no type uses it. */
+  protected static final byte FORMAT_COMPACT = (byte) 0x81;
+
+  /** Leads a record with a bounding box header; see {@link #writeRecord(DataOutput, Shape)}. */
+  protected static final byte FORMAT_BBOX = (byte) 0x82;
+
+  /** The size of a record's header: the leading byte, the shape's length, and its bounding box. */
+  public static final int RECORD_HEADER_SIZE = 1 + 4 + 4 * 8;
+
+  /** The maximum {@link SpatialContextFactory#binaryCodecPrecision}. */
+  public static final int MAX_PRECISION = 15;
+
   //TODO support BufferedLineString
 
   protected final SpatialContext ctx;
+  /** Decimal places kept by the compact form, or -1 to write full doubles. */
+  protected final int precision;
 
   //This constructor is mandated by SpatialContextFactory
   public BinaryCodec(SpatialContext ctx, SpatialContextFactory factory) {
     this.ctx = ctx;
+    this.precision = factory == null ? -1 : factory.binaryCodecPrecision;
+    if (precision < -1 || precision > MAX_PRECISION)
+      throw new IllegalArgumentException("binaryCodecPrecision must be -1 to " + MAX_PRECISION + ": " + precision);
   }
 
   public Shape readShape(DataInput dataInput) throws IOException {
-    byte type = dataInput.readByte();
+    return readShape(dataInput, dataInput.readByte());
+  }
+
+  /** Reads the shape whose first byte, {@code type}, has been read. */
+  private Shape readShape(DataInput dataInput, byte type) throws IOException {
+    if (type == FORMAT_BBOX) {//a record; the header isn't needed
+      dataInput.readInt();
+      for (int i = 0; i < 4; i++) {
+        dataInput.readDouble();
+      }
+      type = dataInput.readByte();
+    }
+    if (type == FORMAT_COMPACT && !(dataInput instanceof CompactDataInput)) {
+      dataInput = new CompactDataInput(dataInput, dataInput.readByte());
+      type = dataInput.readByte();
+    }
     Shape s = readShapeByTypeIfSupported(dataInput, type);
     if (s == null)
       throw new IllegalArgumentException("Unsupported shape byte "+type);
@@ -56,11 +106,240 @@ public class BinaryCodec {
   }
 
   public void writeShape(DataOutput dataOutput, Shape s) throws IOException {
+    dataOutput = toCompactOutput(dataOutput);
     boolean written = writeShapeByTypeIfSupported(dataOutput, s);
     if (!written)
       throw new IllegalArgumentException("Unsupported shape "+s.getClass());
   }
 
+  /**
+   * Reads a shape at the buffer's position, advancing it.  The buffer may be a heap, direct or
+   * memory-mapped one; it's read in place, in its {@link ByteBuffer#order()}.  A big-endian buffer
+   * (the default) holds the same bytes as {@link #writeShape(DataOutput, Shape)} writes.
+   *
+   * @throws java.io.EOFException if the buffer ends first.
+   */
+  public Shape readShape(ByteBuffer buffer) throws IOException {
+    return readShape(new ByteBufferDataIO(buffer));
+  }
+
+  /**
+   * Writes the shape at the buffer's position, advancing it, in the buffer's
+   * {@link ByteBuffer#order()}.
+   *
+   * @throws java.nio.BufferOverflowException if the buffer hasn't room.
+   * @see #readShape(ByteBuffer)
+   */
+  public void writeShape(ByteBuffer buffer, Shape s) throws IOException {
+    writeShape(new ByteBufferDataIO(buffer), s);
+  }
+
+  /**
+   * Writes the shape as a record: a fixed-size header of {@link #RECORD_HEADER_SIZE} bytes with
+   * the shape's length and bounding box (full doubles, in the order of
+   * {@link #writeRect(DataOutput, Rectangle)}), then the shape as
+   * {@link #writeShape(DataOutput, Shape)} writes it.  {@link #readShape(DataInput)} reads it, and
+   * {@link #readLazyShape(ByteBuffer, boolean)} decodes the shape only when it must.
+   */
+  public void writeRecord(final DataOutput dataOutput, Shape s) throws IOException {
+    if (dataOutput instanceof ByteBufferDataIO) {
+      writeRecord(((ByteBufferDataIO) dataOutput).getBuffer(), s);
+      return;
+    }
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    DataOutput bodyOutput = toCompactOutput(new DataOutputStream(body));
+    writeShape(bodyOutput, s);
+    Rectangle bbox = recordBBox(s, bodyOutput);
+    dataOutput.writeByte(FORMAT_BBOX);
+    dataOutput.writeInt(body.size());
+    dataOutput.writeDouble(bbox.getMinX());
+    dataOutput.writeDouble(bbox.getMaxX());
+    dataOutput.writeDouble(bbox.getMinY());
+    dataOutput.writeDouble(bbox.getMaxY());
+    body.writeTo(new OutputStream() {//without copying it again
+      @Override
+      public void write(int b) throws IOException {
+        dataOutput.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        dataOutput.write(b, off, len);
+      }
+    });
+  }
+
+  /** @see #writeRecord(DataOutput, Shape) */
+  public void writeRecord(ByteBuffer buffer, Shape s) throws IOException {
+    final int start = buffer.position();
+    if (buffer.remaining() < RECORD_HEADER_SIZE)
+      throw new BufferOverflowException();
+    buffer.position(start + RECORD_HEADER_SIZE);
+    DataOutput bodyOutput = toCompactOutput(new ByteBufferDataIO(buffer));
+    writeShape(bodyOutput, s);
+    final int length = buffer.position() - start - RECORD_HEADER_SIZE;
+    Rectangle bbox = recordBBox(s, bodyOutput);
+    buffer.put(start, FORMAT_BBOX);
+    buffer.putInt(start + 1, length);
+    buffer.putDouble(start + 5, bbox.getMinX());
+    buffer.putDouble(start + 13, bbox.getMaxX());
+    buffer.putDouble(start + 21, bbox.getMinY());
+    buffer.putDouble(start + 29, bbox.getMaxY());
+  }
+
+  /** Leads with the compact form's header and wraps the output in it, if it's used and not yet begun. */
+  private DataOutput toCompactOutput(DataOutput dataOutput) throws IOException {
+    if (precision < 0 || dataOutput instanceof CompactDataOutput)
+      return dataOutput;
+    dataOutput.writeByte(FORMAT_COMPACT);
+    dataOutput.writeByte(precision);
+    return new CompactDataOutput(dataOutput, precision);
+  }
+
+  /** The shape's bounding box; that of the shape as written if the compact form rounds it. */
+  private Rectangle recordBBox(Shape s, DataOutput bodyOutput) {
+    if (!(bodyOutput instanceof CompactDataOutput))
+      return s.getBoundingBox();
+    return roundBBox(s, (CompactDataOutput) bodyOutput);
+  }
+
+  /**
+   * The bounding box of the shape as the compact form reads it back, without decoding it.  Rounding
+   * keeps order, so the box of the rounded vertexes is the rounded box; a circle's box derives from
+   * its rounded center and radius instead.
+   */
+  private Rectangle roundBBox(Shape s, CompactDataOutput out) {
+    if (s instanceof Circle) {
+      final Circle circle = (Circle) s;
+      return ctx.getShapeFactory().circle(out.round(circle.getCenter().getX()),
+          out.round(circle.getCenter().getY()), out.round(circle.getRadius())).getBoundingBox();
+    }
+    if (s instanceof ShapeCollection && !s.isEmpty()) {
+      final BBoxCalculator bboxCalc = new BBoxCalculator(ctx);
+      for (Shape member : ((ShapeCollection<?>) s).getShapes()) {
+        bboxCalc.expandRange(roundBBox(member, out));
+      }
+      return bboxCalc.getBoundary();
+    }
+    final Rectangle bbox = s.getBoundingBox();
+    return ctx.getShapeFactory().rect(out.round(bbox.getMinX()), out.round(bbox.getMaxX()),
+        out.round(bbox.getMinY()), out.round(bbox.getMaxY()));
+  }
+
+  /**
+   * Reads a record (see {@link #writeRecord(DataOutput, Shape)}) at the buffer's position,
+   * advancing it past, as a {@link LazyShape} over the buffer's bytes, which therefore must not
+   * change while it's in use.  A shape without the header is read as usual instead.
+   *
+   * @param cacheDecoded whether the LazyShape keeps the shape once it's decoded.
+   */
+  public Shape readLazyShape(ByteBuffer buffer, boolean cacheDecoded) throws IOException {
+    final int start = buffer.position();
+    if (!buffer.hasRemaining() || buffer.get(start) != FORMAT_BBOX)
+      return readShape(buffer);
+    if (buffer.remaining() < RECORD_HEADER_SIZE)
+      throw new EOFException("Truncated record header");
+    final int length = buffer.getInt(start + 1);
+    final int end = start + RECORD_HEADER_SIZE + length;
+    if (length < 0 || end > buffer.limit())
+      throw new EOFException("Record of " + length + " bytes exceeds the buffer");
+    Rectangle bbox = readRecordBBox(buffer, start);
+    ByteBuffer body = buffer.duplicate();
+    body.position(start + RECORD_HEADER_SIZE).limit(end);
+    buffer.position(end);
+    return new LazyShape(this, body.slice().order(buffer.order()), bbox, cacheDecoded);
+  }
+
+  /**
+   * Reads a record into a {@link LazyShape} over a copy of its bytes, or reads the shape as usual
+   * if it hasn't the header.
+   *
+   * @see #readLazyShape(ByteBuffer, boolean)
+   */
+  public Shape readLazyShape(DataInput dataInput, boolean cacheDecoded) throws IOException {
+    if (dataInput instanceof ByteBufferDataIO)
+      return readLazyShape(((ByteBufferDataIO) dataInput).getBuffer(), cacheDecoded);
+    byte[] header = new byte[RECORD_HEADER_SIZE];
+    header[0] = dataInput.readByte();
+    if (header[0] != FORMAT_BBOX)
+      return readShape(dataInput, header[0]);
+    dataInput.readFully(header, 1, RECORD_HEADER_SIZE - 1);
+    ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+    final int length = headerBuffer.getInt(1);
+    if (length < 0)
+      throw new IOException("Negative record length " + length);
+    byte[] body = new byte[length];
+    dataInput.readFully(body);
+    return new LazyShape(this, ByteBuffer.wrap(body), readRecordBBox(headerBuffer, 0), cacheDecoded);
+  }
+
+  private Rectangle readRecordBBox(ByteBuffer buffer, int start) {
+    return ctx.getShapeFactory().rect(buffer.getDouble(start + 5), buffer.getDouble(start + 13),
+        buffer.getDouble(start + 21), buffer.getDouble(start + 29));
+  }
+
+  /**
+   * Puts a non-empty shape in the columns of a {@link ShapeBatch}, returning its kind, or returns
+   * {@link ShapeBatch#OTHER} to keep it as is.  Points, rectangles, circles, and collections of
+   * points are supported here.
+   */
+  protected byte writeBatchShape(ShapeBatch.Builder builder, Shape s) {
+    if (s instanceof Point) {
+      builder.startPart();
+      builder.startRing();
+      builder.addCoord(((Point) s).getX(), ((Point) s).getY());
+      return ShapeBatch.POINT;
+    } else if (s instanceof Rectangle) {
+      return ShapeBatch.RECTANGLE;
+    } else if (s instanceof Circle) {
+      Point center = ((Circle) s).getCenter();
+      builder.startPart();
+      builder.startRing();
+      builder.addCoord(center.getX(), center.getY());
+      builder.setRadius(((Circle) s).getRadius());
+      return ShapeBatch.CIRCLE;
+    } else if (s instanceof ShapeCollection) {
+      ShapeCollection<?> col = (ShapeCollection<?>) s;
+      for (Shape shape : col) {
+        if (!(shape instanceof Point) || shape.isEmpty())
+          return ShapeBatch.OTHER;
+      }
+      builder.startPart();
+      builder.startRing();
+      for (Shape shape : col) {
+        builder.addCoord(((Point) shape).getX(), ((Point) shape).getY());
+      }
+      return ShapeBatch.MULTIPOINT;
+    }
+    return ShapeBatch.OTHER;
+  }
+
+  /** Creates shape {@code i} of the batch, whose kind isn't OTHER, from its columns. */
+  protected Shape readBatchShape(ShapeBatch batch, int i) {
+    final double[] coords = batch.getCoords();
+    final int firstCoord = batch.getRingOffsets()[batch.getPartOffsets()[batch.getGeomOffsets()[i]]];
+    switch (batch.getKinds()[i]) {
+      case ShapeBatch.POINT:
+        return ctx.getShapeFactory().pointXY(coords[firstCoord * 2], coords[firstCoord * 2 + 1]);
+      case ShapeBatch.RECTANGLE: {
+        final double[] bboxes = batch.getBBoxes();
+        return ctx.getShapeFactory().rect(bboxes[i * 4], bboxes[i * 4 + 1], bboxes[i * 4 + 2], bboxes[i * 4 + 3]);
+      }
+      case ShapeBatch.CIRCLE:
+        return ctx.getShapeFactory().circle(coords[firstCoord * 2], coords[firstCoord * 2 + 1], batch.getRadii()[i]);
+      case ShapeBatch.MULTIPOINT: {
+        final int end = batch.getRingOffsets()[batch.getPartOffsets()[batch.getGeomOffsets()[i + 1]]];
+        ShapeFactory.MultiPointBuilder points = ctx.getShapeFactory().multiPoint();
+        for (int c = firstCoord; c < end; c++) {
+          points.pointXY(coords[c * 2], coords[c * 2 + 1]);
+        }
+        return points.build();
+      }
+      default:
+        throw new IllegalArgumentException("Unsupported batch shape kind " + batch.getKinds()[i]);
+    }
+  }
+
   protected Shape readShapeByTypeIfSupported(DataInput dataInput, byte type) throws IOException {
     switch (type) {
       case TYPE_POINT: return readPoint(dataInput);
@@ -105,12 +384,49 @@ public class BinaryCodec {
     }
   }
 
+  /** Reads an X or Y; they alternate so that each is relative to the last of its kind. */
   protected double readDim(DataInput dataInput) throws IOException {
+    if (dataInput instanceof CompactDataInput)
+      return ((CompactDataInput) dataInput).readCoordinate();
     return dataInput.readDouble();
   }
 
+  /** @see #readDim(DataInput) */
   protected void writeDim(DataOutput dataOutput, double v) throws IOException {
-    dataOutput.writeDouble(v);
+    if (dataOutput instanceof CompactDataOutput)
+      ((CompactDataOutput) dataOutput).writeCoordinate(v);
+    else
+      dataOutput.writeDouble(v);
+  }
+
+  /** Reads a distance, which, unlike {@link #readDim(DataInput)}, isn't relative to anything. */
+  protected double readDist(DataInput dataInput) throws IOException {
+    if (dataInput instanceof CompactDataInput)
+      return ((CompactDataInput) dataInput).readQuantized();
+    return readDim(dataInput);
+  }
+
+  /** @see #readDist(DataInput) */
+  protected void writeDist(DataOutput dataOutput, double v) throws IOException {
+    if (dataOutput instanceof CompactDataOutput)
+      ((CompactDataOutput) dataOutput).writeQuantized(v);
+    else
+      writeDim(dataOutput, v);
+  }
+
+  /** Reads a count, as a varint in the compact form. */
+  protected int readCount(DataInput dataInput) throws IOException {
+    if (dataInput instanceof CompactDataInput)
+      return (int) ((CompactDataInput) dataInput).readVarLong();
+    return dataInput.readInt();
+  }
+
+  /** @see #readCount(DataInput) */
+  protected void writeCount(DataOutput dataOutput, int count) throws IOException {
+    if (dataOutput instanceof CompactDataOutput)
+      ((CompactDataOutput) dataOutput).writeVarLong(count);
+    else
+      dataOutput.writeInt(count);
   }
 
   public Point readPoint(DataInput dataInput) throws IOException {
@@ -123,10 +439,21 @@ public class BinaryCodec {
   }
 
   public Rectangle readRect(DataInput dataInput) throws IOException {
+    if (dataInput instanceof CompactDataInput) {//corners, so X and Y alternate
+      double minX = readDim(dataInput), minY = readDim(dataInput);
+      return ctx.getShapeFactory().rect(minX, readDim(dataInput), minY, readDim(dataInput));
+    }
     return ctx.makeRectangle(readDim(dataInput), readDim(dataInput), readDim(dataInput), readDim(dataInput));
   }
 
   public void writeRect(DataOutput dataOutput, Rectangle r) throws IOException {
+    if (dataOutput instanceof CompactDataOutput) {
+      writeDim(dataOutput, r.getMinX());
+      writeDim(dataOutput, r.getMinY());
+      writeDim(dataOutput, r.getMaxX());
+      writeDim(dataOutput, r.getMaxY());
+      return;
+    }
     writeDim(dataOutput, r.getMinX());
     writeDim(dataOutput, r.getMaxX());
     writeDim(dataOutput, r.getMinY());
@@ -134,17 +461,17 @@ public class BinaryCodec {
   }
 
   public Circle readCircle(DataInput dataInput) throws IOException {
-    return ctx.makeCircle(readPoint(dataInput), readDim(dataInput));
+    return ctx.getShapeFactory().circle(readPoint(dataInput), readDist(dataInput));
   }
 
   public void writeCircle(DataOutput dataOutput, Circle c) throws IOException {
     writePoint(dataOutput, c.getCenter());
-    writeDim(dataOutput, c.getRadius());
+    writeDist(dataOutput, c.getRadius());
   }
 
   public ShapeCollection readCollection(DataInput dataInput) throws IOException {
     byte type = dataInput.readByte();
-    int size = dataInput.readInt();
+    int size = readCount(dataInput);
     ArrayList<Shape> shapes = new ArrayList<Shape>(size);
     for (int i = 0; i < size; i++) {
       if (type == 0) {
@@ -162,7 +489,7 @@ public class BinaryCodec {
   public void writeCollection(DataOutput dataOutput, ShapeCollection col) throws IOException {
     byte type = (byte) 0;//TODO add type to ShapeCollection
     dataOutput.writeByte(type);
-    dataOutput.writeInt(col.size());
+    writeCount(dataOutput, col.size());
     for (int i = 0; i < col.size(); i++) {
       Shape s = col.get(i);
       if (type == 0) {
@@ -175,4 +502,160 @@ public class BinaryCodec {
     }
   }
 
+  /** Quantizes values to the precision as longs; NaN and infinities get reserved values. */
+  private static final class Quantizer {
+    private static final long NAN = Long.MIN_VALUE, POSITIVE_INFINITY = Long.MAX_VALUE,
+        NEGATIVE_INFINITY = -Long.MAX_VALUE;
+    private static final double MAX_QUANTIZED = 1L << 62;
+
+    final double scale;
+
+    Quantizer(int precision) {
+      if (precision < 0 || precision > MAX_PRECISION)
+        throw new IllegalArgumentException("Bad precision " + precision);
+      this.scale = Math.pow(10, precision);
+    }
+
+    long quantize(double v) {
+      if (Double.isNaN(v))
+        return NAN;
+      if (Double.isInfinite(v))
+        return v > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+      double scaled = Math.rint(v * scale);
+      if (Math.abs(scaled) >= MAX_QUANTIZED)
+        throw new IllegalArgumentException("Value " + v + " is too large for the precision");
+      return (long) scaled;
+    }
+
+    double dequantize(long q) {
+      if (q == NAN)
+        return Double.NaN;
+      if (q == POSITIVE_INFINITY)
+        return Double.POSITIVE_INFINITY;
+      if (q == NEGATIVE_INFINITY)
+        return Double.NEGATIVE_INFINITY;
+      return q / scale;
+    }
+  }
+
+  /**
+   * INTERNAL: Reads the compact form: wraps a DataInput, holding the precision and the last X and
+   * Y for the coordinates that follow.
+   */
+  protected static class CompactDataInput implements DataInput {
+    private final DataInput in;
+    private final Quantizer quantizer;
+    private final long[] last = new long[2];//X, Y
+    private int dim;
+
+    public CompactDataInput(DataInput in, int precision) {
+      this.in = in;
+      this.quantizer = new Quantizer(precision);
+    }
+
+    /** Reads an unsigned LEB128 varint. */
+    public long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        final byte b = in.readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0)
+          return value;
+      }
+      throw new IOException("Malformed varint");
+    }
+
+    private long readZigZag() throws IOException {
+      final long zigZag = readVarLong();
+      return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /** Reads the next X or Y, alternately, each relative to the last. */
+    public double readCoordinate() throws IOException {
+      final long q = last[dim] + readZigZag();//wraps like the subtraction that wrote it
+      last[dim] = q;
+      dim ^= 1;
+      return quantizer.dequantize(q);
+    }
+
+    /** Reads a quantized value that isn't relative to another. */
+    public double readQuantized() throws IOException {
+      return quantizer.dequantize(readZigZag());
+    }
+
+    @Override public void readFully(byte[] b) throws IOException { in.readFully(b); }
+    @Override public void readFully(byte[] b, int off, int len) throws IOException { in.readFully(b, off, len); }
+    @Override public int skipBytes(int n) throws IOException { return in.skipBytes(n); }
+    @Override public boolean readBoolean() throws IOException { return in.readBoolean(); }
+    @Override public byte readByte() throws IOException { return in.readByte(); }
+    @Override public int readUnsignedByte() throws IOException { return in.readUnsignedByte(); }
+    @Override public short readShort() throws IOException { return in.readShort(); }
+    @Override public int readUnsignedShort() throws IOException { return in.readUnsignedShort(); }
+    @Override public char readChar() throws IOException { return in.readChar(); }
+    @Override public int readInt() throws IOException { return in.readInt(); }
+    @Override public long readLong() throws IOException { return in.readLong(); }
+    @Override public float readFloat() throws IOException { return in.readFloat(); }
+    @Override public double readDouble() throws IOException { return in.readDouble(); }
+    @Override @SuppressWarnings("deprecation") public String readLine() throws IOException { return in.readLine(); }
+    @Override public String readUTF() throws IOException { return in.readUTF(); }
+  }
+
+  /** INTERNAL: Writes the compact form. @see CompactDataInput */
+  protected static class CompactDataOutput implements DataOutput {
+    private final DataOutput out;
+    private final Quantizer quantizer;
+    private final long[] last = new long[2];//X, Y
+    private int dim;
+
+    public CompactDataOutput(DataOutput out, int precision) {
+      this.out = out;
+      this.quantizer = new Quantizer(precision);
+    }
+
+    /** Writes an unsigned LEB128 varint. */
+    public void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.writeByte((int) value);
+    }
+
+    private void writeZigZag(long value) throws IOException {
+      writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /** @see CompactDataInput#readCoordinate() */
+    public void writeCoordinate(double v) throws IOException {
+      final long q = quantizer.quantize(v);
+      writeZigZag(q - last[dim]);
+      last[dim] = q;
+      dim ^= 1;
+    }
+
+    /** @see CompactDataInput#readQuantized() */
+    public void writeQuantized(double v) throws IOException {
+      writeZigZag(quantizer.quantize(v));
+    }
+
+    /** The value as it will be read back, rounded to the precision. */
+    public double round(double v) {
+      return quantizer.dequantize(quantizer.quantize(v));
+    }
+
+    @Override public void write(int b) throws IOException { out.write(b); }
+    @Override public void write(byte[] b) throws IOException { out.write(b); }
+    @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+    @Override public void writeBoolean(boolean v) throws IOException { out.writeBoolean(v); }
+    @Override public void writeByte(int v) throws IOException { out.writeByte(v); }
+    @Override public void writeShort(int v) throws IOException { out.writeShort(v); }
+    @Override public void writeChar(int v) throws IOException { out.writeChar(v); }
+    @Override public void writeInt(int v) throws IOException { out.writeInt(v); }
+    @Override public void writeLong(long v) throws IOException { out.writeLong(v); }
+    @Override public void writeFloat(float v) throws IOException { out.writeFloat(v); }
+    @Override public void writeDouble(double v) throws IOException { out.writeDouble(v); }
+    @Override public void writeBytes(String s) throws IOException { out.writeBytes(s); }
+    @Override public void writeChars(String s) throws IOException { out.writeChars(s); }
+    @Override public void writeUTF(String s) throws IOException { out.writeUTF(s); }
+  }
 }
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * INTERNAL: A {@link DataInput} and {@link DataOutput} reading and writing directly at the
+ * position of a {@link ByteBuffer} -- heap, direct, or memory-mapped -- so that
+ * {@link BinaryCodec} and its subclasses work on buffers without stream wrappers or copies.
+ * <p>
+ * Unlike the contract of those interfaces, multi-byte values are in the buffer's
+ * {@link ByteBuffer#order()}, which is big-endian unless it was changed.  Reading past the limit
+ * throws {@link EOFException}; writing past it throws {@link BufferOverflowException}.
+ */
+public class ByteBufferDataIO implements DataInput, DataOutput {
+
+  /** Fewer doubles than this are transferred one at a time, which is cheaper than a view. */
+  private static final int BULK_THRESHOLD = 16;
+
+  private final ByteBuffer buffer;
+
+  public ByteBufferDataIO(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  public ByteBuffer getBuffer() {
+    return buffer;
+  }
+
+  public ByteOrder order() {
+    return buffer.order();
+  }
+
+  private void require(int numBytes) throws EOFException {
+    if (buffer.remaining() < numBytes)
+      throw new EOFException("Needed " + numBytes + " bytes; " + buffer.remaining() + " remain");
+  }
+
+  /** Reads {@code len} doubles into {@code dst}, in bulk through a {@link DoubleBuffer} view. */
+  public void readDoubles(double[] dst, int off, int len) throws IOException {
+    require(len * 8);
+    if (len < BULK_THRESHOLD) {
+      for (int i = off; i < off + len; i++) {
+        dst[i] = buffer.getDouble();
+      }
+    } else {
+      buffer.asDoubleBuffer().get(dst, off, len);//in the buffer's order
+      buffer.position(buffer.position() + len * 8);
+    }
+  }
+
+  /** Writes {@code len} doubles from {@code src}, in bulk through a {@link DoubleBuffer} view. */
+  public void writeDoubles(double[] src, int off, int len) {
+    if (len < BULK_THRESHOLD) {
+      for (int i = off; i < off + len; i++) {
+        buffer.putDouble(src[i]);
+      }
+    } else {
+      if (buffer.remaining() < len * 8)
+        throw new BufferOverflowException();
+      buffer.asDoubleBuffer().put(src, off, len);
+      buffer.position(buffer.position() + len * 8);
+    }
+  }
+
+  // DataInput
+
+  @Override
+  public void readFully(byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(byte[] b, int off, int len) throws IOException {
+    require(len);
+    buffer.get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(int n) {
+    final int skipped = Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return readByte() & 0xFF;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    require(2);
+    return buffer.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return readShort() & 0xFFFF;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    require(2);
+    return buffer.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    require(4);
+    return buffer.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    require(8);
+    return buffer.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    require(4);
+    return buffer.getFloat();
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    require(8);
+    return buffer.getDouble();
+  }
+
+  @Override
+  public String readLine() {
+    if (!buffer.hasRemaining())
+      return null;
+    StringBuilder line = new StringBuilder();
+    while (buffer.hasRemaining()) {
+      char c = (char) (buffer.get() & 0xFF);
+      if (c == '\n')
+        break;
+      if (c == '\r') {
+        if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n')
+          buffer.get();
+        break;
+      }
+      line.append(c);
+    }
+    return line.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return DataInputStream.readUTF(this);//the length is read with readUnsignedShort(), in our order
+  }
+
+  // DataOutput
+
+  @Override
+  public void write(int b) {
+    buffer.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b) {
+    buffer.put(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) {
+    buffer.put(b, off, len);
+  }
+
+  @Override
+  public void writeBoolean(boolean v) {
+    buffer.put((byte) (v ? 1 : 0));
+  }
+
+  @Override
+  public void writeByte(int v) {
+    buffer.put((byte) v);
+  }
+
+  @Override
+  public void writeShort(int v) {
+    buffer.putShort((short) v);
+  }
+
+  @Override
+  public void writeChar(int v) {
+    buffer.putChar((char) v);
+  }
+
+  @Override
+  public void writeInt(int v) {
+    buffer.putInt(v);
+  }
+
+  @Override
+  public void writeLong(long v) {
+    buffer.putLong(v);
+  }
+
+  @Override
+  public void writeFloat(float v) {
+    buffer.putFloat(v);
+  }
+
+  @Override
+  public void writeDouble(double v) {
+    buffer.putDouble(v);
+  }
+
+  @Override
+  public void writeBytes(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      buffer.put((byte) s.charAt(i));
+    }
+  }
+
+  @Override
+  public void writeChars(String s) {
+    for (int i = 0; i < s.length(); i++) {
+      buffer.putChar(s.charAt(i));
+    }
+  }
+
+  /** Modified UTF-8, as {@link java.io.DataOutputStream#writeUTF(String)}. */
+  @Override
+  public void writeUTF(String s) throws IOException {
+    int utfLength = 0;
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      utfLength += c >= 0x0001 && c <= 0x007F ? 1 : c > 0x07FF ? 3 : 2;
+    }
+    if (utfLength > 65535)
+      throw new UTFDataFormatException("encoded string too long: " + utfLength + " bytes");
+    writeShort(utfLength);
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c >= 0x0001 && c <= 0x007F) {
+        buffer.put((byte) c);
+      } else if (c > 0x07FF) {
+        buffer.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      } else {
+        buffer.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+  }
+}
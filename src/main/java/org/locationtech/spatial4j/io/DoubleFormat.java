@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+
+/**
+ * A {@link NumberFormat} for a fixed maximum number of fraction digits that writes a double's
+ * digits straight to an {@link Appendable}, without creating Strings.  The output is the same as
+ * that of a {@link DecimalFormat} for {@link Locale#ROOT} without grouping, as made by
+ * {@link LegacyShapeWriter#makeNumberFormat(int)}: the minimum and maximum fraction digits and the
+ * {@link RoundingMode} are honored.
+ * <p>
+ * The value scaled by 10^fractionDigits is rounded to an integer in double arithmetic, which is
+ * exact unless the scaled value is within a couple of ulps of a rounding boundary.  Those few
+ * values, and ones too large to scale into a long, NaN, infinities, and other settings (e.g.
+ * grouping), are formatted by a DecimalFormat created when first needed.
+ * <p>
+ * Like other NumberFormats, instances are not thread-safe.
+ *
+ * @see #append(Appendable, NumberFormat, double)
+ */
+public class DoubleFormat extends NumberFormat {
+
+  /** Beyond this (2^52), a scaled value's ulp is at least 1. */
+  private static final double MAX_SCALED = 4503599627370496d;
+
+  private static final long[] POWERS_OF_TEN = new long[16];
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+  }
+
+  private RoundingMode roundingMode = RoundingMode.HALF_EVEN;
+  private transient DecimalFormat decimalFormat;//lazily created
+
+  public DoubleFormat(int fractionDigits) {
+    setGroupingUsed(false);
+    setMaximumIntegerDigits(Integer.MAX_VALUE);
+    setMaximumFractionDigits(fractionDigits);
+    setMinimumFractionDigits(0);
+  }
+
+  /**
+   * Appends the formatted value to {@code out}, using the {@link DoubleFormat#append(Appendable,
+   * double)} fast path if {@code nf} is a DoubleFormat.
+   */
+  public static void append(Appendable out, NumberFormat nf, double value) throws IOException {
+    if (nf instanceof DoubleFormat)
+      ((DoubleFormat) nf).append(out, value);
+    else
+      out.append(nf.format(value));
+  }
+
+  /** @see #append(Appendable, NumberFormat, double) */
+  public static StringBuilder append(StringBuilder out, NumberFormat nf, double value) {
+    if (nf instanceof DoubleFormat)
+      ((DoubleFormat) nf).append(out, value);
+    else
+      out.append(nf.format(value));
+    return out;
+  }
+
+  /** Appends the formatted value to {@code out}. */
+  public void append(Appendable out, double value) throws IOException {
+    final long scaled = scale(value);
+    if (scaled < 0) {
+      out.append(decimalFormat().format(value));
+      return;
+    }
+    final int fractionDigits = getMaximumFractionDigits();
+    if (value < 0 || (value == 0 && 1 / value < 0))//DecimalFormat writes "-0" too
+      out.append('-');
+    appendDigits(out, scaled / POWERS_OF_TEN[fractionDigits], 1);
+    long fraction = scaled % POWERS_OF_TEN[fractionDigits];
+    int numDigits = fractionDigits;
+    final int minDigits = getMinimumFractionDigits();
+    while (numDigits > minDigits && fraction % 10 == 0) {
+      fraction /= 10;
+      numDigits--;
+    }
+    if (numDigits > 0) {
+      out.append('.');
+      appendDigits(out, fraction, numDigits);
+    }
+  }
+
+  /** @see #append(Appendable, double) */
+  public StringBuilder append(StringBuilder out, double value) {
+    try {
+      append((Appendable) out, value);
+    } catch (IOException e) {
+      throw new RuntimeException(e);//can't happen
+    }
+    return out;
+  }
+
+  /** Appends the digits of the non-negative {@code value}, zero-padded to {@code minDigits}. */
+  private static void appendDigits(Appendable out, long value, int minDigits) throws IOException {
+    int numDigits = 1;
+    while (numDigits < POWERS_OF_TEN.length && POWERS_OF_TEN[numDigits] <= value) {
+      numDigits++;
+    }
+    for (int i = Math.max(numDigits, minDigits) - 1; i >= 0; i--) {
+      out.append((char) ('0' + value / POWERS_OF_TEN[i] % 10));
+    }
+  }
+
+  /**
+   * The absolute value times 10^fractionDigits, rounded as a DecimalFormat would, or -1 if that
+   * isn't certain here.
+   */
+  private long scale(double value) {
+    final int fractionDigits = getMaximumFractionDigits();
+    if (fractionDigits >= POWERS_OF_TEN.length || isGroupingUsed()
+        || getMinimumIntegerDigits() != 1 || getMaximumIntegerDigits() < 309
+        || getMinimumFractionDigits() > fractionDigits)
+      return -1;
+    final double abs = Math.abs(value);
+    final double scaled = abs * POWERS_OF_TEN[fractionDigits];
+    if (!(scaled < MAX_SCALED))//also NaN
+      return -1;
+    final double floor = Math.floor(scaled);
+    final double fraction = scaled - floor;
+    // the shortest decimal of the value, scaled, is within 1.5 ulps of this scaled double
+    final double ulp = 2 * Math.ulp(scaled);
+    if (fraction <= ulp || fraction >= 1 - ulp) {
+      // Close to an integer.  DecimalFormat rounds the shortest decimal that parses to the value,
+      // which is that integer's if it parses to the value.
+      final long nearest = (long) Math.rint(scaled);
+      return nearest / (double) POWERS_OF_TEN[fractionDigits] == abs ? nearest : -1;
+    }
+    if (floor == 0 && fraction < 0.1 + ulp) {
+      // DecimalFormat writes zero in any rounding mode if the first digit is past the next one
+      return Math.abs(fraction - 0.1) <= ulp ? -1 : 0;
+    }
+    final boolean up;
+    switch (roundingMode) {
+      case HALF_EVEN: case HALF_UP: case HALF_DOWN:
+        if (Math.abs(fraction - 0.5) <= ulp)
+          return -1;
+        up = fraction > 0.5;
+        break;
+      case UP: up = true; break;
+      case DOWN: up = false; break;
+      case CEILING: up = value > 0; break;
+      case FLOOR: up = value < 0; break;
+      default: return -1;//UNNECESSARY
+    }
+    return (long) floor + (up ? 1 : 0);
+  }
+
+  private DecimalFormat decimalFormat() {
+    if (decimalFormat == null)
+      decimalFormat = (DecimalFormat) NumberFormat.getInstance(Locale.ROOT);
+    decimalFormat.setGroupingUsed(isGroupingUsed());
+    decimalFormat.setMinimumIntegerDigits(getMinimumIntegerDigits());
+    decimalFormat.setMaximumIntegerDigits(getMaximumIntegerDigits());
+    decimalFormat.setMaximumFractionDigits(getMaximumFractionDigits());
+    decimalFormat.setMinimumFractionDigits(getMinimumFractionDigits());
+    decimalFormat.setParseIntegerOnly(isParseIntegerOnly());
+    decimalFormat.setRoundingMode(roundingMode);
+    return decimalFormat;
+  }
+
+  @Override
+  public StringBuffer format(double number, StringBuffer toAppendTo, FieldPosition pos) {
+    if (scale(number) < 0)
+      return decimalFormat().format(number, toAppendTo, pos);
+    try {
+      append(toAppendTo, number);
+    } catch (IOException e) {
+      throw new RuntimeException(e);//can't happen
+    }
+    return toAppendTo;
+  }
+
+  @Override
+  public StringBuffer format(long number, StringBuffer toAppendTo, FieldPosition pos) {
+    return decimalFormat().format(number, toAppendTo, pos);
+  }
+
+  @Override
+  public Number parse(String source, ParsePosition parsePosition) {
+    return decimalFormat().parse(source, parsePosition);
+  }
+
+  @Override
+  public RoundingMode getRoundingMode() {
+    return roundingMode;
+  }
+
+  @Override
+  public void setRoundingMode(RoundingMode roundingMode) {
+    if (roundingMode == null)
+      throw new NullPointerException();
+    this.roundingMode = roundingMode;
+  }
+
+  @Override
+  public DoubleFormat clone() {
+    DoubleFormat clone = (DoubleFormat) super.clone();
+    clone.decimalFormat = null;
+    return clone;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return super.equals(obj) && roundingMode == ((DoubleFormat) obj).roundingMode;
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode() * 31 + roundingMode.hashCode();
+  }
+}
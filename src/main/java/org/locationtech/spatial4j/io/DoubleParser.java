@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+/**
+ * INTERNAL: Parses a decimal number directly from characters, without creating a String, to the
+ * same double as {@link Double#parseDouble(String)}.
+ * <p>
+ * A number whose significant digits fit in 2^53 and whose decimal exponent is within &plusmn;22
+ * (nearly every coordinate written by people or by {@link Double#toString(double)} of a value
+ * with few digits) is computed as a single multiplication or division of two exactly
+ * representable doubles, which IEEE 754 rounds correctly (Clinger's fast path).  Anything else,
+ * including malformed input, is handed to {@link Double#parseDouble(String)}.
+ */
+public class DoubleParser {
+
+  /** 2^53; larger integers aren't all exactly representable as a double. */
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private DoubleParser() {
+  }
+
+  /**
+   * Parses the characters from {@code start} (inclusive) to {@code end} (exclusive) of
+   * {@code chars}: an optional sign, digits with an optional decimal point, and an optional
+   * exponent.
+   *
+   * @throws NumberFormatException if the characters aren't a number.
+   */
+  public static double parseDouble(CharSequence chars, int start, int end) {
+    final double result = parseFast(chars, start, end);
+    if (!Double.isNaN(result))
+      return result;
+    return Double.parseDouble(chars.subSequence(start, end).toString());
+  }
+
+  /** Returns the correctly rounded value, or NaN if the fast path doesn't apply. */
+  private static double parseFast(CharSequence chars, int start, int end) {
+    int i = start;
+    if (i == end)
+      return Double.NaN;
+    final boolean negative = chars.charAt(i) == '-';
+    if (negative || chars.charAt(i) == '+')
+      i++;
+    long mantissa = 0;
+    int numSignificantDigits = 0;// digits after any leading zeros
+    int numDigits = 0;
+    int exponent = 0;
+    boolean pastPoint = false;
+    for (; i < end; i++) {
+      final char c = chars.charAt(i);
+      if (c >= '0' && c <= '9') {
+        numDigits++;
+        if (mantissa != 0 || c != '0') {
+          if (++numSignificantDigits > 18)
+            return Double.NaN;// might overflow a long, and is too long to be exact anyway
+          mantissa = mantissa * 10 + (c - '0');
+        }
+        if (pastPoint)
+          exponent--;
+      } else if (c == '.' && !pastPoint) {
+        pastPoint = true;
+      } else {
+        break;
+      }
+    }
+    if (numDigits == 0)
+      return Double.NaN;
+    if (i < end) {
+      final char c = chars.charAt(i++);
+      if (c != 'e' && c != 'E' || i == end)
+        return Double.NaN;
+      final boolean negativeExponent = chars.charAt(i) == '-';
+      if (negativeExponent || chars.charAt(i) == '+')
+        i++;
+      if (i == end)
+        return Double.NaN;
+      int explicitExponent = 0;
+      for (; i < end; i++) {
+        final char d = chars.charAt(i);
+        if (d < '0' || d > '9' || explicitExponent > 1000)
+          return Double.NaN;
+        explicitExponent = explicitExponent * 10 + (d - '0');
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    double result;
+    if (mantissa == 0) {
+      result = 0;
+    } else if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+      return Double.NaN;
+    } else if (exponent < 0) {
+      result = mantissa / POWERS_OF_TEN[-exponent];
+    } else {
+      result = mantissa * POWERS_OF_TEN[exponent];
+    }
+    return negative ? -result : result;
+  }
+}
@@ -17,13 +17,17 @@ import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeFactory;
 import org.noggit.JSONParser;
+import org.noggit.ObjectBuilder;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 public class GeoJSONReader implements ShapeReader {
 
@@ -68,6 +72,189 @@ public class GeoJSONReader implements ShapeReader {
     return null;
   }
 
+  /**
+   * Streams the features of a GeoJSON FeatureCollection, one at a time, so that memory use doesn't
+   * grow with the size of the document.  Members of the collection besides "features" are skipped,
+   * as is anything after the features.  The reader isn't closed.
+   *
+   * @param readProperties whether to read each feature's properties; if false they're skipped
+   *                       without being built, and {@link Feature#getProperties()} is null.
+   */
+  public FeatureIterator readFeatures(Reader reader, boolean readProperties) {
+    return new FeatureIterator(new JSONParser(reader), readProperties);
+  }
+
+  /** A GeoJSON Feature, as read by {@link #readFeatures(Reader, boolean)}. */
+  public static class Feature {
+    private final Shape shape;
+    private final Object id;
+    private final Map<String, Object> properties;
+
+    public Feature(Shape shape, Object id, Map<String, Object> properties) {
+      this.shape = shape;
+      this.id = id;
+      this.properties = properties;
+    }
+
+    /** The geometry; null if it's null in the document. */
+    public Shape getShape() {
+      return shape;
+    }
+
+    /** The id (a String, Long or Double); null if there's none. */
+    public Object getId() {
+      return id;
+    }
+
+    /**
+     * The properties, with values as built by noggit's ObjectBuilder (e.g. nested Maps and Lists);
+     * null if there are none or they weren't read.
+     */
+    public Map<String, Object> getProperties() {
+      return properties;
+    }
+
+    @Override
+    public String toString() {
+      return "Feature(id=" + id + " shape=" + shape + " properties=" + properties + ")";
+    }
+  }
+
+  /**
+   * Iterates the features of a FeatureCollection as they're parsed.  {@link #nextFeature()} throws
+   * the parsing exceptions; the {@link Iterator} methods wrap them in a RuntimeException.  Not
+   * thread-safe.
+   */
+  public class FeatureIterator implements Iterator<Feature> {
+    private final JSONParser parser;
+    private final boolean readProperties;
+    private boolean started = false;
+    private boolean done = false;
+    private Feature next;
+
+    FeatureIterator(JSONParser parser, boolean readProperties) {
+      this.parser = parser;
+      this.readProperties = readProperties;
+    }
+
+    /** Returns the next feature, or null if there are no more. */
+    public Feature nextFeature() throws IOException, ParseException {
+      if (next != null) {
+        Feature feature = next;
+        next = null;
+        return feature;
+      }
+      if (done)
+        return null;
+      if (!started) {
+        started = true;
+        if (!findFeatures()) {
+          done = true;
+          return null;
+        }
+      }
+      int evt = parser.nextEvent();
+      if (evt == JSONParser.ARRAY_END) {
+        done = true;
+        return null;
+      }
+      if (evt != JSONParser.OBJECT_START)
+        throw new ParseException("Expected a Feature object but got " + JSONParser.getEventString(evt),
+            (int) parser.getPosition());
+      return readFeature();
+    }
+
+    /** Advances into the "features" array of the root object; false if there's none. */
+    private boolean findFeatures() throws IOException, ParseException {
+      if (parser.nextEvent() != JSONParser.OBJECT_START)
+        throw new ParseException("Expected a FeatureCollection object", (int) parser.getPosition());
+      int evt = parser.nextEvent();
+      while (evt != JSONParser.OBJECT_END) {
+        final String key = readKey(evt);
+        evt = parser.nextEvent();
+        if ("features".equals(key) && evt == JSONParser.ARRAY_START)
+          return true;
+        skipValue(evt);
+        evt = parser.nextEvent();
+      }
+      return false;
+    }
+
+    private Feature readFeature() throws IOException, ParseException {
+      Shape shape = null;
+      Object id = null;
+      Map<String, Object> properties = null;
+      int evt = parser.nextEvent();
+      while (evt != JSONParser.OBJECT_END) {
+        final String key = readKey(evt);
+        evt = parser.nextEvent();
+        if ("geometry".equals(key) && evt == JSONParser.OBJECT_START) {
+          shape = readShape(parser);//through the geometry's OBJECT_END
+        } else if ("properties".equals(key) && evt == JSONParser.OBJECT_START && readProperties) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> map = (Map<String, Object>) ObjectBuilder.getVal(parser);
+          properties = map;
+        } else if ("id".equals(key) && evt != JSONParser.OBJECT_START && evt != JSONParser.ARRAY_START) {
+          id = ObjectBuilder.getVal(parser);
+        } else {
+          skipValue(evt);
+        }
+        evt = parser.nextEvent();
+      }
+      return new Feature(shape, id, properties);
+    }
+
+    private String readKey(int evt) throws IOException, ParseException {
+      if (evt != JSONParser.STRING || !parser.wasKey())
+        throw new ParseException("Expected a key but got " + JSONParser.getEventString(evt),
+            (int) parser.getPosition());
+      return parser.getString();
+    }
+
+    /** Skips the value that starts with {@code evt}, without building it. */
+    private void skipValue(int evt) throws IOException, ParseException {
+      int depth = 0;
+      while (true) {
+        if (evt == JSONParser.OBJECT_START || evt == JSONParser.ARRAY_START) {
+          depth++;
+        } else if (evt == JSONParser.OBJECT_END || evt == JSONParser.ARRAY_END) {
+          depth--;
+        } else if (evt == JSONParser.EOF) {
+          throw new ParseException("Unexpected EOF", (int) parser.getPosition());
+        }
+        if (depth == 0)
+          return;
+        evt = parser.nextEvent();
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        try {
+          next = nextFeature();
+        } catch (IOException | ParseException e) {
+          throw new RuntimeException("Unable to read feature: " + e, e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Feature next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      Feature feature = next;
+      next = null;
+      return feature;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
   // --------------------------------------------------------------
   // Read GeoJSON
   // --------------------------------------------------------------
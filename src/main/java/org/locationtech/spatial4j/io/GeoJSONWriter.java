@@ -42,7 +42,7 @@ public class GeoJSONWriter implements ShapeWriter {
       if (i > 0) {
         output.append(',');
       }
-      output.append(nf.format(coords[i]));
+      DoubleFormat.append(output, nf, coords[i]);
     }
     output.write(']');
   }
@@ -86,7 +86,7 @@ public class GeoJSONWriter implements ShapeWriter {
       if (v.getBuf() > 0) {
         output.append(',');
         output.append("\"buffer\":");
-        output.append(nf.format(v.getBuf()));
+        DoubleFormat.append(output, nf, v.getBuf());
       }
       output.append('}');
       return;
@@ -163,11 +163,11 @@ public class GeoJSONWriter implements ShapeWriter {
     if (isGeo) {
       double distKm =
           DistanceUtils.degrees2Dist(dist, DistanceUtils.EARTH_MEAN_RADIUS_KM);
-      output.append(nf.format(distKm));
+      DoubleFormat.append(output, nf, distKm);
       output.append(",\"properties\":{");
       output.append("\"").append(distUnitsProperty).append("\":\"km\"}");
     } else {
-      output.append(nf.format(dist));
+      DoubleFormat.append(output, nf, dist);
     }
   }
 
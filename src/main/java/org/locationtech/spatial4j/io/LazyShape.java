@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.exception.InvalidShapeException;
+import org.locationtech.spatial4j.shape.BaseShape;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.RelationCache;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A shape read from a {@link BinaryCodec} record that is decoded only when needed.  The bounding
+ * box comes from the record's header, so {@link #getBoundingBox()} is free, and {@link
+ * #relate(Shape)} answers DISJOINT, or WITHIN, when the bounding box alone says so.  Otherwise,
+ * and for anything else that depends on the actual shape, the record is decoded, and the result
+ * kept if so configured.
+ * <p>
+ * Thread-safe, if the record's bytes don't change.
+ *
+ * @see BinaryCodec#readLazyShape(ByteBuffer, boolean)
+ */
+public class LazyShape extends BaseShape<SpatialContext> {
+
+  private final BinaryCodec codec;
+  private final ByteBuffer record;//position 0 to limit; never moved
+  private final Rectangle bbox;
+  private final boolean cacheDecoded;
+  private volatile Shape decoded;
+
+  public LazyShape(BinaryCodec codec, ByteBuffer record, Rectangle bbox, boolean cacheDecoded) {
+    super(codec.ctx);
+    this.codec = codec;
+    this.record = record;
+    this.bbox = bbox;
+    this.cacheDecoded = cacheDecoded;
+  }
+
+  /** The decoded shape; it's decoded again each time unless the decoded shape is cached. */
+  public Shape getDecoded() {
+    Shape shape = decoded;
+    if (shape == null) {
+      try {
+        shape = codec.readShape(record.duplicate().order(record.order()));
+      } catch (IOException e) {
+        throw new InvalidShapeException("Couldn't decode the record", e);
+      }
+      if (cacheDecoded)
+        decoded = shape;
+    }
+    return shape;
+  }
+
+  /** Whether the shape has been decoded and cached. */
+  public boolean isDecoded() {
+    return decoded != null;
+  }
+
+  /** The encoded shape (without the header), read-only. */
+  public ByteBuffer getRecord() {
+    return record.asReadOnlyBuffer().order(record.order());
+  }
+
+  @Override
+  public Rectangle getBoundingBox() {
+    return bbox;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return bbox.isEmpty();
+  }
+
+  @Override
+  public SpatialRelation relate(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return SpatialRelation.DISJOINT;
+    final SpatialRelation bboxRelation = bbox.relate(other);
+    // the shape is within its bounding box, so it's disjoint from, or within, what that is
+    if (bboxRelation == SpatialRelation.DISJOINT || bboxRelation == SpatialRelation.WITHIN)
+      return bboxRelation;
+    return getDecoded().relate(other);
+  }
+
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || !ShapeUtils.intersects(bbox, other))
+      return false;
+    return ShapeUtils.intersects(getDecoded(), other);
+  }
+
+  @Override
+  public boolean contains(Shape other) {
+    if (isEmpty() || !ShapeUtils.intersects(bbox, other))
+      return false;
+    return ShapeUtils.contains(getDecoded(), other);
+  }
+
+  /** Delegates to the decoded shape, which may be equal to {@code other} when this isn't. */
+  @Override
+  public boolean within(Shape other) {
+    if (!isEmpty() && !ShapeUtils.intersects(bbox, other))
+      return false;
+    return ShapeUtils.within(getDecoded(), other);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    return ShapeUtils.contains(bbox, x, y) && ShapeUtils.contains(getDecoded(), x, y);
+  }
+
+  @Override
+  public double distance(Point from) {
+    return ShapeUtils.distance(getDecoded(), from);
+  }
+
+  @Override
+  public long getVertexCount() {
+    return RelationCache.vertexCount(getDecoded());
+  }
+
+  @Override
+  public boolean hasArea() {
+    return getDecoded().hasArea();
+  }
+
+  @Override
+  public double getArea(SpatialContext ctx) {
+    return getDecoded().getArea(ctx);
+  }
+
+  @Override
+  public Point getCenter() {
+    return getDecoded().getCenter();
+  }
+
+  @Override
+  public Shape getBuffered(double distance, SpatialContext ctx) {
+    return getDecoded().getBuffered(distance, ctx);
+  }
+
+  /**
+   * Equal to another LazyShape of an equal decoded shape.  It's never equal to the decoded shape
+   * itself, since that wouldn't be symmetric; compare {@link #getDecoded()} for that.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof LazyShape))
+      return false;
+    return getDecoded().equals(((LazyShape) o).getDecoded());
+  }
+
+  @Override
+  public int hashCode() {
+    return getDecoded().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "LazyShape(" + bbox + ")";
+  }
+}
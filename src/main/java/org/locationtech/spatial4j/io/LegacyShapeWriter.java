@@ -11,7 +11,6 @@ package org.locationtech.spatial4j.io;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.NumberFormat;
-import java.util.Locale;
 
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.SpatialContextFactory;
@@ -57,38 +56,37 @@ public class LegacyShapeWriter implements ShapeWriter {
 
   /** Overloaded to provide a number format. */
   public static String writeShape(Shape shape, NumberFormat nf) {
+    StringBuilder str = new StringBuilder();
     if (shape instanceof Point) {
       Point point = (Point) shape;
-      return nf.format(point.getX()) + " " + nf.format(point.getY());
+      DoubleFormat.append(str, nf, point.getX()).append(' ');
+      DoubleFormat.append(str, nf, point.getY());
     }
     else if (shape instanceof Rectangle) {
       Rectangle rect = (Rectangle)shape;
-      return
-          nf.format(rect.getMinX()) + " " +
-              nf.format(rect.getMinY()) + " " +
-              nf.format(rect.getMaxX()) + " " +
-              nf.format(rect.getMaxY());
+      DoubleFormat.append(str, nf, rect.getMinX()).append(' ');
+      DoubleFormat.append(str, nf, rect.getMinY()).append(' ');
+      DoubleFormat.append(str, nf, rect.getMaxX()).append(' ');
+      DoubleFormat.append(str, nf, rect.getMaxY());
     }
     else if (shape instanceof Circle) {
       Circle c = (Circle) shape;
-      return "Circle(" +
-          nf.format(c.getCenter().getX()) + " " +
-          nf.format(c.getCenter().getY()) + " " +
-          "d=" + nf.format(c.getRadius()) +
-          ")";
+      str.append("Circle(");
+      DoubleFormat.append(str, nf, c.getCenter().getX()).append(' ');
+      DoubleFormat.append(str, nf, c.getCenter().getY()).append(" d=");
+      DoubleFormat.append(str, nf, c.getRadius()).append(')');
     }
-    return shape.toString();
+    else {
+      return shape.toString();
+    }
+    return str.toString();
   }
 
   /**
    * A convenience method to create a suitable NumberFormat for writing numbers.
    */
   public static NumberFormat makeNumberFormat(int fractionDigits) {
-    NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);//not thread-safe
-    nf.setGroupingUsed(false);
-    nf.setMaximumFractionDigits(fractionDigits);
-    nf.setMinimumFractionDigits(0);
-    return nf;
+    return new DoubleFormat(fractionDigits);//not thread-safe
   }
 
   @Override
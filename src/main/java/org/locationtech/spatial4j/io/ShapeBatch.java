@@ -0,0 +1,583 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceCalculator;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A batch of shapes in columns, in the style of GeoArrow, so that operations on many shapes
+ * stream through a few arrays instead of an object graph per shape.  Shape {@code i} is described
+ * by:
+ * <ul>
+ *   <li>{@link #getKinds()}[i]: {@link #POINT}, {@link #RECTANGLE}, etc.</li>
+ *   <li>{@link #getBBoxes()}: its bounding box, at 4*i: minX, maxX, minY, maxY.</li>
+ *   <li>{@link #getGeomOffsets()}: its parts are those from [i] to [i+1]; e.g. a multi-polygon's
+ *   polygons.  {@link #getPartOffsets()} likewise gives a part's rings (a polygon's shell, then
+ *   holes; or a single run of points), and {@link #getRingOffsets()} a ring's coordinates, which
+ *   are X,Y pairs in {@link #getCoords()}.  A rectangle has no parts; it's its bounding box.</li>
+ *   <li>{@link #getRadii()}[i]: a circle's radius, whose center is its sole coordinate.</li>
+ * </ul>
+ * Shapes that don't fit these columns, such as empty shapes, are kept as objects, with their
+ * kind {@link #OTHER}.  Which shapes fit is up to the context's {@link BinaryCodec}, which also
+ * creates shapes back from the columns; JTS polygons and lines fit with a JTS context.
+ * <p>
+ * The batch operations ({@link #contains(double, double, BitSet)}, {@link #distance(Point,
+ * double[])}, {@link #intersects(Shape, BitSet)} and {@link #relate(Shape, SpatialRelation[])})
+ * test each bounding box first, and then work on the coordinates directly where they can; lines
+ * and polygons planar, as {@link org.locationtech.spatial4j.shape.jts.JtsGeometry} does.  The
+ * rest are relayed to the shape, created as needed; each method says which.
+ * <p>
+ * Immutable and thread-safe.  The column arrays are shared, not copied, and must not be modified.
+ */
+public class ShapeBatch {
+
+  /** Kinds of shape; the geometries share WKB's type codes. */
+  public static final byte OTHER = 0, POINT = 1, LINESTRING = 2, POLYGON = 3, MULTIPOINT = 4,
+      MULTILINESTRING = 5, MULTIPOLYGON = 6, RECTANGLE = 10, CIRCLE = 11;
+
+  private final SpatialContext ctx;
+  private final int size;
+  private final byte[] kinds;
+  private final double[] bboxes;
+  private final int[] geomOffsets;
+  private final int[] partOffsets;
+  private final int[] ringOffsets;
+  private final double[] coords;
+  private final double[] radii;
+  private final Shape[] others;//null but for OTHER
+
+  private ShapeBatch(Builder builder) {
+    this.ctx = builder.ctx;
+    this.size = builder.size;
+    this.kinds = Arrays.copyOf(builder.kinds, size);
+    this.bboxes = Arrays.copyOf(builder.bboxes, size * 4);
+    this.geomOffsets = Arrays.copyOf(builder.geomOffsets, size + 1);
+    this.geomOffsets[size] = builder.numParts;
+    this.partOffsets = Arrays.copyOf(builder.partOffsets, builder.numParts + 1);
+    this.partOffsets[builder.numParts] = builder.numRings;
+    this.ringOffsets = Arrays.copyOf(builder.ringOffsets, builder.numRings + 1);
+    this.ringOffsets[builder.numRings] = builder.numCoords;
+    this.coords = Arrays.copyOf(builder.coords, builder.numCoords * 2);
+    this.radii = Arrays.copyOf(builder.radii, size);
+    this.others = Arrays.copyOf(builder.others, size);
+  }
+
+  public SpatialContext getContext() {
+    return ctx;
+  }
+
+  /** The number of shapes. */
+  public int size() {
+    return size;
+  }
+
+  public byte[] getKinds() {
+    return kinds;
+  }
+
+  public double[] getBBoxes() {
+    return bboxes;
+  }
+
+  public int[] getGeomOffsets() {
+    return geomOffsets;
+  }
+
+  public int[] getPartOffsets() {
+    return partOffsets;
+  }
+
+  public int[] getRingOffsets() {
+    return ringOffsets;
+  }
+
+  public double[] getCoords() {
+    return coords;
+  }
+
+  public double[] getRadii() {
+    return radii;
+  }
+
+  /** Creates shape {@code i} from the columns, or returns it if it's kept as is. */
+  public Shape getShape(int i) {
+    if (kinds[i] == OTHER)
+      return others[i];
+    return ctx.getBinaryCodec().readBatchShape(this, i);
+  }
+
+  /** The shapes, each created when gotten. */
+  public List<Shape> getShapes() {
+    return new AbstractList<Shape>() {
+      @Override
+      public Shape get(int index) {
+        return getShape(index);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /** Writes the shapes with the context's {@link BinaryCodec}, one after another. */
+  public void writeShapes(DataOutput dataOutput) throws IOException {
+    final BinaryCodec codec = ctx.getBinaryCodec();
+    for (int i = 0; i < size; i++) {
+      codec.writeShape(dataOutput, getShape(i));
+    }
+  }
+
+  private Rectangle bbox(int i, Rectangle reuse) {
+    reuse.reset(bboxes[i * 4], bboxes[i * 4 + 1], bboxes[i * 4 + 2], bboxes[i * 4 + 3]);
+    return reuse;
+  }
+
+  /** Sets bit {@code i} of {@code result} if shape {@code i} contains x,y; other bits are left as-is. */
+  public void contains(double x, double y, BitSet result) {
+    final Rectangle bbox = ctx.getShapeFactory().rect(0, 0, 0, 0);
+    final Point center = ctx.getShapeFactory().pointXY(0, 0);
+    for (int i = 0; i < size; i++) {
+      final boolean contains;
+      if (kinds[i] == OTHER)
+        contains = ShapeUtils.contains(others[i], x, y);
+      else
+        contains = ShapeUtils.contains(bbox(i, bbox), x, y) && containsInBBox(i, x, y, center);
+      if (contains)
+        result.set(i);
+    }
+  }
+
+  /** Whether shape {@code i}, which isn't OTHER, contains x,y, which is in its bounding box. */
+  private boolean containsInBBox(int i, double x, double y, Point center) {
+    switch (kinds[i]) {
+      case RECTANGLE:
+        return true;
+      case CIRCLE: {
+        final int c = ringOffsets[partOffsets[geomOffsets[i]]];
+        center.reset(coords[c * 2], coords[c * 2 + 1]);
+        return ctx.getDistCalc().within(center, x, y, radii[i]);
+      }
+      case POINT: case MULTIPOINT:
+        for (int c = ringOffsets[partOffsets[geomOffsets[i]]]; c < ringOffsets[partOffsets[geomOffsets[i + 1]]]; c++) {
+          if (Double.compare(x, coords[c * 2]) == 0 && Double.compare(y, coords[c * 2 + 1]) == 0)
+            return true;
+        }
+        return false;
+      case LINESTRING: case MULTILINESTRING:
+        for (int r = partOffsets[geomOffsets[i]]; r < partOffsets[geomOffsets[i + 1]]; r++) {
+          if (locateInRing(r, x, y) == ON_EDGE)
+            return true;
+        }
+        return false;
+      case POLYGON: case MULTIPOLYGON:
+        for (int p = geomOffsets[i]; p < geomOffsets[i + 1]; p++) {
+          if (polygonContains(p, x, y))
+            return true;
+        }
+        return false;
+      default:
+        throw new IllegalStateException("Unknown kind " + kinds[i]);
+    }
+  }
+
+  private boolean polygonContains(int part, double x, double y) {
+    for (int r = partOffsets[part]; r < partOffsets[part + 1]; r++) {
+      final int location = locateInRing(r, x, y);
+      if (location == ON_EDGE)
+        return true;
+      if ((location == INSIDE) != (r == partOffsets[part]))//outside the shell, or in a hole
+        return false;
+    }
+    return partOffsets[part] < partOffsets[part + 1];
+  }
+
+  private static final int OUTSIDE = 0, INSIDE = 1, ON_EDGE = 2;
+
+  /**
+   * Locates the point relative to the edges of ring (or line) {@code r}, in the plane: whether
+   * it's on an edge, else whether a ray from it crosses the edges an odd number of times (JTS's
+   * RayCrossingCounter).
+   */
+  private int locateInRing(int r, double x, double y) {
+    int crossings = 0;
+    final int end = ringOffsets[r + 1];
+    for (int c = ringOffsets[r]; c + 1 < end; c++) {
+      final double x1 = coords[c * 2], y1 = coords[c * 2 + 1];
+      final double x2 = coords[c * 2 + 2], y2 = coords[c * 2 + 3];
+      if (x1 < x && x2 < x)
+        continue;
+      if (x == x2 && y == y2 || x == x1 && y == y1)
+        return ON_EDGE;
+      if (y1 == y && y2 == y) {//horizontal
+        if (x >= Math.min(x1, x2) && x <= Math.max(x1, x2))
+          return ON_EDGE;
+        continue;
+      }
+      if (y1 > y && y2 <= y || y2 > y && y1 <= y) {
+        double sign = Math.signum((x1 - x) * (y2 - y) - (x2 - x) * (y1 - y));
+        if (sign == 0)
+          return ON_EDGE;
+        if (y2 < y1)
+          sign = -sign;
+        if (sign > 0)
+          crossings++;
+      }
+    }
+    if (ringOffsets[r] + 1 == end && x == coords[end * 2 - 2] && y == coords[end * 2 - 1])
+      return ON_EDGE;//a single coordinate
+    return (crossings & 1) == 1 ? INSIDE : OUTSIDE;
+  }
+
+  /**
+   * Puts the distance from {@code from} to each shape in {@code distances}, per
+   * {@link ShapeUtils#distance(Shape, Point)}: 0 if it contains the point, NaN if it's empty.
+   */
+  public void distance(Point from, double[] distances) {
+    final DistanceCalculator distCalc = ctx.getDistCalc();
+    final Rectangle bbox = ctx.getShapeFactory().rect(0, 0, 0, 0);
+    final Point center = ctx.getShapeFactory().pointXY(0, 0);
+    final double x = from.getX(), y = from.getY();
+    for (int i = 0; i < size; i++) {
+      switch (kinds[i]) {
+        case OTHER:
+          distances[i] = ShapeUtils.distance(others[i], from);
+          break;
+        case RECTANGLE:
+          distances[i] = DistanceUtils.distance(distCalc, from, bbox(i, bbox));
+          break;
+        case CIRCLE: {
+          final int c = ringOffsets[partOffsets[geomOffsets[i]]];
+          center.reset(coords[c * 2], coords[c * 2 + 1]);
+          distances[i] = Math.max(0, distCalc.distance(from, center) - radii[i]);
+          break;
+        }
+        case POINT: case MULTIPOINT: {
+          double min = Double.POSITIVE_INFINITY;
+          for (int c = ringOffsets[partOffsets[geomOffsets[i]]]; c < ringOffsets[partOffsets[geomOffsets[i + 1]]]; c++) {
+            min = Math.min(min, distCalc.distance(from, coords[c * 2], coords[c * 2 + 1]));
+          }
+          distances[i] = min;
+          break;
+        }
+        default: {//lines and polygons, as JtsGeometry
+          if (ShapeUtils.contains(bbox(i, bbox), x, y) && containsInBBox(i, x, y, center)) {
+            distances[i] = 0;
+            break;
+          }
+          double min = Double.POSITIVE_INFINITY;
+          for (int r = partOffsets[geomOffsets[i]]; r < partOffsets[geomOffsets[i + 1]] && min > 0; r++) {
+            for (int c = ringOffsets[r]; c + 1 < ringOffsets[r + 1]; c++) {
+              final double vX = coords[c * 2], vY = coords[c * 2 + 1], wX = coords[c * 2 + 2], wY = coords[c * 2 + 3];
+              if (!ctx.isGeo()) {
+                min = Math.min(min, DistanceUtils.distanceToLineSegment(distCalc, from, vX, vY, wX, wY));
+                continue;
+              }
+              // the latitude gap to the edge is a lower bound in degrees; skip the search when it can't win
+              final double latGap = Math.max(Math.min(vY, wY) - y, y - Math.max(vY, wY));
+              if (latGap < min)
+                min = Math.min(min, DistanceUtils.distanceToStraightSegment(distCalc, from, vX, vY, wX, wY));
+            }
+          }
+          distances[i] = min;
+        }
+      }
+    }
+  }
+
+  /**
+   * Whether the X ranges overlap; a range whose min is greater than its max crosses the dateline.
+   * In a geo context, 180 and -180 are the same.
+   */
+  private boolean xRangesIntersect(double minX1, double maxX1, double minX2, double maxX2) {
+    final boolean crosses1 = minX1 > maxX1, crosses2 = minX2 > maxX2;
+    if (crosses1 && crosses2)
+      return true;//both include 180
+    if (ctx.isGeo() && ((crosses1 || maxX1 == 180) && (crosses2 || minX2 == -180)
+        || (crosses1 || minX1 == -180) && (crosses2 || maxX2 == 180)))
+      return true;
+    if (crosses1)
+      return maxX2 >= minX1 || minX2 <= maxX1;
+    if (crosses2)
+      return maxX1 >= minX2 || minX1 <= maxX2;
+    return minX1 <= maxX2 && maxX1 >= minX2;
+  }
+
+  /** Whether shape {@code i}'s bounding box, per the columns, intersects {@code bbox}'s. */
+  private boolean bboxIntersects(int i, Rectangle bbox) {
+    return bboxes[i * 4 + 2] <= bbox.getMaxY() && bboxes[i * 4 + 3] >= bbox.getMinY()
+        && xRangesIntersect(bboxes[i * 4], bboxes[i * 4 + 1], bbox.getMinX(), bbox.getMaxX());
+  }
+
+  /**
+   * Sets bit {@code i} of {@code result} if shape {@code i} intersects {@code other}.  Each bounding
+   * box in the columns is compared to {@code other}'s first.  Points and rectangles are then decided
+   * from the columns, and so are multi-points, lines and polygons if {@code other} is a
+   * {@link Rectangle} (and a line's or polygon's bounding box doesn't cross the dateline).  Only the
+   * remaining candidates, such as those near circles, are created to test them, since a created JTS
+   * geometry relates to a circle in the plane.
+   */
+  public void intersects(Shape other, BitSet result) {
+    final Rectangle bbox = ctx.getShapeFactory().rect(0, 0, 0, 0);
+    final Rectangle otherBBox = other.getBoundingBox();
+    for (int i = 0; i < size; i++) {
+      if (kinds[i] == OTHER) {
+        if (ShapeUtils.intersects(others[i], other))
+          result.set(i);
+        continue;
+      }
+      if (!bboxIntersects(i, otherBBox) || !ShapeUtils.intersects(bbox(i, bbox), other))
+        continue;
+      final boolean intersects;
+      switch (kinds[i]) {
+        case RECTANGLE:
+          intersects = true;//it's the bounding box
+          break;
+        case MULTIPOINT:
+          if (!(other instanceof Rectangle)) {
+            intersects = ShapeUtils.intersects(getShape(i), other);
+            break;
+          }
+          //fall through
+        case POINT: {
+          boolean any = false;
+          for (int c = ringOffsets[partOffsets[geomOffsets[i]]]; c < ringOffsets[partOffsets[geomOffsets[i + 1]]] && !any; c++) {
+            any = ShapeUtils.contains(other, coords[c * 2], coords[c * 2 + 1]);
+          }
+          intersects = any;
+          break;
+        }
+        default:
+          if (isPlanarRectQuery(i, other))
+            intersects = intersectsRect(i, (Rectangle) other);
+          else
+            intersects = ShapeUtils.intersects(getShape(i), other);
+      }
+      if (intersects)
+        result.set(i);
+    }
+  }
+
+  /**
+   * Puts the relation of each shape to {@code other} in {@code relations}.  The bounding box
+   * decides DISJOINT and WITHIN when it can, and the columns decide DISJOINT for lines and polygons
+   * as in {@link #intersects(Shape, BitSet)}; otherwise the shape is created to relate it.
+   */
+  public void relate(Shape other, SpatialRelation[] relations) {
+    final Rectangle bbox = ctx.getShapeFactory().rect(0, 0, 0, 0);
+    final Rectangle otherBBox = other.getBoundingBox();
+    for (int i = 0; i < size; i++) {
+      if (kinds[i] == OTHER) {
+        relations[i] = others[i].relate(other);
+        continue;
+      }
+      if (!bboxIntersects(i, otherBBox)) {
+        relations[i] = SpatialRelation.DISJOINT;
+        continue;
+      }
+      final SpatialRelation bboxRelation = bbox(i, bbox).relate(other);
+      if (kinds[i] == RECTANGLE || bboxRelation == SpatialRelation.DISJOINT
+          || bboxRelation == SpatialRelation.WITHIN)
+        relations[i] = bboxRelation;
+      else if (isPlanarRectQuery(i, other) && !intersectsRect(i, (Rectangle) other))
+        relations[i] = SpatialRelation.DISJOINT;
+      else
+        relations[i] = getShape(i).relate(other);
+    }
+  }
+
+  /** Whether shape {@code i}, a line or polygon, can be tested against {@code other} in the plane. */
+  private boolean isPlanarRectQuery(int i, Shape other) {
+    final int kind = kinds[i];
+    return (kind == LINESTRING || kind == MULTILINESTRING || kind == POLYGON || kind == MULTIPOLYGON)
+        && other instanceof Rectangle && bboxes[i * 4] <= bboxes[i * 4 + 1];
+  }
+
+  /** Whether shape {@code i}, a line or polygon, intersects the rectangle, or either side of the dateline. */
+  private boolean intersectsRect(int i, Rectangle rect) {
+    if (rect.getCrossesDateLine())
+      return intersectsRect(i, rect.getMinX(), 180, rect.getMinY(), rect.getMaxY())
+          || intersectsRect(i, -180, rect.getMaxX(), rect.getMinY(), rect.getMaxY());
+    return intersectsRect(i, rect.getMinX(), rect.getMaxX(), rect.getMinY(), rect.getMaxY());
+  }
+
+  /** Whether an edge of shape {@code i} touches the rectangle, or else it's within a polygon. */
+  private boolean intersectsRect(int i, double minX, double maxX, double minY, double maxY) {
+    for (int r = partOffsets[geomOffsets[i]]; r < partOffsets[geomOffsets[i + 1]]; r++) {
+      final int start = ringOffsets[r], end = ringOffsets[r + 1];
+      if (end - start == 1 && segmentIntersectsRect(coords[start * 2], coords[start * 2 + 1],
+          coords[start * 2], coords[start * 2 + 1], minX, maxX, minY, maxY))
+        return true;
+      for (int c = start; c + 1 < end; c++) {
+        if (segmentIntersectsRect(coords[c * 2], coords[c * 2 + 1], coords[c * 2 + 2], coords[c * 2 + 3],
+            minX, maxX, minY, maxY))
+          return true;
+      }
+    }
+    if (kinds[i] == POLYGON || kinds[i] == MULTIPOLYGON) {
+      for (int p = geomOffsets[i]; p < geomOffsets[i + 1]; p++) {
+        if (polygonContains(p, minX, minY))
+          return true;
+      }
+    }
+    return false;
+  }
+
+  /** Whether the segment touches the rectangle: an end is in it, or it crosses an edge. */
+  private static boolean segmentIntersectsRect(double x1, double y1, double x2, double y2,
+                                               double minX, double maxX, double minY, double maxY) {
+    if (x1 >= minX && x1 <= maxX && y1 >= minY && y1 <= maxY
+        || x2 >= minX && x2 <= maxX && y2 >= minY && y2 <= maxY)
+      return true;
+    if (Math.max(x1, x2) < minX || Math.min(x1, x2) > maxX || Math.max(y1, y2) < minY || Math.min(y1, y2) > maxY)
+      return false;
+    return segmentsIntersect(x1, y1, x2, y2, minX, minY, maxX, minY)
+        || segmentsIntersect(x1, y1, x2, y2, maxX, minY, maxX, maxY)
+        || segmentsIntersect(x1, y1, x2, y2, maxX, maxY, minX, maxY)
+        || segmentsIntersect(x1, y1, x2, y2, minX, maxY, minX, minY);
+  }
+
+  /** Whether segments a-b and c-d share a point, by the orientation of each's ends to the other. */
+  private static boolean segmentsIntersect(double ax, double ay, double bx, double by,
+                                           double cx, double cy, double dx, double dy) {
+    final double o1 = orientation(ax, ay, bx, by, cx, cy), o2 = orientation(ax, ay, bx, by, dx, dy);
+    final double o3 = orientation(cx, cy, dx, dy, ax, ay), o4 = orientation(cx, cy, dx, dy, bx, by);
+    if (o1 * o2 < 0 && o3 * o4 < 0)
+      return true;
+    return o1 == 0 && inBox(ax, ay, bx, by, cx, cy) || o2 == 0 && inBox(ax, ay, bx, by, dx, dy)
+        || o3 == 0 && inBox(cx, cy, dx, dy, ax, ay) || o4 == 0 && inBox(cx, cy, dx, dy, bx, by);
+  }
+
+  private static double orientation(double ax, double ay, double bx, double by, double px, double py) {
+    return Math.signum((bx - ax) * (py - ay) - (by - ay) * (px - ax));
+  }
+
+  /** Whether p, collinear with a-b, is between them. */
+  private static boolean inBox(double ax, double ay, double bx, double by, double px, double py) {
+    return px >= Math.min(ax, bx) && px <= Math.max(ax, bx) && py >= Math.min(ay, by) && py <= Math.max(ay, by);
+  }
+
+  /**
+   * Accumulates shapes into a {@link ShapeBatch}.  The context's {@link BinaryCodec} puts each
+   * shape in the columns, if it can, with {@link #startPart()}, {@link #startRing()} and
+   * {@link #addCoord(double, double)}.
+   */
+  public static class Builder {
+
+    private final SpatialContext ctx;
+    private int size;
+    private byte[] kinds = new byte[16];
+    private double[] bboxes = new double[64];
+    private int[] geomOffsets = new int[17];
+    private int[] partOffsets = new int[17];
+    private int[] ringOffsets = new int[17];
+    private double[] coords = new double[64];
+    private double[] radii = new double[16];
+    private Shape[] others = new Shape[16];
+    private int numParts, numRings, numCoords;
+
+    public Builder(SpatialContext ctx) {
+      this.ctx = ctx;
+    }
+
+    public Builder add(Shape shape) {
+      if (size == kinds.length) {
+        final int capacity = size * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        bboxes = Arrays.copyOf(bboxes, capacity * 4);
+        geomOffsets = Arrays.copyOf(geomOffsets, capacity + 1);
+        radii = Arrays.copyOf(radii, capacity);
+        others = Arrays.copyOf(others, capacity);
+      }
+      final Rectangle bbox = shape.getBoundingBox();
+      bboxes[size * 4] = bbox.getMinX();
+      bboxes[size * 4 + 1] = bbox.getMaxX();
+      bboxes[size * 4 + 2] = bbox.getMinY();
+      bboxes[size * 4 + 3] = bbox.getMaxY();
+      geomOffsets[size] = numParts;
+      radii[size] = Double.NaN;
+      final int parts = numParts, rings = numRings, numCoordsBefore = numCoords;
+      byte kind = shape.isEmpty() ? OTHER : ctx.getBinaryCodec().writeBatchShape(this, shape);
+      if (kind == OTHER) {
+        numParts = parts;//discard anything added
+        numRings = rings;
+        numCoords = numCoordsBefore;
+        others[size] = shape;
+      }
+      kinds[size++] = kind;
+      return this;
+    }
+
+    /** Adds the shapes read by {@link BinaryCodec#readShape(ByteBuffer)} until the buffer is exhausted. */
+    public Builder addAll(ByteBuffer buffer) throws IOException {
+      final BinaryCodec codec = ctx.getBinaryCodec();
+      while (buffer.hasRemaining()) {
+        add(codec.readShape(buffer));
+      }
+      return this;
+    }
+
+    /** Adds the shapes that {@code reader} reads from each value. */
+    public Builder addAll(ShapeReader reader, Iterable<?> values) throws IOException, ParseException {
+      for (Object value : values) {
+        add(reader.read(value));
+      }
+      return this;
+    }
+
+    /** The shape being added has another part, e.g. a polygon of a multi-polygon. */
+    public void startPart() {
+      if (numParts + 1 == partOffsets.length)
+        partOffsets = Arrays.copyOf(partOffsets, partOffsets.length * 2);
+      partOffsets[numParts++] = numRings;
+    }
+
+    /** The current part has another ring (or run of points). */
+    public void startRing() {
+      if (numRings + 1 == ringOffsets.length)
+        ringOffsets = Arrays.copyOf(ringOffsets, ringOffsets.length * 2);
+      ringOffsets[numRings++] = numCoords;
+    }
+
+    /** The current ring has another coordinate. */
+    public void addCoord(double x, double y) {
+      if (numCoords * 2 == coords.length)
+        coords = Arrays.copyOf(coords, coords.length * 2);
+      coords[numCoords * 2] = x;
+      coords[numCoords * 2 + 1] = y;
+      numCoords++;
+    }
+
+    /** Sets the radius of the circle being added. */
+    public void setRadius(double radius) {
+      radii[size] = radius;
+    }
+
+    public ShapeBatch build() {
+      return new ShapeBatch(this);
+    }
+  }
+}
@@ -0,0 +1,416 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.exception.InvalidShapeException;
+import org.locationtech.spatial4j.shape.Shape;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An append-only file of shapes, each stored as a {@link BinaryCodec} record (see
+ * {@link BinaryCodec#writeRecord(java.io.DataOutput, Shape)}) and identified by its position in
+ * the file: 0, 1, 2....  A second file, named with {@link #OFFSETS_SUFFIX}, holds each record's
+ * start as a big-endian long.  Both files are memory-mapped for reading, so the shapes needn't be
+ * in the heap nor parsed from text; a shape read is a {@link LazyShape} over the mapped bytes
+ * that's decoded only if its bounding box can't answer.
+ * <p>
+ * Reads go through a {@link Snapshot}: the shapes that were stored when it was taken.  Since a
+ * record is written before its offset, and neither changes afterwards, a snapshot is consistent
+ * while shapes are being appended, by this store or, through the file system, by another process
+ * that has it open for writing.  Only one store at a time may have the files open for writing.
+ * If a writer stopped part-way through an append, the incomplete shapes aren't seen, and are
+ * truncated when the files are next opened for writing.
+ * <p>
+ * The files are mapped in segments of up to {@link #DEFAULT_SEGMENT_SIZE} bytes, as a mapping can't
+ * exceed 2GB.  A record that straddles two segments is read with a positional read instead.
+ * <p>
+ * Thread-safe.
+ */
+public class ShapeStore implements Closeable {
+
+  /** Appended to the store's path for the name of the offsets file. */
+  public static final String OFFSETS_SUFFIX = ".offsets";
+
+  public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+
+  /** Appended records are buffered up to about this many bytes before they're written. */
+  private static final int APPEND_BUFFER_SIZE = 1 << 20;
+
+  private final BinaryCodec codec;
+  private final int segmentSize;
+  private final FileChannel dataChannel;
+  private final FileChannel offsetsChannel;
+  private final Segments dataSegments;
+  private final Segments offsetsSegments;
+  private final FileLock writeLock;//null if read-only
+
+  // the following are only used when writable, guarded by this
+  private long size;
+  private long dataEnd;
+  private ByteBuffer dataBuffer;
+  private ByteBuffer offsetsBuffer;
+
+  /**
+   * Opens or creates a store at {@code path}, with its offsets at the path plus
+   * {@link #OFFSETS_SUFFIX}.
+   */
+  public static ShapeStore open(SpatialContext ctx, Path path, boolean writable) throws IOException {
+    return new ShapeStore(ctx, path, writable, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param writable whether shapes can be appended; if not, the files must exist.
+   * @param segmentSize the size of the mapped segments; a multiple of 8.
+   * @throws IOException if the store can't be opened, or is open for writing elsewhere.
+   */
+  public ShapeStore(SpatialContext ctx, Path path, boolean writable, int segmentSize) throws IOException {
+    if (segmentSize <= 0 || segmentSize % 8 != 0)
+      throw new IllegalArgumentException("segmentSize must be a positive multiple of 8: " + segmentSize);
+    this.codec = ctx.getBinaryCodec();
+    this.segmentSize = segmentSize;
+    final Path offsetsPath = path.resolveSibling(path.getFileName() + OFFSETS_SUFFIX);
+    if (writable) {
+      dataChannel = FileChannel.open(path,
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      offsetsChannel = FileChannel.open(offsetsPath,
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } else {
+      dataChannel = FileChannel.open(path, StandardOpenOption.READ);
+      offsetsChannel = FileChannel.open(offsetsPath, StandardOpenOption.READ);
+    }
+    dataSegments = new Segments(dataChannel, segmentSize);
+    offsetsSegments = new Segments(offsetsChannel, segmentSize);
+    if (!writable) {
+      writeLock = null;
+      return;
+    }
+    FileLock lock = null;
+    try {
+      lock = lock();
+      // drop what an interrupted append left behind
+      size = completeSize();
+      dataEnd = size == 0 ? 0 : recordEnd(readOffset(size - 1));
+      offsetsChannel.truncate(size * 8);
+      dataChannel.truncate(dataEnd);
+    } catch (IOException | RuntimeException e) {
+      if (lock != null)
+        lock.release();
+      dataChannel.close();
+      offsetsChannel.close();
+      throw e;
+    }
+    writeLock = lock;
+    dataBuffer = ByteBuffer.allocate(APPEND_BUFFER_SIZE);
+    offsetsBuffer = ByteBuffer.allocate(APPEND_BUFFER_SIZE / 16);
+  }
+
+  private FileLock lock() throws IOException {
+    FileLock lock;
+    try {
+      lock = offsetsChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      lock = null;//by this JVM
+    }
+    if (lock == null)
+      throw new IOException("The store is already open for writing");
+    return lock;
+  }
+
+  public boolean isWritable() {
+    return writeLock != null;
+  }
+
+  /** The number of shapes stored, and thus the next id. */
+  public long size() throws IOException {
+    if (isWritable()) {
+      synchronized (this) {
+        return size;
+      }
+    }
+    return completeSize();
+  }
+
+  /** The number of shapes whose offset and record are completely written. */
+  private long completeSize() throws IOException {
+    long n = offsetsChannel.size() / 8;
+    final long dataSize = dataChannel.size();
+    while (n > 0 && recordEnd(readOffset(n - 1)) > dataSize) {
+      n--;
+    }
+    return n;
+  }
+
+  private long readOffset(long id) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    readFully(offsetsChannel, buffer, id * 8);
+    return buffer.getLong(0);
+  }
+
+  /** The end of the record at {@code offset}, or {@link Long#MAX_VALUE} if its header is incomplete. */
+  private long recordEnd(long offset) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(BinaryCodec.RECORD_HEADER_SIZE);
+    if (offset < 0 || offset + header.capacity() > dataChannel.size())
+      return Long.MAX_VALUE;
+    readFully(dataChannel, header, offset);
+    final int length = header.getInt(1);
+    if (header.get(0) != BinaryCodec.FORMAT_BBOX || length < 0)
+      return Long.MAX_VALUE;
+    return offset + header.capacity() + length;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0)
+        throw new EOFException("Read past the end at " + position);
+    }
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  /** Appends the shape, returning its id. */
+  public long append(Shape shape) throws IOException {
+    return append(Collections.singletonList(shape));
+  }
+
+  /**
+   * Appends the shapes, in bulk, returning the id of the first; the rest follow it.  If a shape
+   * can't be written, those before it are still appended.
+   */
+  public synchronized long append(Iterable<? extends Shape> shapes) throws IOException {
+    if (!isWritable())
+      throw new IllegalStateException("The store isn't writable");
+    final long firstId = size;
+    try {
+      for (Shape shape : shapes) {
+        final int start = encode(shape);
+        offsetsBuffer.putLong(dataEnd + start);
+        if (!offsetsBuffer.hasRemaining() || dataBuffer.position() >= APPEND_BUFFER_SIZE)
+          writeAppended();
+      }
+    } finally {
+      writeAppended();
+    }
+    return firstId;
+  }
+
+  /**
+   * Encodes the shape as a record at the end of {@link #dataBuffer}, returning its start there.
+   * If it can't be encoded, whatever part of it was is dropped again.
+   */
+  private int encode(Shape shape) throws IOException {
+    while (true) {
+      final int start = dataBuffer.position();
+      try {
+        codec.writeRecord(dataBuffer, shape);
+        return start;
+      } catch (BufferOverflowException e) {
+        dataBuffer.position(start);
+        if (start > 0) {
+          writeAppended();//makes room
+        } else {
+          dataBuffer = ByteBuffer.allocate(dataBuffer.capacity() * 2);
+        }
+      } catch (IOException | RuntimeException e) {
+        dataBuffer.position(start);
+        throw e;
+      }
+    }
+  }
+
+  /** Writes the buffered records, and then their offsets, which makes them visible. */
+  private void writeAppended() throws IOException {
+    dataBuffer.flip();
+    final long dataLength = dataBuffer.remaining();
+    writeFully(dataChannel, dataBuffer, dataEnd);
+    dataEnd += dataLength;
+    dataBuffer.clear();
+    offsetsBuffer.flip();
+    final long count = offsetsBuffer.remaining() / 8;
+    writeFully(offsetsChannel, offsetsBuffer, size * 8);
+    size += count;
+    offsetsBuffer.clear();
+  }
+
+  /** Forces appended shapes to the storage device, records before offsets. */
+  public void sync() throws IOException {
+    dataChannel.force(false);
+    offsetsChannel.force(false);
+  }
+
+  /** A view of the shapes stored now. */
+  public Snapshot snapshot() throws IOException {
+    final long n;
+    final long end;
+    if (isWritable()) {
+      synchronized (this) {
+        n = size;
+        end = dataEnd;
+      }
+    } else {
+      n = completeSize();
+      end = n == 0 ? 0 : recordEnd(readOffset(n - 1));
+    }
+    return new Snapshot(n, end, offsetsSegments.map(n * 8), dataSegments.map(end));
+  }
+
+  /**
+   * Closes the files.  Snapshots may still read mapped records, but not ones straddling segments.
+   * The mappings are released when they're garbage collected.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (writeLock != null && writeLock.isValid())
+        writeLock.release();
+    } finally {
+      try {
+        dataChannel.close();
+      } finally {
+        offsetsChannel.close();
+      }
+    }
+  }
+
+  /**
+   * The shapes stored when it was taken, by id.  Unaffected by later appends.  Thread-safe.
+   */
+  public class Snapshot implements Iterable<Shape> {
+    private final long size;
+    private final long dataEnd;
+    private final ByteBuffer[] offsets;
+    private final ByteBuffer[] data;
+
+    private Snapshot(long size, long dataEnd, ByteBuffer[] offsets, ByteBuffer[] data) {
+      this.size = size;
+      this.dataEnd = dataEnd;
+      this.offsets = offsets;
+      this.data = data;
+    }
+
+    public long size() {
+      return size;
+    }
+
+    private long offset(long id) {
+      final long position = id * 8;
+      return offsets[(int) (position / segmentSize)].getLong((int) (position % segmentSize));
+    }
+
+    /**
+     * The shape with this id, as a {@link LazyShape} if it's read from its mapped segment.  Its
+     * bounding box is read right away; the shape is decoded when needed, and then kept.
+     */
+    public Shape get(long id) throws IOException {
+      if (id < 0 || id >= size)
+        throw new IndexOutOfBoundsException("id " + id + " of " + size);
+      final long start = offset(id);
+      final long end = id + 1 < size ? offset(id + 1) : dataEnd;//records are contiguous
+      final int segment = (int) (start / segmentSize);
+      if ((end - 1) / segmentSize == segment) {
+        ByteBuffer buffer = data[segment].duplicate();
+        buffer.position((int) (start % segmentSize));
+        return codec.readLazyShape(buffer, true);
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+      readFully(dataChannel, buffer, start);
+      buffer.flip();
+      return codec.readLazyShape(buffer, true);
+    }
+
+    /** Iterates the shapes from {@code fromId} on, in order. */
+    public Iterator<Shape> iterator(final long fromId) {
+      return new Iterator<Shape>() {
+        long id = fromId;
+
+        @Override
+        public boolean hasNext() {
+          return id < size;
+        }
+
+        @Override
+        public Shape next() {
+          if (!hasNext())
+            throw new NoSuchElementException();
+          try {
+            return get(id++);
+          } catch (IOException e) {
+            throw new InvalidShapeException("Couldn't read shape " + (id - 1), e);
+          }
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public Iterator<Shape> iterator() {
+      return iterator(0);
+    }
+  }
+
+  /**
+   * Read-only mappings of a file in fixed-size segments.  The last is mapped as far as the file
+   * then extends, and mapped again only once a longer length is asked for.
+   */
+  private static class Segments {
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> mapped = new ArrayList<>();
+
+    Segments(FileChannel channel, int segmentSize) {
+      this.channel = channel;
+      this.segmentSize = segmentSize;
+    }
+
+    /** Mappings of the file's first {@code length} bytes, one per segment. */
+    synchronized ByteBuffer[] map(long length) throws IOException {
+      final ByteBuffer[] result = new ByteBuffer[(int) ((length + segmentSize - 1) / segmentSize)];
+      for (int i = 0; i < result.length; i++) {
+        final long start = (long) i * segmentSize;
+        final long segmentLength = Math.min(segmentSize, length - start);
+        MappedByteBuffer buffer = i < mapped.size() ? mapped.get(i) : null;
+        if (buffer == null || buffer.capacity() < segmentLength) {
+          // a read-only mapping can't extend past the file, so a growing segment is mapped again
+          final long fileLength = Math.min(segmentSize, channel.size() - start);
+          buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(segmentLength, fileLength));
+          if (i < mapped.size())
+            mapped.set(i, buffer);
+          else
+            mapped.add(buffer);
+        }
+        result[i] = buffer;
+      }
+      return result;
+    }
+  }
+}
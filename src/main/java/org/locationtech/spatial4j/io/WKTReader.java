@@ -21,6 +21,8 @@ import org.locationtech.spatial4j.shape.ShapeFactory;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * An extensible parser for <a href="http://en.wikipedia.org/wiki/Well-known_text"> Well Known Text
@@ -50,7 +52,10 @@ import java.text.ParseException;
  * <p>
  * To support more shapes, extend this class and override
  * {@link #parseShapeByType(WKTReader.State, String)}. It's also possible to delegate to a WKTParser
- * by also delegating {@link #newState(String)}.
+ * by also delegating {@link #newState(String)}, and {@link #newState(Reader)} for
+ * {@link #read(Reader)}.  A subclass that instead overrides {@link #parseIfSupported(String)} (or
+ * {@link #parse(String)}, or just {@link #newState(String)}) still has it called for a Reader,
+ * which is then read into a String first.
  *
  * <p>
  * Note, instances of this base class are threadsafe.
@@ -58,6 +63,8 @@ import java.text.ParseException;
 public class WKTReader implements ShapeReader {
   protected final SpatialContext ctx;
   protected final ShapeFactory shapeFactory;
+  /** Whether a subclass parses Strings its own way, which {@link #read(Reader)} must then honor. */
+  private final boolean parsesStrings;
 
   // TODO support SRID: "SRID=4326;POINT(1,2)
 
@@ -68,6 +75,21 @@ public class WKTReader implements ShapeReader {
   public WKTReader(SpatialContext ctx, SpatialContextFactory factory) {
     this.ctx = ctx;
     this.shapeFactory = ctx.getShapeFactory();
+    this.parsesStrings = overrides("parse", String.class) || overrides("parseIfSupported", String.class)
+        || (overrides("newState", String.class) && !overrides("newState", Reader.class));
+  }
+
+  /** Whether a subclass declares the method, of any visibility. */
+  private boolean overrides(String name, Class<?> parameterType) {
+    for (Class<?> clazz = getClass(); clazz != WKTReader.class; clazz = clazz.getSuperclass()) {
+      try {
+        clazz.getDeclaredMethod(name, parameterType);
+        return true;
+      } catch (NoSuchMethodException e) {
+        //keep looking
+      }
+    }
+    return false;
   }
 
 
@@ -81,9 +103,11 @@ public class WKTReader implements ShapeReader {
     Shape shape = parseIfSupported(wktString);// sets rawString & offset
     if (shape != null)
       return shape;
-    String shortenedString =
-        (wktString.length() <= 128 ? wktString : wktString.substring(0, 128 - 3) + "...");
-    throw new ParseException("Unknown Shape definition [" + shortenedString + "]", 0);
+    throw new ParseException("Unknown Shape definition [" + shorten(wktString) + "]", 0);
+  }
+
+  private static String shorten(String wktString) {
+    return wktString.length() <= 128 ? wktString : wktString.substring(0, 128 - 3) + "...";
   }
 
   /**
@@ -97,7 +121,16 @@ public class WKTReader implements ShapeReader {
    * @throws ParseException Thrown if there is an error in the Shape definition
    */
   public Shape parseIfSupported(String wktString) throws ParseException, InvalidShapeException {
-    State state = newState(wktString);
+    return parseIfSupported(newState(wktString));
+  }
+
+  /**
+   * (internal) Parses the shape from the state's current position to its end. It's called by
+   * {@link #parseIfSupported(String)}, {@link #read(Reader)} and {@link #readRecords(Reader)}.
+   *
+   * @return Shape, null if unknown / unsupported shape.
+   */
+  protected Shape parseIfSupported(State state) throws ParseException, InvalidShapeException {
     state.nextIfWhitespace();// leading
     if (state.eof())
       return null;
@@ -133,6 +166,15 @@ public class WKTReader implements ShapeReader {
     return new State(wktString);
   }
 
+  /**
+   * (internal) Creates a new State that reads the given Reader as it parses, keeping only a window
+   * of it in {@link State#rawString}. It's only called by {@link #read(Reader)}. This is an
+   * extension point for subclassing, alongside {@link #newState(String)}.
+   */
+  protected State newState(Reader reader) {
+    return new ReaderState(reader, false);
+  }
+
   /**
    * (internal) Parses the remainder of a shape definition following the shape's name given as
    * {@code shapeType} already consumed via {@link State#nextWord()}. If it's able to parse the
@@ -419,6 +461,11 @@ public class WKTReader implements ShapeReader {
     return polygonBuilder;
   }
 
+  /** Words that {@link State#nextWord()} returns without allocating, when they match exactly. */
+  private static final String[] KEYWORDS = {"POINT", "MULTIPOINT", "ENVELOPE", "LINESTRING",
+      "POLYGON", "GEOMETRYCOLLECTION", "MULTILINESTRING", "MULTIPOLYGON", "BUFFER", "EMPTY",
+      "Z", "M", "ZM"};
+
   /** The parse state. */
   public class State {
     /** Set in {@link #parseIfSupported(String)}. */
@@ -455,11 +502,22 @@ public class WKTReader implements ShapeReader {
       }
       if (startOffset == offset)
         throw new ParseException("Word expected", startOffset);
-      String result = rawString.substring(startOffset, offset);
+      String result = keyword(startOffset, offset - startOffset);
+      if (result == null)
+        result = rawString.substring(startOffset, offset);
       nextIfWhitespace();
       return result;
     }
 
+    /** The constant for the keyword (exactly as in {@link #KEYWORDS}) at the offset, else null. */
+    private String keyword(int startOffset, int length) {
+      for (String keyword : KEYWORDS) {
+        if (keyword.length() == length && rawString.regionMatches(startOffset, keyword, 0, length))
+          return keyword;
+      }
+      return null;
+    }
+
     /**
      * Skips over a dimensionality token (e.g. 'Z' or 'M') if found, storing in {@link #dimension},
      * and then looks for EMPTY, consuming that and whitespace.
@@ -507,7 +565,7 @@ public class WKTReader implements ShapeReader {
         throw new ParseException("Expected a number", offset);
       double result;
       try {
-        result = Double.parseDouble(rawString.substring(startOffset, offset));
+        result = DoubleParser.parseDouble(rawString, startOffset, offset);
       } catch (Exception e) {
         throw new ParseException(e.toString(), offset);
       }
@@ -633,6 +691,170 @@ public class WKTReader implements ShapeReader {
 
   }// class State
 
+  /**
+   * A {@link State} over a {@link Reader}.  {@link State#rawString} is a window of the input that
+   * moves forward as it's consumed, and is refilled so that it always holds the whole of the next
+   * token; {@link State#offset} is relative to it.  In line mode the window ends at the end of the
+   * current line, so {@link #eof()} means the end of the record.
+   */
+  private class ReaderState extends State {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Reader reader;
+    private final boolean lineMode;
+    private final char[] buffer = new char[CHUNK_SIZE];
+    private int bufferOffset;
+    private int bufferLength;
+    private final StringBuilder window = new StringBuilder();
+    private long windowStart;// chars of the record before the window
+    private boolean endOfRecord;
+    private boolean endOfInput;
+    private IOException ioException;
+    int lineNumber = 1;
+
+    ReaderState(Reader reader, boolean lineMode) {
+      super("");
+      this.reader = reader;
+      this.lineMode = lineMode;
+      fill(0);
+    }
+
+    /**
+     * Discards the window before {@code keepFrom} and appends more of the record.  A failure to
+     * read is remembered for {@link #checkIOException()} and ends the input.
+     *
+     * @return true if any chars were added.
+     */
+    private boolean fill(int keepFrom) {
+      if (endOfRecord)
+        return false;
+      window.setLength(0);
+      window.append(rawString, keepFrom, rawString.length());
+      offset -= keepFrom;
+      windowStart += keepFrom;
+      final int oldLength = window.length();
+      while (window.length() < oldLength + CHUNK_SIZE) {
+        if (bufferOffset == bufferLength) {
+          try {
+            bufferLength = reader.read(buffer, 0, buffer.length);
+          } catch (IOException e) {
+            ioException = e;
+            bufferLength = -1;
+          }
+          bufferOffset = 0;
+          if (bufferLength < 0) {
+            bufferLength = 0;
+            endOfRecord = endOfInput = true;
+            break;
+          }
+        }
+        int end = bufferOffset;
+        while (end < bufferLength && !(lineMode && buffer[end] == '\n')) {
+          end++;
+        }
+        window.append(buffer, bufferOffset, end - bufferOffset);
+        bufferOffset = end;
+        if (end < bufferLength) {// at a newline, which is left for nextRecord()
+          endOfRecord = true;
+          break;
+        }
+      }
+      rawString = window.toString();
+      return window.length() > oldLength;
+    }
+
+    /** Moves to the start of the next line, discarding the rest of this one; false at the end. */
+    boolean nextRecord() {
+      while (fill(rawString.length())) {
+      }
+      if (endOfInput)
+        return false;
+      bufferOffset++;// the newline
+      lineNumber++;
+      endOfRecord = false;
+      rawString = "";
+      offset = 0;
+      windowStart = 0;
+      fill(0);
+      return true;
+    }
+
+    /** Refills the window until it holds the whole token starting at {@link #offset}. */
+    private void ensureToken() {
+      int end = offset;
+      while (true) {
+        for (; end < rawString.length(); end++) {
+          char c = rawString.charAt(end);
+          if (c == '(' || c == ')' || c == ',' || Character.isWhitespace(c))
+            return;
+        }
+        final int start = offset;
+        if (!fill(start))
+          return;
+        end -= start;
+      }
+    }
+
+    void checkIOException() throws IOException {
+      if (ioException != null)
+        throw ioException;
+    }
+
+    /** The exception, with its offset from the start of the record, and in line mode its line. */
+    ParseException relocate(ParseException e) {
+      ParseException pe = new ParseException((lineMode ? "line " + lineNumber + ": " : "")
+          + e.getMessage(), (int) Math.min(Integer.MAX_VALUE, windowStart + e.getErrorOffset()));
+      pe.initCause(e);
+      return pe;
+    }
+
+    @Override
+    public String nextWord() throws ParseException {
+      ensureToken();
+      return super.nextWord();
+    }
+
+    @Override
+    public double nextDouble() throws ParseException {
+      ensureToken();
+      return super.nextDouble();
+    }
+
+    @Override
+    public void skipDouble() {
+      ensureToken();
+      super.skipDouble();
+    }
+
+    @Override
+    public void nextIfWhitespace() {
+      do {
+        super.nextIfWhitespace();
+      } while (eof() && fill(offset));
+    }
+
+    /**
+     * Returns the rest of the record from {@link #offset}, which is then consumed; the window then
+     * starts there, so that {@link #relocate(ParseException)} suits offsets into the result.
+     */
+    String restOfRecord() {
+      while (fill(offset)) {
+      }
+      windowStart += offset;
+      rawString = rawString.substring(offset);
+      offset = rawString.length();
+      return rawString;
+    }
+
+    /** {@inheritDoc}  It reads the rest of the record into the window first. */
+    @Override
+    public String nextSubShapeString() throws ParseException {
+      while (fill(offset)) {
+      }
+      return super.nextSubShapeString();
+    }
+  }// class ReaderState
+
   @Override
   public String getFormatName() {
     return ShapeIO.WKT;
@@ -648,9 +870,130 @@ public class WKTReader implements ShapeReader {
     return buffer.toString();
   }
 
+  /**
+   * Parses the WKT as it's read from a State of {@link #newState(Reader)}, without first reading it
+   * all into a String; the coordinates go straight to the {@link ShapeFactory.PointsBuilder}s.  But
+   * if a subclass parses Strings its own way (see the class docs), it's read into a String and
+   * given to {@link #parse(String)}.  The reader isn't closed.
+   */
   @Override
   public Shape read(Reader reader) throws IOException, ParseException {
-    return parse(readString(reader));
+    if (parsesStrings)
+      return parse(readString(reader));
+    State state = newState(reader);
+    if (!(state instanceof ReaderState)) {
+      Shape shape = parseIfSupported(state);
+      if (shape == null)
+        throw new ParseException("Unknown Shape definition [" + shorten(state.rawString) + "]", 0);
+      return shape;
+    }
+    ReaderState readerState = (ReaderState) state;
+    Shape shape;
+    try {
+      shape = parseIfSupported(readerState);
+    } catch (ParseException e) {
+      readerState.checkIOException();
+      throw readerState.relocate(e);
+    }
+    readerState.checkIOException();
+    if (shape == null)
+      throw new ParseException("Unknown Shape definition [" + shorten(readerState.rawString) + "]", 0);
+    return shape;
+  }
+
+  /**
+   * Streams newline-delimited WKT, one shape per line, as from a file of records.  Each line is
+   * parsed as it's read, so memory use doesn't grow with the size of the file; but if a subclass
+   * parses Strings its own way, each line is given to {@link #parseIfSupported(String)}.  Blank
+   * lines are skipped.  If a line fails to parse, the exception's message starts with the line number, and
+   * the next call continues with the following line.  The reader isn't closed.
+   */
+  public RecordIterator readRecords(Reader reader) {
+    return new RecordIterator(new ReaderState(reader, true));
+  }
+
+  /** The shapes of newline-delimited WKT, as read by {@link #readRecords(Reader)}. */
+  public class RecordIterator implements Iterator<Shape> {
+    private final ReaderState state;
+    private boolean started = false;
+    private boolean done = false;
+    private Shape next;
+
+    RecordIterator(ReaderState state) {
+      this.state = state;
+    }
+
+    /** The line number, starting from 1, of the last shape read (or attempted). */
+    public int getLineNumber() {
+      return state.lineNumber;
+    }
+
+    /** Returns the shape on the next non-blank line, or null if there are no more. */
+    public Shape nextShape() throws IOException, ParseException {
+      if (next != null) {
+        Shape shape = next;
+        next = null;
+        return shape;
+      }
+      while (!done) {
+        if (started && !state.nextRecord()) {
+          done = true;
+          break;
+        }
+        started = true;
+        state.nextIfWhitespace();
+        if (state.eof()) {// blank line
+          state.checkIOException();
+          continue;
+        }
+        Shape shape;
+        String record = null;
+        try {
+          if (parsesStrings) {
+            record = state.restOfRecord();
+            shape = parseIfSupported(record);
+          } else {
+            shape = parseIfSupported(state);
+          }
+        } catch (ParseException e) {
+          state.checkIOException();
+          throw state.relocate(e);
+        }
+        state.checkIOException();
+        if (shape == null)
+          throw state.relocate(new ParseException("Unknown Shape definition ["
+              + shorten(record != null ? record : state.rawString) + "]", 0));
+        return shape;
+      }
+      state.checkIOException();
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        try {
+          next = nextShape();
+        } catch (IOException | ParseException e) {
+          throw new RuntimeException("Unable to read shape: " + e, e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Shape next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      Shape shape = next;
+      next = null;
+      return shape;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
   }
 
   @Override
@@ -31,7 +31,8 @@ public class WKTWriter implements ShapeWriter {
 
 
   protected StringBuilder append(StringBuilder buffer, Point p, NumberFormat nf) {
-    return buffer.append(nf.format(p.getX())).append(' ').append( nf.format(p.getY()));
+    DoubleFormat.append(buffer, nf, p.getX()).append(' ');
+    return DoubleFormat.append(buffer, nf, p.getY());
   }
   
   @Override
@@ -49,10 +50,12 @@ public class WKTWriter implements ShapeWriter {
       nfMAX.setRoundingMode( RoundingMode.CEILING );
       
       Rectangle rect = (Rectangle)shape;
-      return "ENVELOPE (" +
-          // '(' x1 ',' x2 ',' y2 ',' y1 ')'
-        nfMIN.format(rect.getMinX()) + ", " + nfMAX.format(rect.getMaxX()) + ", "+
-        nfMAX.format(rect.getMaxY()) + ", " + nfMIN.format(rect.getMinY()) + ")";
+      StringBuilder buffer = new StringBuilder("ENVELOPE (");
+      // '(' x1 ',' x2 ',' y2 ',' y1 ')'
+      DoubleFormat.append(buffer, nfMIN, rect.getMinX()).append(", ");
+      DoubleFormat.append(buffer, nfMAX, rect.getMaxX()).append(", ");
+      DoubleFormat.append(buffer, nfMAX, rect.getMaxY()).append(", ");
+      return DoubleFormat.append(buffer, nfMIN, rect.getMinY()).append(")").toString();
 //      
 //      return "POLYGON(( "+
 //         nf.format(rect.getMinX()) + " " + nf.format(rect.getMinY()) + ", "+
@@ -65,12 +68,10 @@ public class WKTWriter implements ShapeWriter {
       Circle c = (Circle) shape;
 
       StringBuilder str = new StringBuilder();
-      str.append("BUFFER (POINT (")
-        .append(nf.format(c.getCenter().getX())).append(" ")
-        .append(nf.format(c.getCenter().getY()))
-        .append("), ")
-        .append(nf.format(c.getRadius()))
-        .append(")");
+      str.append("BUFFER (POINT (");
+      DoubleFormat.append(str, nf, c.getCenter().getX()).append(" ");
+      DoubleFormat.append(str, nf, c.getCenter().getY()).append("), ");
+      DoubleFormat.append(str, nf, c.getRadius()).append(")");
       return str.toString();
     }
     if (shape instanceof BufferedLineString) {
@@ -94,7 +95,7 @@ public class WKTWriter implements ShapeWriter {
       str.append(")");
 
       if (buf > 0d) {
-        str.append(", ").append(nf.format(buf)).append(")");
+        DoubleFormat.append(str.append(", "), nf, buf).append(")");
       }
       return str.toString();
     }
@@ -12,22 +12,42 @@ import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
 import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.io.BinaryCodec;
+import org.locationtech.spatial4j.io.ByteBufferDataIO;
+import org.locationtech.spatial4j.io.ShapeBatch;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import org.locationtech.spatial4j.shape.jts.JtsShapeFactory;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.CoordinateSequences;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.PrecisionModel;
-import com.vividsolutions.jts.io.InStream;
-import com.vividsolutions.jts.io.OutStream;
-import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
 import com.vividsolutions.jts.io.WKBConstants;
-import com.vividsolutions.jts.io.WKBReader;
-import com.vividsolutions.jts.io.WKBWriter;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
- * Writes shapes in WKB, if it isn't otherwise supported by the superclass.
+ * Writes shapes in WKB, if it isn't otherwise supported by the superclass.  In the compact form
+ * (see {@link BinaryCodec}), geometries are instead written like TWKB: a type byte (the WKB type
+ * code), varint counts, and coordinates through {@link #writeDim(DataOutput, double)}.  As rounded
+ * there, consecutive repeated points are dropped, and so are lines and rings that collapse, and
+ * empty members of multi-geometries; a geometry that collapses entirely is written empty.
  */
 public class JtsBinaryCodec extends BinaryCodec {
 
@@ -41,14 +61,14 @@ public class JtsBinaryCodec extends BinaryCodec {
 
   @Override
   protected double readDim(DataInput dataInput) throws IOException {
-    if (useFloat)
+    if (useFloat && !(dataInput instanceof CompactDataInput))
       return dataInput.readFloat();
     return super.readDim(dataInput);
   }
 
   @Override
   protected void writeDim(DataOutput dataOutput, double v) throws IOException {
-    if (useFloat)
+    if (useFloat && !(dataOutput instanceof CompactDataOutput))
       dataOutput.writeFloat((float) v);
     else
       super.writeDim(dataOutput, v);
@@ -78,50 +98,647 @@ public class JtsBinaryCodec extends BinaryCodec {
     return true;
   }
 
+  /**
+   * The WKB byte order mark for the data: big-endian (XDR) as {@link DataOutput} specifies, unless
+   * it's a {@link ByteBufferDataIO} over a little-endian buffer.
+   */
+  private static byte byteOrderMark(Object data) {
+    if (data instanceof ByteBufferDataIO && ((ByteBufferDataIO) data).order() == ByteOrder.LITTLE_ENDIAN)
+      return WKBConstants.wkbNDR;
+    return WKBConstants.wkbXDR;
+  }
+
   public Shape readJtsGeom(final DataInput dataInput) throws IOException {
     JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
-    WKBReader reader = new WKBReader(ctx.getGeometryFactory());
-    try {
-      InStream inStream = new InStream() {//a strange JTS abstraction
-        boolean first = true;
-        @Override
-        public void read(byte[] buf) throws IOException {
-          if (first) {//we don't write JTS's leading BOM so synthesize reading it
-            if (buf.length != 1)
-              throw new IllegalStateException("Expected initial read of one byte, not: " + buf.length);
-            buf[0] = WKBConstants.wkbXDR;//0
-            first = false;
-          } else {
-            //TODO for performance, specialize for common array lengths: 1, 4, 8
-            dataInput.readFully(buf);
-          }
-        }
-      };
-      Geometry geom = reader.read(inStream);
-      //false: don't check for dateline-180 cross or multi-polygon overlaps; this won't happen
-      // once it gets written, and we're reading it now
-      return ctx.makeShape(geom, false, false);
-    } catch (ParseException ex) {
-      throw new InvalidShapeException("error reading WKT", ex);
+    if (dataInput instanceof CompactDataInput) {
+      //see readJtsGeom below about the flags
+      return ctx.getShapeFactory().makeShape(
+          readCompactGeom(dataInput, ctx.getShapeFactory().getGeometryFactory()), false, false);
     }
+    final boolean littleEndian = byteOrderMark(dataInput) == WKBConstants.wkbNDR;
+    //we don't write the leading byte order mark; the data's order is implied
+    Geometry geom = readWkbGeom(dataInput, ctx.getShapeFactory().getGeometryFactory(), littleEndian, false);
+    //false: don't check for dateline-180 cross or multi-polygon overlaps; this won't happen
+    // once it gets written, and we're reading it now
+    return ctx.getShapeFactory().makeShape(geom, false, false);
   }
 
   public void writeJtsGeom(final DataOutput dataOutput, Shape s) throws IOException {
     JtsSpatialContext ctx = (JtsSpatialContext)super.ctx;
     Geometry geom = ctx.getGeometryFrom(s);//might even translate it
-    new WKBWriter().write(geom, new OutStream() {//a strange JTS abstraction
-      boolean first = true;
-      @Override
-      public void write(byte[] buf, int len) throws IOException {
-        if (first) {
-          first = false;
-          //skip byte order mark
-          if (len != 1 || buf[0] != WKBConstants.wkbXDR)//the default
-            throw new IllegalStateException("Unexpected WKB byte order mark");
-          return;
+    if (dataOutput instanceof CompactDataOutput) {
+      writeCompactGeom(dataOutput, geom);
+      return;
+    }
+    writeWkbGeom(dataOutput, geom, byteOrderMark(dataOutput), false);//the data's order is implied
+  }
+
+  // WKB, as JTS's WKBReader and 2D WKBWriter, but coordinates go straight between the data and
+  // the CoordinateSequence, in bulk for a ByteBufferDataIO.
+
+  private static final int WKB_Z_FLAG = 0x80000000, WKB_SRID_FLAG = 0x20000000;
+
+  /**
+   * Reads a WKB geometry.  Ints and doubles are in the data's order, which is little-endian if
+   * {@code littleEndian}, unless a byte order mark says otherwise.
+   *
+   * @param withByteOrderMark whether the geometry begins with one; nested ones do.
+   */
+  protected Geometry readWkbGeom(DataInput dataInput, GeometryFactory geometryFactory, boolean littleEndian,
+                                 boolean withByteOrderMark) throws IOException {
+    boolean swap = false;//vs the data's order
+    if (withByteOrderMark)
+      swap = (dataInput.readByte() == WKBConstants.wkbNDR) != littleEndian;
+    final int typeInt = readWkbInt(dataInput, swap);
+    final int dimension = (typeInt & WKB_Z_FLAG) != 0 ? 3 : 2;
+    final int srid = (typeInt & WKB_SRID_FLAG) != 0 ? readWkbInt(dataInput, swap) : 0;
+    final Geometry geom;
+    switch (typeInt & 0xFF) {
+      case WKBConstants.wkbPoint:
+        geom = geometryFactory.createPoint(readWkbCoords(dataInput, geometryFactory, swap, 1, dimension));
+        break;
+      case WKBConstants.wkbLineString: {
+        CoordinateSequence coords = readWkbCoords(dataInput, geometryFactory, swap,
+            readWkbInt(dataInput, swap), dimension);
+        if (coords.size() == 1)//as WKBReader, which isn't strict
+          coords = CoordinateSequences.extend(geometryFactory.getCoordinateSequenceFactory(), coords, 2);
+        geom = geometryFactory.createLineString(coords);
+        break;
+      }
+      case WKBConstants.wkbPolygon: {
+        final int numRings = readWkbInt(dataInput, swap);
+        LinearRing shell = null;
+        LinearRing[] holes = new LinearRing[Math.max(0, numRings - 1)];
+        for (int i = 0; i < numRings; i++) {
+          LinearRing ring = readWkbRing(dataInput, geometryFactory, swap, dimension);
+          if (i == 0)
+            shell = ring;
+          else
+            holes[i - 1] = ring;
+        }
+        geom = geometryFactory.createPolygon(shell, holes);
+        break;
+      }
+      case WKBConstants.wkbMultiPoint: {
+        Point[] points = new Point[readWkbInt(dataInput, swap)];
+        for (int i = 0; i < points.length; i++) {
+          points[i] = (Point) readWkbElement(dataInput, geometryFactory, littleEndian, Point.class);
+        }
+        geom = geometryFactory.createMultiPoint(points);
+        break;
+      }
+      case WKBConstants.wkbMultiLineString: {
+        LineString[] lines = new LineString[readWkbInt(dataInput, swap)];
+        for (int i = 0; i < lines.length; i++) {
+          lines[i] = (LineString) readWkbElement(dataInput, geometryFactory, littleEndian, LineString.class);
+        }
+        geom = geometryFactory.createMultiLineString(lines);
+        break;
+      }
+      case WKBConstants.wkbMultiPolygon: {
+        Polygon[] polygons = new Polygon[readWkbInt(dataInput, swap)];
+        for (int i = 0; i < polygons.length; i++) {
+          polygons[i] = (Polygon) readWkbElement(dataInput, geometryFactory, littleEndian, Polygon.class);
+        }
+        geom = geometryFactory.createMultiPolygon(polygons);
+        break;
+      }
+      case WKBConstants.wkbGeometryCollection: {
+        Geometry[] geoms = new Geometry[readWkbInt(dataInput, swap)];
+        for (int i = 0; i < geoms.length; i++) {
+          geoms[i] = readWkbElement(dataInput, geometryFactory, littleEndian, Geometry.class);
+        }
+        geom = geometryFactory.createGeometryCollection(geoms);
+        break;
+      }
+      default:
+        throw new InvalidShapeException("Unknown WKB type " + (typeInt & 0xFF));
+    }
+    if (srid != 0)
+      geom.setSRID(srid);
+    return geom;
+  }
+
+  private Geometry readWkbElement(DataInput dataInput, GeometryFactory geometryFactory, boolean littleEndian,
+                                  Class<? extends Geometry> expectedClass) throws IOException {
+    Geometry geom = readWkbGeom(dataInput, geometryFactory, littleEndian, true);
+    if (!expectedClass.isInstance(geom))
+      throw new InvalidShapeException("Invalid geometry type encountered: " + geom.getGeometryType());
+    return geom;
+  }
+
+  private LinearRing readWkbRing(DataInput dataInput, GeometryFactory geometryFactory, boolean swap,
+                                 int dimension) throws IOException {
+    CoordinateSequence coords = readWkbCoords(dataInput, geometryFactory, swap,
+        readWkbInt(dataInput, swap), dimension);
+    if (!CoordinateSequences.isRing(coords))//as WKBReader, which isn't strict
+      coords = CoordinateSequences.ensureValidRing(geometryFactory.getCoordinateSequenceFactory(), coords);
+    return geometryFactory.createLinearRing(coords);
+  }
+
+  /**
+   * Reads {@code size} coordinates into a sequence from the geometry factory's
+   * CoordinateSequenceFactory; a packed one of doubles takes the ordinates array as is.  X and Y are
+   * made precise per the factory's PrecisionModel.
+   */
+  protected CoordinateSequence readWkbCoords(DataInput dataInput, GeometryFactory geometryFactory, boolean swap,
+                                             int size, int dimension) throws IOException {
+    if (size < 0)
+      throw new InvalidShapeException("Negative WKB coordinate count " + size);
+    final double[] ordinates = new double[size * dimension];
+    if (!swap && dataInput instanceof ByteBufferDataIO) {
+      ((ByteBufferDataIO) dataInput).readDoubles(ordinates, 0, ordinates.length);
+    } else {
+      for (int i = 0; i < ordinates.length; i++) {
+        ordinates[i] = swap ? Double.longBitsToDouble(Long.reverseBytes(dataInput.readLong()))
+            : dataInput.readDouble();
+      }
+    }
+    final PrecisionModel precisionModel = geometryFactory.getPrecisionModel();
+    if (precisionModel.getType() != PrecisionModel.FLOATING) {
+      for (int i = 0; i < ordinates.length; i += dimension) {
+        ordinates[i] = precisionModel.makePrecise(ordinates[i]);
+        ordinates[i + 1] = precisionModel.makePrecise(ordinates[i + 1]);
+      }
+    }
+    final CoordinateSequenceFactory csFactory = geometryFactory.getCoordinateSequenceFactory();
+    if (csFactory instanceof PackedCoordinateSequenceFactory
+        && ((PackedCoordinateSequenceFactory) csFactory).getType() == PackedCoordinateSequenceFactory.DOUBLE)
+      return ((PackedCoordinateSequenceFactory) csFactory).create(ordinates, dimension);
+    final CoordinateSequence coords = csFactory.create(size, dimension);
+    for (int i = 0; i < size; i++) {
+      for (int d = 0; d < dimension; d++) {
+        coords.setOrdinate(i, d, ordinates[i * dimension + d]);
+      }
+    }
+    return coords;
+  }
+
+  private static int readWkbInt(DataInput dataInput, boolean swap) throws IOException {
+    return swap ? Integer.reverseBytes(dataInput.readInt()) : dataInput.readInt();
+  }
+
+  /**
+   * Writes a 2D WKB geometry, in the data's order, which {@code byteOrderMark} must match.
+   *
+   * @param withByteOrderMark whether to begin with it; nested geometries do.
+   */
+  protected void writeWkbGeom(DataOutput dataOutput, Geometry geom, byte byteOrderMark,
+                              boolean withByteOrderMark) throws IOException {
+    if (withByteOrderMark)
+      dataOutput.writeByte(byteOrderMark);
+    if (geom instanceof Point) {
+      CoordinateSequence coords = ((Point) geom).getCoordinateSequence();
+      if (coords.size() == 0)
+        throw new IllegalArgumentException("Empty Points cannot be represented in WKB");
+      dataOutput.writeInt(WKBConstants.wkbPoint);
+      writeWkbCoords(dataOutput, coords);
+    } else if (geom instanceof LineString) {//includes LinearRing
+      dataOutput.writeInt(WKBConstants.wkbLineString);
+      writeWkbSizeAndCoords(dataOutput, ((LineString) geom).getCoordinateSequence());
+    } else if (geom instanceof Polygon) {
+      Polygon polygon = (Polygon) geom;
+      dataOutput.writeInt(WKBConstants.wkbPolygon);
+      if (polygon.isEmpty()) {
+        dataOutput.writeInt(0);
+        return;
+      }
+      dataOutput.writeInt(1 + polygon.getNumInteriorRing());
+      writeWkbSizeAndCoords(dataOutput, polygon.getExteriorRing().getCoordinateSequence());
+      for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+        writeWkbSizeAndCoords(dataOutput, polygon.getInteriorRingN(i).getCoordinateSequence());
+      }
+    } else if (geom instanceof GeometryCollection) {
+      dataOutput.writeInt(geom instanceof MultiPoint ? WKBConstants.wkbMultiPoint
+          : geom instanceof MultiLineString ? WKBConstants.wkbMultiLineString
+          : geom instanceof MultiPolygon ? WKBConstants.wkbMultiPolygon
+          : WKBConstants.wkbGeometryCollection);
+      dataOutput.writeInt(geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeWkbGeom(dataOutput, geom.getGeometryN(i), byteOrderMark, true);
+      }
+    } else {
+      throw new IllegalArgumentException("Unknown Geometry type: " + geom.getClass().getName());
+    }
+  }
+
+  private static void writeWkbSizeAndCoords(DataOutput dataOutput, CoordinateSequence coords) throws IOException {
+    dataOutput.writeInt(coords.size());
+    writeWkbCoords(dataOutput, coords);
+  }
+
+  private static void writeWkbCoords(DataOutput dataOutput, CoordinateSequence coords) throws IOException {
+    final int size = coords.size();
+    if (dataOutput instanceof ByteBufferDataIO) {
+      final double[] ordinates = new double[size * 2];
+      for (int i = 0; i < size; i++) {
+        ordinates[i * 2] = coords.getX(i);
+        ordinates[i * 2 + 1] = coords.getY(i);
+      }
+      ((ByteBufferDataIO) dataOutput).writeDoubles(ordinates, 0, ordinates.length);
+    } else {
+      for (int i = 0; i < size; i++) {
+        dataOutput.writeDouble(coords.getX(i));
+        dataOutput.writeDouble(coords.getY(i));
+      }
+    }
+  }
+
+  // The compact form; the type codes are WKB's
+
+  protected Geometry readCompactGeom(DataInput dataInput, GeometryFactory geometryFactory) throws IOException {
+    final byte type = dataInput.readByte();
+    switch (type) {
+      case WKBConstants.wkbPoint:
+        return geometryFactory.createPoint(readCompactCoords(dataInput, geometryFactory));
+      case WKBConstants.wkbLineString:
+        return geometryFactory.createLineString(readCompactCoords(dataInput, geometryFactory));
+      case WKBConstants.wkbPolygon:
+        return readCompactPolygon(dataInput, geometryFactory);
+      case WKBConstants.wkbMultiPoint: {
+        Point[] points = new Point[readCount(dataInput)];
+        CoordinateSequence coords = readCompactCoords(dataInput, geometryFactory, points.length);
+        for (int i = 0; i < points.length; i++) {
+          points[i] = geometryFactory.createPoint(coords.getCoordinate(i));
+        }
+        return geometryFactory.createMultiPoint(points);
+      }
+      case WKBConstants.wkbMultiLineString: {
+        LineString[] lines = new LineString[readCount(dataInput)];
+        for (int i = 0; i < lines.length; i++) {
+          lines[i] = geometryFactory.createLineString(readCompactCoords(dataInput, geometryFactory));
+        }
+        return geometryFactory.createMultiLineString(lines);
+      }
+      case WKBConstants.wkbMultiPolygon: {
+        Polygon[] polygons = new Polygon[readCount(dataInput)];
+        for (int i = 0; i < polygons.length; i++) {
+          polygons[i] = readCompactPolygon(dataInput, geometryFactory);
+        }
+        return geometryFactory.createMultiPolygon(polygons);
+      }
+      case WKBConstants.wkbGeometryCollection: {
+        Geometry[] geoms = new Geometry[readCount(dataInput)];
+        for (int i = 0; i < geoms.length; i++) {
+          geoms[i] = readCompactGeom(dataInput, geometryFactory);
         }
-        dataOutput.write(buf, 0, len);
+        return geometryFactory.createGeometryCollection(geoms);
       }
-    });
+      default:
+        throw new InvalidShapeException("Unsupported geometry type byte " + type);
+    }
+  }
+
+  private Polygon readCompactPolygon(DataInput dataInput, GeometryFactory geometryFactory) throws IOException {
+    final int numRings = readCount(dataInput);
+    if (numRings == 0)
+      return geometryFactory.createPolygon(null, null);
+    LinearRing shell = geometryFactory.createLinearRing(readCompactCoords(dataInput, geometryFactory));
+    LinearRing[] holes = new LinearRing[numRings - 1];
+    for (int i = 0; i < holes.length; i++) {
+      holes[i] = geometryFactory.createLinearRing(readCompactCoords(dataInput, geometryFactory));
+    }
+    return geometryFactory.createPolygon(shell, holes);
+  }
+
+  private CoordinateSequence readCompactCoords(DataInput dataInput, GeometryFactory geometryFactory) throws IOException {
+    return readCompactCoords(dataInput, geometryFactory, readCount(dataInput));
+  }
+
+  /** Reads into a sequence of the geometry factory's kind, e.g. a packed one. */
+  private CoordinateSequence readCompactCoords(DataInput dataInput, GeometryFactory geometryFactory, int size) throws IOException {
+    CoordinateSequence coords = geometryFactory.getCoordinateSequenceFactory().create(size, 2);
+    for (int i = 0; i < size; i++) {
+      coords.setOrdinate(i, CoordinateSequence.X, readDim(dataInput));
+      coords.setOrdinate(i, CoordinateSequence.Y, readDim(dataInput));
+    }
+    return coords;
+  }
+
+  protected void writeCompactGeom(DataOutput dataOutput, Geometry geom) throws IOException {
+    if (dataOutput instanceof CompactDataOutput)
+      geom = roundedGeom((CompactDataOutput) dataOutput, geom);
+    writeRoundedGeom(dataOutput, geom);
+  }
+
+  private void writeRoundedGeom(DataOutput dataOutput, Geometry geom) throws IOException {
+    if (geom instanceof Point) {
+      dataOutput.writeByte(WKBConstants.wkbPoint);
+      writeCompactCoords(dataOutput, ((Point) geom).getCoordinateSequence(), true);
+    } else if (geom instanceof LineString) {//includes LinearRing
+      dataOutput.writeByte(WKBConstants.wkbLineString);
+      writeCompactCoords(dataOutput, ((LineString) geom).getCoordinateSequence(), true);
+    } else if (geom instanceof Polygon) {
+      dataOutput.writeByte(WKBConstants.wkbPolygon);
+      writeCompactPolygon(dataOutput, (Polygon) geom);
+    } else if (geom instanceof MultiPoint) {
+      dataOutput.writeByte(WKBConstants.wkbMultiPoint);
+      writeCount(dataOutput, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeCompactCoords(dataOutput, ((Point) geom.getGeometryN(i)).getCoordinateSequence(), false);
+      }
+    } else if (geom instanceof MultiLineString) {
+      dataOutput.writeByte(WKBConstants.wkbMultiLineString);
+      writeCount(dataOutput, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeCompactCoords(dataOutput, ((LineString) geom.getGeometryN(i)).getCoordinateSequence(), true);
+      }
+    } else if (geom instanceof MultiPolygon) {
+      dataOutput.writeByte(WKBConstants.wkbMultiPolygon);
+      writeCount(dataOutput, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeCompactPolygon(dataOutput, (Polygon) geom.getGeometryN(i));
+      }
+    } else if (geom instanceof GeometryCollection) {
+      dataOutput.writeByte(WKBConstants.wkbGeometryCollection);
+      writeCount(dataOutput, geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        writeRoundedGeom(dataOutput, geom.getGeometryN(i));
+      }
+    } else {
+      throw new IllegalArgumentException("Unsupported geometry " + geom.getGeometryType());
+    }
+  }
+
+  /**
+   * The geometry as the compact form rounds it; see the class docs.  A ring collapses if it has
+   * fewer than 4 points or no area, and a line if it has fewer than 2 points.  A polygon whose
+   * shell collapses is empty.
+   */
+  private Geometry roundedGeom(CompactDataOutput out, Geometry geom) {
+    final GeometryFactory geometryFactory = geom.getFactory();
+    if (geom instanceof Point) {
+      return geom;
+    } else if (geom instanceof LineString) {//includes LinearRing, which is read back as a LineString
+      CoordinateSequence coords = roundedCoords(out, ((LineString) geom).getCoordinateSequence(), false, geometryFactory);
+      if (coords == ((LineString) geom).getCoordinateSequence())
+        return geom;
+      return geometryFactory.createLineString(coords != null ? coords : emptyCoords(geometryFactory));
+    } else if (geom instanceof Polygon) {
+      Polygon polygon = roundedPolygon(out, (Polygon) geom);
+      return polygon != null ? polygon : geometryFactory.createPolygon(null, null);
+    } else if (geom instanceof MultiPoint) {
+      List<Point> points = new ArrayList<>(geom.getNumGeometries());
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        if (!geom.getGeometryN(i).isEmpty())
+          points.add((Point) geom.getGeometryN(i));
+      }
+      if (points.size() == geom.getNumGeometries())
+        return geom;
+      return geometryFactory.createMultiPoint(points.toArray(new Point[points.size()]));
+    } else if (geom instanceof MultiLineString) {
+      List<LineString> lines = new ArrayList<>(geom.getNumGeometries());
+      boolean changed = false;
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        Geometry line = roundedGeom(out, geom.getGeometryN(i));
+        changed |= line != geom.getGeometryN(i);
+        if (!line.isEmpty())
+          lines.add((LineString) line);
+        else
+          changed = true;
+      }
+      if (!changed)
+        return geom;
+      return geometryFactory.createMultiLineString(lines.toArray(new LineString[lines.size()]));
+    } else if (geom instanceof MultiPolygon) {
+      List<Polygon> polygons = new ArrayList<>(geom.getNumGeometries());
+      boolean changed = false;
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        Polygon polygon = roundedPolygon(out, (Polygon) geom.getGeometryN(i));
+        changed |= polygon != geom.getGeometryN(i);
+        if (polygon != null && !polygon.isEmpty())
+          polygons.add(polygon);
+        else
+          changed = true;
+      }
+      if (!changed)
+        return geom;
+      return geometryFactory.createMultiPolygon(polygons.toArray(new Polygon[polygons.size()]));
+    } else if (geom instanceof GeometryCollection) {
+      List<Geometry> geoms = new ArrayList<>(geom.getNumGeometries());
+      boolean changed = false;
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        Geometry member = roundedGeom(out, geom.getGeometryN(i));
+        changed |= member != geom.getGeometryN(i);
+        if (!member.isEmpty())
+          geoms.add(member);
+        else
+          changed = true;
+      }
+      if (!changed)
+        return geom;
+      return geometryFactory.createGeometryCollection(geoms.toArray(new Geometry[geoms.size()]));
+    }
+    return geom;//writeRoundedGeom will complain
+  }
+
+  /** The polygon less collapsed holes; null if its shell collapses. */
+  private Polygon roundedPolygon(CompactDataOutput out, Polygon polygon) {
+    if (polygon.isEmpty())
+      return polygon;
+    final GeometryFactory geometryFactory = polygon.getFactory();
+    CoordinateSequence shell = roundedCoords(out, polygon.getExteriorRing().getCoordinateSequence(), true, geometryFactory);
+    if (shell == null)
+      return null;
+    boolean changed = shell != polygon.getExteriorRing().getCoordinateSequence();
+    List<LinearRing> holes = new ArrayList<>(polygon.getNumInteriorRing());
+    for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+      CoordinateSequence hole = roundedCoords(out, polygon.getInteriorRingN(i).getCoordinateSequence(), true, geometryFactory);
+      changed |= hole != polygon.getInteriorRingN(i).getCoordinateSequence();
+      if (hole != null)
+        holes.add(geometryFactory.createLinearRing(hole));
+    }
+    if (!changed)
+      return polygon;
+    return geometryFactory.createPolygon(geometryFactory.createLinearRing(shell),
+        holes.toArray(new LinearRing[holes.size()]));
+  }
+
+  /**
+   * The coordinates less those that round to the same as the one before; the same instance if
+   * there are none, or null if it collapses.
+   */
+  private static CoordinateSequence roundedCoords(CompactDataOutput out, CoordinateSequence coords,
+                                                  boolean ring, GeometryFactory geometryFactory) {
+    if (coords.size() == 0)
+      return coords;
+    final int[] kept = new int[coords.size()];
+    int numKept = 0;
+    double lastX = Double.NaN, lastY = Double.NaN, twiceArea = 0;
+    for (int i = 0; i < coords.size(); i++) {
+      final double x = out.round(coords.getX(i)), y = out.round(coords.getY(i));
+      if (numKept > 0 && x == lastX && y == lastY) {
+        if (i == coords.size() - 1)//keep the last, so that a ring stays exactly closed
+          kept[numKept - 1] = i;
+        continue;
+      }
+      if (numKept > 0)
+        twiceArea += lastX * y - x * lastY;
+      kept[numKept++] = i;
+      lastX = x;
+      lastY = y;
+    }
+    if (numKept < (ring ? 4 : 2) || (ring && twiceArea == 0))
+      return null;
+    if (numKept == coords.size())
+      return coords;
+    CoordinateSequence result = geometryFactory.getCoordinateSequenceFactory().create(numKept, 2);
+    for (int i = 0; i < numKept; i++) {
+      result.setOrdinate(i, CoordinateSequence.X, coords.getOrdinate(kept[i], CoordinateSequence.X));
+      result.setOrdinate(i, CoordinateSequence.Y, coords.getOrdinate(kept[i], CoordinateSequence.Y));
+    }
+    return result;
+  }
+
+  private static CoordinateSequence emptyCoords(GeometryFactory geometryFactory) {
+    return geometryFactory.getCoordinateSequenceFactory().create(0, 2);
+  }
+
+  private void writeCompactPolygon(DataOutput dataOutput, Polygon polygon) throws IOException {
+    if (polygon.isEmpty()) {
+      writeCount(dataOutput, 0);
+      return;
+    }
+    writeCount(dataOutput, 1 + polygon.getNumInteriorRing());
+    writeCompactCoords(dataOutput, polygon.getExteriorRing().getCoordinateSequence(), true);
+    for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+      writeCompactCoords(dataOutput, polygon.getInteriorRingN(i).getCoordinateSequence(), true);
+    }
+  }
+
+  private void writeCompactCoords(DataOutput dataOutput, CoordinateSequence coords, boolean withCount) throws IOException {
+    if (withCount)
+      writeCount(dataOutput, coords.size());
+    else if (coords.size() != 1)
+      throw new IllegalArgumentException("Empty points in a MultiPoint aren't supported");
+    for (int i = 0; i < coords.size(); i++) {
+      writeDim(dataOutput, coords.getOrdinate(i, CoordinateSequence.X));
+      writeDim(dataOutput, coords.getOrdinate(i, CoordinateSequence.Y));
+    }
+  }
+
+  // ShapeBatch columns
+
+  /** Also puts non-empty JTS lines, polygons, and multi-points in the columns. */
+  @Override
+  protected byte writeBatchShape(ShapeBatch.Builder builder, Shape s) {
+    if (!(s instanceof JtsGeometry))
+      return super.writeBatchShape(builder, s);
+    final Geometry geom = ((JtsGeometry) s).getGeom();
+    for (int i = 0; i < geom.getNumGeometries(); i++) {
+      if (geom.getGeometryN(i).isEmpty())
+        return ShapeBatch.OTHER;
+    }
+    if (geom instanceof Polygon) {
+      addBatchPolygon(builder, (Polygon) geom);
+      return ShapeBatch.POLYGON;
+    } else if (geom instanceof LineString) {
+      builder.startPart();
+      addBatchRing(builder, ((LineString) geom).getCoordinateSequence());
+      return ShapeBatch.LINESTRING;
+    } else if (geom instanceof MultiPolygon) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        addBatchPolygon(builder, (Polygon) geom.getGeometryN(i));
+      }
+      return ShapeBatch.MULTIPOLYGON;
+    } else if (geom instanceof MultiLineString) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        builder.startPart();
+        addBatchRing(builder, ((LineString) geom.getGeometryN(i)).getCoordinateSequence());
+      }
+      return ShapeBatch.MULTILINESTRING;
+    } else if (geom instanceof MultiPoint) {
+      builder.startPart();
+      builder.startRing();
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        Point point = (Point) geom.getGeometryN(i);
+        builder.addCoord(point.getX(), point.getY());
+      }
+      return ShapeBatch.MULTIPOINT;
+    }
+    return ShapeBatch.OTHER;
+  }
+
+  private static void addBatchPolygon(ShapeBatch.Builder builder, Polygon polygon) {
+    builder.startPart();
+    addBatchRing(builder, polygon.getExteriorRing().getCoordinateSequence());
+    for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+      addBatchRing(builder, polygon.getInteriorRingN(i).getCoordinateSequence());
+    }
+  }
+
+  private static void addBatchRing(ShapeBatch.Builder builder, CoordinateSequence coords) {
+    builder.startRing();
+    for (int i = 0; i < coords.size(); i++) {
+      builder.addCoord(coords.getX(i), coords.getY(i));
+    }
+  }
+
+  @Override
+  protected Shape readBatchShape(ShapeBatch batch, int i) {
+    final JtsShapeFactory shapeFactory = ((JtsSpatialContext) ctx).getShapeFactory();
+    final GeometryFactory geometryFactory = shapeFactory.getGeometryFactory();
+    final int[] geomOffsets = batch.getGeomOffsets();
+    final Geometry geom;
+    switch (batch.getKinds()[i]) {
+      case ShapeBatch.POLYGON:
+        geom = readBatchPolygon(batch, geomOffsets[i], geometryFactory);
+        break;
+      case ShapeBatch.LINESTRING:
+        geom = geometryFactory.createLineString(readBatchRing(batch, batch.getPartOffsets()[geomOffsets[i]], geometryFactory));
+        break;
+      case ShapeBatch.MULTIPOLYGON: {
+        Polygon[] polygons = new Polygon[geomOffsets[i + 1] - geomOffsets[i]];
+        for (int p = 0; p < polygons.length; p++) {
+          polygons[p] = readBatchPolygon(batch, geomOffsets[i] + p, geometryFactory);
+        }
+        geom = geometryFactory.createMultiPolygon(polygons);
+        break;
+      }
+      case ShapeBatch.MULTILINESTRING: {
+        LineString[] lines = new LineString[geomOffsets[i + 1] - geomOffsets[i]];
+        for (int p = 0; p < lines.length; p++) {
+          lines[p] = geometryFactory.createLineString(
+              readBatchRing(batch, batch.getPartOffsets()[geomOffsets[i] + p], geometryFactory));
+        }
+        geom = geometryFactory.createMultiLineString(lines);
+        break;
+      }
+      case ShapeBatch.MULTIPOINT:
+        geom = geometryFactory.createMultiPoint(
+            readBatchRing(batch, batch.getPartOffsets()[geomOffsets[i]], geometryFactory));
+        break;
+      default:
+        return super.readBatchShape(batch, i);
+    }
+    //false: as when reading; the geometry was a JtsGeometry's already
+    return shapeFactory.makeShape(geom, false, false);
+  }
+
+  private static Polygon readBatchPolygon(ShapeBatch batch, int part, GeometryFactory geometryFactory) {
+    final int firstRing = batch.getPartOffsets()[part];
+    LinearRing[] holes = new LinearRing[batch.getPartOffsets()[part + 1] - firstRing - 1];
+    for (int r = 0; r < holes.length; r++) {
+      holes[r] = geometryFactory.createLinearRing(readBatchRing(batch, firstRing + 1 + r, geometryFactory));
+    }
+    return geometryFactory.createPolygon(
+        geometryFactory.createLinearRing(readBatchRing(batch, firstRing, geometryFactory)), holes);
+  }
+
+  private static CoordinateSequence readBatchRing(ShapeBatch batch, int ring, GeometryFactory geometryFactory) {
+    final int start = batch.getRingOffsets()[ring];
+    final int size = batch.getRingOffsets()[ring + 1] - start;
+    final double[] coords = batch.getCoords();
+    final CoordinateSequenceFactory csFactory = geometryFactory.getCoordinateSequenceFactory();
+    if (csFactory instanceof PackedCoordinateSequenceFactory
+        && ((PackedCoordinateSequenceFactory) csFactory).getType() == PackedCoordinateSequenceFactory.DOUBLE)
+      return ((PackedCoordinateSequenceFactory) csFactory).create(
+          Arrays.copyOfRange(coords, start * 2, (start + size) * 2), 2);
+    final CoordinateSequence seq = csFactory.create(size, 2);
+    for (int c = 0; c < size; c++) {
+      seq.setOrdinate(c, CoordinateSequence.X, coords[(start + c) * 2]);
+      seq.setOrdinate(c, CoordinateSequence.Y, coords[(start + c) * 2 + 1]);
+    }
+    return seq;
   }
 }
@@ -13,6 +13,7 @@ import java.io.Writer;
 import java.text.NumberFormat;
 import org.locationtech.spatial4j.context.SpatialContextFactory;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.io.DoubleFormat;
 import org.locationtech.spatial4j.io.GeoJSONWriter;
 import org.locationtech.spatial4j.io.LegacyShapeWriter;
 import org.locationtech.spatial4j.shape.Shape;
@@ -43,9 +44,9 @@ public class JtsGeoJSONWriter extends GeoJSONWriter {
 
   protected void write(Writer output, NumberFormat nf, Coordinate coord) throws IOException {
     output.write('[');
-    output.write(nf.format(coord.x));
+    DoubleFormat.append(output, nf, coord.x);
     output.write(',');
-    output.write(nf.format(coord.y));
+    DoubleFormat.append(output, nf, coord.y);
     output.write(']');
   }
 
@@ -58,14 +59,14 @@ public class JtsGeoJSONWriter extends GeoJSONWriter {
         output.write(',');
       }
       output.write('[');
-      output.write(nf.format(coordseq.getOrdinate(i, 0)));
+      DoubleFormat.append(output, nf, coordseq.getOrdinate(i, 0));
       output.write(',');
-      output.write(nf.format(coordseq.getOrdinate(i, 1)));
+      DoubleFormat.append(output, nf, coordseq.getOrdinate(i, 1));
       if (dim > 2) {
         double v = coordseq.getOrdinate(i, 2);
         if (!Double.isNaN(v)) {
           output.write(',');
-          output.write(nf.format(v));
+          DoubleFormat.append(output, nf, v);
         }
       }
       output.write(']');
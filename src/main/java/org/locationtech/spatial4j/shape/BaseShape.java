@@ -9,6 +9,9 @@
 package org.locationtech.spatial4j.shape;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+
+import java.util.BitSet;
 
 public abstract class BaseShape<T extends SpatialContext> implements Shape {
 
@@ -22,4 +25,91 @@ public abstract class BaseShape<T extends SpatialContext> implements Shape {
   public T getContext() {
     return ctx;
   }
+
+  /**
+   * Whether this shape and the other share any point; equivalent to
+   * <code>relate(other).intersects()</code>.  Subclasses may answer faster than
+   * {@link #relate(Shape)} since they can stop as soon as they find an intersection, and needn't
+   * distinguish CONTAINS or WITHIN.  For any shape, use {@link ShapeUtils#intersects(Shape, Shape)}.
+   */
+  public boolean intersects(Shape other) {
+    return relate(other).intersects();
+  }
+
+  /**
+   * Whether this shape covers the other (boundary-neutral); equivalent to
+   * <code>relate(other) == CONTAINS || equals(other)</code>, but possibly faster.
+   * For any shape, use {@link ShapeUtils#contains(Shape, Shape)}.
+   */
+  public boolean contains(Shape other) {
+    return relate(other) == SpatialRelation.CONTAINS || equals(other);
+  }
+
+  /**
+   * Whether this shape is covered by the other (boundary-neutral); equivalent to
+   * <code>relate(other) == WITHIN || equals(other)</code>, but possibly faster.
+   * For any shape, use {@link ShapeUtils#within(Shape, Shape)}.
+   */
+  public boolean within(Shape other) {
+    return relate(other) == SpatialRelation.WITHIN || equals(other);
+  }
+
+  /**
+   * The number of vertexes of this shape, as a proxy for its size in memory, e.g. to weigh it in
+   * {@link RelationCache}.  Returns 1, as for a point, rectangle, or circle; override if the
+   * size varies.
+   */
+  public long getVertexCount() {
+    return 1;
+  }
+
+  /**
+   * Returns an equal shape of the same type that's optimized to be related to many other shapes,
+   * as a query shape usually is.  It's immutable and thread-safe, and might take some time and
+   * memory to build.  This shape is not modified.  Shapes that are already optimized return
+   * themselves, as this default does, e.g. a {@link Rectangle}, a {@link Circle} (whose
+   * trigonometry is cached at construction) and a buffered line string (whose segments are always
+   * indexed).  For any shape, use {@link ShapeUtils#prepare(Shape)}.
+   */
+  public Shape prepare() {
+    return this;
+  }
+
+  /**
+   * The distance from the point to the nearest point of this shape, as measured by the context's
+   * {@link org.locationtech.spatial4j.distance.DistanceCalculator}; 0 if this shape contains it,
+   * and NaN if this shape is empty.  A shape that can't compute it exactly returns a lower bound,
+   * such as the distance to its bounding box, as this default does unless the point is contained;
+   * override to be exact.  For any shape, use {@link ShapeUtils#distance(Shape, Point)}.
+   */
+  public double distance(Point from) {
+    if (isEmpty())
+      return Double.NaN;
+    if (contains(from.getX(), from.getY()))
+      return 0;
+    return DistanceUtils.distance(ctx.getDistCalc(), from, getBoundingBox());
+  }
+
+  /**
+   * Whether the point x,y intersects this shape; equivalent to
+   * <code>relate(point).intersects()</code>.  Subclasses override it to answer without creating a
+   * {@link Point}, and generally without allocating memory.  For any shape, use
+   * {@link ShapeUtils#contains(Shape, double, double)}.
+   */
+  public boolean contains(double x, double y) {
+    return relate(ctx.getShapeFactory().pointXY(x, y)).intersects();
+  }
+
+  /**
+   * Tests {@link #contains(double, double)} on many points at once: for each index {@code i} less
+   * than {@code length}, sets bit {@code i} of {@code result} if this shape contains
+   * {@code xs[i],ys[i]}.  Other bits are left as-is, so a result can accumulate several shapes.
+   * For any shape, use {@link ShapeUtils#contains(Shape, double[], double[], int, BitSet)}.
+   */
+  public void contains(double[] xs, double[] ys, int length, BitSet result) {
+    for (int i = 0; i < length; i++) {
+      if (contains(xs[i], ys[i]))
+        result.set(i);
+    }
+  }
 }
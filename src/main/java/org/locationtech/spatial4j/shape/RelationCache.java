@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of {@link Shape#relate(Shape)} results, for applications that relate the same
+ * query shapes to the same (typically large, indexed) shapes repeatedly.  The key is the
+ * identity of the indexed shape plus the query shape by {@link Object#equals(Object)}, thus query
+ * shapes must not be modified after they are used.
+ * <p>
+ * Each entry has a weight from a {@link Weigher} and the cache evicts entries when the total
+ * weight exceeds the maximum, in an order governed by an {@link EvictionPolicy}.  The cache is
+ * thread-safe; it's split into segments with their own lock.  A result is computed outside of
+ * the lock, so two threads missing on the same key concurrently will both compute it.
+ * <p>
+ * An entry holds strong references to both shapes until it's evicted or the cache is
+ * {@link #clear() cleared}, which keeps an indexed shape and its index in memory even after the
+ * application is done with it.  Since the weight is what limits retention, it should reflect the
+ * size of the shapes; {@link #DEFAULT_WEIGHER} counts the query's vertexes.  Indexed shapes are
+ * typically few and shared by many entries, thus they aren't weighed; call {@link #clear()} when
+ * replacing them.
+ */
+public class RelationCache {
+
+  /** Computes the weight of an entry; at least 1. */
+  public interface Weigher {
+    int weigh(Shape indexed, Shape query);
+  }
+
+  /** Weighs the query by its {@link #vertexCount(Shape) vertex count}. */
+  public static final Weigher DEFAULT_WEIGHER = new Weigher() {
+    @Override
+    public int weigh(Shape indexed, Shape query) {
+      return (int) Math.min(Integer.MAX_VALUE, Math.max(1, vertexCount(query)));
+    }
+  };
+
+  /**
+   * The number of vertexes of the shape, as a proxy for its memory size; see
+   * {@link BaseShape#getVertexCount()} and {@link ShapeCollection#getVertexCount()}.  A shape that
+   * is neither counts as 1.
+   */
+  public static long vertexCount(Shape shape) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).getVertexCount();
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).getVertexCount();
+    return 1;
+  }
+
+  /**
+   * Governs which entries are cached and the order in which they are evicted.  Entries are evicted
+   * oldest first, where an entry's age starts when it's added, or again when it's promoted on a hit.
+   */
+  public interface EvictionPolicy {
+    /** Whether to add a newly computed entry to the cache. */
+    boolean admit(Shape indexed, Shape query, int weight);
+
+    /** Whether a hit makes the entry the last one to be evicted. */
+    boolean promoteOnHit(Shape indexed, Shape query);
+  }
+
+  /** Least recently used. */
+  public static final EvictionPolicy LRU = new EvictionPolicy() {
+    @Override
+    public boolean admit(Shape indexed, Shape query, int weight) {
+      return true;
+    }
+
+    @Override
+    public boolean promoteOnHit(Shape indexed, Shape query) {
+      return true;
+    }
+  };
+
+  /** First in, first out; hits don't change the eviction order. */
+  public static final EvictionPolicy FIFO = new EvictionPolicy() {
+    @Override
+    public boolean admit(Shape indexed, Shape query, int weight) {
+      return true;
+    }
+
+    @Override
+    public boolean promoteOnHit(Shape indexed, Shape query) {
+      return false;
+    }
+  };
+
+  public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  private final Weigher weigher;
+  private final EvictionPolicy evictionPolicy;
+  private final Segment[] segments;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /** An LRU cache with {@link #DEFAULT_WEIGHER}. */
+  public RelationCache(long maxWeight) {
+    this(maxWeight, DEFAULT_WEIGHER, LRU);
+  }
+
+  public RelationCache(long maxWeight, Weigher weigher, EvictionPolicy evictionPolicy) {
+    this(maxWeight, DEFAULT_CONCURRENCY_LEVEL, weigher, evictionPolicy);
+  }
+
+  /**
+   * @param concurrencyLevel The number of segments, each with its own lock and an equal share of
+   *                         the maximum weight. Eviction order is per segment.
+   */
+  public RelationCache(long maxWeight, int concurrencyLevel, Weigher weigher, EvictionPolicy evictionPolicy) {
+    if (maxWeight <= 0)
+      throw new IllegalArgumentException("maxWeight must be > 0: " + maxWeight);
+    if (concurrencyLevel <= 0)
+      throw new IllegalArgumentException("concurrencyLevel must be > 0: " + concurrencyLevel);
+    this.weigher = weigher;
+    this.evictionPolicy = evictionPolicy;
+    // fewer segments for a tiny cache so that each has some room
+    final int numSegments = (int) Math.min(concurrencyLevel, maxWeight);
+    this.segments = new Segment[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      // distribute the remainder so that the total is maxWeight
+      segments[i] = new Segment(maxWeight / numSegments + (i < maxWeight % numSegments ? 1 : 0));
+    }
+  }
+
+  /**
+   * Returns {@code indexed.relate(query)}, from the cache if possible.
+   */
+  public SpatialRelation relate(Shape indexed, Shape query) {
+    final Key key = new Key(indexed, query);
+    final Segment segment = segmentFor(key);
+    SpatialRelation result = segment.get(key);
+    if (result != null) {
+      hitCount.incrementAndGet();
+      return result;
+    }
+    missCount.incrementAndGet();
+    result = indexed.relate(query);
+    final int weight = weigher.weigh(indexed, query);
+    if (evictionPolicy.admit(indexed, query, weight))
+      segment.put(key, result, weight);
+    return result;
+  }
+
+  private Segment segmentFor(Key key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);//spread the high bits
+    return segments[(h & 0x7fffffff) % segments.length];
+  }
+
+  /** Removes all entries; the statistics remain. */
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /** The number of entries. */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /** The total weight of the entries. */
+  public long getWeight() {
+    long weight = 0;
+    for (Segment segment : segments) {
+      weight += segment.getWeight();
+    }
+    return weight;
+  }
+
+  @Override
+  public String toString() {
+    return "RelationCache(size=" + size() + ", weight=" + getWeight() + ", hits=" + getHitCount()
+        + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + ")";
+  }
+
+  /** The indexed shape by identity, and the query shape by equality. */
+  private static final class Key {
+    final Shape indexed;
+    final Shape query;
+    final int hash;
+
+    Key(Shape indexed, Shape query) {
+      this.indexed = indexed;
+      this.query = query;
+      this.hash = 31 * System.identityHashCode(indexed) + query.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key that = (Key) o;
+      return indexed == that.indexed && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Entry {
+    final SpatialRelation relation;
+    final int weight;
+
+    Entry(SpatialRelation relation, int weight) {
+      this.relation = relation;
+      this.weight = weight;
+    }
+  }
+
+  /** In insertion order, oldest first; promotion re-inserts. */
+  private final class Segment {
+    final long maxWeight;
+    final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>();
+    long weight = 0;
+
+    Segment(long maxWeight) {
+      this.maxWeight = maxWeight;
+    }
+
+    synchronized SpatialRelation get(Key key) {
+      final Entry entry = map.get(key);
+      if (entry == null)
+        return null;
+      if (evictionPolicy.promoteOnHit(key.indexed, key.query)) {
+        map.remove(key);
+        map.put(key, entry);
+      }
+      return entry.relation;
+    }
+
+    synchronized void put(Key key, SpatialRelation relation, int entryWeight) {
+      if (entryWeight > maxWeight)
+        return;//would evict everything else and still not fit
+      final Entry old = map.put(key, new Entry(relation, entryWeight));
+      if (old != null)
+        weight -= old.weight;
+      weight += entryWeight;
+      final Iterator<Map.Entry<Key, Entry>> iterator = map.entrySet().iterator();
+      while (weight > maxWeight) {
+        final Map.Entry<Key, Entry> eldest = iterator.next();
+        iterator.remove();
+        weight -= eldest.getValue().weight;
+        evictionCount.incrementAndGet();
+      }
+    }
+
+    synchronized void clear() {
+      map.clear();
+      weight = 0;
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+
+    synchronized long getWeight() {
+      return weight;
+    }
+  }
+}
@@ -9,7 +9,9 @@
 package org.locationtech.spatial4j.shape;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.locationtech.spatial4j.shape.impl.BBoxCalculator;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
 
 import java.util.*;
 
@@ -32,14 +34,15 @@ import static org.locationtech.spatial4j.shape.SpatialRelation.INTERSECTS;
  * intersects the provided shape then that is the answer.
  * <p>
  * This implementation is not optimized for a large number of shapes; relate is
- * O(N).  A more sophisticated implementation might do an R-Tree based on
- * bbox'es, for example.
+ * O(N).  However, {@link #prepare()} returns a collection that indexes the shapes'
+ * bounding boxes so that only those near the other shape are related.
  */
 public class ShapeCollection<S extends Shape> extends AbstractList<S> implements Shape {
 
   protected final SpatialContext ctx;
   protected final List<S> shapes;
   protected final Rectangle bbox;
+  protected final PackedBBoxIndex shapeIndex;//null if not prepared
 
   /**
    * WARNING: {@code shapes} is copied by reference.
@@ -47,11 +50,17 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
    * @param ctx
    */
   public ShapeCollection(List<S> shapes, SpatialContext ctx) {
+    this(shapes, ctx, false);
+  }
+
+  /** @param indexShapes whether to index the shapes' bounding boxes, as {@link #prepare()} does. */
+  protected ShapeCollection(List<S> shapes, SpatialContext ctx, boolean indexShapes) {
     if (!(shapes instanceof RandomAccess))
       throw new IllegalArgumentException("Shapes arg must implement RandomAccess: "+shapes.getClass());
     this.shapes = shapes;
     this.ctx = ctx;
     this.bbox = computeBoundingBox(shapes, ctx);
+    this.shapeIndex = indexShapes ? new PackedBBoxIndex(shapes, ctx) : null;
   }
 
   protected Rectangle computeBoundingBox(Collection<? extends Shape> shapes, SpatialContext ctx) {
@@ -98,6 +107,15 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     return false;
   }
 
+  /** The sum of the shapes' {@link RelationCache#vertexCount(Shape) vertex counts}. */
+  public long getVertexCount() {
+    long count = 0;
+    for (Shape shape : shapes) {
+      count += RelationCache.vertexCount(shape);
+    }
+    return count;
+  }
+
   @Override
   public ShapeCollection getBuffered(double distance, SpatialContext ctx) {
     List<Shape> bufColl = new ArrayList<Shape>(size());
@@ -107,6 +125,31 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     return ctx.makeCollection(bufColl);
   }
 
+  /**
+   * Returns a collection of the shapes prepared via {@link ShapeUtils#prepare(Shape)}, with an index
+   * of their bounding boxes; or this if it's already prepared.  The collection is created by
+   * {@link #newPreparedCollection(List)}.
+   */
+  @SuppressWarnings("unchecked")
+  public ShapeCollection<S> prepare() {
+    if (shapeIndex != null)
+      return this;
+    List<S> preparedShapes = new ArrayList<>(shapes.size());
+    for (S shape : shapes) {
+      preparedShapes.add((S) ShapeUtils.prepare(shape));//same type
+    }
+    return newPreparedCollection(preparedShapes);
+  }
+
+  /**
+   * Creates the collection that {@link #prepare()} returns, which must index its shapes (see
+   * {@link #ShapeCollection(List, SpatialContext, boolean)}).  Subclasses override this to return
+   * their own type.
+   */
+  protected ShapeCollection<S> newPreparedCollection(List<S> preparedShapes) {
+    return new ShapeCollection<>(preparedShapes, ctx, true);
+  }
+
   @Override
   public SpatialRelation relate(Shape other) {
     final SpatialRelation bboxSect = bbox.relate(other);
@@ -115,6 +158,8 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
 
     final boolean containsWillShortCircuit = (other instanceof Point) ||
         relateContainsShortCircuits();
+    if (shapeIndex != null)
+      return relateIndexed(other, containsWillShortCircuit);
     SpatialRelation sect = null;
     for (Shape shape : shapes) {
       SpatialRelation nextSect = shape.relate(other);
@@ -134,6 +179,128 @@ public class ShapeCollection<S extends Shape> extends AbstractList<S> implements
     return sect;
   }
 
+  /**
+   * Whether any shape intersects the other; it stops at the first.
+   * @see ShapeUtils#intersects(Shape, Shape)
+   */
+  public boolean intersects(final Shape other) {
+    if (!ShapeUtils.intersects(bbox, other))
+      return false;
+    if (shapeIndex != null) {
+      return !shapeIndex.query(other.getBoundingBox(), new PackedBBoxIndex.Visitor() {
+        @Override
+        public boolean visit(int index) {
+          return !ShapeUtils.intersects(shapes.get(index), other);// false (stop) when found
+        }
+      });
+    }
+    for (Shape shape : shapes) {
+      if (ShapeUtils.intersects(shape, other))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Whether this collection covers the other shape, per {@link #relate(Shape)}.  Not to be confused
+   * with {@link java.util.List#contains(Object)}, which tests membership.
+   * @see ShapeUtils#contains(Shape, Shape)
+   */
+  public boolean containsShape(Shape other) {
+    if (other instanceof Point) {
+      for (Shape shape : shapes) {
+        if (ShapeUtils.contains(shape, other))
+          return true;
+      }
+      return false;
+    }
+    return relate(other) == CONTAINS || equals(other);
+  }
+
+  /**
+   * Whether a shape contains the point x,y; equivalent to <code>relate(point).intersects()</code>.
+   * @see ShapeUtils#contains(Shape, double, double)
+   */
+  public boolean contains(final double x, final double y) {
+    if (!ShapeUtils.contains(bbox, x, y))
+      return false;
+    if (shapeIndex != null) {
+      return !shapeIndex.query(x, y, new PackedBBoxIndex.Visitor() {
+        @Override
+        public boolean visit(int index) {
+          return !ShapeUtils.contains(shapes.get(index), x, y);// false (stop) when found
+        }
+      });
+    }
+    for (Shape shape : shapes) {
+      if (ShapeUtils.contains(shape, x, y))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Each shape sets the bits of the points it contains.
+   * @see ShapeUtils#contains(Shape, double[], double[], int, BitSet)
+   */
+  public void contains(double[] xs, double[] ys, int length, BitSet result) {
+    for (Shape shape : shapes) {
+      ShapeUtils.contains(shape, xs, ys, length, result);
+    }
+  }
+
+  /**
+   * The distance to the nearest shape, skipping those whose bounding box is farther.
+   * @see ShapeUtils#distance(Shape, Point)
+   */
+  public double distance(Point from) {
+    double min = Double.POSITIVE_INFINITY;
+    for (Shape shape : shapes) {
+      if (!shape.isEmpty() && DistanceUtils.distance(ctx.getDistCalc(), from, shape.getBoundingBox()) < min) {
+        min = Math.min(min, ShapeUtils.distance(shape, from));
+        if (min == 0)
+          break;
+      }
+    }
+    return min == Double.POSITIVE_INFINITY ? Double.NaN : min;
+  }
+
+  /**
+   * Whether every shape is within the other.
+   * @see ShapeUtils#within(Shape, Shape)
+   */
+  public boolean within(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (ShapeUtils.within(bbox, other))
+      return true;
+    for (Shape shape : shapes) {
+      if (!ShapeUtils.within(shape, other))
+        return false;
+    }
+    return true;
+  }
+
+  /** Like relate() but only the shapes near {@code other} are visited; the rest are DISJOINT. */
+  private SpatialRelation relateIndexed(final Shape other, final boolean containsWillShortCircuit) {
+    final SpatialRelation[] sect = {null};
+    final int[] numVisited = {0};
+    shapeIndex.query(other.getBoundingBox(), new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        numVisited[0]++;
+        SpatialRelation nextSect = shapes.get(index).relate(other);
+        sect[0] = sect[0] == null ? nextSect : sect[0].combine(nextSect);
+        return !(sect[0] == INTERSECTS || sect[0] == CONTAINS && containsWillShortCircuit);
+      }
+    });
+    if (sect[0] == INTERSECTS || sect[0] == CONTAINS && containsWillShortCircuit)
+      return sect[0];
+    if (numVisited[0] < shapes.size())
+      return SpatialRelation.DISJOINT.combine(sect[0]);
+    return sect[0];
+  }
+
   /**
    * Called by relate() to determine whether to return early if it finds
    * CONTAINS, instead of checking the remaining shapes. It will do so without
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import org.locationtech.spatial4j.distance.DistanceUtils;
+
+import java.util.BitSet;
+
+/**
+ * Boolean spatial predicates on any {@link Shape}.  They use the faster methods of the same name
+ * on {@link BaseShape} and {@link ShapeCollection}, which can stop early and needn't distinguish
+ * CONTAINS from WITHIN; for other shapes they're derived from {@link Shape#relate(Shape)}.
+ */
+public class ShapeUtils {
+
+  private ShapeUtils() {
+  }
+
+  /**
+   * Whether the shapes share any point; equivalent to <code>shape.relate(other).intersects()</code>.
+   */
+  public static boolean intersects(Shape shape, Shape other) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).intersects(other);
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).intersects(other);
+    return shape.relate(other).intersects();
+  }
+
+  /**
+   * Whether the shape covers the other (boundary-neutral); equivalent to
+   * <code>shape.relate(other) == CONTAINS || shape.equals(other)</code>.
+   */
+  public static boolean contains(Shape shape, Shape other) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).contains(other);
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).containsShape(other);
+    return shape.relate(other) == SpatialRelation.CONTAINS || shape.equals(other);
+  }
+
+  /**
+   * An equal shape optimized to be related to many others; see {@link BaseShape#prepare()} and
+   * {@link ShapeCollection#prepare()}.  Other shapes are returned as-is.
+   */
+  public static Shape prepare(Shape shape) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).prepare();
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).prepare();
+    return shape;
+  }
+
+  /**
+   * The distance from the point to the nearest point of the shape; see
+   * {@link BaseShape#distance(Point)} and {@link ShapeCollection#distance(Point)}.  For other
+   * shapes it's 0 if the shape contains the point, else the distance to its bounding box, a lower
+   * bound.
+   */
+  public static double distance(Shape shape, Point from) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).distance(from);
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).distance(from);
+    if (shape.isEmpty())
+      return Double.NaN;
+    if (contains(shape, from.getX(), from.getY()))
+      return 0;
+    return DistanceUtils.distance(shape.getContext().getDistCalc(), from, shape.getBoundingBox());
+  }
+
+  /**
+   * Whether the point x,y intersects the shape; equivalent to
+   * <code>shape.relate(point).intersects()</code>.
+   */
+  public static boolean contains(Shape shape, double x, double y) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).contains(x, y);
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).contains(x, y);
+    return shape.relate(shape.getContext().getShapeFactory().pointXY(x, y)).intersects();
+  }
+
+  /**
+   * For each index {@code i} less than {@code length}, sets bit {@code i} of {@code result} if the
+   * shape {@link #contains(Shape, double, double) contains} {@code xs[i],ys[i]}.  Other bits are
+   * left as-is, so a result can accumulate several shapes.
+   */
+  public static void contains(Shape shape, double[] xs, double[] ys, int length, BitSet result) {
+    if (shape instanceof BaseShape) {
+      ((BaseShape<?>) shape).contains(xs, ys, length, result);
+    } else if (shape instanceof ShapeCollection) {
+      ((ShapeCollection<?>) shape).contains(xs, ys, length, result);
+    } else {
+      for (int i = 0; i < length; i++) {
+        if (contains(shape, xs[i], ys[i]))
+          result.set(i);
+      }
+    }
+  }
+
+  /**
+   * Whether the shape is covered by the other (boundary-neutral); equivalent to
+   * <code>shape.relate(other) == WITHIN || shape.equals(other)</code>.
+   */
+  public static boolean within(Shape shape, Shape other) {
+    if (shape instanceof BaseShape)
+      return ((BaseShape<?>) shape).within(other);
+    if (shape instanceof ShapeCollection)
+      return ((ShapeCollection<?>) shape).within(other);
+    return shape.relate(other) == SpatialRelation.WITHIN || shape.equals(other);
+  }
+}
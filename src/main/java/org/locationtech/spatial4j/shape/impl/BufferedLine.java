@@ -9,6 +9,7 @@
 package org.locationtech.spatial4j.shape.impl;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceCalculator;
 import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.locationtech.spatial4j.shape.BaseShape;
 import org.locationtech.spatial4j.shape.Point;
@@ -198,6 +199,54 @@ public class BufferedLine extends BaseShape<SpatialContext> {
     return linePrimary.contains(p) && linePerp.contains(p);
   }
 
+  @Override
+  public boolean contains(double x, double y) {
+    return linePrimary.contains(x, y) && linePerp.contains(x, y);
+  }
+
+  /**
+   * The distance to the nearest point of the buffered rectangle around the line.  The rectangle is
+   * straight in degrees, like the shape itself.  In a plane the nearest point is found by clamping;
+   * in a geo context each edge is searched per the context's calculator with
+   * {@link org.locationtech.spatial4j.distance.DistanceUtils#distanceToStraightSegment}, since the
+   * nearest point in degrees isn't necessarily the nearest on the sphere.
+   */
+  @Override
+  public double distance(Point from) {
+    final double deltaX = pB.getX() - pA.getX(), deltaY = pB.getY() - pA.getY();
+    final double length = Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+    // unit vector along the line (arbitrarily horizontal if it's a point)
+    final double unitX = length == 0 ? 1 : deltaX / length, unitY = length == 0 ? 0 : deltaY / length;
+    final double centerX = pA.getX() + deltaX / 2, centerY = pA.getY() + deltaY / 2;
+    final double pX = from.getX() - centerX, pY = from.getY() - centerY;
+    // the point's coordinates along and across the line, clamped to the rectangle
+    final double halfLength = length / 2 + buf;
+    final double rawAlong = pX * unitX + pY * unitY, rawAcross = pY * unitX - pX * unitY;
+    if (Math.abs(rawAlong) <= halfLength && Math.abs(rawAcross) <= buf)
+      return 0;
+    final DistanceCalculator distCalc = ctx.getDistCalc();
+    if (ctx.isGeo()) {
+      // the corners, counter-clockwise
+      final double[] xs = new double[4], ys = new double[4];
+      for (int i = 0; i < 4; i++) {
+        final double along = (i == 0 || i == 3) ? -halfLength : halfLength;
+        final double across = i < 2 ? -buf : buf;
+        xs[i] = centerX + along * unitX - across * unitY;
+        ys[i] = centerY + along * unitY + across * unitX;
+      }
+      double min = Double.POSITIVE_INFINITY;
+      for (int i = 0; i < 4; i++) {
+        min = Math.min(min, DistanceUtils.distanceToStraightSegment(distCalc, from,
+            xs[i], ys[i], xs[(i + 1) % 4], ys[(i + 1) % 4]));
+      }
+      return min;
+    }
+    final double along = Math.max(-halfLength, Math.min(halfLength, rawAlong));
+    final double across = Math.max(-buf, Math.min(buf, rawAcross));
+    return distCalc.distance(from,
+        centerX + along * unitX - across * unitY, centerY + along * unitY + across * unitX);
+  }
+
   public Rectangle getBoundingBox() {
     return bbox;
   }
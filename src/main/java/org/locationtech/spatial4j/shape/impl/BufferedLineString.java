@@ -9,11 +9,13 @@
 package org.locationtech.spatial4j.shape.impl;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.locationtech.spatial4j.shape.BaseShape;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 
 import java.util.AbstractList;
@@ -25,6 +27,10 @@ import java.util.List;
  * A BufferedLineString is a collection of {@link org.locationtech.spatial4j.shape.impl.BufferedLine} shapes,
  * resulting in what some call a "Track" or "Polyline" (ESRI terminology).
  * The buffer can be 0.  Note that BufferedLine isn't yet aware of geodesics (e.g. the dateline).
+ * <p>
+ * The segments are indexed at construction by a {@link PackedBBoxIndex} so that relate() only
+ * visits segments near the other shape, and the parameters of each segment's lines are packed
+ * into an array for point containment.
  */
 public class BufferedLineString extends BaseShape<SpatialContext> {
 
@@ -34,6 +40,11 @@ public class BufferedLineString extends BaseShape<SpatialContext> {
   private final ShapeCollection<BufferedLine> segments;
   private final double buf;
 
+  private final PackedBBoxIndex segmentIndex;
+  /** Per segment: the primary then perpendicular line's slope, intercept, distDenomInv, buf. */
+  private final double[] segmentLines;
+  private static final int LINES_STRIDE = 8;
+
   /**
    * Needs at least 1 point, usually more than that.  If just one then it's
    * internally treated like 2 points.
@@ -79,6 +90,26 @@ public class BufferedLineString extends BaseShape<SpatialContext> {
       }
       this.segments = ctx.makeCollection(segments);
     }
+    this.segmentIndex = new PackedBBoxIndex(this.segments.getShapes(), ctx);
+    this.segmentLines = packLines(this.segments.getShapes());
+  }
+
+  private static double[] packLines(List<BufferedLine> segments) {
+    double[] lines = new double[segments.size() * LINES_STRIDE];
+    int off = 0;
+    for (BufferedLine segment : segments) {
+      off = packLine(segment.getLinePrimary(), lines, off);
+      off = packLine(segment.getLinePerp(), lines, off);
+    }
+    return lines;
+  }
+
+  private static int packLine(InfBufLine line, double[] lines, int off) {
+    lines[off++] = line.getSlope();
+    lines[off++] = line.getIntercept();
+    lines[off++] = line.getDistDenomInv();
+    lines[off++] = line.getBuf();
+    return off;
   }
 
   @Override
@@ -106,7 +137,79 @@ public class BufferedLineString extends BaseShape<SpatialContext> {
 
   @Override
   public SpatialRelation relate(Shape other) {
-    return segments.relate(other);
+    // Same algorithm as ShapeCollection.relate() except segments not near "other" are skipped.
+    final SpatialRelation bboxSect = getBoundingBox().relate(other);
+    if (bboxSect == SpatialRelation.DISJOINT || bboxSect == SpatialRelation.WITHIN)
+      return bboxSect;
+    if (other instanceof Point)
+      return contains(((Point) other).getX(), ((Point) other).getY())
+          ? SpatialRelation.CONTAINS : SpatialRelation.DISJOINT;
+
+    final SpatialRelation[] sect = {null};
+    final int[] numVisited = {0};
+    final Shape otherShape = other;
+    segmentIndex.query(other.getBoundingBox(), new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        numVisited[0]++;
+        SpatialRelation nextSect = segments.get(index).relate(otherShape);
+        sect[0] = sect[0] == null ? nextSect : sect[0].combine(nextSect);
+        return sect[0] != SpatialRelation.INTERSECTS && sect[0] != SpatialRelation.CONTAINS;
+      }
+    });
+    if (sect[0] == SpatialRelation.INTERSECTS || sect[0] == SpatialRelation.CONTAINS)
+      return sect[0];
+    // the segments we didn't visit are DISJOINT
+    if (numVisited[0] < segments.size())
+      return SpatialRelation.DISJOINT.combine(sect[0]);
+    return sect[0];
+  }
+
+  /** Stops at the first segment that intersects {@code other}. */
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty() || !ShapeUtils.intersects(getBoundingBox(), other))
+      return false;
+    if (other instanceof Point)
+      return contains(((Point) other).getX(), ((Point) other).getY());
+    final Shape otherShape = other;
+    return !segmentIndex.query(other.getBoundingBox(), new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        return !segments.get(index).intersects(otherShape);// false (stop) when found
+      }
+    });
+  }
+
+  /** Whether the point x,y is within the buffer of any segment. */
+  @Override
+  public boolean contains(final double x, final double y) {
+    return !segmentIndex.query(x, y, new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        final int off = index * LINES_STRIDE;
+        final double[] l = segmentLines;
+        // false (stop) when found
+        return !(InfBufLine.contains(l[off], l[off + 1], l[off + 2], l[off + 3], x, y)
+            && InfBufLine.contains(l[off + 4], l[off + 5], l[off + 6], l[off + 7], x, y));
+      }
+    });
+  }
+
+  /** The distance to the nearest segment, skipping those whose bounding box is farther. */
+  @Override
+  public double distance(Point from) {
+    if (isEmpty())
+      return Double.NaN;
+    double min = Double.POSITIVE_INFINITY;
+    for (BufferedLine segment : segments.getShapes()) {
+      if (DistanceUtils.distance(ctx.getDistCalc(), from, segment.getBoundingBox()) < min) {
+        min = Math.min(min, segment.distance(from));
+        if (min == 0)
+          break;
+      }
+    }
+    return min;
   }
 
   @Override
@@ -141,6 +244,11 @@ public class BufferedLineString extends BaseShape<SpatialContext> {
     return str.toString();
   }
 
+  @Override
+  public long getVertexCount() {
+    return getPoints().size();
+  }
+
   public List<Point> getPoints() {
     if (segments.isEmpty())
       return Collections.emptyList();
@@ -14,6 +14,7 @@ import org.locationtech.spatial4j.shape.Circle;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 
 /**
@@ -76,10 +77,18 @@ public class CircleImpl extends BaseShape<SpatialContext> implements Circle {
     return ctx.makeCircle(point, distance + radiusDEG);
   }
 
+  @Override
   public boolean contains(double x, double y) {
     return ctx.getDistCalc().within(point, x, y, radiusDEG);
   }
 
+  @Override
+  public double distance(Point from) {
+    if (isEmpty())
+      return Double.NaN;
+    return Math.max(0, ctx.getDistCalc().distance(from, point) - radiusDEG);
+  }
+
   @Override
   public boolean hasArea() {
     return radiusDEG > 0;
@@ -113,6 +122,26 @@ public class CircleImpl extends BaseShape<SpatialContext> implements Circle {
     return other.relate(this).transpose();
   }
 
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Point)
+      return contains(((Point) other).getX(), ((Point) other).getY());
+    if (other instanceof Rectangle)
+      return relate((Rectangle) other) != SpatialRelation.DISJOINT;
+    if (other instanceof Circle)
+      return ctx.getDistCalc().distance(point, ((Circle) other).getCenter()) <= radiusDEG + ((Circle) other).getRadius();
+    return ShapeUtils.intersects(other, this);
+  }
+
+  @Override
+  public boolean contains(Shape other) {
+    if (other instanceof Point)
+      return !isEmpty() && !other.isEmpty() && contains(((Point) other).getX(), ((Point) other).getY());
+    return super.contains(other);
+  }
+
   public SpatialRelation relate(Point point) {
     return contains(point.getX(),point.getY()) ? SpatialRelation.CONTAINS : SpatialRelation.DISJOINT;
   }
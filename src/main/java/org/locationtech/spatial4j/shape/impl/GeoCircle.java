@@ -10,6 +10,7 @@ package org.locationtech.spatial4j.shape.impl;
 
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.distance.GeodesicSphereDistCalc;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.SpatialRelation;
@@ -24,6 +25,17 @@ public class GeoCircle extends CircleImpl {
   private GeoCircle inverseCircle;//when distance reaches > 1/2 way around the world, cache the inverse.
   private double horizAxisY;//see getYAxis
 
+  /**
+   * Relative margin around {@link #havRadius} within which {@link #contains(double, double)} defers
+   * to the DistanceCalculator; far larger than the rounding error of the haversine computation.
+   */
+  private static final double HAV_RADIUS_MARGIN = 1e-12;
+
+  // For contains(); see initContains().
+  private boolean fastContains;
+  private double centerLatRAD, centerLonRAD, centerCosLat;
+  private double havRadiusLow, havRadiusHigh;//haversine of the radius, minus & plus a margin
+
   public GeoCircle(Point p, double radiusDEG, SpatialContext ctx) {
     super(p, radiusDEG, ctx);
     assert ctx.isGeo();
@@ -37,6 +49,7 @@ public class GeoCircle extends CircleImpl {
   }
 
   private void init() {
+    initContains();
     if (radiusDEG > 90) {
       //--spans more than half the globe
       assert enclosingBox.getWidth() == 360;
@@ -73,6 +86,49 @@ public class GeoCircle extends CircleImpl {
     }
   }
 
+  /**
+   * Caches the center's trigonometry and the haversine of the radius, (1 - cos(radius)) / 2, so
+   * that {@link #contains(double, double)} needn't compute a distance. It's only enabled for
+   * {@link GeodesicSphereDistCalc.Haversine} since it's the same formula, thus results don't change.
+   */
+  private void initContains() {
+    fastContains = ctx.getDistCalc().getClass() == GeodesicSphereDistCalc.Haversine.class
+        && radiusDEG >= 0 && radiusDEG < 180;//false if NaN
+    if (!fastContains)
+      return;
+    centerLatRAD = DistanceUtils.toRadians(getCenter().getY());
+    centerLonRAD = DistanceUtils.toRadians(getCenter().getX());
+    centerCosLat = Math.cos(centerLatRAD);
+    final double hsinRadius = Math.sin(DistanceUtils.toRadians(radiusDEG) * 0.5);
+    final double havRadius = hsinRadius * hsinRadius;
+    havRadiusLow = havRadius * (1 - HAV_RADIUS_MARGIN);
+    havRadiusHigh = havRadius * (1 + HAV_RADIUS_MARGIN);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    if (!fastContains)
+      return super.contains(x, y);
+    final double latRAD = DistanceUtils.toRadians(y);
+    final double hsinX = Math.sin((centerLonRAD - DistanceUtils.toRadians(x)) * 0.5);
+    final double hsinY = Math.sin((centerLatRAD - latRAD) * 0.5);
+    return containsHav(hsinX, hsinY, Math.cos(latRAD), x, y);
+  }
+
+  /**
+   * Whether the point is within the radius, given the half-angle sines of its longitude and latitude
+   * difference from the center, and the cosine of its latitude. Same formula as
+   * {@link DistanceUtils#distHaversineRAD(double, double, double, double)}.
+   */
+  private boolean containsHav(double hsinX, double hsinY, double cosLat, double x, double y) {
+    final double h = hsinY * hsinY + (centerCosLat * cosLat * hsinX * hsinX);
+    if (h < havRadiusLow)
+      return true;
+    if (h > havRadiusHigh)
+      return false;
+    return super.contains(x, y);//too close to call
+  }
+
   @Override
   protected double getYAxis() {
     return horizAxisY;
@@ -194,6 +250,8 @@ public class GeoCircle extends CircleImpl {
 
   /** Returns either 0 for none, 1 for some, or 4 for all. */
   private int numCornersIntersect(Rectangle r) {
+    if (fastContains)
+      return numCornersIntersectFast(r);
     //We play some logic games to avoid calling contains() which can be expensive.
     boolean bool;//if true then all corners intersect, if false then no corners intersect
     // for partial, we exit early with 1 and ignore bool.
@@ -222,6 +280,22 @@ public class GeoCircle extends CircleImpl {
     return bool?4:0;
   }
 
+  /** Like {@link #numCornersIntersect(Rectangle)} but corners share the trigonometry of their sides. */
+  private int numCornersIntersectFast(Rectangle r) {
+    final double minLatRAD = DistanceUtils.toRadians(r.getMinY()), maxLatRAD = DistanceUtils.toRadians(r.getMaxY());
+    final double cosMinLat = Math.cos(minLatRAD), cosMaxLat = Math.cos(maxLatRAD);
+    final double hsinMinY = Math.sin((centerLatRAD - minLatRAD) * 0.5);
+    final double hsinMaxY = Math.sin((centerLatRAD - maxLatRAD) * 0.5);
+    final double hsinMinX = Math.sin((centerLonRAD - DistanceUtils.toRadians(r.getMinX())) * 0.5);
+    final double hsinMaxX = Math.sin((centerLonRAD - DistanceUtils.toRadians(r.getMaxX())) * 0.5);
+    final boolean bool = containsHav(hsinMinX, hsinMinY, cosMinLat, r.getMinX(), r.getMinY());
+    if (containsHav(hsinMinX, hsinMaxY, cosMaxLat, r.getMinX(), r.getMaxY()) != bool
+        || containsHav(hsinMaxX, hsinMinY, cosMinLat, r.getMaxX(), r.getMinY()) != bool
+        || containsHav(hsinMaxX, hsinMaxY, cosMaxLat, r.getMaxX(), r.getMaxY()) != bool)
+      return 1;//partial
+    return bool?4:0;
+  }
+
   @Override
   public String toString() {
     //Add distance in km, which may be easier to recognize.
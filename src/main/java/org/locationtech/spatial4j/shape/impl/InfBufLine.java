@@ -78,12 +78,30 @@ public class InfBufLine {
     return (distanceUnbuffered(p) <= buf + EPS);
   }
 
+  boolean contains(double x, double y) {
+    return contains(slope, intercept, distDenomInv, buf, x, y);
+  }
+
+  /**
+   * Same as {@link #contains(Point)} but given this line's parameters instead of an instance; it
+   * supports packed representations of lines.
+   */
+  static boolean contains(double slope, double intercept, double distDenomInv, double buf,
+                          double x, double y) {
+    return distanceUnbuffered(slope, intercept, distDenomInv, x, y) <= buf + EPS;
+  }
+
   /** INTERNAL AKA lineToPointDistance */
   public double distanceUnbuffered(Point c) {
+    return distanceUnbuffered(slope, intercept, distDenomInv, c.getX(), c.getY());
+  }
+
+  private static double distanceUnbuffered(double slope, double intercept, double distDenomInv,
+                                           double x, double y) {
     if (Double.isInfinite(slope))
-      return Math.abs(c.getX() - intercept);
+      return Math.abs(x - intercept);
     // http://math.ucsd.edu/~wgarner/math4c/derivations/distance/distptline.htm
-    double num = Math.abs(c.getY() - slope * c.getX() - intercept);
+    double num = Math.abs(y - slope * x - intercept);
     return num * distDenomInv;
   }
 
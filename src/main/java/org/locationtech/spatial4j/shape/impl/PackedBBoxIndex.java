@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.impl;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceCalculator;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * INTERNAL: A static bounding box hierarchy over an ordered list of items, stored packed in
+ * {@code double[]} arrays. Items are grouped into nodes of consecutive indexes and each level
+ * above holds the union of its children's boxes; essentially a packed R-Tree that retains the
+ * original item order. That suits items that are spatially coherent in their natural order, like
+ * the segments of a line string, for which a node is much like a monotone chain.
+ * <p>
+ * Boxes follow {@link Rectangle} conventions, thus in a geo context a box's minX may be greater
+ * than its maxX when it crosses the dateline. An item with a NaN box (empty) never matches.
+ * Instances are immutable and thread-safe.
+ */
+public class PackedBBoxIndex {
+
+  public static final int DEFAULT_NODE_SIZE = 16;
+
+  /** Receives the index of each item whose box intersects the query. */
+  public interface Visitor {
+    /** @return false to stop visiting */
+    boolean visit(int index);
+  }
+
+  /** Computes the distance to an item, for {@link #nearest(Point, int, ItemDistance, int[], double[])}. */
+  public interface ItemDistance {
+    /** @return the distance from the query point to the item; not less than the distance to its box */
+    double distance(int index);
+  }
+
+  private final SpatialContext ctx;
+  private final int nodeSize;
+  private final int size;
+  /** levels[0] holds the item boxes; the last level holds one node. Each box is minX,maxX,minY,maxY. */
+  private final double[][] levels;
+
+  public PackedBBoxIndex(List<? extends Shape> shapes, SpatialContext ctx) {
+    this(toBoxes(shapes), DEFAULT_NODE_SIZE, ctx);
+  }
+
+  /**
+   * @param boxes 4 values per item: minX, maxX, minY, maxY. Used by reference.
+   * @param nodeSize The number of children per node; at least 2.
+   */
+  public PackedBBoxIndex(double[] boxes, int nodeSize, SpatialContext ctx) {
+    if (nodeSize < 2)
+      throw new IllegalArgumentException("nodeSize must be >= 2: " + nodeSize);
+    if (boxes.length % 4 != 0)
+      throw new IllegalArgumentException("boxes length must be a multiple of 4: " + boxes.length);
+    this.ctx = ctx;
+    this.nodeSize = nodeSize;
+    this.size = boxes.length / 4;
+
+    int numLevels = 1;
+    for (int n = size; n > 1; n = (n + nodeSize - 1) / nodeSize)
+      numLevels++;
+    levels = new double[numLevels][];
+    levels[0] = boxes;
+    for (int level = 1; level < numLevels; level++) {
+      levels[level] = buildParentLevel(levels[level - 1]);
+    }
+  }
+
+  private static double[] toBoxes(List<? extends Shape> shapes) {
+    double[] boxes = new double[shapes.size() * 4];
+    for (int i = 0; i < shapes.size(); i++) {
+      Rectangle bbox = shapes.get(i).getBoundingBox();
+      boxes[i * 4] = bbox.getMinX();
+      boxes[i * 4 + 1] = bbox.getMaxX();
+      boxes[i * 4 + 2] = bbox.getMinY();
+      boxes[i * 4 + 3] = bbox.getMaxY();
+    }
+    return boxes;
+  }
+
+  private double[] buildParentLevel(double[] children) {
+    final int numChildren = children.length / 4;
+    final int numNodes = (numChildren + nodeSize - 1) / nodeSize;
+    double[] nodes = new double[numNodes * 4];
+    for (int node = 0; node < numNodes; node++) {
+      final int end = Math.min(numChildren, (node + 1) * nodeSize);
+      BBoxCalculator bboxCalc = new BBoxCalculator(ctx);
+      boolean empty = true;
+      for (int child = node * nodeSize; child < end; child++) {
+        final int off = child * 4;
+        if (Double.isNaN(children[off]))
+          continue;
+        empty = false;
+        bboxCalc.expandRange(children[off], children[off + 1], children[off + 2], children[off + 3]);
+      }
+      final int off = node * 4;
+      if (empty) {
+        nodes[off] = nodes[off + 1] = nodes[off + 2] = nodes[off + 3] = Double.NaN;
+      } else {
+        nodes[off] = bboxCalc.getMinX();
+        nodes[off + 1] = bboxCalc.getMaxX();
+        nodes[off + 2] = bboxCalc.getMinY();
+        nodes[off + 3] = bboxCalc.getMaxY();
+      }
+    }
+    return nodes;
+  }
+
+  /** The number of items. */
+  public int size() {
+    return size;
+  }
+
+  public double getMinX(int index) { return levels[0][index * 4]; }
+
+  public double getMaxX(int index) { return levels[0][index * 4 + 1]; }
+
+  public double getMinY(int index) { return levels[0][index * 4 + 2]; }
+
+  public double getMaxY(int index) { return levels[0][index * 4 + 3]; }
+
+  /**
+   * Visits, in item order, each item whose box intersects {@code query}.
+   * @return false if the visitor stopped early.
+   */
+  public boolean query(Rectangle query, Visitor visitor) {
+    if (size == 0 || query.isEmpty())
+      return true;
+    return queryNode(levels.length - 1, 0, query, visitor);
+  }
+
+  private boolean queryNode(int level, int node, Rectangle query, Visitor visitor) {
+    final double[] boxes = levels[level];
+    final int numBoxes = boxes.length / 4;
+    final int end = level == levels.length - 1 ? numBoxes : Math.min(numBoxes, (node + 1) * nodeSize);
+    for (int i = level == levels.length - 1 ? 0 : node * nodeSize; i < end; i++) {
+      final int off = i * 4;
+      if (Double.isNaN(boxes[off])
+          || query.relateYRange(boxes[off + 2], boxes[off + 3]) == SpatialRelation.DISJOINT
+          || query.relateXRange(boxes[off], boxes[off + 1]) == SpatialRelation.DISJOINT)
+        continue;
+      if (level == 0) {
+        if (!visitor.visit(i))
+          return false;
+      } else if (!queryNode(level - 1, i, query, visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Visits, in item order, each item whose box intersects the planar box given by {@code minX}
+   * to {@code maxX} (not crossing the dateline), and {@code minY} to {@code maxY}.  Unlike
+   * {@link #query(Rectangle, Visitor)}, there's no query Rectangle to allocate.
+   * @return false if the visitor stopped early.
+   */
+  public boolean query(double minX, double maxX, double minY, double maxY, Visitor visitor) {
+    if (size == 0 || Double.isNaN(minX))
+      return true;
+    return queryNode(levels.length - 1, 0, minX, maxX, minY, maxY, visitor);
+  }
+
+  private boolean queryNode(int level, int node, double qMinX, double qMaxX, double qMinY, double qMaxY,
+                            Visitor visitor) {
+    final double[] boxes = levels[level];
+    final int numBoxes = boxes.length / 4;
+    final int end = level == levels.length - 1 ? numBoxes : Math.min(numBoxes, (node + 1) * nodeSize);
+    for (int i = level == levels.length - 1 ? 0 : node * nodeSize; i < end; i++) {
+      final int off = i * 4;
+      if (!(boxes[off + 2] <= qMaxY && boxes[off + 3] >= qMinY))//NaN safe
+        continue;
+      final double minX = boxes[off], maxX = boxes[off + 1];
+      if (minX <= maxX) {
+        if (!(minX <= qMaxX && maxX >= qMinX))
+          continue;
+      } else if (!(minX <= qMaxX || maxX >= qMinX)) {//crosses the dateline
+        continue;
+      }
+      if (level == 0) {
+        if (!visitor.visit(i))
+          return false;
+      } else if (!queryNode(level - 1, i, qMinX, qMaxX, qMinY, qMaxY, visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Visits, in item order, each item whose box contains the point x,y.
+   * @return false if the visitor stopped early.
+   */
+  public boolean query(double x, double y, Visitor visitor) {
+    if (size == 0)
+      return true;
+    return queryNode(levels.length - 1, 0, x, y, visitor);
+  }
+
+  private boolean queryNode(int level, int node, double x, double y, Visitor visitor) {
+    final double[] boxes = levels[level];
+    final int numBoxes = boxes.length / 4;
+    final int end = level == levels.length - 1 ? numBoxes : Math.min(numBoxes, (node + 1) * nodeSize);
+    for (int i = level == levels.length - 1 ? 0 : node * nodeSize; i < end; i++) {
+      final int off = i * 4;
+      if (!boxContains(boxes[off], boxes[off + 1], boxes[off + 2], boxes[off + 3], x, y))
+        continue;
+      if (level == 0) {
+        if (!visitor.visit(i))
+          return false;
+      } else if (!queryNode(level - 1, i, x, y, visitor)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the {@code k} items nearest to {@code from}, best-first: boxes of nodes and items are
+   * visited in order of their distance (per the context's {@link DistanceCalculator}), and an item's
+   * distance is only computed once its box is the nearest left.  Thus few items far from the
+   * point are measured.  Items with a NaN distance are skipped.
+   *
+   * @param indexes receives the nearest items, in order of increasing distance; length &gt;= k.
+   * @param distances receives their distances; length &gt;= k.
+   * @return the number of items found; less than k only if there are fewer items.
+   */
+  public int nearest(Point from, int k, ItemDistance itemDistance, int[] indexes, double[] distances) {
+    if (size == 0 || k <= 0)
+      return 0;
+    final DistanceCalculator calc = ctx.getDistCalc();
+    final RectangleImpl box = new RectangleImpl(0, 0, 0, 0, ctx);//reused
+    final Queue queue = new Queue();
+    final int topLevel = levels.length - 1;
+    for (int i = 0; i < levels[topLevel].length / 4; i++) {
+      queue.offer(boxDistance(calc, from, box, levels[topLevel], i), topLevel, i);
+    }
+    int found = 0;
+    while (found < k && queue.size > 0) {
+      final double distance = queue.distances[0];
+      final long entry = queue.entries[0];
+      queue.poll();
+      final int level = (int) (entry >>> 32) - 1, index = (int) entry;
+      if (level == -1) {// an item's own distance
+        indexes[found] = index;
+        distances[found] = distance;
+        found++;
+      } else if (level == 0) {
+        queue.offer(itemDistance.distance(index), -1, index);
+      } else {
+        final double[] children = levels[level - 1];
+        final int end = Math.min(children.length / 4, (index + 1) * nodeSize);
+        for (int i = index * nodeSize; i < end; i++) {
+          queue.offer(boxDistance(calc, from, box, children, i), level - 1, i);
+        }
+      }
+    }
+    return found;
+  }
+
+  private static double boxDistance(DistanceCalculator calc, Point from, RectangleImpl box, double[] boxes, int i) {
+    final int off = i * 4;
+    if (Double.isNaN(boxes[off]))
+      return Double.NaN;
+    box.reset(boxes[off], boxes[off + 1], boxes[off + 2], boxes[off + 3]);
+    return DistanceUtils.distance(calc, from, box);
+  }
+
+  /**
+   * A binary min-heap of distances, each with an entry of {@code (level + 1) << 32 | index}, where
+   * level -1 means an item's own distance rather than its box's.  NaN distances aren't added.
+   */
+  private static class Queue {
+    double[] distances = new double[64];
+    long[] entries = new long[64];
+    int size;
+
+    void offer(double distance, int level, int index) {
+      if (Double.isNaN(distance))
+        return;
+      if (size == distances.length) {
+        distances = Arrays.copyOf(distances, size * 2);
+        entries = Arrays.copyOf(entries, size * 2);
+      }
+      final long entry = ((long) (level + 1) << 32) | (index & 0xFFFFFFFFL);
+      int i = size++;
+      while (i > 0) {// sift up
+        final int parent = (i - 1) >>> 1;
+        if (distances[parent] <= distance)
+          break;
+        distances[i] = distances[parent];
+        entries[i] = entries[parent];
+        i = parent;
+      }
+      distances[i] = distance;
+      entries[i] = entry;
+    }
+
+    /** Removes the head (index 0). */
+    void poll() {
+      final double distance = distances[--size];
+      final long entry = entries[size];
+      int i = 0;
+      while (true) {// sift down
+        int child = 2 * i + 1;
+        if (child >= size)
+          break;
+        if (child + 1 < size && distances[child + 1] < distances[child])
+          child++;
+        if (distance <= distances[child])
+          break;
+        distances[i] = distances[child];
+        entries[i] = entries[child];
+        i = child;
+      }
+      distances[i] = distance;
+      entries[i] = entry;
+    }
+  }
+
+  /** Same logic as {@link RectangleImpl#relate(org.locationtech.spatial4j.shape.Point)}. */
+  private boolean boxContains(double minX, double maxX, double minY, double maxY, double x, double y) {
+    if (!(y >= minY && y <= maxY))//NaN safe
+      return false;
+    if (ctx.isGeo()) {
+      //unwrap dateline
+      double rawWidth = maxX - minX;
+      if (rawWidth < 0) {
+        maxX = minX + (rawWidth + 360);
+      }
+      //shift to potentially overlap
+      if (x < minX) {
+        x += 360;
+      } else if (x > maxX) {
+        x -= 360;
+      } else {
+        return true;
+      }
+    }
+    return x >= minX && x <= maxX;
+  }
+}
@@ -14,6 +14,7 @@ import org.locationtech.spatial4j.shape.Circle;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 
 /** A basic 2D implementation of a Point. */
@@ -74,6 +75,32 @@ public class PointImpl extends BaseShape<SpatialContext> implements Point {
     return other.relate(this).transpose();
   }
 
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Point)
+      return this.equals(other);
+    return ShapeUtils.intersects(other, this);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    return !isEmpty() && Double.compare(x, getX()) == 0 && Double.compare(y, getY()) == 0;
+  }
+
+  @Override
+  public double distance(Point from) {
+    return ctx.getDistCalc().distance(from, this);
+  }
+
+  @Override
+  public boolean within(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    return ShapeUtils.contains(other, this);
+  }
+
   @Override
   public boolean hasArea() {
     return false;
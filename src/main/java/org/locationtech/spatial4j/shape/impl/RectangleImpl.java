@@ -14,6 +14,7 @@ import org.locationtech.spatial4j.shape.BaseShape;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 
 /**
@@ -165,13 +166,48 @@ public class RectangleImpl extends BaseShape<SpatialContext> implements Rectangl
     return other.relate(this).transpose();
   }
 
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Point)
+      return relate((Point) other) == SpatialRelation.CONTAINS;
+    if (other instanceof Rectangle) {
+      final Rectangle rect = (Rectangle) other;
+      return relateYRange(rect.getMinY(), rect.getMaxY()) != SpatialRelation.DISJOINT
+          && relateXRange(rect.getMinX(), rect.getMaxX()) != SpatialRelation.DISJOINT;
+    }
+    return ShapeUtils.intersects(other, this);
+  }
+
+  /** A rectangle covers a shape if and only if it covers the shape's bounding box. */
+  @Override
+  public boolean contains(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Point)
+      return relate((Point) other) == SpatialRelation.CONTAINS;
+    final Rectangle otherBBox = other.getBoundingBox();
+    return relate(otherBBox) == SpatialRelation.CONTAINS || equals(otherBBox);
+  }
+
   public SpatialRelation relate(Point point) {
-    if (point.getY() > getMaxY() || point.getY() < getMinY())
-      return SpatialRelation.DISJOINT;
+    return contains(point.getX(), point.getY()) ? SpatialRelation.CONTAINS : SpatialRelation.DISJOINT;
+  }
+
+  @Override
+  public double distance(Point from) {
+    return DistanceUtils.distance(ctx.getDistCalc(), from, this);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    if (!(y >= getMinY() && y <= getMaxY()) || Double.isNaN(x))
+      return false;//note: also if anything is NaN (empty)
     //  all the below logic is rather unfortunate but some dateline cases demand it
     double minX = this.minX;
     double maxX = this.maxX;
-    double pX = point.getX();
+    double pX = x;
     if (ctx.isGeo()) {
       //unwrap dateline and normalize +180 to become -180
       double rawWidth = maxX - minX;
@@ -184,12 +220,10 @@ public class RectangleImpl extends BaseShape<SpatialContext> implements Rectangl
       } else if (pX > maxX) {
         pX -= 360;
       } else {
-        return SpatialRelation.CONTAINS;//short-circuit
+        return true;//short-circuit
       }
     }
-    if (pX < minX || pX > maxX)
-      return SpatialRelation.DISJOINT;
-    return SpatialRelation.CONTAINS;
+    return pX >= minX && pX <= maxX;
   }
 
   public SpatialRelation relate(Rectangle rect) {
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+
+/**
+ * INTERNAL: Coarse approximations of a polygonal JTS {@link Geometry} that {@link JtsGeometry}
+ * consults before the full geometry: an outer hull that covers the geometry, an inner hull that
+ * the geometry covers, and a large axis aligned rectangle inscribed in the geometry. They are
+ * conservative; each is verified against the full geometry once when computed, and is discarded
+ * (or for the outer hull, replaced by the convex hull) if it doesn't hold.
+ * <p>
+ * Like JTS, they are planar, even in a geo context; so they're only consistent with relations
+ * that treat edges as straight lines in degrees.
+ * <p>
+ * The hulls are the geometry simplified by a tolerance relative to its size and then buffered
+ * outwards or inwards by twice that, thus they have far fewer vertexes than the geometry.
+ */
+public class JtsApproximations {
+
+  /** The simplification tolerance as a fraction of the larger side of the geometry's envelope. */
+  public static final double DEFAULT_TOLERANCE_RATIO = 0.005;
+
+  /** Binary search steps per side when growing the inscribed rectangle. */
+  private static final int INSCRIBED_RECT_STEPS = 16;
+
+  private final PreparedGeometry outerHull;
+  private final PreparedGeometry innerHull;//null if none
+  private final Rectangle inscribedRect;//null if none
+
+  public JtsApproximations(Geometry geom, SpatialContext ctx) {
+    this(geom, ctx, DEFAULT_TOLERANCE_RATIO);
+  }
+
+  /** @param geom polygonal and not empty. */
+  public JtsApproximations(Geometry geom, SpatialContext ctx, double toleranceRatio) {
+    final Envelope env = geom.getEnvelopeInternal();
+    final double tolerance = Math.max(env.getWidth(), env.getHeight()) * toleranceRatio;
+    final PreparedGeometry prepGeom = PreparedGeometryFactory.prepare(geom);
+    final Geometry simplified = DouglasPeuckerSimplifier.simplify(geom, tolerance);
+
+    Geometry outer = simplified.buffer(2 * tolerance, 1);
+    if (outer.isEmpty() || !PreparedGeometryFactory.prepare(outer).covers(geom))
+      outer = geom.convexHull();
+    this.outerHull = PreparedGeometryFactory.prepare(outer);
+
+    Geometry inner = simplified.buffer(-2 * tolerance, 1);
+    this.innerHull = inner.isEmpty() || !prepGeom.covers(inner) ? null : PreparedGeometryFactory.prepare(inner);
+
+    this.inscribedRect = computeInscribedRect(geom, prepGeom, ctx);
+  }
+
+  /**
+   * Grows a square around an interior point of the geometry, then each side in turn, as long as the
+   * geometry covers it. It isn't necessarily the largest inscribed rectangle.
+   */
+  private static Rectangle computeInscribedRect(Geometry geom, PreparedGeometry prepGeom, SpatialContext ctx) {
+    final Point seed = geom.getInteriorPoint();
+    if (seed == null || seed.isEmpty())
+      return null;
+    final GeometryFactory geometryFactory = geom.getFactory();
+    final Envelope env = geom.getEnvelopeInternal();
+    final double x = seed.getX(), y = seed.getY();
+    // first a square around the seed, else the first side to grow could take all the room
+    double covered = 0, notCovered = Math.max(env.getWidth(), env.getHeight());
+    for (int step = 0; step < INSCRIBED_RECT_STEPS; step++) {
+      final double mid = (covered + notCovered) / 2;
+      if (prepGeom.covers(geometryFactory.toGeometry(new Envelope(x - mid, x + mid, y - mid, y + mid))))
+        covered = mid;
+      else
+        notCovered = mid;
+    }
+    // minX, maxX, minY, maxY
+    final double[] rect = {x - covered, x + covered, y - covered, y + covered};
+    final double[] limits = {env.getMinX(), env.getMaxX(), env.getMinY(), env.getMaxY()};
+    for (int round = 0; round < 2; round++) {
+      for (int side = 0; side < 4; side++) {
+        // binary search how far this side can go towards the envelope
+        covered = rect[side];
+        notCovered = limits[side];
+        for (int step = 0; step < INSCRIBED_RECT_STEPS; step++) {
+          final double mid = (covered + notCovered) / 2;
+          rect[side] = mid;
+          Envelope candidate = new Envelope(rect[0], rect[1], rect[2], rect[3]);
+          if (prepGeom.covers(geometryFactory.toGeometry(candidate)))
+            covered = mid;
+          else
+            notCovered = mid;
+        }
+        rect[side] = covered;
+      }
+    }
+    if (rect[0] == rect[1] || rect[2] == rect[3])
+      return null;
+    return new RectangleImpl(rect[0], rect[1], rect[2], rect[3], ctx);
+  }
+
+  /** The inscribed rectangle, or null if there isn't one. */
+  public Rectangle getInscribedRect() {
+    return inscribedRect;
+  }
+
+  /**
+   * Whether the inscribed rectangle contains the box, and thus so does the geometry. Like JTS,
+   * this is planar; there's no dateline consideration.
+   */
+  public boolean inscribedRectContains(double minX, double maxX, double minY, double maxY) {
+    return inscribedRect != null
+        && minX >= inscribedRect.getMinX() && maxX <= inscribedRect.getMaxX()
+        && minY >= inscribedRect.getMinY() && maxY <= inscribedRect.getMaxY();
+  }
+
+  /**
+   * Returns DISJOINT if {@code other} is outside the outer hull, CONTAINS if the inner hull covers it,
+   * else null.
+   */
+  public SpatialRelation relate(Geometry other) {
+    if (outerHull.disjoint(other))
+      return SpatialRelation.DISJOINT;
+    if (innerHull != null && innerHull.covers(other))
+      return SpatialRelation.CONTAINS;
+    return null;
+  }
+}
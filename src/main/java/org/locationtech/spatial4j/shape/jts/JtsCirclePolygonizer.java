@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Circle;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * INTERNAL: Converts a {@link Circle} to a polygonal JTS {@link Geometry}, as used by
+ * {@link JtsShapeFactory#getGeometryFrom(org.locationtech.spatial4j.shape.Shape)}.
+ * <p>
+ * The number of vertexes is the fewest (a multiple of 4) such that each edge deviates from the
+ * circle by no more than a maximum error: a fraction of the radius, or an absolute distance if
+ * smaller. In a geo context the vertexes are placed on the circle with
+ * {@link org.locationtech.spatial4j.distance.DistanceCalculator#pointOnBearing}, and the error
+ * considers the widening of longitude away from the equator. A circle crossing the dateline is
+ * split into a MultiPolygon, and one covering a pole extends to it.
+ * <p>
+ * Results are cached by the circle's center and radius, evicting the least recently used when the
+ * total number of cached vertexes exceeds a maximum. A geometry returned by
+ * {@link #getGeometry(Circle)} is shared, thus it must not be modified;
+ * {@link JtsShapeFactory#getGeometryFrom(org.locationtech.spatial4j.shape.Shape)} returns a copy.
+ * This class is thread-safe.
+ */
+public class JtsCirclePolygonizer {
+
+  public static final double DEFAULT_MAX_ERROR_RATIO = 0.0005;//100 vertexes
+
+  public static final int DEFAULT_CACHE_MAX_VERTEXES = 1 << 16;
+
+  private static final int MIN_VERTEXES = 8;
+  private static final int MAX_VERTEXES = 1 << 12;
+
+  private final JtsSpatialContext ctx;
+  private final double maxErrorRatio;
+  private final double maxError;
+  private final int cacheMaxVertexes;
+
+  private final LinkedHashMap<Key, Geometry> cache = new LinkedHashMap<>(16, 0.75f, true);//access order
+  private long cachedVertexes = 0;//guarded by cache
+
+  /**
+   * @param maxErrorRatio The maximum error as a fraction of the radius.
+   * @param maxError The maximum error as a distance, which applies if it's smaller; infinite to disable.
+   * @param cacheMaxVertexes The maximum total vertexes of cached geometries; 0 to disable caching.
+   */
+  public JtsCirclePolygonizer(JtsSpatialContext ctx, double maxErrorRatio, double maxError, int cacheMaxVertexes) {
+    if (!(maxErrorRatio > 0 && maxErrorRatio < 1))
+      throw new IllegalArgumentException("maxErrorRatio must be > 0 and < 1: " + maxErrorRatio);
+    if (!(maxError > 0))
+      throw new IllegalArgumentException("maxError must be > 0: " + maxError);
+    this.ctx = ctx;
+    this.maxErrorRatio = maxErrorRatio;
+    this.maxError = maxError;
+    this.cacheMaxVertexes = cacheMaxVertexes;
+  }
+
+  public Geometry getGeometry(Circle circle) {
+    final Key key = new Key(circle.getCenter().getX(), circle.getCenter().getY(), circle.getRadius());
+    synchronized (cache) {
+      final Geometry geom = cache.get(key);
+      if (geom != null)
+        return geom;
+    }
+    final Geometry geom = polygonize(circle);
+    final int numVertexes = geom.getNumPoints();
+    if (numVertexes <= cacheMaxVertexes) {
+      synchronized (cache) {
+        final Geometry old = cache.put(key, geom);
+        if (old != null)
+          cachedVertexes -= old.getNumPoints();
+        cachedVertexes += numVertexes;
+        final Iterator<Map.Entry<Key, Geometry>> iterator = cache.entrySet().iterator();
+        while (cachedVertexes > cacheMaxVertexes) {
+          cachedVertexes -= iterator.next().getValue().getNumPoints();
+          iterator.remove();
+        }
+      }
+    }
+    return geom;
+  }
+
+  /** The number of vertexes around the circle, which is a multiple of 4. */
+  public int getNumVertexes(Circle circle) {
+    final double radius = circle.getRadius();
+    double tolerance = Math.min(maxErrorRatio * radius, maxError);
+    double planarRadius = radius;
+    if (ctx.isGeo()) {
+      // in lon/lat space, the circle is wider than it is high
+      Rectangle bbox = circle.getBoundingBox();
+      if (bbox.getWidth() < 360)
+        planarRadius = Math.max(radius, bbox.getWidth() / 2);
+    }
+    if (!(tolerance < planarRadius))
+      return MIN_VERTEXES;
+    // the maximum distance between an edge and the circle (the sagitta) is r * (1 - cos(PI / n))
+    final double n = Math.PI / Math.acos(1 - tolerance / planarRadius);
+    final int numVertexes = (int) Math.min(MAX_VERTEXES, Math.ceil(n / 4) * 4);
+    return Math.max(MIN_VERTEXES, numVertexes);
+  }
+
+  private Geometry polygonize(Circle circle) {
+    final GeometryFactory geometryFactory = ctx.getShapeFactory().getGeometryFactory();
+    final Point center = circle.getCenter();
+    final double radius = circle.getRadius();
+    if (!ctx.isGeo()) {
+      return geometryFactory.createPolygon(planarRing(center.getX(), center.getY(), radius, getNumVertexes(circle)));
+    }
+    final Rectangle worldBounds = ctx.getWorldBounds();
+    final Geometry world = geometryFactory.toGeometry(new Envelope(worldBounds.getMinX(), worldBounds.getMaxX(),
+        worldBounds.getMinY(), worldBounds.getMaxY()));
+    if (radius >= 180)
+      return world;
+    final boolean coversNorthPole = center.getY() + radius >= 90;
+    final boolean coversSouthPole = center.getY() - radius <= -90;
+    if (coversNorthPole && coversSouthPole) {
+      if (180 - radius < radius) {
+        // the world minus the smaller circle on the other side, which covers at most one pole
+        final Circle inverse = ctx.getShapeFactory().circle(
+            DistanceUtils.normLonDEG(center.getX() + 180), -center.getY(), 180 - radius);
+        return world.difference(getGeometry(inverse));
+      }
+      // only a hemisphere centered on the equator covers both poles and isn't bigger than its inverse;
+      // it's bounded by the meridians 90 degrees either side of the center
+      double minX = center.getX() - 90;
+      if (minX < -180)
+        minX += 360;
+      final Geometry hemisphere = geometryFactory.toGeometry(new Envelope(minX, minX + 180, -90, 90));
+      // cuts it at the dateline if it crosses
+      return new JtsGeometry(hemisphere, ctx, false, false).getGeom();
+    }
+    final Coordinate[] ring = geoRing(circle, coversNorthPole ? 90 : coversSouthPole ? -90 : Double.NaN);
+    final Geometry polygon = geometryFactory.createPolygon(ring);
+    // cuts it at the dateline if it crosses, since the ring's longitudes are unwrapped
+    return new JtsGeometry(polygon, ctx, false, false).getGeom();
+  }
+
+  /** A counter-clockwise ring. */
+  private Coordinate[] planarRing(double x, double y, double radius, int numVertexes) {
+    final Coordinate[] ring = new Coordinate[numVertexes + 1];
+    for (int i = 0; i < numVertexes; i++) {
+      final double angle = 2 * Math.PI * i / numVertexes;
+      ring[i] = makePrecise(new Coordinate(x + radius * Math.cos(angle), y + radius * Math.sin(angle)));
+    }
+    ring[numVertexes] = new Coordinate(ring[0]);
+    return ring;
+  }
+
+  /**
+   * A ring with longitudes unwrapped to be continuous, and shifted so that the minimum is at least
+   * -180; it might exceed 180. If {@code poleY} isn't NaN, the circle covers that pole and the ring
+   * goes around it via the pole's latitude.
+   */
+  private Coordinate[] geoRing(Circle circle, double poleY) {
+    final Point center = circle.getCenter();
+    final int numVertexes = getNumVertexes(circle);
+    final boolean coversPole = !Double.isNaN(poleY);
+    final boolean centerAtPole = Math.abs(center.getY()) == 90;//bearings are meaningless
+    final Coordinate[] ring = new Coordinate[numVertexes + (coversPole ? 4 : 1)];
+    Point reuse = null;
+    double prevX = center.getX();
+    for (int i = 0; i < numVertexes; i++) {
+      final double x, y;
+      if (centerAtPole) {
+        x = center.getX() + 360.0 * i / numVertexes;
+        y = center.getY() > 0 ? 90 - circle.getRadius() : -90 + circle.getRadius();
+      } else {
+        // bearings are clockwise from north, so go backwards for counter-clockwise
+        final double bearing = 360.0 * (numVertexes - i) / numVertexes;
+        reuse = ctx.getDistCalc().pointOnBearing(center, circle.getRadius(), bearing, ctx, reuse);
+        // unwrap relative to the center, or around a pole relative to the previous vertex
+        final double refX = coversPole ? prevX : center.getX();
+        x = reuse.getX() + 360 * Math.rint((refX - reuse.getX()) / 360);
+        y = reuse.getY();
+      }
+      ring[i] = makePrecise(new Coordinate(x, y));
+      prevX = x;
+    }
+    if (coversPole) {
+      // the boundary spans 360 degrees of longitude, back to the first vertex; close it via the pole
+      final double lastX = ring[0].x + (prevX > ring[0].x ? 360 : -360);
+      ring[numVertexes] = new Coordinate(lastX, ring[0].y);
+      ring[numVertexes + 1] = new Coordinate(lastX, poleY);
+      ring[numVertexes + 2] = new Coordinate(ring[0].x, poleY);
+    }
+    ring[ring.length - 1] = new Coordinate(ring[0]);
+    double minX = Double.POSITIVE_INFINITY;
+    for (Coordinate coord : ring) {
+      minX = Math.min(minX, coord.x);
+    }
+    if (minX < -180) {
+      final double shift = 360 * Math.ceil((-180 - minX) / 360);
+      for (Coordinate coord : ring) {
+        coord.x += shift;
+      }
+    }
+    return ring;
+  }
+
+  private Coordinate makePrecise(Coordinate coord) {
+    ctx.getShapeFactory().getGeometryFactory().getPrecisionModel().makePrecise(coord);
+    return coord;
+  }
+
+  /** Remove all cached geometries. */
+  public void clearCache() {
+    synchronized (cache) {
+      cache.clear();
+      cachedVertexes = 0;
+    }
+  }
+
+  /** The number of cached geometries. */
+  public int getCacheSize() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private static final class Key {
+    final double x, y, radius;
+
+    Key(double x, double y, double radius) {
+      this.x = x;
+      this.y = y;
+      this.radius = radius;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) return false;
+      Key that = (Key) o;
+      return Double.compare(x, that.x) == 0 && Double.compare(y, that.y) == 0
+          && Double.compare(radius, that.radius) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      long bits = Double.doubleToLongBits(x);
+      bits = 31 * bits + Double.doubleToLongBits(y);
+      bits = 31 * bits + Double.doubleToLongBits(radius);
+      return (int) (bits ^ (bits >>> 32));
+    }
+  }
+}
@@ -0,0 +1,652 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape.jts;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
+import com.vividsolutions.jts.algorithm.RayCrossingCounter;
+import com.vividsolutions.jts.algorithm.RobustDeterminant;
+import com.vividsolutions.jts.geom.*;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * INTERNAL: Indexes the line segments ("edges") of each LineString and polygon ring of a JTS
+ * {@link Geometry}, plus the bounding box of each component geometry, using
+ * {@link PackedBBoxIndex}. {@link JtsGeometry} uses it to only look at the edges near a shape it
+ * relates to without converting that shape to a JTS Geometry (e.g. a circle), and to locate a
+ * point in a ring by counting ray crossings of nearby edges. Point location doesn't allocate memory.
+ * <p>
+ * If geodesic, an edge is the great circle arc between its vertexes, and its box is expanded to
+ * cover where that arc bulges towards a pole; {@link #locateInRing(LinearRing, double, double)}
+ * follows the arcs too. If not indexed, nothing is pruned; every component and edge is visited, and
+ * it's cheap to construct.
+ */
+public class JtsEdgeIndex {
+
+  /** Lines with fewer edges than this aren't indexed; they are scanned. */
+  private static final int MIN_INDEXED_EDGES = 16;
+
+  private final SpatialContext ctx;
+  private final boolean geodesic;
+  private final boolean polygonal;
+  /** Polygons, LineStrings, and Points. */
+  private final List<Geometry> components = new ArrayList<>();
+  private final PackedBBoxIndex componentIndex;//null if not indexed
+  private final Map<LineString, PackedBBoxIndex> lineIndexes;//null if not indexed
+
+  public JtsEdgeIndex(Geometry geom, SpatialContext ctx, boolean geodesic, boolean indexed) {
+    this.ctx = ctx;
+    this.geodesic = geodesic;
+    this.polygonal = geom instanceof Polygonal;
+    addComponents(geom);
+    if (!indexed) {
+      componentIndex = null;
+      lineIndexes = null;
+      return;
+    }
+    lineIndexes = new IdentityHashMap<>();
+    double[] componentBoxes = new double[components.size() * 4];
+    for (int i = 0; i < components.size(); i++) {
+      Geometry component = components.get(i);
+      if (component instanceof Polygon) {
+        Polygon polygon = (Polygon) component;
+        indexLine(polygon.getExteriorRing(), geodesic, componentBoxes, i * 4);//holes are within
+        for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+          indexLine(polygon.getInteriorRingN(h), geodesic, null, 0);
+        }
+      } else if (component instanceof LineString) {
+        indexLine((LineString) component, geodesic, componentBoxes, i * 4);
+      } else {
+        Envelope env = component.getEnvelopeInternal();
+        setBox(componentBoxes, i * 4, env.getMinX(), env.getMaxX(), env.getMinY(), env.getMaxY());
+      }
+    }
+    componentIndex = new PackedBBoxIndex(componentBoxes, PackedBBoxIndex.DEFAULT_NODE_SIZE, ctx);
+  }
+
+  private void addComponents(Geometry geom) {
+    if (geom instanceof GeometryCollection) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        addComponents(geom.getGeometryN(i));//recursion
+      }
+    } else if (!geom.isEmpty()) {
+      components.add(geom);
+    }
+  }
+
+  /** Indexes the line's edges if it's big enough, and puts the box of all its edges into lineBox. */
+  private void indexLine(LineString line, boolean geodesic, double[] lineBox, int lineBoxOff) {
+    final CoordinateSequence seq = line.getCoordinateSequence();
+    final int numEdges = Math.max(0, seq.size() - 1);
+    final double[] boxes = new double[Math.max(1, numEdges) * 4];
+    if (numEdges == 0) {
+      setBox(boxes, 0, seq.getX(0), seq.getX(0), seq.getY(0), seq.getY(0));
+    }
+    for (int i = 0; i < numEdges; i++) {
+      final double vX = seq.getX(i), vY = seq.getY(i), wX = seq.getX(i + 1), wY = seq.getY(i + 1);
+      setBox(boxes, i * 4, Math.min(vX, wX), Math.max(vX, wX), Math.min(vY, wY), Math.max(vY, wY));
+      if (geodesic)
+        expandForArc(vX, vY, wX, wY, boxes, i * 4);
+    }
+    if (lineBox != null) {
+      double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+      for (int off = 0; off < boxes.length; off += 4) {
+        minX = Math.min(minX, boxes[off]);
+        maxX = Math.max(maxX, boxes[off + 1]);
+        minY = Math.min(minY, boxes[off + 2]);
+        maxY = Math.max(maxY, boxes[off + 3]);
+      }
+      setBox(lineBox, lineBoxOff, minX, maxX, minY, maxY);
+    }
+    if (numEdges >= MIN_INDEXED_EDGES)
+      lineIndexes.put(line, new PackedBBoxIndex(boxes, PackedBBoxIndex.DEFAULT_NODE_SIZE, ctx));
+  }
+
+  private static void setBox(double[] boxes, int off, double minX, double maxX, double minY, double maxY) {
+    boxes[off] = minX;
+    boxes[off + 1] = maxX;
+    boxes[off + 2] = minY;
+    boxes[off + 3] = maxY;
+  }
+
+  /**
+   * Expands the latitude range of the box to include the northern-most and southern-most points
+   * of the great circle through v and w, if they are on the arc between them.
+   */
+  private static void expandForArc(double vX, double vY, double wX, double wY, double[] boxes, int off) {
+    // unit vectors
+    final double vLat = DistanceUtils.toRadians(vY), vLon = DistanceUtils.toRadians(vX);
+    final double wLat = DistanceUtils.toRadians(wY), wLon = DistanceUtils.toRadians(wX);
+    final double ax = Math.cos(vLat) * Math.cos(vLon), ay = Math.cos(vLat) * Math.sin(vLon), az = Math.sin(vLat);
+    final double bx = Math.cos(wLat) * Math.cos(wLon), by = Math.cos(wLat) * Math.sin(wLon), bz = Math.sin(wLat);
+    // normal of the great circle plane: a x b
+    final double nx = ay * bz - az * by, ny = az * bx - ax * bz, nz = ax * by - ay * bx;
+    final double nLenSq = nx * nx + ny * ny + nz * nz;
+    if (nLenSq == 0)
+      return;//same or antipodal points
+    // northern-most point of the great circle: the north pole projected onto the plane
+    final double px = -nz * nx / nLenSq, py = -nz * ny / nLenSq, pz = 1 - nz * nz / nLenSq;
+    if (pz <= 0)
+      return;//the equator or degenerate
+    final double maxLat = DistanceUtils.toDegrees(Math.atan2(pz, Math.sqrt(px * px + py * py)));
+    // p is on the arc if it's between a and b going around n
+    if (triple(nx, ny, nz, ax, ay, az, px, py, pz) >= 0 && triple(nx, ny, nz, px, py, pz, bx, by, bz) >= 0)
+      boxes[off + 3] = Math.max(boxes[off + 3], maxLat);
+    if (triple(nx, ny, nz, ax, ay, az, -px, -py, -pz) >= 0 && triple(nx, ny, nz, -px, -py, -pz, bx, by, bz) >= 0)
+      boxes[off + 2] = Math.min(boxes[off + 2], -maxLat);
+  }
+
+  /**
+   * The geometry's bounding box, with its latitude range expanded to cover where the great circle
+   * arcs of its edges bulge towards a pole; {@code bbox} itself if they don't.
+   */
+  public static Rectangle arcBoundingBox(Geometry geom, Rectangle bbox, SpatialContext ctx) {
+    final double[] box = {0, 0, bbox.getMinY(), bbox.getMaxY()};
+    expandForArcs(geom, box);
+    if (box[2] == bbox.getMinY() && box[3] == bbox.getMaxY())
+      return bbox;
+    return ctx.getShapeFactory().rect(bbox.getMinX(), bbox.getMaxX(), box[2], box[3]);
+  }
+
+  private static void expandForArcs(Geometry geom, double[] box) {
+    if (geom instanceof GeometryCollection) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        expandForArcs(geom.getGeometryN(i), box);//recursion
+      }
+    } else if (geom instanceof Polygon) {
+      final Polygon polygon = (Polygon) geom;
+      expandForArcs(polygon.getExteriorRing(), box);
+      for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+        expandForArcs(polygon.getInteriorRingN(h), box);
+      }
+    } else if (geom instanceof LineString) {
+      final CoordinateSequence seq = ((LineString) geom).getCoordinateSequence();
+      for (int i = 0; i + 1 < seq.size(); i++) {
+        expandForArc(seq.getX(i), seq.getY(i), seq.getX(i + 1), seq.getY(i + 1), box, 0);
+      }
+    }
+  }
+
+  /**
+   * The latitude of the great circle arc from (x1,y1) to (x2,y2) at longitude x, which is between
+   * x1 and x2.  The arc is monotonic in longitude, so there's one.  If the arc spans 180 degrees or
+   * more of longitude, or has an end at a pole, it isn't a simple function of longitude in these
+   * coordinates, and the straight line is used.
+   */
+  static double arcLatitudeAt(double x1, double y1, double x2, double y2, double x) {
+    if (Math.abs(x2 - x1) >= 180 || Math.abs(y1) == 90 || Math.abs(y2) == 90)
+      return y1 + (y2 - y1) * (x - x1) / (x2 - x1);
+    final double lon1 = DistanceUtils.toRadians(x1), lon2 = DistanceUtils.toRadians(x2);
+    final double lon = DistanceUtils.toRadians(x);
+    final double tanLat = (Math.tan(DistanceUtils.toRadians(y1)) * Math.sin(lon2 - lon)
+        + Math.tan(DistanceUtils.toRadians(y2)) * Math.sin(lon - lon1)) / Math.sin(lon2 - lon1);
+    return DistanceUtils.toDegrees(Math.atan(tanLat));
+  }
+
+  /** a . (b x c) */
+  private static double triple(double ax, double ay, double az, double bx, double by, double bz,
+                               double cx, double cy, double cz) {
+    return ax * (by * cz - bz * cy) + ay * (bz * cx - bx * cz) + az * (bx * cy - by * cx);
+  }
+
+  /** The number of components: Polygons, LineStrings, and Points. */
+  public int getNumComponents() {
+    return components.size();
+  }
+
+  public Geometry getComponent(int index) {
+    return components.get(index);
+  }
+
+  /**
+   * Visits, in order, the components that might intersect {@code query}.
+   * @return false if the visitor stopped early.
+   */
+  public boolean queryComponents(Rectangle query, PackedBBoxIndex.Visitor visitor) {
+    if (componentIndex != null)
+      return componentIndex.query(query, visitor);
+    for (int i = 0; i < components.size(); i++) {
+      if (!visitor.visit(i))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Visits, in order, the edges of {@code line} that might intersect {@code query}. An edge is
+   * identified by the index of its first vertex in the line's {@link CoordinateSequence}.
+   * @return false if the visitor stopped early.
+   */
+  public boolean queryEdges(LineString line, Rectangle query, PackedBBoxIndex.Visitor visitor) {
+    PackedBBoxIndex index = lineIndexes == null ? null : lineIndexes.get(line);
+    if (index != null)
+      return index.query(query, visitor);
+    final int numEdges = line.getNumPoints() - 1;
+    for (int i = 0; i < numEdges; i++) {
+      if (!visitor.visit(i))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Locates the point in the ring as if it were a polygon shell, returning a JTS
+   * {@link Location} constant.  If geodesic, the ring's edges are great circle arcs, consistent with
+   * how their distances are measured; otherwise they're straight, as in JTS.
+   */
+  public int locateInRing(LinearRing ring, double x, double y) {
+    final PointLocator locator = PointLocator.get(this, x, y);
+    return geodesic ? locator.locateInArcRing(ring) : locator.locateInRing(ring);
+  }
+
+  /**
+   * Whether the point intersects the geometry (i.e. isn't in its exterior), like JTS's
+   * {@code disjoint} with a Point but it doesn't allocate memory.
+   */
+  public boolean intersects(double x, double y) {
+    final PointLocator locator = PointLocator.get(this, x, y);
+    if (componentIndex == null) {
+      for (Geometry component : components) {
+        if (locator.intersects(component))
+          return true;
+      }
+      return false;
+    }
+    return !componentIndex.query(x, y, locator.componentVisitor);
+  }
+
+  /**
+   * Like {@link #intersects(double, double)} but for a geometry that has no JtsEdgeIndex; all
+   * edges are visited.
+   */
+  public static boolean intersects(Geometry geom, double x, double y) {
+    if (geom instanceof GeometryCollection) {
+      for (int i = 0; i < geom.getNumGeometries(); i++) {
+        if (intersects(geom.getGeometryN(i), x, y))//recursion
+          return true;
+      }
+      return false;
+    }
+    return !geom.isEmpty() && PointLocator.get(null, x, y).intersects(geom);
+  }
+
+  /**
+   * Relates the geometry to a planar box, without converting the box to a JTS geometry or
+   * allocating memory. Edges are clipped to the box; if none pass through its interior then the
+   * interior is wholly inside or outside the geometry, per its center.  The box must have area.
+   * @return CONTAINS if the geometry covers the box, INTERSECTS, or DISJOINT; never WITHIN, which is
+   * simply whether the geometry's envelope is within the box.  Null if polygonal edges touch the
+   * box's boundary without passing through its interior; that's rare and left to an exact relate.
+   */
+  public SpatialRelation relateBox(double minX, double maxX, double minY, double maxY) {
+    final BoxRelater relater = BoxRelater.get(this, minX, maxX, minY, maxY);
+    if (componentIndex == null) {
+      for (Geometry component : components) {
+        if (!relater.visit(component))
+          break;
+      }
+    } else {
+      componentIndex.query(minX, maxX, minY, maxY, relater.componentVisitor);
+    }
+    return relater.result(polygonal);
+  }
+
+  /**
+   * Like {@link #relateBox(double, double, double, double)} but for a geometry that has no
+   * JtsEdgeIndex; all edges are visited.
+   */
+  public static SpatialRelation relateBox(Geometry geom, double minX, double maxX, double minY, double maxY) {
+    final BoxRelater relater = BoxRelater.get(null, minX, maxX, minY, maxY);
+    relater.visitAll(geom);
+    final SpatialRelation result = relater.result(geom instanceof Polygonal);
+    if (result == SpatialRelation.CONTAINS && !intersects(geom, (minX + maxX) / 2, (minY + maxY) / 2))
+      return SpatialRelation.DISJOINT;
+    return result;
+  }
+
+  /**
+   * Locates a point in the components and rings of a geometry without allocating memory; it's
+   * reused per thread. Ring location is JTS's {@link RayCrossingCounter} algorithm, computed on
+   * primitives.
+   */
+  private static final class PointLocator implements PackedBBoxIndex.Visitor {
+
+    private static final ThreadLocal<PointLocator> LOCATORS = new ThreadLocal<PointLocator>() {
+      @Override
+      protected PointLocator initialValue() {
+        return new PointLocator();
+      }
+    };
+
+    static PointLocator get(JtsEdgeIndex edgeIndex, double x, double y) {
+      final PointLocator locator = LOCATORS.get();
+      locator.edgeIndex = edgeIndex;
+      locator.x = x;
+      locator.y = y;
+      return locator;
+    }
+
+    JtsEdgeIndex edgeIndex;//null if not indexed
+    double x, y;
+    // state of the line being visited
+    CoordinateSequence seq;
+    int crossings;
+    boolean onSegment;
+
+    final PackedBBoxIndex.Visitor componentVisitor = new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        return !intersects(edgeIndex.components.get(index));
+      }
+    };
+
+    final PackedBBoxIndex.Visitor onLineVisitor = new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int edge) {
+        onSegment = isOnSegment(seq.getX(edge), seq.getY(edge), seq.getX(edge + 1), seq.getY(edge + 1));
+        return !onSegment;
+      }
+    };
+
+    private PackedBBoxIndex lineIndex(LineString line) {
+      return edgeIndex == null || edgeIndex.lineIndexes == null ? null : edgeIndex.lineIndexes.get(line);
+    }
+
+    /** @param component a Polygon, LineString, or Point; not empty. */
+    boolean intersects(Geometry component) {
+      if (component instanceof Polygon) {
+        final Polygon polygon = (Polygon) component;
+        final int shellLoc = locateInRing((LinearRing) polygon.getExteriorRing());
+        if (shellLoc != Location.INTERIOR)
+          return shellLoc == Location.BOUNDARY;
+        for (int h = 0; h < polygon.getNumInteriorRing(); h++) {
+          final int holeLoc = locateInRing((LinearRing) polygon.getInteriorRingN(h));
+          if (holeLoc != Location.EXTERIOR)
+            return holeLoc == Location.BOUNDARY;
+        }
+        return true;
+      } else if (component instanceof LineString) {
+        // note: we avoid getEnvelopeInternal() since it returns a copy
+        final LineString line = (LineString) component;
+        seq = line.getCoordinateSequence();
+        onSegment = false;
+        final PackedBBoxIndex index = lineIndex(line);
+        if (index != null) {
+          index.query(x, y, onLineVisitor);
+        } else {
+          for (int i = 0; i < seq.size() - 1 && !onSegment; i++) {
+            onLineVisitor.visit(i);
+          }
+        }
+        return onSegment;
+      } else {
+        final CoordinateSequence pointSeq = ((com.vividsolutions.jts.geom.Point) component).getCoordinateSequence();
+        return pointSeq.getX(0) == x && pointSeq.getY(0) == y;
+      }
+    }
+
+    int locateInRing(LinearRing ring) {
+      seq = ring.getCoordinateSequence();
+      crossings = 0;
+      onSegment = false;
+      final PackedBBoxIndex index = lineIndex(ring);
+      if (index != null) {
+        // only edges crossing the ray to the right of the point count
+        index.query(x, Double.POSITIVE_INFINITY, y, y, this);
+      } else {
+        for (int i = 0; i < seq.size() - 1 && !onSegment; i++) {
+          visit(i);
+        }
+      }
+      if (onSegment)
+        return Location.BOUNDARY;
+      return (crossings % 2) == 1 ? Location.INTERIOR : Location.EXTERIOR;
+    }
+
+    /**
+     * Like {@link #locateInRing(LinearRing)} but the edges are great circle arcs.  The ray goes
+     * north along the point's meridian, which is straight either way, and an edge crosses it at the
+     * arc's latitude there.
+     */
+    int locateInArcRing(LinearRing ring) {
+      seq = ring.getCoordinateSequence();
+      crossings = 0;
+      onSegment = false;
+      final PackedBBoxIndex index = lineIndex(ring);//edge boxes cover the arcs
+      if (index != null) {
+        index.query(x, x, y, Double.POSITIVE_INFINITY, arcCrossingVisitor);
+      } else {
+        for (int i = 0; i < seq.size() - 1 && !onSegment; i++) {
+          arcCrossingVisitor.visit(i);
+        }
+      }
+      if (onSegment)
+        return Location.BOUNDARY;
+      return (crossings % 2) == 1 ? Location.INTERIOR : Location.EXTERIOR;
+    }
+
+    /** Counts the ring edge's crossing of the ray north, as a great circle arc. */
+    final PackedBBoxIndex.Visitor arcCrossingVisitor = new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int edge) {
+        final double x1 = seq.getX(edge), y1 = seq.getY(edge), x2 = seq.getX(edge + 1), y2 = seq.getY(edge + 1);
+        if ((x == x1 && y == y1) || (x == x2 && y == y2)) {
+          onSegment = true;
+          return false;
+        }
+        if (x1 == x2) {//on a meridian
+          if (x == x1 && y >= Math.min(y1, y2) && y <= Math.max(y1, y2)) {
+            onSegment = true;
+            return false;
+          }
+          return true;
+        }
+        if ((x1 <= x) == (x2 <= x))
+          return true;//doesn't span the meridian; half-open so a shared vertex counts once
+        final double edgeY = arcLatitudeAt(x1, y1, x2, y2, x);
+        if (edgeY == y) {
+          onSegment = true;
+          return false;
+        }
+        if (edgeY > y)
+          crossings++;
+        return true;
+      }
+    };
+
+    /** Counts the ring edge's crossing of the ray; same logic as {@link RayCrossingCounter#countSegment}. */
+    @Override
+    public boolean visit(int edge) {
+      final double x1 = seq.getX(edge), y1 = seq.getY(edge), x2 = seq.getX(edge + 1), y2 = seq.getY(edge + 1);
+      if (x1 < x && x2 < x)
+        return true;//strictly to the left
+      if (x == x2 && y == y2) {
+        onSegment = true;
+        return false;
+      }
+      if (y1 == y && y2 == y) {//horizontal
+        if (x >= Math.min(x1, x2) && x <= Math.max(x1, x2)) {
+          onSegment = true;
+          return false;
+        }
+        return true;
+      }
+      if ((y1 > y && y2 <= y) || (y2 > y && y1 <= y)) {
+        double xIntSign = RobustDeterminant.signOfDet2x2(x1 - x, y1 - y, x2 - x, y2 - y);
+        if (xIntSign == 0.0) {
+          onSegment = true;
+          return false;
+        }
+        if (y2 - y < y1 - y)
+          xIntSign = -xIntSign;
+        if (xIntSign > 0.0)
+          crossings++;
+      }
+      return true;
+    }
+
+    boolean isOnSegment(double x1, double y1, double x2, double y2) {
+      if (x < Math.min(x1, x2) || x > Math.max(x1, x2) || y < Math.min(y1, y2) || y > Math.max(y1, y2))
+        return false;
+      return RobustDeterminant.signOfDet2x2(x2 - x1, y2 - y1, x - x2, y - y2) == 0;
+    }
+  }
+
+  /**
+   * Clips edges to a box (Liang-Barsky) without allocating memory; it's reused per thread.
+   * It tracks whether any edge or point touches the box, and whether any edge passes through its
+   * interior, at which point it stops.
+   */
+  private static final class BoxRelater {
+
+    private static final ThreadLocal<BoxRelater> RELATERS = new ThreadLocal<BoxRelater>() {
+      @Override
+      protected BoxRelater initialValue() {
+        return new BoxRelater();
+      }
+    };
+
+    static BoxRelater get(JtsEdgeIndex edgeIndex, double minX, double maxX, double minY, double maxY) {
+      final BoxRelater relater = RELATERS.get();
+      relater.edgeIndex = edgeIndex;
+      relater.minX = minX;
+      relater.maxX = maxX;
+      relater.minY = minY;
+      relater.maxY = maxY;
+      relater.touches = false;
+      relater.crossesInterior = false;
+      return relater;
+    }
+
+    JtsEdgeIndex edgeIndex;//null if not indexed
+    double minX, maxX, minY, maxY;
+    boolean touches;
+    boolean crossesInterior;
+    CoordinateSequence seq;//of the line being visited
+
+    final PackedBBoxIndex.Visitor componentVisitor = new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int index) {
+        return BoxRelater.this.visit(edgeIndex.components.get(index));
+      }
+    };
+
+    final PackedBBoxIndex.Visitor edgeVisitor = new PackedBBoxIndex.Visitor() {
+      @Override
+      public boolean visit(int edge) {
+        clip(seq.getX(edge), seq.getY(edge), seq.getX(edge + 1), seq.getY(edge + 1));
+        return !crossesInterior;
+      }
+    };
+
+    SpatialRelation result(boolean polygonal) {
+      if (crossesInterior)
+        return SpatialRelation.INTERSECTS;
+      if (touches)// the polygon might still cover the box; rounding makes clipping unreliable here
+        return polygonal ? null : SpatialRelation.INTERSECTS;
+      // the box's interior is wholly inside or outside; check its center
+      if (polygonal && (edgeIndex == null || edgeIndex.intersects((minX + maxX) / 2, (minY + maxY) / 2)))
+        return SpatialRelation.CONTAINS;//the static caller checks the center
+      return SpatialRelation.DISJOINT;
+    }
+
+    /** Visits the geometry's components recursively. */
+    void visitAll(Geometry geom) {
+      if (geom instanceof GeometryCollection) {
+        for (int i = 0; i < geom.getNumGeometries() && !crossesInterior; i++) {
+          visitAll(geom.getGeometryN(i));//recursion
+        }
+      } else if (!geom.isEmpty()) {
+        visit(geom);
+      }
+    }
+
+    /**
+     * @param component a Polygon, LineString, or Point; not empty.
+     * @return false if an edge passes through the box's interior.
+     */
+    boolean visit(Geometry component) {
+      if (component instanceof Polygon) {
+        final Polygon polygon = (Polygon) component;
+        visitEdges(polygon.getExteriorRing());
+        for (int h = 0; h < polygon.getNumInteriorRing() && !crossesInterior; h++) {
+          visitEdges(polygon.getInteriorRingN(h));
+        }
+      } else if (component instanceof LineString) {
+        visitEdges((LineString) component);
+      } else {
+        final CoordinateSequence pointSeq = ((com.vividsolutions.jts.geom.Point) component).getCoordinateSequence();
+        final double x = pointSeq.getX(0), y = pointSeq.getY(0);
+        if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+          crossesInterior = true;//well, intersects; that's all we need to know
+      }
+      return !crossesInterior;
+    }
+
+    private void visitEdges(LineString line) {
+      seq = line.getCoordinateSequence();
+      final PackedBBoxIndex index = edgeIndex == null || edgeIndex.lineIndexes == null
+          ? null : edgeIndex.lineIndexes.get(line);
+      if (index != null) {
+        index.query(minX, maxX, minY, maxY, edgeVisitor);
+      } else {
+        for (int i = 0; i < seq.size() - 1 && !crossesInterior; i++) {
+          edgeVisitor.visit(i);
+        }
+      }
+    }
+
+    /** Clips the segment to the box, updating {@link #touches} and {@link #crossesInterior}. */
+    void clip(double x1, double y1, double x2, double y2) {
+      final double dx = x2 - x1, dy = y2 - y1;
+      double t0 = 0, t1 = 1;
+      // for each side: p is the rate of going out, and q is the distance inside
+      for (int side = 0; side < 4; side++) {
+        final double p, q;
+        switch (side) {
+          case 0: p = -dx; q = x1 - minX; break;
+          case 1: p = dx; q = maxX - x1; break;
+          case 2: p = -dy; q = y1 - minY; break;
+          default: p = dy; q = maxY - y1; break;
+        }
+        if (p == 0) {
+          if (q < 0)
+            return;//parallel and outside
+        } else {
+          final double r = q / p;
+          if (p < 0) {//entering
+            if (r > t1)
+              return;
+            if (r > t0)
+              t0 = r;
+          } else {//leaving
+            if (r < t0)
+              return;
+            if (r < t1)
+              t1 = r;
+          }
+        }
+      }
+      touches = true;
+      // the clipped part is in the box; if its middle is on the boundary then all of it is
+      final double tMid = (t0 + t1) / 2;
+      final double x = x1 + tMid * dx, y = y1 + tMid * dy;
+      if (x > minX && x < maxX && y > minY && y < maxY)
+        crossesInterior = true;
+    }
+  }
+}
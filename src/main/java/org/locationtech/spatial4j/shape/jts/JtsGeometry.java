@@ -11,11 +11,14 @@ package org.locationtech.spatial4j.shape.jts;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.distance.CartesianDistCalc;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.distance.GeodesicSphereDistCalc;
 import org.locationtech.spatial4j.exception.InvalidShapeException;
 import org.locationtech.spatial4j.shape.*;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.impl.BBoxCalculator;
 import org.locationtech.spatial4j.shape.impl.BufferedLineString;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
 import org.locationtech.spatial4j.shape.impl.RectangleImpl;
 import com.vividsolutions.jts.geom.*;
 import com.vividsolutions.jts.geom.prep.PreparedGeometry;
@@ -26,6 +29,11 @@ import com.vividsolutions.jts.operation.valid.IsValidOp;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * Wraps a JTS {@link Geometry} (i.e. may be a polygon or basically anything).
@@ -40,7 +48,11 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
   private final boolean hasArea;
   private final Rectangle bbox;
   protected PreparedGeometry preparedGeometry;
+  protected JtsEdgeIndex edgeIndex;
+  protected JtsApproximations approximations;
   protected boolean validated = false;
+  private volatile Rectangle arcBBox;//lazily computed; see getArcBoundingBox()
+  private volatile JtsEdgeIndex unindexedEdges;//lazily created when not indexed; see relate(Circle)
 
   public JtsGeometry(Geometry geom, JtsSpatialContext ctx, boolean dateline180Check, boolean allowMultiOverlap) {
     super(ctx);
@@ -64,7 +76,7 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
         geom = unionGeometryCollection(geom);//returns same or new geom
 
       //Cuts an unwrapped geometry back into overlaid pages in the standard geo bounds.
-      geom = cutUnwrappedGeomInto360(geom);//returns same or new geom
+      geom = cutUnwrappedGeomInto360(geom, ctx.getShapeFactory().getConstructionExecutor());//returns same or new geom
       assert geom.getEnvelopeInternal().getWidth() <= 360;
       assert ! geom.getClass().equals(GeometryCollection.class) : "GeometryCollection unsupported";//double check
 
@@ -86,6 +98,20 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     this.hasArea = !((geom instanceof Lineal) || (geom instanceof Puntal));
   }
 
+  /** Copies the state of {@code other}, sharing its geometry and any index or approximations. */
+  protected JtsGeometry(JtsGeometry other) {
+    super(other.ctx);
+    this.geom = other.geom;
+    this.hasArea = other.hasArea;
+    this.bbox = other.bbox;
+    this.preparedGeometry = other.preparedGeometry;
+    this.edgeIndex = other.edgeIndex;
+    this.approximations = other.approximations;
+    this.validated = other.validated;
+    this.arcBBox = other.arcBBox;
+    this.unindexedEdges = other.unindexedEdges;
+  }
+
   /**
    * Attempts to retype a geometry collection under the following circumstances, returning
    * null if the collection can not be retyped.
@@ -131,7 +157,8 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
 
   /**
    * Adds an index to this class internally to compute spatial relations faster. In JTS this
-   * is called a {@link com.vividsolutions.jts.geom.prep.PreparedGeometry}.  This
+   * is called a {@link com.vividsolutions.jts.geom.prep.PreparedGeometry}.  It also indexes the
+   * edges, as used when relating to a {@link Circle}; see {@link JtsEdgeIndex}.  This
    * isn't done by default because it takes some time to do the optimization, and it uses more
    * memory.  Calling this method isn't thread-safe so be careful when this is done. If it was
    * already indexed then nothing happens.
@@ -139,6 +166,39 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
   public void index() {
     if (preparedGeometry == null)
       preparedGeometry = PreparedGeometryFactory.prepare(geom);
+    if (edgeIndex == null)
+      edgeIndex = new JtsEdgeIndex(geom, ctx, isGeodesic(), true);
+  }
+
+  /**
+   * Computes coarse approximations of a polygonal geometry that {@code relate()} consults first:
+   * an outer hull to return DISJOINT early, and an inner hull and inscribed rectangle to return
+   * CONTAINS early; see {@link JtsApproximations}.  This helps when most shapes it's related to are
+   * clearly inside or outside it, not near its boundary.  It isn't done by default because it
+   * takes some time and memory, and it's not useful for non-polygonal geometries (nothing happens
+   * then).  The approximations are planar, thus they aren't used to relate to a circle when its
+   * edges are great circle arcs (see {@link JtsShapeFactory#isGeodesicCircleRelate()}).  Like
+   * {@link #index()}, calling this method isn't thread-safe. If it was already done then nothing
+   * happens.
+   */
+  public void computeApproximations() {
+    if (approximations == null && hasArea && !isEmpty())
+      approximations = new JtsApproximations(geom, ctx);
+  }
+
+  /**
+   * Returns a copy that has been {@link #index() indexed} and has
+   * {@link #computeApproximations() approximations}, sharing this geometry; or this if it already
+   * has both.  Unlike calling those methods, this one is thread-safe.
+   */
+  @Override
+  public JtsGeometry prepare() {
+    if (preparedGeometry != null && edgeIndex != null && (approximations != null || !hasArea || isEmpty()))
+      return this;
+    JtsGeometry prepared = new JtsGeometry(this);
+    prepared.index();
+    prepared.computeApproximations();
+    return prepared;
   }
 
   @Override
@@ -219,15 +279,121 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     return other.relate(this).transpose();
   }
 
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Point)
+      return relate((Point) other) != SpatialRelation.DISJOINT;
+    else if (other instanceof Rectangle)
+      return relate((Rectangle) other) != SpatialRelation.DISJOINT;
+    else if (other instanceof Circle)
+      return relate((Circle) other) != SpatialRelation.DISJOINT;
+    else if (other instanceof JtsGeometry)
+      return ShapeUtils.intersects(bbox, other.getBoundingBox()) && intersects(((JtsGeometry) other).geom);
+    else if (other instanceof BufferedLineString)
+      throw new UnsupportedOperationException("Can't use BufferedLineString with JtsGeometry");
+    return ShapeUtils.intersects(other, this);
+  }
+
+  /** One pass of JTS's intersects, instead of up to three in {@link #relate(Geometry)}. */
+  protected boolean intersects(Geometry oGeom) {
+    if (approximations != null) {
+      SpatialRelation approxR = approximations.relate(oGeom);
+      if (approxR != null)
+        return approxR != SpatialRelation.DISJOINT;
+    }
+    return preparedGeometry != null ? preparedGeometry.intersects(oGeom) : geom.intersects(oGeom);
+  }
+
+  @Override
+  public boolean contains(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof JtsGeometry) {
+      final Geometry oGeom = ((JtsGeometry) other).geom;
+      if (approximations != null) {
+        SpatialRelation approxR = approximations.relate(oGeom);
+        if (approxR != null)
+          return approxR == SpatialRelation.CONTAINS;
+      }
+      return preparedGeometry != null ? preparedGeometry.covers(oGeom) : geom.covers(oGeom);
+    }
+    return super.contains(other);
+  }
+
+  @Override
+  public boolean within(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof Rectangle)
+      return ShapeUtils.contains(other, bbox);//we're within a rectangle if our bbox is
+    if (other instanceof JtsGeometry) {
+      final Geometry oGeom = ((JtsGeometry) other).geom;
+      return preparedGeometry != null ? preparedGeometry.coveredBy(oGeom) : geom.coveredBy(oGeom);
+    }
+    return super.within(other);
+  }
+
   public SpatialRelation relate(Point pt) {
-    if (!getBoundingBox().relate(pt).intersects())
-      return SpatialRelation.DISJOINT;
-    Geometry ptGeom;
-    if (pt instanceof JtsPoint)
-      ptGeom = ((JtsPoint)pt).getGeom();
-    else
-      ptGeom = ctx.getGeometryFactory().createPoint(new Coordinate(pt.getX(), pt.getY()));
-    return relate(ptGeom);//is point-optimized
+    return contains(pt.getX(), pt.getY()) ? SpatialRelation.CONTAINS : SpatialRelation.DISJOINT;
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    if (!ShapeUtils.contains(bbox, x, y))
+      return false;
+    if (approximations != null && approximations.inscribedRectContains(x, x, y, y))
+      return true;
+    // locate the point on the edges directly; no JTS Point or relate() machinery to allocate
+    return edgeIndex != null ? edgeIndex.intersects(x, y) : JtsEdgeIndex.intersects(geom, x, y);
+  }
+
+  /**
+   * 0 if the point is contained, else the distance to the nearest edge or vertex.  Edges are straight
+   * in degrees, like the shape itself, so in a geo context each is searched per the context's
+   * calculator with {@link DistanceUtils#distanceToStraightSegment}, as in
+   * {@link org.locationtech.spatial4j.shape.impl.BufferedLine#distance(Point)}.
+   */
+  @Override
+  public double distance(Point from) {
+    if (isEmpty())
+      return Double.NaN;
+    if (contains(from.getX(), from.getY()))
+      return 0;
+    return distanceToEdges(geom, from, Double.POSITIVE_INFINITY);
+  }
+
+  /** The smaller of {@code min} and the distance to the edges of {@code g}. */
+  private double distanceToEdges(Geometry g, Point from, double min) {
+    if (g instanceof GeometryCollection) {
+      for (int i = 0; i < g.getNumGeometries() && min > 0; i++) {
+        min = distanceToEdges(g.getGeometryN(i), from, min);
+      }
+    } else if (g instanceof Polygon) {
+      final Polygon polygon = (Polygon) g;
+      min = distanceToEdges(polygon.getExteriorRing(), from, min);
+      for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+        min = distanceToEdges(polygon.getInteriorRingN(i), from, min);
+      }
+    } else if (g instanceof LineString) {
+      final CoordinateSequence seq = ((LineString) g).getCoordinateSequence();
+      for (int i = 0; i + 1 < seq.size(); i++) {
+        final double vX = seq.getX(i), vY = seq.getY(i), wX = seq.getX(i + 1), wY = seq.getY(i + 1);
+        if (!ctx.isGeo()) {
+          min = Math.min(min, DistanceUtils.distanceToLineSegment(ctx.getDistCalc(), from, vX, vY, wX, wY));
+          continue;
+        }
+        // the latitude gap to the edge is a lower bound in degrees; skip the search when it can't win
+        final double latGap = Math.max(Math.min(vY, wY) - from.getY(), from.getY() - Math.max(vY, wY));
+        if (latGap < min)
+          min = Math.min(min, DistanceUtils.distanceToStraightSegment(ctx.getDistCalc(), from, vX, vY, wX, wY));
+      }
+    } else if (g instanceof com.vividsolutions.jts.geom.Point && !g.isEmpty()) {
+      final Coordinate coord = g.getCoordinate();
+      min = Math.min(min, ctx.getDistCalc().distance(from, coord.x, coord.y));
+    }
+    return min;
   }
 
   public SpatialRelation relate(Rectangle rectangle) {
@@ -235,82 +401,172 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     if (bboxR == SpatialRelation.WITHIN || bboxR == SpatialRelation.DISJOINT)
       return bboxR;
     // FYI, the right answer could still be DISJOINT or WITHIN, but we don't know yet.
-    return relate(ctx.getGeometryFrom(rectangle));
+    if (approximations != null && !rectangle.getCrossesDateLine() && approximations.inscribedRectContains(
+        rectangle.getMinX(), rectangle.getMaxX(), rectangle.getMinY(), rectangle.getMaxY()))
+      return SpatialRelation.CONTAINS;
+    if (rectangle.getWidth() == 0 || rectangle.getHeight() == 0)
+      return relate(ctx.getGeometryFrom(rectangle));//a line or point; rare
+    // clip the edges to the rectangle directly; no JTS Polygon or relate() machinery to allocate
+    SpatialRelation result;
+    if (!rectangle.getCrossesDateLine()) {
+      result = relateBox(rectangle.getMinX(), rectangle.getMaxX(), rectangle.getMinY(), rectangle.getMaxY());
+    } else {
+      final Rectangle worldBounds = ctx.getWorldBounds();
+      result = relateBox(rectangle.getMinX(), worldBounds.getMaxX(), rectangle.getMinY(), rectangle.getMaxY());
+      if (result != null && result != SpatialRelation.INTERSECTS) {
+        final SpatialRelation rightR =
+            relateBox(worldBounds.getMinX(), rectangle.getMaxX(), rectangle.getMinY(), rectangle.getMaxY());
+        if (rightR == null)
+          result = null;
+        else if (rightR != result)
+          result = SpatialRelation.INTERSECTS;
+      }
+    }
+    if (result == null)// our edges touch the rectangle's boundary; relate exactly
+      return relate(ctx.getGeometryFrom(rectangle));
+    // our bbox equals the rectangle (or touches it on the inside); not caught by the bbox check
+    if (result == SpatialRelation.INTERSECTS && rectangle.relate(bbox) == SpatialRelation.CONTAINS)
+      return SpatialRelation.WITHIN;
+    return result;
+  }
+
+  private SpatialRelation relateBox(double minX, double maxX, double minY, double maxY) {
+    return edgeIndex != null
+        ? edgeIndex.relateBox(minX, maxX, minY, maxY)
+        : JtsEdgeIndex.relateBox(geom, minX, maxX, minY, maxY);
   }
 
   public SpatialRelation relate(final Circle circle) {
-    SpatialRelation bboxR = bbox.relate(circle);
+    // geodesic edges can bulge out of the bbox towards a pole
+    SpatialRelation bboxR = (isGeodesic() ? getArcBoundingBox() : bbox).relate(circle);
     if (bboxR == SpatialRelation.WITHIN || bboxR == SpatialRelation.DISJOINT)
       return bboxR;
     // The result could be anything still.
+    // The approximations are planar; with great circle edges they could disagree with the edges.
+    if (approximations != null && !isGeodesic()) {
+      Rectangle circleBBox = circle.getBoundingBox();
+      if (!circleBBox.getCrossesDateLine() && approximations.inscribedRectContains(
+          circleBBox.getMinX(), circleBBox.getMaxX(), circleBBox.getMinY(), circleBBox.getMaxY()))
+        return SpatialRelation.CONTAINS;
+    }
+    JtsEdgeIndex edges = edgeIndex;
+    if (edges == null) {
+      edges = unindexedEdges;
+      if (edges == null)//cheap, and visits everything; a race just creates an equivalent one
+        unindexedEdges = edges = new JtsEdgeIndex(geom, ctx, isGeodesic(), false);
+    }
+    return new CircleRelater(circle, edges).relate();
+  }
 
-    final SpatialRelation[] result = {null};
-    // Visit each geometry (this geom might contain others).
-    geom.apply(new GeometryFilter() {
+  /**
+   * Whether edges are great circle arcs when relating to a circle (vs cartesian lines).
+   * @see JtsShapeFactory#isGeodesicCircleRelate()
+   */
+  private boolean isGeodesic() {
+    return ctx.isGeo() && ctx.getDistCalc() instanceof GeodesicSphereDistCalc
+        && ctx.getShapeFactory().isGeodesicCircleRelate();
+  }
 
-      // We use cartesian math.  It's a limitation/assumption when working with JTS.  When geo=true (i.e. we're using
-      //   WGS84 instead of a projected coordinate system), the errors here will be pretty terrible east-west.  At
-      //   60 degrees latitude, the circle will work as if it has half the width it should.
-      //   Instead, consider converting the circle to a polygon first (not great but better), or projecting both first.
-      //   Ideally, use Geo3D.
-      final CartesianDistCalc calcSqd = CartesianDistCalc.INSTANCE_SQUARED;
-      final double radiusSquared = circle.getRadius() * circle.getRadius();
-      final Geometry ctrGeom = ctx.getGeometryFrom(circle.getCenter());
+  /** The bounding box, expanded to cover where great circle arcs between vertexes bulge poleward. */
+  private Rectangle getArcBoundingBox() {
+    Rectangle result = arcBBox;
+    if (result == null)
+      arcBBox = result = isEmpty() ? bbox : JtsEdgeIndex.arcBoundingBox(geom, bbox, ctx);
+    return result;
+  }
 
-      @Override
-      public void filter(Geometry geom) {
-        if (result[0] == SpatialRelation.INTERSECTS || result[0] == SpatialRelation.CONTAINS) {
-          // a previous filter(geom) call had a result that won't be changed no matter how this geom relates
-          return;
-        }
+  /**
+   * Relates this geometry to a circle by comparing the distance to its vertexes and edges; it
+   * doesn't convert the circle to a polygon. It visits each component geometry (this geom might
+   * contain others) and edge that is near the circle's bounding box, per {@link JtsEdgeIndex}.
+   * <p>
+   * If {@link #isGeodesic()} then distances are geodesic, and edges are great circle arcs both for
+   * their distance and for whether a ring contains the circle's center. Otherwise we use cartesian
+   * math.  It's a limitation/assumption when working with JTS.  When geo=true (i.e. we're using WGS84 instead of
+   * a projected coordinate system), the errors here will be pretty terrible east-west.  At
+   * 60 degrees latitude, the circle will work as if it has half the width it should.
+   */
+  private class CircleRelater implements PackedBBoxIndex.Visitor {
+    final Point center;
+    final Rectangle circleBBox;
+    final JtsEdgeIndex edges;
+    final GeodesicSphereDistCalc geoCalc;//null if cartesian
+    final CartesianDistCalc calcSqd = CartesianDistCalc.INSTANCE_SQUARED;
+    final double radius;//squared if cartesian
+    final EdgeWithinVisitor edgeWithinVisitor = new EdgeWithinVisitor();
+
+    SpatialRelation result = null;
+    int numVisited = 0;
+
+    CircleRelater(Circle circle, JtsEdgeIndex edges) {
+      this.center = circle.getCenter();
+      this.circleBBox = circle.getBoundingBox();
+      this.edges = edges;
+      this.geoCalc = isGeodesic() ? (GeodesicSphereDistCalc) ctx.getDistCalc() : null;
+      this.radius = geoCalc != null ? circle.getRadius() : circle.getRadius() * circle.getRadius();
+    }
+
+    SpatialRelation relate() {
+      edges.queryComponents(circleBBox, this);
+      if (result == SpatialRelation.INTERSECTS || result == SpatialRelation.CONTAINS)
+        return result;
+      if (numVisited < edges.getNumComponents()) // the components not visited are disjoint
+        result = SpatialRelation.DISJOINT.combine(result);
+      return result == null ? SpatialRelation.DISJOINT : result;
+    }
 
-        if (geom instanceof Polygon) {
-          Polygon polygon = (Polygon) geom;
-          SpatialRelation rel = relateEnclosedRing((LinearRing) polygon.getExteriorRing());
-          // if rel == INTERSECTS or WITHIN or DISJOINT; done.  But CONTAINS...
-          if (rel == SpatialRelation.CONTAINS) {
-            // if the poly outer ring contains the circle, check the holes. Could become DISJOINT or INTERSECTS.
-            HOLE_LOOP: for (int i = 0; i < polygon.getNumInteriorRing(); i++){
-              // TODO short-circuit based on the hole's bbox if it's disjoint or within the circle.
-              switch (relateEnclosedRing((LinearRing) polygon.getInteriorRingN(i))) {
-                case WITHIN:// fall through
-                case INTERSECTS:
-                  rel = SpatialRelation.INTERSECTS;
-                  break HOLE_LOOP;
-                case CONTAINS:
-                  rel = SpatialRelation.DISJOINT;
-                  break HOLE_LOOP;
-                //case DISJOINT: break; // continue hole loop
-              }
+    @Override
+    public boolean visit(int index) {
+      numVisited++;
+      final Geometry geom = edges.getComponent(index);
+      SpatialRelation rel;
+      if (geom instanceof Polygon) {
+        Polygon polygon = (Polygon) geom;
+        rel = relateEnclosedRing((LinearRing) polygon.getExteriorRing());
+        // if rel == INTERSECTS or WITHIN or DISJOINT; done.  But CONTAINS...
+        if (rel == SpatialRelation.CONTAINS) {
+          // if the poly outer ring contains the circle, check the holes. Could become DISJOINT or INTERSECTS.
+          HOLE_LOOP: for (int i = 0; i < polygon.getNumInteriorRing(); i++){
+            switch (relateEnclosedRing((LinearRing) polygon.getInteriorRingN(i))) {
+              case WITHIN:// fall through
+              case INTERSECTS:
+                rel = SpatialRelation.INTERSECTS;
+                break HOLE_LOOP;
+              case CONTAINS:
+                rel = SpatialRelation.DISJOINT;
+                break HOLE_LOOP;
+              //case DISJOINT: break; // continue hole loop
             }
           }
-          result[0] = rel.combine(result[0]);
-        } else if (geom instanceof LineString) {
-          LineString lineString = (LineString) geom;
-          SpatialRelation rel = relateLineString(lineString);
-          result[0] = rel.combine(result[0]);
-        } else if (geom instanceof com.vividsolutions.jts.geom.Point) {
-          com.vividsolutions.jts.geom.Point point = (com.vividsolutions.jts.geom.Point) geom;
-          SpatialRelation rel =
-                  calcSqd.distance(circle.getCenter(), point.getX(), point.getY()) > radiusSquared
-                          ? SpatialRelation.DISJOINT : SpatialRelation.WITHIN;
-          result[0] = rel.combine(result[0]);
         }
-        // else it's going to be some GeometryCollection and we'll visit the contents.
+      } else if (geom instanceof LineString) {
+        rel = relateLineString((LineString) geom);
+      } else {
+        com.vividsolutions.jts.geom.Point point = (com.vividsolutions.jts.geom.Point) geom;
+        rel = vertexWithin(point.getX(), point.getY()) ? SpatialRelation.WITHIN : SpatialRelation.DISJOINT;
       }
+      result = rel.combine(result);
+      // INTERSECTS or CONTAINS won't be changed no matter how the remaining components relate
+      return result != SpatialRelation.INTERSECTS && result != SpatialRelation.CONTAINS;
+    }
 
-      /** As if the ring is the outer ring of a polygon */
-      SpatialRelation relateEnclosedRing(LinearRing ring) {
-        SpatialRelation rel = relateLineString(ring);
-        if (rel == SpatialRelation.DISJOINT
-                && ctx.getGeometryFactory().createPolygon(ring, null).contains(ctrGeom)) {
-          // If it contains the circle center point, then the result is CONTAINS
-          rel = SpatialRelation.CONTAINS;
-        }
-        return rel;
+    /** As if the ring is the outer ring of a polygon */
+    SpatialRelation relateEnclosedRing(LinearRing ring) {
+      SpatialRelation rel = relateLineString(ring);
+      if (rel == SpatialRelation.DISJOINT
+              && edges.locateInRing(ring, center.getX(), center.getY()) == Location.INTERIOR) {
+        // If it contains the circle center point, then the result is CONTAINS
+        rel = SpatialRelation.CONTAINS;
       }
+      return rel;
+    }
 
-      SpatialRelation relateLineString(LineString lineString) {
+    SpatialRelation relateLineString(LineString lineString) {
+      final Envelope env = lineString.getEnvelopeInternal();
+      // If a vertex is outside the circle's bbox then it's outside the circle. Then it's either
+      // INTERSECTS if any edge is in the circle, or DISJOINT.
+      if (circleBBox.relateYRange(env.getMinY(), env.getMaxY()) == SpatialRelation.CONTAINS
+          && circleBBox.relateXRange(env.getMinX(), env.getMaxX()) == SpatialRelation.CONTAINS) {
         final CoordinateSequence seq = lineString.getCoordinateSequence();
         final boolean isRing = lineString instanceof LinearRing;
         int numOutside = 0;
@@ -320,8 +576,7 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
             continue;
           }
           numComparisons++;
-          boolean outside = calcSqd.distance(circle.getCenter(), seq.getX(i), seq.getY(i)) > radiusSquared;
-          if (outside) {
+          if (!vertexWithin(seq.getX(i), seq.getY(i))) {
             numOutside++;
           }
           // If the comparisons have a mix of outside/inside, then we can short-circuit INTERSECTS.
@@ -332,23 +587,35 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
         }
         // Either all vertices are outside or inside, by this stage.
         if (numOutside == 0) { // all inside
-          return SpatialRelation.WITHIN.combine(result[0]);
-        }
-        // They are all outside.
-        // Check the edges (line segments) to see if any are inside.
-        for (int i = 1; i < seq.size(); i++) {
-          boolean outside = calcSqd.distanceToLineSegment(
-                  circle.getCenter(), seq.getX(i-1), seq.getY(i-1), seq.getX(i), seq.getY(i))
-                  > radiusSquared;
-          if (!outside) {
-            return SpatialRelation.INTERSECTS;
-          }
+          return SpatialRelation.WITHIN;
         }
-        return SpatialRelation.DISJOINT;
       }
-    });
+      // Some vertexes are outside; check the edges (line segments) near the circle to see if any are inside.
+      edgeWithinVisitor.seq = lineString.getCoordinateSequence();
+      final boolean found = !edges.queryEdges(lineString, circleBBox, edgeWithinVisitor);
+      edgeWithinVisitor.seq = null;
+      return found ? SpatialRelation.INTERSECTS : SpatialRelation.DISJOINT;
+    }
+
+    boolean vertexWithin(double x, double y) {
+      if (geoCalc != null)
+        return geoCalc.within(center, x, y, radius);
+      return calcSqd.distance(center, x, y) <= radius;
+    }
+
+    /** Stops at the first edge within the circle. */
+    class EdgeWithinVisitor implements PackedBBoxIndex.Visitor {
+      CoordinateSequence seq;
 
-    return result[0] == null ? SpatialRelation.DISJOINT : result[0];
+      @Override
+      public boolean visit(int i) {
+        final double vX = seq.getX(i), vY = seq.getY(i), wX = seq.getX(i + 1), wY = seq.getY(i + 1);
+        final double dist = geoCalc != null
+            ? geoCalc.distanceToLineSegment(center, vX, vY, wX, wY)
+            : calcSqd.distanceToLineSegment(center, vX, vY, wX, wY);
+        return dist > radius;
+      }
+    }
   }
 
   public SpatialRelation relate(JtsGeometry jtsGeometry) {
@@ -357,6 +624,11 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
   }
 
   protected SpatialRelation relate(Geometry oGeom) {
+    if (approximations != null) {
+      SpatialRelation approxR = approximations.relate(oGeom);
+      if (approxR != null)
+        return approxR;
+    }
     //see http://docs.geotools.org/latest/userguide/library/jts/dim9.html#preparedgeometry
     if (oGeom instanceof com.vividsolutions.jts.geom.Point) {
       if (preparedGeometry != null)
@@ -409,6 +681,11 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
     return geom;
   }
 
+  @Override
+  public long getVertexCount() {
+    return geom.getNumPoints();
+  }
+
   /**
    * If <code>geom</code> spans the dateline, then this modifies it to be a
    * valid JTS geometry that extends to the right of the standard -180 to +180
@@ -532,9 +809,13 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
    * This "pages" through standard geo boundaries offset by multiples of 360
    * longitudinally that intersect geom, and the intersecting results of a page
    * and the geom are shifted into the standard -180 to +180 and added to a new
-   * geometry that is returned.
+   * geometry that is returned.  If {@code executor} is non-null then the pages
+   * after the first are intersected on it, in parallel with the first.  Each of
+   * those works on its own copy of {@code geom}, made before any of them starts,
+   * since JTS doesn't document Geometry as safe for concurrent reads.  The union
+   * is computed in page order either way so the result is the same.
    */
-  private static Geometry cutUnwrappedGeomInto360(Geometry geom) {
+  private static Geometry cutUnwrappedGeomInto360(final Geometry geom, Executor executor) {
     Envelope geomEnv = geom.getEnvelopeInternal();
     if (geomEnv.getMinX() >= -180 && geomEnv.getMaxX() <= 180)
       return geom;
@@ -542,23 +823,58 @@ public class JtsGeometry extends BaseShape<JtsSpatialContext> {
 
     //TODO opt: support geom's that start at negative pages --
     // ... will avoid need to previously shift in unwrapDateline(geom).
-    List<Geometry> geomList = new ArrayList<Geometry>();
     //page 0 is the standard -180 to 180 range
-    for (int page = 0; true; page++) {
-      double minX = -180 + page * 360;
-      if (geomEnv.getMaxX() <= minX)
-        break;
-      Geometry rect = geom.getFactory().toGeometry(new Envelope(minX, minX + 360, -90, 90));
-      assert rect.isValid() : "rect";
-      Geometry pageGeom = rect.intersection(geom);//JTS is doing some hard work
-      assert pageGeom.isValid() : "pageGeom";
-
-      shiftGeomByX(pageGeom, page * -360);
-      geomList.add(pageGeom);
+    final int numPages = (int) Math.ceil((geomEnv.getMaxX() + 180) / 360);
+    // the result may share Coordinate instances with its input, which we shift below
+    List<Geometry> inputs = new ArrayList<Geometry>(numPages);
+    for (int page = 0; page < numPages; page++) {
+      inputs.add(executor != null && page != 0 ? (Geometry) geom.clone() : geom);
+    }
+    List<FutureTask<Geometry>> pageTasks = new ArrayList<FutureTask<Geometry>>();
+    for (int page = 0; page < numPages; page++) {
+      final double minX = -180 + page * 360;
+      final int pageF = page;
+      final Geometry input = inputs.get(page);
+      FutureTask<Geometry> pageTask = new FutureTask<Geometry>(new Callable<Geometry>() {
+        @Override
+        public Geometry call() {
+          Geometry rect = geom.getFactory().toGeometry(new Envelope(minX, minX + 360, -90, 90));
+          assert rect.isValid() : "rect";
+          Geometry pageGeom = rect.intersection(input);//JTS is doing some hard work
+          assert pageGeom.isValid() : "pageGeom";
+
+          shiftGeomByX(pageGeom, pageF * -360);
+          return pageGeom;
+        }
+      });
+      if (executor != null && page > 0)
+        executor.execute(pageTask);
+      pageTasks.add(pageTask);
+    }
+    pageTasks.get(0).run();
+    List<Geometry> geomList = new ArrayList<Geometry>(pageTasks.size());
+    for (FutureTask<Geometry> pageTask : pageTasks) {
+      pageTask.run();//no-op if it already ran or is running
+      geomList.add(getResult(pageTask));
     }
     return UnaryUnionOp.union(geomList);
   }
 
+  private static <T> T getResult(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
 //  private static Geometry removePolyHoles(Geometry geom) {
 //    //TODO this does a deep copy of geom even if no changes needed; be smarter
 //    GeometryTransformer gTrans = new GeometryTransformer() {
@@ -16,6 +16,7 @@ import org.locationtech.spatial4j.shape.Circle;
 import org.locationtech.spatial4j.shape.Point;
 import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
 import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.locationtech.spatial4j.shape.impl.PointImpl;
 import com.vividsolutions.jts.geom.CoordinateSequence;
@@ -77,6 +78,32 @@ public class JtsPoint extends BaseShape<JtsSpatialContext> implements Point {
     return other.relate(this).transpose();
   }
 
+  @Override
+  public boolean intersects(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    if (other instanceof org.locationtech.spatial4j.shape.Point)
+      return this.equals(other);
+    return ShapeUtils.intersects(other, this);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    return !isEmpty() && Double.compare(x, getX()) == 0 && Double.compare(y, getY()) == 0;
+  }
+
+  @Override
+  public double distance(Point from) {
+    return isEmpty() ? Double.NaN : ctx.getDistCalc().distance(from, this);
+  }
+
+  @Override
+  public boolean within(Shape other) {
+    if (isEmpty() || other.isEmpty())
+      return false;
+    return ShapeUtils.contains(other, this);
+  }
+
   @Override
   public double getX() {
     return isEmpty() ? Double.NaN : pointGeom.getX();
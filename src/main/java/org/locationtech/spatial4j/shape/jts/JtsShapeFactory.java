@@ -22,11 +22,11 @@ import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.impl.ShapeFactoryImpl;
 import com.vividsolutions.jts.algorithm.CGAlgorithms;
 import com.vividsolutions.jts.geom.*;
-import com.vividsolutions.jts.util.GeometricShapeFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Enhances {@link ShapeFactoryImpl} with support for Polygons
@@ -47,6 +47,9 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
   protected final DatelineRule datelineRule;
   protected final ValidationRule validationRule;
   protected final boolean autoIndex;
+  protected final Executor constructionExecutor;
+  protected final JtsCirclePolygonizer circlePolygonizer;
+  protected final boolean geodesicCircleRelate;
 
   /**
    * Called by {@link org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory#newSpatialContext()}.
@@ -62,6 +65,10 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     this.datelineRule = factory.datelineRule;
     this.validationRule = factory.validationRule;
     this.autoIndex = factory.autoIndex;
+    this.constructionExecutor = factory.constructionExecutor;
+    this.geodesicCircleRelate = factory.geodesicCircleRelate;
+    this.circlePolygonizer = new JtsCirclePolygonizer(ctx, factory.circleMaxErrorRatio, factory.circleMaxError,
+        factory.circleCacheMaxVertexes);
   }
 
   /**
@@ -99,6 +106,35 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
     return autoIndex;
   }
 
+  /**
+   * If non-null, {@link JtsGeometry} construction runs independent steps on this executor, such as
+   * intersecting a geometry with each 360 degree page when it crosses the dateline.  The calling
+   * thread waits for them, and the resulting geometry is the same as without an executor.
+   */
+  public Executor getConstructionExecutor() {
+    return constructionExecutor;
+  }
+
+  /**
+   * If true and the context is geo with a geodesic
+   * {@link org.locationtech.spatial4j.distance.DistanceCalculator}, {@link JtsGeometry} relates to a
+   * {@link Circle} treating edges as great circle arcs, both for their distance to the center and
+   * for whether a ring contains it.  If false (the default), edges are cartesian lines, as in JTS.
+   * <p>
+   * Only circles are related this way; points, rectangles and the bounding box still treat edges as
+   * straight lines, so a geometry can then contain a point but not a tiny circle around it, or
+   * intersect a circle outside its bounding box.  Only opt in if that's acceptable, e.g. when only
+   * circles are related to the shapes and their bounding boxes aren't used to prune them.
+   */
+  public boolean isGeodesicCircleRelate() {
+    return geodesicCircleRelate;
+  }
+
+  /** Converts circles to polygons for {@link #getGeometryFrom(Shape)}. */
+  public JtsCirclePolygonizer getCirclePolygonizer() {
+    return circlePolygonizer;
+  }
+
   @Override
   public double normX(double x) {
     x = super.normX(x);
@@ -124,7 +160,8 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
 
   /**
    * Gets a JTS {@link Geometry} for the given {@link Shape}. Some shapes hold a
-   * JTS geometry whereas new ones must be created for the rest.
+   * JTS geometry whereas new ones must be created for the rest. A Circle is converted to a polygon
+   * by {@link #getCirclePolygonizer()}, which caches it; a copy is returned.
    * @param shape Not null
    * @return Not null
    */
@@ -153,17 +190,7 @@ public class JtsShapeFactory extends ShapeFactoryImpl {
       }
     }
     if (shape instanceof Circle) {
-      // FYI Some interesting code for this is here:
-      //  http://docs.codehaus.org/display/GEOTDOC/01+How+to+Create+a+Geometry#01HowtoCreateaGeometry-CreatingaCircle
-      //TODO This should ideally have a geodetic version
-      Circle circle = (Circle)shape;
-      if (circle.getBoundingBox().getCrossesDateLine())
-        throw new IllegalArgumentException("Doesn't support dateline cross yet: "+circle);//TODO
-      GeometricShapeFactory gsf = new GeometricShapeFactory(geometryFactory);
-      gsf.setSize(circle.getBoundingBox().getWidth());
-      gsf.setNumPoints(4*25);//multiple of 4 is best
-      gsf.setCentre(new Coordinate(circle.getCenter().getX(), circle.getCenter().getY()));
-      return gsf.createCircle();
+      return (Geometry) circlePolygonizer.getGeometry((Circle) shape).clone();//the cached one is shared
     }
     //TODO add BufferedLineString
     throw new InvalidShapeException("can't make Geometry from: " + shape);
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.impl.BufferedLine;
+import org.locationtech.spatial4j.shape.impl.BufferedLineString;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.operation.buffer.BufferParameters;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class NearestNeighborsTest extends RandomizedShapeTest {
+
+  private JtsSpatialContext jtsCtx() {
+    return (JtsSpatialContext) ctx;
+  }
+
+  private Shape randomShape() {
+    // circles are kept away from the poles, where their bounding box is imprecise
+    final Point center = randomPointIn(ctx.makeRectangle(-160, 160, -60, 60));
+    switch (randomInt(5)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(10);
+      case 2: return ctx.makeCircle(center, randomIntBetween(0, 20));
+      case 3:
+        return new BufferedLineString(Arrays.asList(center,
+            ctx.makePoint(center.getX() + randomIntBetween(-10, 10), center.getY() + randomIntBetween(-10, 10)),
+            ctx.makePoint(center.getX() + randomIntBetween(-10, 10), center.getY() + randomIntBetween(-10, 10))),
+            randomInt(2), ctx);
+      case 4:
+        if (ctx.isGeo())//crosses the dateline
+          return ctx.makeRectangle(randomIntBetween(150, 180), randomIntBetween(-180, -150),
+              randomIntBetween(-90, 0), randomIntBetween(0, 90));
+      default: {//a triangle
+        GeometryFactory geometryFactory = jtsCtx().getGeometryFactory();
+        Coordinate coord = new Coordinate(center.getX(), center.getY());
+        return jtsCtx().makeShape(geometryFactory.createPolygon(new Coordinate[]{coord,
+            new Coordinate(coord.x + randomIntBetween(1, 10), coord.y),
+            new Coordinate(coord.x, coord.y + randomIntBetween(1, 10)), coord}));
+      }
+    }
+  }
+
+  @Test
+  public void testNearest() {
+    ctx = randomBoolean() ? JtsSpatialContext.GEO : new JtsSpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-180, 180, -90, 90, null);}}.newSpatialContext();
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = randomIntBetween(1, 1000); i > 0; i--) {
+      shapes.add(randomShape());
+    }
+    NearestNeighbors nearestNeighbors = new NearestNeighbors(shapes, ctx);
+    for (int q = 0; q < 20; q++) {
+      Point from = randomPoint();
+      double[] expected = new double[shapes.size()];
+      for (int i = 0; i < shapes.size(); i++) {
+        expected[i] = ShapeUtils.distance(shapes.get(i), from);
+      }
+      Arrays.sort(expected);
+      int k = randomIntBetween(1, shapes.size() + 2);
+      int[] indexes = new int[k];
+      double[] distances = new double[k];
+      int found = nearestNeighbors.nearest(from, k, indexes, distances);
+      assertEquals(Math.min(k, shapes.size()), found);
+      for (int i = 0; i < found; i++) {
+        assertEquals(from + " " + i, expected[i], distances[i], 1e-9);
+        assertEquals(distances[i], ShapeUtils.distance(shapes.get(indexes[i]), from), 0.0);
+      }
+    }
+  }
+
+  /** Compares distances to the equivalent JTS geometries, in the plane. */
+  @Test
+  public void testShapeDistanceMatchesJts() {
+    ctx = new JtsSpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-180, 180, -90, 90, null);}}.newSpatialContext();
+    GeometryFactory geometryFactory = jtsCtx().getGeometryFactory();
+    for (int i = 0; i < 100; i++) {
+      Point from = randomPoint();
+      Geometry fromGeom = geometryFactory.createPoint(new Coordinate(from.getX(), from.getY()));
+
+      Rectangle rect = randomRectangle(10);
+      assertEquals(rect.toString(), jtsCtx().getGeometryFrom(rect).distance(fromGeom), ShapeUtils.distance(rect, from), 1e-9);
+
+      Shape triangle = randomShape();
+      if (triangle instanceof org.locationtech.spatial4j.shape.jts.JtsGeometry)
+        assertEquals(triangle.toString(), jtsCtx().getGeometryFrom(triangle).distance(fromGeom),
+            ShapeUtils.distance(triangle, from), 1e-9);
+
+      Point pA = randomPointIn(ctx.makeRectangle(-160, 160, -70, 70));
+      Point pB = ctx.makePoint(pA.getX() + randomIntBetween(-10, 10), pA.getY() + randomIntBetween(-10, 10));
+      double buf = randomIntBetween(0, 3) + 0.5;
+      BufferedLine line = new BufferedLine(pA, pB, buf, ctx);
+      Geometry lineGeom = pA.equals(pB)
+          ? geometryFactory.createPoint(new Coordinate(pA.getX(), pA.getY()))
+          : geometryFactory.createLineString(new Coordinate[]{
+              new Coordinate(pA.getX(), pA.getY()), new Coordinate(pB.getX(), pB.getY())});
+      Geometry bufferedGeom = lineGeom.buffer(buf, 1, BufferParameters.CAP_SQUARE);
+      assertEquals(line.toString(), bufferedGeom.distance(fromGeom), line.distance(from), 1e-9);
+    }
+  }
+
+  /** In a geo context the edges are straight in degrees, as the polygon is defined. */
+  @Test
+  public void testJtsGeometryDistanceInGeo() throws Exception {
+    ctx = JtsSpatialContext.GEO;
+    Shape polygon = ctx.getFormats().getWktReader().read("POLYGON((0 60, 90 60, 90 70, 45 71, 0 70, 0 60))");
+    // below the bottom edge, which runs along latitude 60 rather than arcing toward the pole
+    assertEquals(1.0, ShapeUtils.distance(polygon, ctx.getShapeFactory().pointXY(45, 59)), 1e-6);
+    assertEquals(0, ShapeUtils.distance(polygon, ctx.getShapeFactory().pointXY(45, 60.5)), 0.0);
+    assertEquals(1.0, ShapeUtils.distance(polygon, ctx.getShapeFactory().pointXY(45, 72)), 1e-6);
+  }
+}
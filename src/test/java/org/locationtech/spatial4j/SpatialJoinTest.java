@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpatialJoinTest extends RandomizedShapeTest {
+
+  private Shape randomShape() {
+    switch (randomInt(3)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(10);
+      case 2:
+        if (ctx.isGeo())//crosses the dateline
+          return ctx.makeRectangle(randomIntBetween(150, 180), randomIntBetween(-180, -150),
+              randomIntBetween(-90, 0), randomIntBetween(0, 90));
+      default://kept within the world bounds if not geo
+        return ctx.makeCircle(randomPointIn(ctx.makeRectangle(-140, 140, -50, 50)), randomIntBetween(0, 30));
+    }
+  }
+
+  private List<Shape> randomShapes(int count) {
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      shapes.add(randomShape());
+    }
+    return shapes;
+  }
+
+  /** Each matching pair, as a string, sorted since they're collected in no particular order. */
+  private List<String> join(SpatialJoin join, List<Shape> indexedShapes, List<Shape> queryShapes) {
+    final List<String> pairs = new ArrayList<>();
+    join.join(indexedShapes, queryShapes, new SpatialJoin.PairCollector() {
+      @Override
+      public void collect(int indexedIndex, int queryIndex) {
+        pairs.add(indexedIndex + "," + queryIndex);
+      }
+    });
+    Collections.sort(pairs);
+    return pairs;
+  }
+
+  @Test
+  public void testJoin() throws InterruptedException {
+    ctx = randomBoolean() ? SpatialContext.GEO : new SpatialContextFactory()
+      {{geo = false; worldBounds = new RectangleImpl(-180, 180, -90, 90, null);}}.newSpatialContext();
+    List<Shape> indexedShapes = randomShapes(randomIntBetween(1, 1500));
+    List<Shape> queryShapes = randomShapes(randomIntBetween(1, 100));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      for (SpatialPredicate predicate : new SpatialPredicate[]{SpatialPredicate.Intersects,
+          SpatialPredicate.Contains, SpatialPredicate.IsWithin}) {
+        List<String> expected = new ArrayList<>();
+        for (int q = 0; q < queryShapes.size(); q++) {
+          for (int i = 0; i < indexedShapes.size(); i++) {
+            if (predicate.evaluate(indexedShapes.get(i), queryShapes.get(q)))
+              expected.add(i + "," + q);
+          }
+        }
+        Collections.sort(expected);
+        assertEquals(predicate.toString(), expected,
+            join(new SpatialJoin(predicate, ctx, null), indexedShapes, queryShapes));
+        assertEquals(predicate.toString(), expected,
+            join(new SpatialJoin(predicate, ctx, pool), indexedShapes, queryShapes));
+      }
+    } finally {
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDisjointUnsupported() {
+    new SpatialJoin(SpatialPredicate.IsDisjointTo, SpatialContext.GEO, null);
+  }
+}
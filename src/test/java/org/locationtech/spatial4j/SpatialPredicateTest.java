@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.impl.PackedBBoxIndex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpatialPredicateTest extends RandomizedShapeTest {
+
+  public SpatialPredicateTest() {
+    super(SpatialContext.GEO);
+  }
+
+  private Shape randomShape() {
+    switch (randomInt(2)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(20);
+      default: return ctx.makeCircle(randomPoint(), randomIntBetween(0, 40));
+    }
+  }
+
+  @Test
+  public void testEvaluateAll() throws InterruptedException {
+    List<Shape> indexedShapes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      indexedShapes.add(randomShape());
+    }
+    Shape queryShape = randomShape();
+    PackedBBoxIndex bboxIndex = new PackedBBoxIndex(indexedShapes, ctx);//reused by each predicate
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      for (SpatialPredicate predicate : SpatialPredicate.values()) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < indexedShapes.size(); i++) {
+          if (predicate.evaluate(indexedShapes.get(i), queryShape))
+            expected.set(i);
+        }
+        assertEquals(predicate + " " + queryShape, expected, predicate.evaluateAll(indexedShapes, queryShape));
+        assertEquals(predicate + " " + queryShape, expected, predicate.evaluateAll(indexedShapes, queryShape, pool));
+        assertEquals(predicate + " " + queryShape, expected,
+            predicate.evaluateAll(indexedShapes, bboxIndex, queryShape, null));
+      }
+    } finally {
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+  }
+
+  /** A custom predicate that holds for shapes with disjoint bounding boxes isn't skipped. */
+  @Test
+  public void testEvaluateAllCustom() {
+    SpatialPredicate bboxDisjoint = new SpatialPredicate("TestBBoxDisjoint") {
+      @Override
+      public boolean evaluate(Shape indexedShape, Shape queryShape) {
+        return !ShapeUtils.intersects(indexedShape.getBoundingBox(), queryShape.getBoundingBox());
+      }
+    };
+    List<Shape> indexedShapes = new ArrayList<>();
+    BitSet expected = new BitSet();
+    Shape queryShape = randomRectangle(20);
+    for (int i = 0; i < 100; i++) {
+      Shape shape = randomShape();
+      indexedShapes.add(shape);
+      if (bboxDisjoint.evaluate(shape, queryShape))
+        expected.set(i);
+    }
+    assertEquals(expected, bboxDisjoint.evaluateAll(indexedShapes, queryShape));
+    try {
+      new SpatialJoin(bboxDisjoint, ctx, null);
+      fail("joins only visit pairs with intersecting bounding boxes");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+  }
+}
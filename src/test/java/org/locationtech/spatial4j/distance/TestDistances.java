@@ -107,6 +107,121 @@ public class TestDistances extends RandomizedTest {
             0.00001);
   }
 
+  @Test
+  public void testGeodesicDistanceToLineSegment() {
+    for (int i = 0; i < 100; i++) {
+      // the points may be more than 90 degrees from the arc, or beyond its ends
+      Point v = randomGeoPoint(), w = randomGeoPointFrom(v), from = randomGeoPoint();
+      if (dc().distance(v, w) > 170)
+        continue;//nearly antipodal; the shorter arc is ambiguous
+      // the minimum distance to many points on the arc: normalized chords of the unit vectors
+      final double[] a = unitVector(v), b = unitVector(w);
+      double expected = Double.POSITIVE_INFINITY;
+      final int steps = 2000;
+      for (int s = 0; s <= steps; s++) {
+        final double t = (double) s / steps;
+        final double x = a[0] + (b[0] - a[0]) * t, y = a[1] + (b[1] - a[1]) * t, z = a[2] + (b[2] - a[2]) * t;
+        expected = Math.min(expected, dc().distance(from, Math.toDegrees(Math.atan2(y, x)),
+            Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)))));
+      }
+      double distance = DistanceUtils.distanceToLineSegment(dc(), from, v.getX(), v.getY(), w.getX(), w.getY());
+      assertTrue(v + " " + w + " " + from + " " + distance + " " + expected,
+          distance <= expected + 1e-9 && distance >= expected - 0.2);
+    }
+  }
+
+  private static double[] unitVector(Point p) {
+    final double lat = Math.toRadians(p.getY()), lon = Math.toRadians(p.getX());
+    return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+  }
+
+  @Test
+  public void testDistanceToRectangle() {
+    for (int i = 0; i < 100; i++) {
+      ctx = randomBoolean() ? SpatialContext.GEO : new SpatialContext(false);
+      // geo rectangles might cross the dateline, or reach a pole
+      final double minX = randomIntBetween(-180, 170), minY = randomIntBetween(-90, 80);
+      double maxX = minX + randomIntBetween(0, 100), maxY = Math.min(90, minY + randomIntBetween(0, 100));
+      if (ctx.isGeo())
+        maxX = DistanceUtils.normLonDEG(maxX);
+      Rectangle rect = ctx.makeRectangle(minX, maxX, minY, maxY);
+      Point from = randomGeoPoint();
+      // the minimum distance to many points on the edges
+      double expected = rect.relate(from).intersects() ? 0 : Double.POSITIVE_INFINITY;
+      final int steps = 2000;
+      for (int s = 0; s <= steps; s++) {
+        final double x = ctx.isGeo() ? DistanceUtils.normLonDEG(minX + rect.getWidth() * s / steps)
+            : minX + rect.getWidth() * s / steps;
+        final double y = minY + rect.getHeight() * s / steps;
+        expected = Math.min(expected, Math.min(dc().distance(from, x, minY), dc().distance(from, x, maxY)));
+        expected = Math.min(expected, Math.min(dc().distance(from, minX, y), dc().distance(from, maxX, y)));
+      }
+      double distance = DistanceUtils.distance(dc(), from, rect);
+      assertTrue(rect + " " + from + " " + distance + " " + expected, distance <= expected + 1e-9);
+      assertEquals(rect + " " + from, expected, distance, 0.1);//sampling resolution
+    }
+  }
+
+  /** The defaults in {@link AbstractDistanceCalculator} agree with the closed forms. */
+  @Test
+  public void testDistanceDefaults() {
+    for (int i = 0; i < 100; i++) {
+      ctx = randomBoolean() ? SpatialContext.GEO : new SpatialContext(false);
+      DistanceCalculator defaults = new PointDistanceOnly(dc());
+      final double minX = randomIntBetween(-180, 170), minY = randomIntBetween(-90, 80);
+      double maxX = minX + randomIntBetween(0, 100), maxY = Math.min(90, minY + randomIntBetween(0, 100));
+      if (ctx.isGeo())
+        maxX = DistanceUtils.normLonDEG(maxX);
+      Rectangle rect = ctx.makeRectangle(minX, maxX, minY, maxY);
+      Point from = randomGeoPoint();
+      assertEquals(rect + " " + from, DistanceUtils.distance(dc(), from, rect),
+          DistanceUtils.distance(defaults, from, rect), 1e-9);
+      if (!ctx.isGeo()) {//the default segment is straight in degrees; not a great circle
+        assertEquals(rect + " " + from, DistanceUtils.distanceToLineSegment(dc(), from, minX, minY, maxX, maxY),
+            DistanceUtils.distanceToLineSegment(defaults, from, minX, minY, maxX, maxY), 1e-9);
+      }
+    }
+  }
+
+  /** Implements only the point to point distance, delegating the rest that's abstract. */
+  private static class PointDistanceOnly extends AbstractDistanceCalculator {
+    final DistanceCalculator delegate;
+
+    PointDistanceOnly(DistanceCalculator delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public double distance(Point from, double toX, double toY) {
+      return delegate.distance(from, toX, toY);
+    }
+
+    @Override
+    public Point pointOnBearing(Point from, double distDEG, double bearingDEG, SpatialContext ctx, Point reuse) {
+      return delegate.pointOnBearing(from, distDEG, bearingDEG, ctx, reuse);
+    }
+
+    @Override
+    public Rectangle calcBoxByDistFromPt(Point from, double distDEG, SpatialContext ctx, Rectangle reuse) {
+      return delegate.calcBoxByDistFromPt(from, distDEG, ctx, reuse);
+    }
+
+    @Override
+    public double calcBoxByDistFromPt_yHorizAxisDEG(Point from, double distDEG, SpatialContext ctx) {
+      return delegate.calcBoxByDistFromPt_yHorizAxisDEG(from, distDEG, ctx);
+    }
+
+    @Override
+    public double area(Rectangle rect) {
+      return delegate.area(rect);
+    }
+
+    @Override
+    public double area(Circle circle) {
+      return delegate.area(circle);
+    }
+  }
+
   @Test
   public void testCalcBoxByDistFromPt() {
     //first test regression
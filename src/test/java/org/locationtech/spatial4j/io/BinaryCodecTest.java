@@ -9,14 +9,26 @@
 package org.locationtech.spatial4j.io;
 
 import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.shape.Circle;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.Rectangle;
 import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.SpatialRelation;
 import org.junit.Test;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class BinaryCodecTest extends BaseRoundTripTest<SpatialContext> {
 
@@ -53,6 +65,219 @@ public class BinaryCodecTest extends BaseRoundTripTest<SpatialContext> {
     binaryCodec.writeShape(new DataOutputStream(baos), shape);
     ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
     assertEquals(shape, binaryCodec.readShape(new DataInputStream(bais)));
+
+    //the same bytes in a big-endian buffer; then either order, heap or direct
+    ByteBuffer buffer = ByteBuffer.allocate(baos.size() + 10);
+    buffer.position(10);
+    binaryCodec.writeShape(buffer, shape);
+    assertEquals(0, buffer.remaining());
+    assertArrayEquals(baos.toByteArray(), Arrays.copyOfRange(buffer.array(), 10, buffer.capacity()));
+    buffer = randomBoolean() ? ByteBuffer.allocate(baos.size()) : ByteBuffer.allocateDirect(baos.size());
+    buffer.order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    binaryCodec.writeShape(buffer, shape);
+    buffer.flip();
+    assertEquals(shape, binaryCodec.readShape(buffer));
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test
+  public void testBulkDoubles() throws IOException {
+    double[] values = new double[randomIntBetween(0, 100)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = randomDouble();
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(values.length * 8 + 1)
+        .order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    buffer.put((byte) 1);//unaligned
+    new ByteBufferDataIO(buffer).writeDoubles(values, 0, values.length);
+    buffer.flip();
+    ByteBufferDataIO dataIO = new ByteBufferDataIO(buffer);
+    assertEquals(1, dataIO.readByte());
+    double[] copy = new double[values.length];
+    int numSingle = Math.min(3, values.length);
+    for (int i = 0; i < numSingle; i++) {
+      copy[i] = dataIO.readDouble();//the same order as bulk
+    }
+    dataIO.readDoubles(copy, numSingle, values.length - numSingle);
+    assertArrayEquals(values, copy, 0.0);
+    assertEquals(0, buffer.remaining());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testReadTruncatedBuffer() throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(100);
+    binaryCodec.writeShape(buffer, ctx.makeRectangle(1, 2, 3, 4));
+    buffer.flip();
+    buffer.limit(buffer.limit() - 1);
+    binaryCodec.readShape(buffer);
+  }
+
+  /** A context of this test's kind whose codec writes the compact form. */
+  protected SpatialContext compactContext(int precision) {
+    SpatialContextFactory factory = new SpatialContextFactory();
+    factory.binaryCodecPrecision = precision;
+    return factory.newSpatialContext();
+  }
+
+  protected Shape randomCompactShape(SpatialContext ctx) {
+    switch (randomInt(3)) {
+      case 0: return randomCompactPoint(ctx);
+      case 1: {
+        double minY = -90 + randomDouble() * 90;
+        return ctx.makeRectangle(-180 + randomDouble() * 360, -180 + randomDouble() * 360,
+            minY, minY + randomDouble() * 90);
+      }
+      case 2: return ctx.makeCircle(-180 + randomDouble() * 180, -60 + randomDouble() * 120, randomDouble() * 10);
+      default: {
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = randomInt(5); i >= 0; i--) {
+          shapes.add(randomCompactPoint(ctx));
+        }
+        return ctx.makeCollection(shapes);
+      }
+    }
+  }
+
+  private Point randomCompactPoint(SpatialContext ctx) {
+    return ctx.makePoint(-180 + randomDouble() * 360, -90 + randomDouble() * 180);
+  }
+
+  static byte[] write(BinaryCodec codec, Shape shape) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    codec.writeShape(new DataOutputStream(baos), shape);
+    return baos.toByteArray();
+  }
+
+  static Shape read(BinaryCodec codec, byte[] bytes) throws IOException {
+    return codec.readShape(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  /** Compares circles and collection members individually, since their bounding boxes can jump. */
+  private void assertWithin(double tolerance, Shape expected, Shape actual) {
+    String msg = expected + " " + actual;
+    if (expected instanceof ShapeCollection) {
+      ShapeCollection<?> collection = (ShapeCollection<?>) expected;
+      assertEquals(msg, collection.size(), ((ShapeCollection<?>) actual).size());
+      for (int i = 0; i < collection.size(); i++) {
+        assertWithin(tolerance, collection.get(i), ((ShapeCollection<?>) actual).get(i));
+      }
+    } else if (expected instanceof Circle) {
+      Circle circle = (Circle) expected;
+      Circle circleCopy = (Circle) actual;
+      assertEquals(msg, circle.getCenter().getX(), circleCopy.getCenter().getX(), tolerance);
+      assertEquals(msg, circle.getCenter().getY(), circleCopy.getCenter().getY(), tolerance);
+      assertEquals(msg, circle.getRadius(), circleCopy.getRadius(), tolerance);
+    } else {
+      Rectangle bbox = expected.getBoundingBox();
+      Rectangle bboxCopy = actual.getBoundingBox();
+      assertEquals(msg, bbox.getMinX(), bboxCopy.getMinX(), tolerance);
+      assertEquals(msg, bbox.getMaxX(), bboxCopy.getMaxX(), tolerance);
+      assertEquals(msg, bbox.getMinY(), bboxCopy.getMinY(), tolerance);
+      assertEquals(msg, bbox.getMaxY(), bboxCopy.getMaxY(), tolerance);
+    }
+  }
+
+  @Test
+  public void testCompact() throws IOException {
+    final int precision = randomIntBetween(0, 9);
+    final double tolerance = 0.5 / Math.pow(10, precision) + 1e-9;
+    SpatialContext compactCtx = compactContext(precision);
+    BinaryCodec compactCodec = compactCtx.getBinaryCodec();
+    for (int i = 0; i < 20; i++) {
+      Shape shape = randomCompactShape(compactCtx);
+      byte[] bytes = write(compactCodec, shape);
+      Shape copy = read(compactCodec, bytes);
+      assertWithin(tolerance, shape, copy);
+      //already quantized, so it's written the same
+      assertArrayEquals(shape.toString(), bytes, write(compactCodec, copy));
+      //a record's header has the bounding box of the shape as rounded
+      ByteBuffer record = ByteBuffer.allocate(bytes.length + BinaryCodec.RECORD_HEADER_SIZE);
+      compactCodec.writeRecord(record, shape);
+      record.flip();
+      assertEquals(shape.toString(), copy.getBoundingBox(), compactCodec.readLazyShape(record, false).getBoundingBox());
+    }
+
+    //the empty point
+    assertTrue(read(compactCodec, write(compactCodec, compactCtx.makePoint(Double.NaN, Double.NaN))).isEmpty());
+
+    //nearby points take far fewer bytes than doubles; either form is read
+    compactCtx = compactContext(randomIntBetween(0, 6));
+    compactCodec = compactCtx.getBinaryCodec();
+    List<Shape> points = new ArrayList<>();
+    Point start = randomCompactPoint(compactCtx);
+    for (int i = 0; i < 100; i++) {
+      points.add(compactCtx.makePoint(start.getX() + randomDouble() * 0.01, start.getY() + randomDouble() * 0.01));
+    }
+    Shape collection = compactCtx.makeCollection(points);
+    BinaryCodec fullCodec = new BinaryCodec(compactCtx, null);
+    byte[] full = write(fullCodec, collection);
+    byte[] compact = write(compactCodec, collection);
+    assertTrue(compact.length + " vs " + full.length, compact.length * 2 < full.length);
+    assertEquals(collection, read(fullCodec, full));
+    assertEquals(read(compactCodec, compact), read(fullCodec, compact));
+
+    //a record's header has the bounding box of the shape as rounded
+    ByteBuffer buffer = ByteBuffer.allocate(compact.length + BinaryCodec.RECORD_HEADER_SIZE);
+    compactCodec.writeRecord(buffer, collection);
+    buffer.flip();
+    assertEquals(read(compactCodec, compact).getBoundingBox(),
+        compactCodec.readLazyShape(buffer, false).getBoundingBox());
+  }
+
+  @Test
+  public void testLazyRecords() throws IOException {
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = randomIntBetween(1, 10); i > 0; i--) {
+      shapes.add(randomShape());
+    }
+    //several records in a buffer, then in a stream
+    ByteBuffer buffer = ByteBuffer.allocate(10000)
+        .order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dataOutput = new DataOutputStream(baos);
+    for (Shape shape : shapes) {
+      binaryCodec.writeRecord(buffer, shape);
+      binaryCodec.writeRecord(dataOutput, shape);
+    }
+    buffer.flip();
+    if (buffer.order() == ByteOrder.BIG_ENDIAN)
+      assertArrayEquals(baos.toByteArray(), Arrays.copyOf(buffer.array(), buffer.limit()));
+    DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+    for (Shape shape : shapes) {
+      boolean cache = randomBoolean();
+      buffer.mark();
+      LazyShape lazy = (LazyShape) (randomBoolean() ? binaryCodec.readLazyShape(buffer, cache)
+          : binaryCodec.readLazyShape(new ByteBufferDataIO(buffer), cache));
+      assertEquals(shape, binaryCodec.readShape(dataInput));//skips the header
+      assertEquals(shape.getBoundingBox(), lazy.getBoundingBox());
+      for (int i = 0; i < 10; i++) {
+        Rectangle query = randomBoolean() ? ctx.makeRectangle(-180, 180, -90, 90)
+            : ctx.makeRectangle(randomIntBetween(-180, 0), randomIntBetween(0, 180),
+                randomIntBetween(-90, 0), randomIntBetween(0, 90));
+        SpatialRelation expected = shape.relate(query);
+        SpatialRelation bboxRelation = shape.getBoundingBox().relate(query);
+        boolean decodedBefore = lazy.isDecoded();
+        assertEquals(shape + " " + query, expected, lazy.relate(query));
+        if (bboxRelation == SpatialRelation.DISJOINT || bboxRelation == SpatialRelation.WITHIN)
+          assertEquals(decodedBefore, lazy.isDecoded());//answered by the header
+      }
+      assertEquals(shape, lazy.getDecoded());
+      assertEquals(cache, lazy.isDecoded());
+      //only equal to another LazyShape, symmetrically
+      assertFalse(lazy.equals(shape));
+      assertFalse(shape.equals(lazy));
+      assertTrue(lazy.within(shape));
+      buffer.reset();
+      Shape other = binaryCodec.readLazyShape(buffer, false);
+      assertEquals(lazy, other);
+      assertEquals(other, lazy);
+      assertEquals(lazy.hashCode(), other.hashCode());
+    }
+    assertEquals(0, buffer.remaining());
+
+    //a shape without the header is read as usual
+    assertEquals(shapes.get(0), binaryCodec.readLazyShape(new DataInputStream(
+        new ByteArrayInputStream(write(binaryCodec, shapes.get(0)))), true));
   }
 
 }
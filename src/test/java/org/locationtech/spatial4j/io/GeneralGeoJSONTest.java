@@ -22,7 +22,14 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -161,4 +168,47 @@ public class GeneralGeoJSONTest extends GeneralReadWriteShapeTest {
     assertEquals(bufferedLineText(), strip(writer.toString(bufferedLine())));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testReadFeatures() throws Exception {
+    String json = "{'type':'FeatureCollection', 'bbox':[100.0, 0.0, 105.0, 1.0], 'crs':{'type':'name'},"
+        + " 'features':["
+        + "  {'type':'Feature', 'id':'a', 'geometry':" + pointText() + ","
+        + "   'properties':{'name':'x', 'tags':['p','q'], 'nested':{'n':1}}},"
+        + "  {'type':'Feature', 'properties':{'name':'y'}, 'geometry':" + polygonText1() + ", 'id':2},"
+        + "  {'type':'Feature', 'geometry':null, 'properties':null, 'extra':{'k':[1,[2]]}}"
+        + " ], 'after':{'ignored':true}}";
+    json = json.replace('\'', '"');
+    GeoJSONReader geoJSONReader = (GeoJSONReader) reader;
+
+    GeoJSONReader.FeatureIterator features = geoJSONReader.readFeatures(new StringReader(json), true);
+    GeoJSONReader.Feature feature = features.next();
+    assertEquals("a", feature.getId());
+    assertEquals(point(), feature.getShape());
+    Map<String, Object> properties = feature.getProperties();
+    assertEquals("x", properties.get("name"));
+    assertEquals(Arrays.asList("p", "q"), properties.get("tags"));
+    assertEquals(Collections.singletonMap("n", 1L), properties.get("nested"));
+    feature = features.next();
+    assertEquals(2L, feature.getId());
+    assertEquals(polygon1(), feature.getShape());
+    assertEquals(Collections.singletonMap("name", "y"), feature.getProperties());
+    feature = features.next();
+    assertNull(feature.getShape());
+    assertNull(feature.getProperties());
+    assertFalse(features.hasNext());
+    assertNull(features.nextFeature());
+
+    // skipping properties
+    features = geoJSONReader.readFeatures(new StringReader(json), false);
+    int count = 0;
+    while ((feature = features.nextFeature()) != null) {
+      assertNull(feature.getProperties());
+      count++;
+    }
+    assertEquals(3, count);
+
+    // no features
+    assertFalse(geoJSONReader.readFeatures(new StringReader("{\"type\":\"FeatureCollection\"}"), true).hasNext());
+  }
+
+}
@@ -15,13 +15,27 @@ import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
 import org.locationtech.spatial4j.shape.Shape;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
 import com.vividsolutions.jts.geom.PrecisionModel;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import com.vividsolutions.jts.io.ByteOrderValues;
+import com.vividsolutions.jts.io.WKBWriter;
 import com.vividsolutions.jts.util.GeometricShapeFactory;
 
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 public class JtsBinaryCodecTest extends BinaryCodecTest {
 
   @Override
@@ -57,4 +71,118 @@ public class JtsBinaryCodecTest extends BinaryCodecTest {
     return gsf.createCircle();
   }
 
+  @Override
+  protected SpatialContext compactContext(int precision) {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    factory.binaryCodecPrecision = precision;
+    return factory.newSpatialContext();
+  }
+
+  @Override
+  protected Shape randomCompactShape(SpatialContext ctx) {
+    if (randomInt(3) == 0) {
+      JtsSpatialContext jtsCtx = (JtsSpatialContext) ctx;
+      GeometricShapeFactory gsf = new GeometricShapeFactory(jtsCtx.getGeometryFactory());
+      gsf.setCentre(new Coordinate(-90 + randomDouble() * 180, -45 + randomDouble() * 90));
+      gsf.setSize(10 + randomDouble() * 40);//diameter
+      gsf.setNumPoints(randomIntBetween(4, 50));
+      Geometry geom = gsf.createCircle();
+      if (randomBoolean())
+        geom = geom.getBoundary();//a LineString
+      return jtsCtx.makeShape(geom, false, false);
+    }
+    return super.randomCompactShape(ctx);
+  }
+
+  /** Our WKB is JTS's, less the leading byte order mark, in either order and coordinate sequence. */
+  @Test
+  public void testWkbMatchesJts() throws Exception {
+    JtsSpatialContextFactory factory = new JtsSpatialContextFactory();
+    if (randomBoolean())
+      factory.coordinateSequenceFactory = PackedCoordinateSequenceFactory.DOUBLE_FACTORY;
+    JtsSpatialContext ctx = factory.newSpatialContext();
+    GeometryFactory geometryFactory = ctx.getGeometryFactory();
+    for (int i = 0; i < 20; i++) {
+      Geometry geom;
+      switch (randomInt(4)) {
+        case 0: geom = geometryFactory.createPoint(randomCoordinate()); break;
+        case 1: geom = geometryFactory.createLineString(new Coordinate[]{randomCoordinate(), randomCoordinate()}); break;
+        case 2: geom = polygonWithHole(geometryFactory, randomCoordinate()); break;
+        case 3: {
+          Coordinate c = randomCoordinate();
+          geom = geometryFactory.createMultiPolygon(new Polygon[]{polygonWithHole(geometryFactory, c),
+              polygonWithHole(geometryFactory, new Coordinate(c.x + 10, c.y))});
+          break;
+        }
+        default: geom = randomBoolean()
+            ? geometryFactory.createMultiPoint(new Coordinate[]{randomCoordinate(), randomCoordinate()})
+            : geometryFactory.createMultiLineString(new LineString[]{
+                geometryFactory.createLineString(new Coordinate[]{randomCoordinate(), randomCoordinate()}),
+                geometryFactory.createLineString(new Coordinate[]{randomCoordinate(), randomCoordinate()})});
+      }
+      boolean littleEndian = randomBoolean();
+      byte[] jtsWkb = new WKBWriter(2, littleEndian ? ByteOrderValues.LITTLE_ENDIAN : ByteOrderValues.BIG_ENDIAN)
+          .write(geom);
+      ByteBuffer buffer = ByteBuffer.allocate(jtsWkb.length)
+          .order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+      ctx.getBinaryCodec().writeShape(buffer, ctx.makeShape(geom, false, false));
+      byte[] expected = jtsWkb.clone();
+      expected[0] = BinaryCodec.TYPE_GEOM;//in place of the byte order mark
+      assertArrayEquals(geom.toString(), expected, buffer.array());
+
+      buffer.flip();
+      Shape shape = ctx.getBinaryCodec().readShape(buffer);
+      assertEquals(0, buffer.remaining());
+      assertEquals(geom.toString(), geom, ctx.getGeometryFrom(shape));
+    }
+  }
+
+  private Coordinate randomCoordinate() {
+    return new Coordinate(-50 + randomDouble() * 100, -50 + randomDouble() * 100);
+  }
+
+  /** Repeated points are dropped once rounded, and so are parts that collapse or are empty. */
+  @Test
+  public void testCompactCollapse() throws Exception {
+    JtsSpatialContext ctx = (JtsSpatialContext) compactContext(0);
+    GeometryFactory geometryFactory = ctx.getGeometryFactory();
+    LinearRing shell = geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(0, 0),
+        new Coordinate(20, 0), new Coordinate(20.2, 0.1), new Coordinate(0, 20), new Coordinate(0, 0)});
+    LinearRing hole = geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(5.1, 5.1),
+        new Coordinate(5.3, 5.1), new Coordinate(5.1, 5.3), new Coordinate(5.1, 5.1)});
+    LinearRing flatHole = geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(8, 8),
+        new Coordinate(9, 8), new Coordinate(10, 8.1), new Coordinate(8, 8)});
+    LineString line = geometryFactory.createLineString(new Coordinate[]{new Coordinate(0, 0),
+        new Coordinate(0.2, 0), new Coordinate(5, 5)});
+    LineString tinyLine = geometryFactory.createLineString(new Coordinate[]{new Coordinate(1.1, 1),
+        new Coordinate(1.2, 1)});
+    Geometry[] geoms = {
+        geometryFactory.createPolygon(shell, new LinearRing[]{hole, flatHole}),
+        geometryFactory.createMultiLineString(new LineString[]{line, tinyLine}),
+        geometryFactory.createMultiPoint(new Point[]{geometryFactory.createPoint(new Coordinate(3, 4)),
+            geometryFactory.createPoint((Coordinate) null)}),
+        tinyLine};
+    Geometry[] expected = {
+        geometryFactory.createPolygon(geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(0, 0),
+            new Coordinate(20, 0), new Coordinate(0, 20), new Coordinate(0, 0)}), null),
+        geometryFactory.createMultiLineString(new LineString[]{geometryFactory.createLineString(
+            new Coordinate[]{new Coordinate(0, 0), new Coordinate(5, 5)})}),
+        geometryFactory.createMultiPoint(new Coordinate[]{new Coordinate(3, 4)}),
+        geometryFactory.createLineString(new Coordinate[0])};
+    BinaryCodec codec = ctx.getBinaryCodec();
+    for (int i = 0; i < geoms.length; i++) {
+      Geometry copy = ctx.getGeometryFrom(read(codec, write(codec, ctx.makeShape(geoms[i], false, false))));
+      assertTrue(copy.toString(), copy.equalsExact(expected[i]));
+      assertTrue(copy.toString(), copy.isValid());
+    }
+  }
+
+  private Polygon polygonWithHole(GeometryFactory geometryFactory, Coordinate c) {
+    return geometryFactory.createPolygon(
+        geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(c.x - 2, c.y - 2),
+            new Coordinate(c.x + 2, c.y - 2), new Coordinate(c.x, c.y + 2), new Coordinate(c.x - 2, c.y - 2)}),
+        new LinearRing[]{geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(c.x - 1, c.y - 1),
+            new Coordinate(c.x + 1, c.y - 1), new Coordinate(c.x, c.y + 1), new Coordinate(c.x - 1, c.y - 1)})});
+  }
+
 }
@@ -16,7 +16,10 @@ import org.locationtech.spatial4j.shape.Shape;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
 import java.util.Arrays;
+import java.util.Locale;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -81,6 +84,38 @@ public class LegacyShapeReadWriterTest extends RandomizedTest {
     assertTrue(s.hasArea());
   }
 
+  /** makeNumberFormat() must format just like the DecimalFormat it used to return. */
+  @Test
+  public void testNumberFormat() {
+    RoundingMode[] roundingModes = {RoundingMode.HALF_EVEN, RoundingMode.HALF_UP, RoundingMode.FLOOR,
+        RoundingMode.CEILING, RoundingMode.DOWN};
+    for (int i = 0; i < 1000; i++) {
+      int fractionDigits = randomInt(9);
+      NumberFormat expected = NumberFormat.getInstance(Locale.ROOT);
+      expected.setGroupingUsed(false);
+      expected.setMaximumFractionDigits(fractionDigits);
+      expected.setMinimumFractionDigits(0);
+      NumberFormat actual = LegacyShapeWriter.makeNumberFormat(fractionDigits);
+      if (randomBoolean()) {
+        RoundingMode roundingMode = randomFrom(roundingModes);
+        expected.setRoundingMode(roundingMode);
+        actual.setRoundingMode(roundingMode);
+      }
+      double value;
+      switch (randomInt(4)) {
+        case 0: value = randomDouble() * randomIntBetween(-180, 180); break;
+        case 1: value = randomIntBetween(-1000000, 1000000) / 1e6 + randomIntBetween(-180, 180); break;
+        case 2: value = (randomIntBetween(-2000, 2000) + 0.5) / Math.pow(10, fractionDigits); break;//ties
+        case 3: value = Double.longBitsToDouble(randomLong()); break;
+        default: value = randomFrom(new Double[]{0d, -0d, Double.NaN, Double.POSITIVE_INFINITY, -1e-10});
+      }
+      String message = value + " " + fractionDigits + " " + expected.getRoundingMode();
+      assertEquals(message, expected.format(value), actual.format(value));
+      assertEquals(message, expected.format(value),
+          DoubleFormat.append(new StringBuilder(), actual, value).toString());
+    }
+  }
+
 
   //  Looking for more tests?  Shapes are tested in TestShapes2D.
 
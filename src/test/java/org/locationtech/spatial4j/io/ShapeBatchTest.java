@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.io.jts.JtsBinaryCodec;
+import org.locationtech.spatial4j.shape.Point;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Rectangle;
+import org.locationtech.spatial4j.shape.Shape;
+import org.locationtech.spatial4j.shape.ShapeCollection;
+import org.locationtech.spatial4j.shape.ShapeUtils;
+import org.locationtech.spatial4j.shape.SpatialRelation;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import org.locationtech.spatial4j.shape.impl.RectangleImpl;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.Polygon;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShapeBatchTest extends RandomizedShapeTest {
+
+  private Shape randomShape() {
+    // circles are kept away from the poles, where their bounding box is imprecise
+    final Point center = randomPointIn(ctx.makeRectangle(-160, 160, -60, 60));
+    switch (randomInt(ctx instanceof JtsSpatialContext ? 8 : 4)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(10);
+      case 2: return ctx.makeCircle(center, randomIntBetween(0, 20));
+      case 3: {
+        List<Point> points = new ArrayList<>();
+        for (int i = randomIntBetween(1, 5); i > 0; i--) {
+          points.add(randomPointIn(ctx.makeRectangle(center.getX() - 10, center.getX() + 10,
+              center.getY() - 10, center.getY() + 10)));
+        }
+        return ctx.makeCollection(points);
+      }
+      case 4: return randomBoolean() ? ctx.makePoint(Double.NaN, Double.NaN)
+          : ctx.makeCollection(Arrays.asList(center, randomRectangle(10)));//OTHER
+      case 5: return jtsCtx().makeShape(polygon(center, 0), false, false);
+      case 6: return jtsCtx().makeShape(jtsCtx().getGeometryFactory().createMultiPolygon(new Polygon[]{
+          polygon(center, 0), polygon(center, 15)}), false, false);
+      case 7: {
+        GeometryFactory geometryFactory = jtsCtx().getGeometryFactory();
+        return jtsCtx().makeShape(geometryFactory.createLineString(new Coordinate[]{
+            new Coordinate(center.getX(), center.getY()),
+            new Coordinate(center.getX() + randomIntBetween(-10, 10), center.getY() + randomIntBetween(1, 10)),
+            new Coordinate(center.getX() + randomIntBetween(-10, 10), center.getY())}), false, false);
+      }
+      default: {
+        GeometryFactory geometryFactory = jtsCtx().getGeometryFactory();
+        return jtsCtx().makeShape(geometryFactory.createMultiPoint(new Coordinate[]{
+            new Coordinate(center.getX(), center.getY()),
+            new Coordinate(center.getX() + randomIntBetween(-10, 10), center.getY())}), false, false);
+      }
+    }
+  }
+
+  private JtsSpatialContext jtsCtx() {
+    return (JtsSpatialContext) ctx;
+  }
+
+  /** A triangle, maybe with a hole, offset right by dx. */
+  private Polygon polygon(Point center, double dx) {
+    GeometryFactory geometryFactory = jtsCtx().getGeometryFactory();
+    double x = center.getX() + dx, y = center.getY();
+    LinearRing shell = geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(x, y),
+        new Coordinate(x + 10, y), new Coordinate(x, y + 10), new Coordinate(x, y)});
+    LinearRing[] holes = randomBoolean() ? new LinearRing[0] : new LinearRing[]{
+        geometryFactory.createLinearRing(new Coordinate[]{new Coordinate(x + 1, y + 1),
+            new Coordinate(x + 4, y + 1), new Coordinate(x + 1, y + 4), new Coordinate(x + 1, y + 1)})};
+    return geometryFactory.createPolygon(shell, holes);
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    switch (randomInt(2)) {
+      case 0: ctx = SpatialContext.GEO; break;
+      case 1: ctx = JtsSpatialContext.GEO; break;
+      default: ctx = new JtsSpatialContextFactory()
+        {{geo = false; worldBounds = new RectangleImpl(-180, 180, -90, 90, null);}}.newSpatialContext();
+    }
+    List<Shape> shapes = new ArrayList<>();
+    ShapeBatch.Builder builder = new ShapeBatch.Builder(ctx);
+    for (int i = randomIntBetween(1, 100); i > 0; i--) {
+      Shape shape = randomShape();
+      shapes.add(shape);
+      builder.add(shape);
+    }
+    ShapeBatch batch = builder.build();
+    assertEquals(shapes.size(), batch.size());
+    for (int i = 0; i < shapes.size(); i++) {
+      Shape shape = shapes.get(i);
+      Shape copy = batch.getShape(i);
+      assertEquals(shape.getBoundingBox(), copy.getBoundingBox());
+      if (!(shape instanceof ShapeCollection && ctx instanceof JtsSpatialContext
+          && batch.getKinds()[i] != ShapeBatch.OTHER))//becomes a JTS MultiPoint
+        assertEquals(shape, copy);
+    }
+
+    //through the BinaryCodec and back
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    batch.writeShapes(new DataOutputStream(baos));
+    ShapeBatch copy = new ShapeBatch.Builder(ctx).addAll(ByteBuffer.wrap(baos.toByteArray())).build();
+    assertEquals(batch.size(), copy.size());
+    assertEquals(Arrays.toString(batch.getKinds()), Arrays.toString(copy.getKinds()));
+    assertEquals(Arrays.toString(batch.getCoords()), Arrays.toString(copy.getCoords()));
+
+    double[] distances = new double[shapes.size()];
+    SpatialRelation[] relations = new SpatialRelation[shapes.size()];
+    for (int q = 0; q < 20; q++) {
+      //a random point, or a vertex (in the world; unchecked geometries may stray past it)
+      Point point = randomPoint();
+      if (randomBoolean() && batch.getCoords().length > 0) {
+        int c = randomInt(batch.getCoords().length / 2 - 1);
+        if (Math.abs(batch.getCoords()[c * 2]) <= 180)
+          point = ctx.makePoint(batch.getCoords()[c * 2], batch.getCoords()[c * 2 + 1]);
+      }
+      BitSet contains = new BitSet();
+      batch.contains(point.getX(), point.getY(), contains);
+      batch.distance(point, distances);
+      for (int i = 0; i < shapes.size(); i++) {
+        Shape shape = shapes.get(i);
+        String msg = shape + " " + point;
+        assertEquals(msg, ShapeUtils.contains(shape, point.getX(), point.getY()), contains.get(i));
+        assertEquals(msg, ShapeUtils.distance(shape, point), distances[i], 1e-9);
+      }
+
+      Shape query = randomBoolean() ? randomRectangle(20)
+          : ctx.makeCircle(randomPointIn(ctx.makeRectangle(-160, 160, -60, 60)), randomIntBetween(1, 20));
+      BitSet intersects = new BitSet();
+      batch.intersects(query, intersects);
+      batch.relate(query, relations);
+      for (int i = 0; i < shapes.size(); i++) {
+        Shape shape = batch.getShape(i);//equal to shapes.get(i), but a JTS MultiPoint relates in the plane
+        String msg = shape + " " + query;
+        assertEquals(msg, ShapeUtils.intersects(shape, query), intersects.get(i));
+        assertEquals(msg, shape.relate(query), relations[i]);
+      }
+    }
+  }
+
+  /** Counts the shapes created from the columns. */
+  public static class CountingCodec extends JtsBinaryCodec {
+    static final AtomicInteger created = new AtomicInteger();
+
+    public CountingCodec(JtsSpatialContext ctx, JtsSpatialContextFactory factory) {
+      super(ctx, factory);
+    }
+
+    @Override
+    protected Shape readBatchShape(ShapeBatch batch, int i) {
+      created.incrementAndGet();
+      return super.readBatchShape(batch, i);
+    }
+  }
+
+  /** Lines and polygons are tested against a rectangle from the columns, without being created. */
+  @Test
+  public void testRectQueryFromColumns() {
+    ctx = new JtsSpatialContextFactory() {{binaryCodecClass = CountingCodec.class;}}.newSpatialContext();
+    ShapeBatch.Builder builder = new ShapeBatch.Builder(ctx);
+    for (int i = randomIntBetween(1, 50); i > 0; ) {
+      Shape shape = randomShape();
+      //lines and polygons, but not those wrapped across the dateline
+      if (shape instanceof JtsGeometry && !(((JtsGeometry) shape).getGeom() instanceof MultiPoint)
+          && !shape.getBoundingBox().getCrossesDateLine()) {
+        builder.add(shape);
+        i--;
+      }
+    }
+    ShapeBatch batch = builder.build();
+    List<Shape> shapes = new ArrayList<>(batch.getShapes());//created here, not below
+    CountingCodec.created.set(0);
+    Rectangle query = randomRectangle(20);
+    BitSet intersects = new BitSet();
+    batch.intersects(query, intersects);
+    SpatialRelation[] relations = new SpatialRelation[batch.size()];
+    batch.relate(query, relations);
+    int expectedCreated = 0;
+    for (int i = 0; i < batch.size(); i++) {
+      Shape shape = shapes.get(i);
+      assertEquals(shape + " " + query, ShapeUtils.intersects(shape, query), intersects.get(i));
+      assertEquals(shape + " " + query, shape.relate(query), relations[i]);
+      //relate() still creates those that intersect, if the bounding box isn't within
+      if (relations[i] != SpatialRelation.DISJOINT && shape.getBoundingBox().relate(query) != SpatialRelation.WITHIN)
+        expectedCreated++;
+    }
+    assertEquals(expectedCreated, CountingCodec.created.get());
+  }
+}
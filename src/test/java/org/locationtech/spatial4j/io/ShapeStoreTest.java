@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.io;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.RandomizedShapeTest;
+import org.locationtech.spatial4j.shape.Shape;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShapeStoreTest extends RandomizedShapeTest {
+
+  public ShapeStoreTest() {
+    super(SpatialContext.GEO);
+  }
+
+  private Shape randomShape() {
+    switch (randomInt(2)) {
+      case 0: return randomPoint();
+      case 1: return randomRectangle(10);
+      default: return ctx.makeCircle(randomPointIn(ctx.makeRectangle(-160, 160, -60, 60)), randomInt(20));
+    }
+  }
+
+  private void assertStored(List<Shape> expected, ShapeStore.Snapshot snapshot) throws IOException {
+    assertEquals(expected.size(), snapshot.size());
+    for (int i = 0; i < 20 && !expected.isEmpty(); i++) {
+      final int id = randomInt(expected.size() - 1);
+      Shape shape = snapshot.get(id);
+      assertEquals(expected.get(id).getBoundingBox(), shape.getBoundingBox());
+      assertEquals(expected.get(id), ((LazyShape) shape).getDecoded());
+    }
+    Iterator<Shape> iterator = snapshot.iterator();
+    for (Shape shape : expected) {
+      assertEquals(shape, ((LazyShape) iterator.next()).getDecoded());
+    }
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testAppendAndGet() throws IOException {
+    final Path path = newTempDir().resolve("shapes");
+    // small segments, so that records straddle them
+    final int segmentSize = randomBoolean() ? ShapeStore.DEFAULT_SEGMENT_SIZE : 8 * randomIntBetween(64, 1024);
+    List<Shape> shapes = new ArrayList<>();
+    try (ShapeStore store = new ShapeStore(ctx, path, true, segmentSize)) {
+      assertStored(shapes, store.snapshot());
+      for (int i = randomInt(20); i > 0; i--) {
+        Shape shape = randomShape();
+        assertEquals(shapes.size(), store.append(shape));
+        shapes.add(shape);
+      }
+      ShapeStore.Snapshot before = store.snapshot();
+      List<Shape> bulk = new ArrayList<>();
+      for (int i = randomInt(2000); i > 0; i--) {
+        bulk.add(randomShape());
+      }
+      assertEquals(shapes.size(), store.append(bulk));
+      assertStored(shapes, before);//unaffected
+      shapes.addAll(bulk);
+      assertEquals(shapes.size(), store.size());
+      assertStored(shapes, store.snapshot());
+
+      // another reader, as another process would be
+      try (ShapeStore reader = new ShapeStore(ctx, path, false, segmentSize)) {
+        assertFalse(reader.isWritable());
+        assertStored(shapes, reader.snapshot());
+        Shape shape = randomShape();
+        store.append(shape);
+        shapes.add(shape);
+        assertStored(shapes, reader.snapshot());
+      }
+
+      try {
+        ShapeStore.open(ctx, path, true);
+        fail("A second writer");
+      } catch (IOException e) {
+        //expected
+      }
+    }
+
+    try (ShapeStore store = new ShapeStore(ctx, path, true, segmentSize)) {
+      assertStored(shapes, store.snapshot());
+    }
+  }
+
+  @Test
+  public void testUnsupportedAppend() throws IOException {
+    final Path path = newTempDir().resolve("shapes");
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = randomInt(10); i > 0; i--) {
+      shapes.add(randomShape());
+    }
+    // the codec writes part of the collection before it finds the line unsupported
+    List<Shape> appended = new ArrayList<>(shapes);
+    appended.add(ctx.makeCollection(Arrays.asList(randomPoint(),
+        ctx.makeBufferedLineString(Arrays.asList(randomPoint(), randomPoint()), 1))));
+    appended.add(randomShape());
+    try (ShapeStore store = ShapeStore.open(ctx, path, true)) {
+      try {
+        store.append(appended);
+        fail("Unsupported shape");
+      } catch (IllegalArgumentException e) {
+        //expected
+      }
+      assertStored(shapes, store.snapshot());
+      // nothing of the partial record was written
+      final Path expectedPath = newTempDir().resolve("expected");
+      try (ShapeStore expected = ShapeStore.open(ctx, expectedPath, true)) {
+        expected.append(shapes);
+      }
+      assertEquals(Files.size(expectedPath), Files.size(path));
+
+      Shape shape = randomShape();
+      assertEquals(shapes.size(), store.append(shape));
+      shapes.add(shape);
+      assertStored(shapes, store.snapshot());
+    }
+  }
+
+  @Test
+  public void testInterruptedAppend() throws IOException {
+    final Path path = newTempDir().resolve("shapes");
+    List<Shape> shapes = new ArrayList<>();
+    try (ShapeStore store = ShapeStore.open(ctx, path, true)) {
+      for (int i = randomIntBetween(1, 10); i > 0; i--) {
+        shapes.add(randomShape());
+      }
+      store.append(shapes);
+    }
+
+    // an append that stopped after a partial record, or with a partial offset
+    final Path offsetsPath = path.resolveSibling(path.getFileName() + ShapeStore.OFFSETS_SUFFIX);
+    final long dataSize;
+    try (FileChannel data = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      dataSize = data.size();
+      data.write(ByteBuffer.wrap(new byte[]{BinaryCodec.FORMAT_BBOX, 0, 0}), dataSize);
+    }
+    try (FileChannel offsets = FileChannel.open(offsetsPath, StandardOpenOption.WRITE)) {
+      ByteBuffer offset = ByteBuffer.allocate(8).putLong(0, dataSize);
+      if (randomBoolean())
+        offset.limit(randomIntBetween(1, 7));
+      offsets.write(offset, offsets.size());
+    }
+
+    try (ShapeStore reader = ShapeStore.open(ctx, path, false)) {
+      assertStored(shapes, reader.snapshot());
+    }
+    try (ShapeStore store = ShapeStore.open(ctx, path, true)) {
+      assertTrue(store.isWritable());
+      assertStored(shapes, store.snapshot());
+      Shape shape = randomShape();
+      assertEquals(shapes.size(), store.append(shape));
+      shapes.add(shape);
+      assertStored(shapes, store.snapshot());
+    }
+  }
+}
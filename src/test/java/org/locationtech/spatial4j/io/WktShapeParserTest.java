@@ -19,11 +19,17 @@ import org.locationtech.spatial4j.shape.Shape;
 import org.locationtech.spatial4j.shape.ShapeFactory;
 import org.junit.Test;
 
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.text.ParseException;
 import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class WktShapeParserTest extends RandomizedTest {
@@ -165,4 +171,130 @@ public class WktShapeParserTest extends RandomizedTest {
   public void testBuffer() throws ParseException {
     assertParses("BUFFER(POINT(1 2), 3)", ctx.makePoint(1, 2).getBuffered(3, ctx));
   }
+
+  /** A reader of the string that returns a few chars at a time. */
+  private Reader trickle(String str) {
+    return new FilterReader(new StringReader(str)) {
+      @Override
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        return super.read(cbuf, off, Math.min(len, randomIntBetween(1, 100)));
+      }
+    };
+  }
+
+  private WKTReader wktReader() {
+    return (WKTReader) ctx.getFormats().getWktReader();
+  }
+
+  private String randomMultiPointWkt() {
+    StringBuilder wkt = new StringBuilder("MULTIPOINT (");
+    for (int i = randomIntBetween(1, 3000); i > 0; i--) {
+      wkt.append(randomIntBetween(-179, 179)).append('.').append(randomInt(999999)).append(' ')
+          .append(randomIntBetween(-89, 89)).append('.').append(randomInt(999999));
+      wkt.append(i > 1 ? (randomBoolean() ? ", " : ",\n") : ")");
+    }
+    return wkt.toString();
+  }
+
+  @Test
+  public void testReadFromReader() throws IOException, ParseException {
+    String wkt = randomMultiPointWkt();
+    assertEquals(wkt(wkt), wktReader().read(trickle(wkt)));
+    assertEquals(wkt("GEOMETRYCOLLECTION(POINT(1 2), " + wkt + ")"),
+        wktReader().read(trickle("GEOMETRYCOLLECTION(POINT(1 2), " + wkt + ")")));
+
+    String bad = wkt.substring(0, wkt.length() - 1) + " x)";
+    try {
+      wktReader().read(trickle(bad));
+      fail("ParseException expected");
+    } catch (ParseException e) {
+      assertEquals(bad.length() - 2, e.getErrorOffset());
+    }
+
+    try {
+      wktReader().read(trickle("NOSUCHSHAPE(1 2)"));
+      fail("ParseException expected");
+    } catch (ParseException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("NOSUCHSHAPE(1 2)"));
+    }
+  }
+
+  /** A subclass that parses Strings its own way has that used for a Reader too. */
+  @Test
+  public void testReadWithStringOverride() throws IOException, ParseException {
+    WKTReader reader = new WKTReader(ctx, null) {
+      @Override
+      public Shape parseIfSupported(String wktString) throws ParseException {
+        if (wktString.trim().equals("ORIGIN"))
+          return ctx.makePoint(0, 0);
+        return super.parseIfSupported(wktString);
+      }
+    };
+    assertEquals(ctx.makePoint(0, 0), reader.read(trickle(" ORIGIN ")));
+    assertEquals(ctx.makePoint(1, 2), reader.read(trickle("POINT(1 2)")));
+    WKTReader.RecordIterator records = reader.readRecords(trickle("POINT(1 2)\n ORIGIN\nPOINT(1 x)"));
+    assertEquals(ctx.makePoint(1, 2), records.nextShape());
+    assertEquals(ctx.makePoint(0, 0), records.nextShape());
+    try {
+      records.nextShape();
+      fail("ParseException expected");
+    } catch (ParseException e) {
+      assertEquals(e.getMessage(), "POINT(1 ".length(), e.getErrorOffset());
+      assertTrue(e.getMessage(), e.getMessage().startsWith("line 3: "));
+    }
+  }
+
+  @Test
+  public void testReadRecords() throws IOException, ParseException {
+    String wkt = randomMultiPointWkt().replace('\n', ' ');
+    WKTReader.RecordIterator records = wktReader().readRecords(
+        trickle("POINT (1 2)\n\n  \r\n" + wkt + "\r\nPOINT (1 x)\nPOINT(3 4)"));
+    assertEquals(ctx.makePoint(1, 2), records.nextShape());
+    assertEquals(1, records.getLineNumber());
+    assertEquals(wkt(wkt), records.nextShape());
+    assertEquals(4, records.getLineNumber());
+    try {
+      records.nextShape();
+      fail("ParseException expected");
+    } catch (ParseException e) {
+      assertEquals(e.getMessage(), "POINT (1 ".length(), e.getErrorOffset());
+      assertTrue(e.getMessage(), e.getMessage().startsWith("line 5: "));
+    }
+    assertTrue(records.hasNext());
+    assertEquals(ctx.makePoint(3, 4), records.next());
+    assertFalse(records.hasNext());
+    assertNull(records.nextShape());
+  }
+
+  @Test
+  public void testKeywordCase() throws ParseException {
+    assertParses("point ZM (1 2 3 4)", ctx.makePoint(1, 2));
+    assertParses("Point z empty", ctx.makePoint(Double.NaN, Double.NaN));
+    assertFails("POINTS(1 2)");
+  }
+
+  @Test
+  public void testParseDouble() {
+    for (int i = 0; i < 1000; i++) {
+      String number;
+      switch (randomInt(3)) {
+        case 0: number = Double.toString(randomDouble() * randomIntBetween(-180, 180)); break;
+        case 1: number = Double.toString(Double.longBitsToDouble(randomLong())); break;
+        case 2: number = randomIntBetween(-180, 180) + "." + randomIntBetween(0, Integer.MAX_VALUE); break;
+        default: {
+          StringBuilder digits = new StringBuilder(randomBoolean() ? "-" : "");
+          int signLength = digits.length();
+          for (int d = randomIntBetween(1, 25); d > 0; d--) {
+            digits.append(randomInt(9));
+          }
+          digits.insert(randomIntBetween(signLength, digits.length()), '.');
+          number = digits + "E" + randomIntBetween(-30, 30);
+        }
+      }
+      if (number.contains("NaN") || number.contains("Infinity"))
+        continue;
+      assertEquals(number, Double.doubleToLongBits(Double.parseDouble(number)),
+          Double.doubleToLongBits(DoubleParser.parseDouble("(" + number + ")", 1, number.length() + 1)));
+    }
+  }
 }
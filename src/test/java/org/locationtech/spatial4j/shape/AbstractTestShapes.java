@@ -18,6 +18,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
 import static org.locationtech.spatial4j.shape.SpatialRelation.DISJOINT;
@@ -211,6 +212,8 @@ public abstract class AbstractTestShapes extends RandomizedShapeTest {
     assertRelation("EMPTY", DISJOINT, emptyShape, randomPoint());
     assertRelation("EMPTY", DISJOINT, emptyShape, emptyRect);
     assertRelation("EMPTY", DISJOINT, emptyShape, randomRectangle(10));
+    assertFalse(ShapeUtils.contains(emptyShape, Double.NaN, Double.NaN));
+    assertFalse(ShapeUtils.contains(emptyShape, 0, 0));
     assertTrue(emptyShape.getBuffered(randomInt(4), ctx).isEmpty());
   }
 }
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.shape.jts.JtsGeometry;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Asserts that relating common pairs of shapes doesn't allocate memory, per the JVM's per-thread
+ * allocation counter.  Skipped if the JVM doesn't support that.
+ */
+public class AllocationFreeRelateTest extends RandomizedShapeTest {
+
+  private static final int WARMUP_ITERS = 20000;
+  private static final int ITERS = 10000;
+
+  public AllocationFreeRelateTest() {
+    super(JtsSpatialContext.GEO);
+  }
+
+  @Test
+  public void testRectangle() {
+    for (SpatialContext testCtx : new SpatialContext[]{SpatialContext.GEO, new SpatialContext(false)}) {
+      Rectangle rect = testCtx.makeRectangle(-10, 10, -10, 10);
+      assertNoAllocation(rect, testCtx.makePoint(5, 5));
+      assertNoAllocation(rect, testCtx.makeRectangle(0, 20, 0, 20));
+      assertNoAllocation(rect, testCtx.makeRectangle(-5, 5, -5, 5));
+    }
+  }
+
+  @Test
+  public void testCircle() {
+    for (SpatialContext testCtx : new SpatialContext[]{SpatialContext.GEO, new SpatialContext(false)}) {
+      Circle circle = testCtx.makeCircle(0, 0, 10);
+      assertNoAllocation(circle, testCtx.makePoint(5, 5));
+      assertNoAllocation(circle, testCtx.makeRectangle(5, 20, 5, 20));
+      assertNoAllocation(circle, testCtx.makeRectangle(-5, 5, -5, 5));
+    }
+  }
+
+  @Test
+  public void testPoint() {
+    Point point = ctx.makePoint(5, 5);
+    assertNoAllocation(point, ctx.makePoint(5, 5));
+    assertNoAllocation(point, ctx.makePoint(6, 5));
+  }
+
+  @Test
+  public void testJtsGeometryPoint() throws ParseException {
+    String wkt = "POLYGON((0 0, 10 -5, 20 0, 20 20, 10 25, 0 20, 0 0), (5 5, 5 10, 10 10, 5 5))";
+    JtsGeometry poly = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    JtsGeometry polyIndexed = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    polyIndexed.index();
+    for (JtsGeometry shape : new JtsGeometry[]{poly, polyIndexed}) {
+      assertNoAllocation(shape, ctx.makePoint(15, 15));//inside
+      assertNoAllocation(shape, ctx.makePoint(6, 8));//in the hole
+      assertNoAllocation(shape, ctx.makePoint(19, 22));//in the bbox, outside
+      assertNoAllocation(shape, ctx.makePoint(0, 10));//on an edge
+    }
+  }
+
+  @Test
+  public void testJtsGeometryRectangle() throws ParseException {
+    String wkt = "POLYGON((0 0, 10 -5, 20 0, 20 20, 10 25, 0 20, 0 0), (5 5, 5 10, 10 10, 5 5))";
+    JtsGeometry poly = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    JtsGeometry polyIndexed = (JtsGeometry) ctx.readShapeFromWkt(wkt);
+    polyIndexed.index();
+    for (JtsGeometry shape : new JtsGeometry[]{poly, polyIndexed}) {
+      assertNoAllocation(shape, ctx.makeRectangle(12, 18, 12, 18));//inside
+      assertNoAllocation(shape, ctx.makeRectangle(15, 30, 15, 30));//crosses an edge
+      assertNoAllocation(shape, ctx.makeRectangle(6, 7, 8, 9));//in the hole
+      assertNoAllocation(shape, ctx.makeRectangle(18, 19, 23, 24));//in the bbox, outside
+    }
+  }
+
+  private void assertNoAllocation(Shape shape, Shape other) {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    assumeTrue("no per-thread allocation counter", bean instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    assumeTrue("per-thread allocation counter disabled",
+        threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+    final long threadId = Thread.currentThread().getId();
+
+    int sum = 0;//so that relate() isn't dead code
+    for (int i = 0; i < WARMUP_ITERS; i++) {
+      sum += shape.relate(other).ordinal();
+    }
+    final long before = threadBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERS; i++) {
+      sum += shape.relate(other).ordinal();
+    }
+    final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+    // a little slack for the counter calls themselves; far less than a byte per relate
+    assertTrue(shape + " relate " + other + " allocated " + allocated + " bytes; " + sum,
+        allocated < ITERS / 10);
+  }
+}
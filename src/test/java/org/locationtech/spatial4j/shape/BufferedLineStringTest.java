@@ -11,6 +11,7 @@ package org.locationtech.spatial4j.shape;
 import com.carrotsearch.randomizedtesting.RandomizedTest;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.shape.impl.BufferedLine;
 import org.locationtech.spatial4j.shape.impl.BufferedLineString;
 import org.locationtech.spatial4j.shape.impl.RectangleImpl;
 import org.junit.Test;
@@ -18,6 +19,8 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+
 public class BufferedLineStringTest extends RandomizedTest {
 
   private final SpatialContext ctx = new SpatialContextFactory()
@@ -50,4 +53,28 @@ public class BufferedLineStringTest extends RandomizedTest {
     }.testRelateWithRectangle();
   }
 
+  @Test
+  public void testIndexedRelateMatchesSegments() {
+    // a long random walk so that the segment index has a few levels
+    int numPoints = 300 + randomInt(1000);
+    List<Point> points = new ArrayList<Point>(numPoints);
+    double x = 0, y = 0;
+    for (int i = 0; i < numPoints; i++) {
+      x = Math.max(-90, Math.min(90, x + randomDouble() * 4 - 2));
+      y = Math.max(-40, Math.min(40, y + randomDouble() * 4 - 2));
+      points.add(ctx.makePoint(x, y));
+    }
+    BufferedLineString line = new BufferedLineString(points, randomDouble(), ctx);
+    ShapeCollection<BufferedLine> segments = line.getSegments();
+
+    for (int i = 0; i < 1000; i++) {
+      Point p = ctx.makePoint(randomDouble() * 200 - 100, randomDouble() * 100 - 50);
+      assertEquals(segments.relate(p), line.relate(p));
+      Point p2 = ctx.makePoint(randomDouble() * 200 - 100, randomDouble() * 100 - 50);
+      Rectangle r = ctx.makeRectangle(Math.min(p.getX(), p2.getX()), Math.max(p.getX(), p2.getX()),
+          Math.min(p.getY(), p2.getY()), Math.max(p.getY(), p2.getY()));
+      assertEquals(r.toString(), segments.relate(r), line.relate(r));
+    }
+  }
+
 }
@@ -165,6 +165,38 @@ public class BufferedLineTest extends RandomizedTest {
     }.testRelateWithRectangle();
   }
 
+  /** In a geo context the edges, straight in degrees, are measured on the sphere. */
+  @Test
+  public void testGeoDistance() {
+    final SpatialContext geoCtx = SpatialContext.GEO;
+    for (int i = 0; i < 20; i++) {
+      Point pA = geoCtx.makePoint(randomIntBetween(-60, 60), randomIntBetween(-60, 60));
+      Point pB = geoCtx.makePoint(pA.getX() + randomIntBetween(-20, 20), pA.getY() + randomIntBetween(-20, 20));
+      BufferedLine line = new BufferedLine(pA, pB, randomInt(5), geoCtx);
+      Point from = geoCtx.makePoint(randomIntBetween(-180, 180), randomIntBetween(-90, 90));
+      // the minimum distance to many points on the edges, via the rectangle's corners
+      double expected = line.contains(from) ? 0 : Double.POSITIVE_INFINITY;
+      final double dX = pB.getX() - pA.getX(), dY = pB.getY() - pA.getY();
+      final double length = Math.sqrt(dX * dX + dY * dY);
+      final double unitX = length == 0 ? 1 : dX / length, unitY = length == 0 ? 0 : dY / length;
+      final double halfLength = length / 2 + line.getBuf();
+      final double centerX = pA.getX() + dX / 2, centerY = pA.getY() + dY / 2;
+      final int steps = 2000;
+      for (int s = 0; s <= steps; s++) {
+        final double t = -1 + 2.0 * s / steps;
+        final double[][] edgePoints = {{halfLength * t, -line.getBuf()}, {halfLength * t, line.getBuf()},
+            {-halfLength, line.getBuf() * t}, {halfLength, line.getBuf() * t}};
+        for (double[] p : edgePoints) {
+          expected = Math.min(expected, geoCtx.getDistCalc().distance(from,
+              centerX + p[0] * unitX - p[1] * unitY, centerY + p[0] * unitY + p[1] * unitX));
+        }
+      }
+      double distance = line.distance(from);
+      assertTrue(line + " " + from + " " + distance + " " + expected,
+          distance <= expected + 1e-9 && distance >= expected - 0.05);
+    }
+  }
+
   private BufferedLine newBufLine(int x1, int y1, int x2, int y2, int buf) {
     Point pA = ctx.makePoint(x1, y1);
     Point pB = ctx.makePoint(x2, y2);
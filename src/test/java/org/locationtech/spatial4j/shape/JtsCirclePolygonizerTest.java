@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.jts.JtsCirclePolygonizer;
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JtsCirclePolygonizerTest extends RandomizedShapeTest {
+
+  public JtsCirclePolygonizerTest() {
+    super(JtsSpatialContext.GEO);
+  }
+
+  private JtsSpatialContext jtsCtx() {
+    return (JtsSpatialContext) ctx;
+  }
+
+  @Test
+  public void testNumVertexes() {
+    JtsSpatialContext notGeoCtx = new JtsSpatialContextFactory() {{
+      geo = false;
+      circleMaxError = 0.01;
+    }}.newSpatialContext();
+    JtsCirclePolygonizer polygonizer = notGeoCtx.getShapeFactory().getCirclePolygonizer();
+    // the ratio applies to small circles, thus the default 100 vertexes
+    assertEquals(100, polygonizer.getNumVertexes(notGeoCtx.makeCircle(0, 0, 1)));
+    assertEquals(101, notGeoCtx.getGeometryFrom(notGeoCtx.makeCircle(0, 0, 1)).getNumPoints());//closed
+    // the absolute error applies to big circles
+    int numVertexes = polygonizer.getNumVertexes(notGeoCtx.makeCircle(0, 0, 1000));
+    assertTrue(numVertexes > 100);
+    assertEquals(0, numVertexes % 4);
+    // geo circles are wider in longitude away from the equator
+    JtsCirclePolygonizer geoPolygonizer = jtsCtx().getShapeFactory().getCirclePolygonizer();
+    assertTrue(geoPolygonizer.getNumVertexes(ctx.makeCircle(0, 80, 5))
+        >= geoPolygonizer.getNumVertexes(ctx.makeCircle(0, 0, 5)));
+  }
+
+  @Test
+  public void testGeoCircleCoverage() {
+    for (int i = 0; i < 50; i++) {
+      Circle circle = ctx.makeCircle(randomIntBetween(-180, 180), randomIntBetween(-90, 90),
+          randomBoolean() ? randomDouble() * 180 : randomDouble() * 20);
+      Geometry geom = jtsCtx().getGeometryFrom(circle);
+      assertTrue(circle + " " + geom, geom.isValid());
+      PreparedGeometry prepGeom = PreparedGeometryFactory.prepare(geom);
+      for (int j = 0; j < 50; j++) {
+        Point pt = randomPointIn(circle.getBoundingBox());
+        double dist = ctx.calcDistance(pt, circle.getCenter());
+        boolean covered = prepGeom.covers(geom.getFactory().createPoint(new Coordinate(pt.getX(), pt.getY())));
+        if (dist < circle.getRadius() * 0.98 - 0.01)
+          assertTrue(circle + " " + pt, covered);
+        else if (dist > circle.getRadius() * 1.02 + 0.01)
+          assertFalse(circle + " " + pt, covered);
+      }
+    }
+  }
+
+  @Test
+  public void testDatelineCrossing() {
+    Circle circle = ctx.makeCircle(179, 0, 5);
+    Geometry geom = jtsCtx().getGeometryFrom(circle);
+    assertEquals(2, geom.getNumGeometries());
+    assertEquals(-180, geom.getEnvelopeInternal().getMinX(), 0.0);
+    assertEquals(180, geom.getEnvelopeInternal().getMaxX(), 0.0);
+  }
+
+  @Test
+  public void testHemispheres() {
+    // covers both poles and equals its inverse, on the other side
+    for (double x : new double[]{10, 120, -180}) {
+      Geometry geom = jtsCtx().getGeometryFrom(ctx.makeCircle(x, 0, 90));
+      assertTrue(geom.isValid());
+      assertEquals(180 * 180, geom.getArea(), 1e-6);
+      assertTrue(geom.covers(geom.getFactory().createPoint(new Coordinate(x, 0))));
+      assertFalse(geom.intersects(geom.getFactory().createPoint(
+          new Coordinate(DistanceUtils.normLonDEG(x + 180), 0))));
+    }
+    // bigger than a hemisphere
+    Geometry geom = jtsCtx().getGeometryFrom(ctx.makeCircle(10, 0, 100));
+    assertTrue(geom.isValid());
+    assertTrue(geom.getArea() > 180 * 180);
+  }
+
+  @Test
+  public void testCache() {
+    JtsSpatialContext cacheCtx = new JtsSpatialContextFactory() {{
+      circleCacheMaxVertexes = 250;//2 circles of 101 points
+    }}.newSpatialContext();
+    JtsCirclePolygonizer polygonizer = cacheCtx.getShapeFactory().getCirclePolygonizer();
+    Geometry geom = polygonizer.getGeometry(cacheCtx.makeCircle(10, 10, 5));
+    assertSame(geom, polygonizer.getGeometry(cacheCtx.makeCircle(10, 10, 5)));
+    // a copy, since the cached one is shared
+    Geometry copy = cacheCtx.getGeometryFrom(cacheCtx.makeCircle(10, 10, 5));
+    assertNotSame(geom, copy);
+    assertTrue(geom.equalsExact(copy));
+    polygonizer.getGeometry(cacheCtx.makeCircle(20, 10, 5));
+    polygonizer.getGeometry(cacheCtx.makeCircle(10, 10, 5));//makes the first most recently used
+    polygonizer.getGeometry(cacheCtx.makeCircle(30, 10, 5));//evicts the second
+    assertEquals(2, polygonizer.getCacheSize());
+    assertSame(geom, polygonizer.getGeometry(cacheCtx.makeCircle(10, 10, 5)));
+    polygonizer.clearCache();
+    assertEquals(0, polygonizer.getCacheSize());
+  }
+}
@@ -26,11 +26,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
@@ -48,6 +53,7 @@ public class JtsGeometryTest extends AbstractTestShapes {
   private final int DL_SHIFT = 180;//since POLY_SHAPE contains 0 0, I know a shift of 180 will make it cross the DL.
   private JtsGeometry POLY_SHAPE_DL;//POLY_SHAPE shifted by DL_SHIFT to cross the dateline
   final JtsSpatialContext ctxNotGeo;
+  final JtsSpatialContext ctxGeodesic;//great circle edges when relating to circles
 
   public JtsGeometryTest() throws ParseException {
     super(JtsSpatialContext.GEO);
@@ -62,6 +68,10 @@ public class JtsGeometryTest extends AbstractTestShapes {
     ctxFactory.geo = false;
     ctxFactory.worldBounds = new RectangleImpl(-1000, 1000, -1000, 1000, null);
     ctxNotGeo = ctxFactory.newSpatialContext();
+
+    ctxFactory = new JtsSpatialContextFactory();
+    ctxFactory.geodesicCircleRelate = true;
+    ctxGeodesic = ctxFactory.newSpatialContext();
   }
 
   private JtsGeometry shiftPoly(JtsGeometry poly, final int lon_shift) throws ParseException {
@@ -335,6 +345,268 @@ public class JtsGeometryTest extends AbstractTestShapes {
     // not CONTAINS is impossible with a circle; line strings don't contain anything
   }
 
+  @Test
+  public void testIndexedRelatesToCircle() throws ParseException {
+    for (JtsSpatialContext testCtx : new JtsSpatialContext[]{ctxNotGeo, (JtsSpatialContext) ctx}) {
+      final double cx = randomDouble() * 100 - 50, cy = randomDouble() * 100 - 50;
+      String polyWkt = randomStarPolygonWkt(cx, cy);
+      JtsGeometry poly = (JtsGeometry) wkt(testCtx, polyWkt);
+      JtsGeometry polyIndexed = (JtsGeometry) wkt(testCtx, polyWkt);
+      polyIndexed.index();
+
+      for (int i = 0; i < 500; i++) {
+        Circle circle = testCtx.makeCircle(cx + randomDouble() * 60 - 30, cy + randomDouble() * 60 - 30,
+            randomDouble() * 20);
+        assertEquals(circle.toString(), poly.relate(circle), polyIndexed.relate(circle));
+      }
+    }
+  }
+
+  @Test
+  public void testRelatePointMatchesJts() throws ParseException {
+    final double cx = randomDouble() * 100 - 50, cy = randomDouble() * 100 - 50;
+    String[] wkts = {randomStarPolygonWkt(cx, cy),
+        "MULTILINESTRING((" + cx + " " + cy + ", " + (cx + 10) + " " + (cy + 10) + ", " + (cx + 20) + " " + cy + "))",
+        "MULTIPOINT((" + cx + " " + cy + "), (" + (cx + 2) + " " + (cy + 2) + "))"};
+    for (String wkt : wkts) {
+      JtsGeometry shape = (JtsGeometry) wkt(ctxNotGeo, wkt);
+      JtsGeometry shapeIndexed = (JtsGeometry) wkt(ctxNotGeo, wkt);
+      shapeIndexed.index();
+      Coordinate[] vertexes = shape.getGeom().getCoordinates();
+      for (int i = 0; i < 500; i++) {
+        double x, y;
+        if (randomInt(3) == 0) {
+          // on a vertex, or the middle of an edge
+          int v = randomInt(vertexes.length - 1);
+          int w = Math.min(v + randomInt(1), vertexes.length - 1);
+          x = (vertexes[v].x + vertexes[w].x) / 2;
+          y = (vertexes[v].y + vertexes[w].y) / 2;
+        } else {
+          x = cx + randomDouble() * 60 - 30;
+          y = cy + randomDouble() * 60 - 30;
+        }
+        boolean expected = !shape.getGeom().disjoint(ctxNotGeo.getGeometryFactory().createPoint(new Coordinate(x, y)));
+        Point pt = ctxNotGeo.makePoint(x, y);
+        assertEquals(pt.toString(), expected ? CONTAINS : DISJOINT, shape.relate(pt));
+        assertEquals(pt.toString(), expected ? CONTAINS : DISJOINT, shapeIndexed.relate(pt));
+      }
+    }
+  }
+
+  @Test
+  public void testRelateRectangleMatchesJts() throws ParseException {
+    final double cx = randomDouble() * 100 - 50, cy = randomDouble() * 100 - 50;
+    String[] wkts = {randomStarPolygonWkt(cx, cy),
+        "POLYGON((" + cx + " " + cy + ", " + (cx + 20) + " " + (cy - 5) + ", " + (cx + 20) + " " + (cy + 20) + ", "
+            + cx + " " + cy + "), (" + (cx + 10) + " " + (cy + 2) + ", " + (cx + 15) + " " + (cy + 2) + ", "
+            + (cx + 15) + " " + (cy + 10) + ", " + (cx + 10) + " " + (cy + 2) + "))",
+        "MULTILINESTRING((" + cx + " " + cy + ", " + (cx + 10) + " " + (cy + 10) + ", " + (cx + 20) + " " + cy + "))",
+        "MULTIPOINT((" + cx + " " + cy + "), (" + (cx + 2) + " " + (cy + 2) + "))"};
+    for (String wkt : wkts) {
+      JtsGeometry shape = (JtsGeometry) wkt(ctxNotGeo, wkt);
+      JtsGeometry shapeIndexed = (JtsGeometry) wkt(ctxNotGeo, wkt);
+      shapeIndexed.index();
+      Coordinate[] vertexes = shape.getGeom().getCoordinates();
+      for (int i = 0; i < 500; i++) {
+        double[] xs = new double[2], ys = new double[2];
+        for (int j = 0; j < 2; j++) {
+          if (randomInt(2) == 0) {
+            // aligned with a vertex, to exercise touching edges and corners
+            Coordinate vertex = vertexes[randomInt(vertexes.length - 1)];
+            xs[j] = vertex.x;
+            ys[j] = vertex.y;
+          } else {
+            xs[j] = cx + randomDouble() * 60 - 30;
+            ys[j] = cy + randomDouble() * 60 - 30;
+          }
+        }
+        Rectangle rect = ctxNotGeo.makeRectangle(Math.min(xs[0], xs[1]), Math.max(xs[0], xs[1]),
+            Math.min(ys[0], ys[1]), Math.max(ys[0], ys[1]));
+        Geometry rectGeom = ctxNotGeo.getGeometryFrom(rect);
+        SpatialRelation expected;
+        if (shape.getGeom().covers(rectGeom))
+          expected = CONTAINS;
+        else if (rectGeom.covers(shape.getGeom()))
+          expected = WITHIN;
+        else if (shape.getGeom().intersects(rectGeom))
+          expected = INTERSECTS;
+        else
+          expected = DISJOINT;
+        assertEquals(wkt + " " + rect, expected, shape.relate(rect));
+        assertEquals(wkt + " " + rect, expected, shapeIndexed.relate(rect));
+      }
+    }
+  }
+
+  @Test
+  public void testRelateRectangleDateline() throws ParseException {
+    // split at the dateline into 2 polygons
+    JtsGeometry shape = (JtsGeometry) wkt(ctx, "POLYGON((170 -10, -170 -10, -170 10, -175 20, 170 10, 170 -10))");
+    assertEquals(2, shape.getGeom().getNumGeometries());
+    assertEquals(CONTAINS, shape.relate(ctx.makeRectangle(175, -175, -5, 5)));
+    assertEquals(INTERSECTS, shape.relate(ctx.makeRectangle(175, -160, -5, 5)));
+    assertEquals(INTERSECTS, shape.relate(ctx.makeRectangle(175, 179, 5, 15)));
+    assertEquals(DISJOINT, shape.relate(ctx.makeRectangle(-160, -150, -5, 5)));
+    assertEquals(WITHIN, shape.relate(ctx.makeRectangle(160, -160, -20, 30)));
+  }
+
+  @Test
+  public void testPrepare() throws ParseException {
+    final double cx = randomDouble() * 100 - 50, cy = randomDouble() * 100 - 50;
+    JtsGeometry shape = (JtsGeometry) wkt(ctxNotGeo, randomStarPolygonWkt(cx, cy));
+    JtsGeometry prepared = shape.prepare();
+    assertNotSame(shape, prepared);
+    assertSame(prepared.getGeom(), shape.getGeom());
+    assertEquals(shape, prepared);
+    assertSame(prepared, prepared.prepare());
+    for (int i = 0; i < 200; i++) {
+      double x = cx + randomDouble() * 60 - 30, y = cy + randomDouble() * 60 - 30;
+      Rectangle rect = ctxNotGeo.makeRectangle(x, x + randomDouble() * 20, y, y + randomDouble() * 20);
+      assertEquals(rect.toString(), shape.relate(rect), prepared.relate(rect));
+      Circle circle = ctxNotGeo.makeCircle(cx + randomDouble() * 60 - 30, cy + randomDouble() * 60 - 30,
+          randomDouble() * 10);
+      assertEquals(circle.toString(), shape.relate(circle), prepared.relate(circle));
+    }
+  }
+
+  @Test
+  public void testApproximationsRelate() throws ParseException {
+    for (JtsSpatialContext testCtx : new JtsSpatialContext[]{ctxNotGeo, (JtsSpatialContext) ctx}) {
+      final double cx = randomDouble() * 100 - 50, cy = randomDouble() * 100 - 50;
+      String polyWkt = randomStarPolygonWkt(cx, cy);
+      JtsGeometry poly = (JtsGeometry) wkt(testCtx, polyWkt);
+      JtsGeometry polyApprox = (JtsGeometry) wkt(testCtx, polyWkt);
+      polyApprox.computeApproximations();
+      if (randomBoolean())
+        polyApprox.index();
+
+      for (int i = 0; i < 500; i++) {
+        double x = cx + randomDouble() * 60 - 30, y = cy + randomDouble() * 60 - 30;
+        Shape other;
+        switch (randomInt(2)) {
+          case 0: other = testCtx.makePoint(x, y); break;
+          case 1: other = testCtx.makeCircle(x, y, randomDouble() * 10); break;
+          default: other = testCtx.makeRectangle(x, x + randomDouble() * 10, y, y + randomDouble() * 10);
+        }
+        assertEquals(other.toString(), poly.relate(other), polyApprox.relate(other));
+      }
+    }
+    // the inscribed rectangle or inner hull should answer this
+    JtsGeometry diamond = (JtsGeometry) wkt(ctxNotGeo, "POLYGON((0 -10, 10 0, 0 10, -10 0, 0 -10))");
+    diamond.computeApproximations();
+    assertRelation(CONTAINS, diamond, ctxNotGeo.makeRectangle(-2, 2, -2, 2));
+    assertRelation(CONTAINS, diamond, ctxNotGeo.makePoint(1, 1));
+    assertRelation(DISJOINT, diamond, ctxNotGeo.makeRectangle(8, 9, 8, 9));
+  }
+
+  /** A star shaped polygon with enough edges to be indexed, and a hole at its center. */
+  private String randomStarPolygonWkt(double cx, double cy) {
+    final int numPoints = 50 + randomInt(200);
+    StringBuilder buf = new StringBuilder("POLYGON((");
+    double firstX = 0, firstY = 0;
+    for (int i = 0; i < numPoints; i++) {
+      double angle = 2 * Math.PI * i / numPoints;
+      double radius = 5 + randomDouble() * 15;
+      double x = cx + radius * Math.cos(angle), y = cy + radius * Math.sin(angle);
+      if (i == 0) {
+        firstX = x;
+        firstY = y;
+      }
+      buf.append(x).append(' ').append(y).append(", ");
+    }
+    buf.append(firstX).append(' ').append(firstY).append("), (");
+    buf.append(cx - 2).append(' ').append(cy - 2).append(", ").append(cx - 2).append(' ').append(cy + 2).append(", ");
+    buf.append(cx + 2).append(' ').append(cy + 2).append(", ").append(cx + 2).append(' ').append(cy - 2).append(", ");
+    buf.append(cx - 2).append(' ').append(cy - 2).append("))");
+    return buf.toString();
+  }
+
+  @Test
+  public void testGeodesicEdgeRelatesToCircle() throws ParseException {
+    // The great circle arc of the first edge bulges north to ~60.38 at longitude 0
+    JtsGeometry line = (JtsGeometry) wkt(ctxGeodesic, "LINESTRING(-10 60, 10 60, 10 62)");
+    Circle circle = ctxGeodesic.makeCircle(0, 60.5, 0.2);
+    assertRelation(INTERSECTS, line, circle);
+    line.index();
+    assertRelation(INTERSECTS, line, circle);
+    assertRelation(DISJOINT, line, ctxGeodesic.makeCircle(0, 60.5, 0.1));
+    // but not for cartesian math, the default
+    assertRelation(DISJOINT, wkt(ctxNotGeo, "LINESTRING(-10 60, 10 60, 10 62)"), ctxNotGeo.makeCircle(0, 60.5, 0.2));
+    assertRelation(DISJOINT, wkt(ctx, "LINESTRING(-10 60, 10 60, 10 62)"), ctx.makeCircle(0, 60.5, 0.2));
+  }
+
+  @Test
+  public void testConstructionExecutor() throws Exception {
+    // crosses the dateline, so it's cut into 2 pages; the line wraps around into 3
+    final String polyStr = "POLYGON((170 0, -170 0, -175 10, 170 10, 170 0))";
+    final String lineStr = "LINESTRING(170 0, -170 0, 0 0, 170 1, -170 1)";
+    JtsSpatialContextFactory ctxFactory = new JtsSpatialContextFactory();
+    JtsGeometry expectedPoly = (JtsGeometry) wkt(ctxFactory.newSpatialContext(), polyStr);
+    JtsGeometry expectedLine = (JtsGeometry) wkt(ctxFactory.newSpatialContext(), lineStr);
+
+    final List<Thread> threads = new ArrayList<>();
+    try {
+      ctxFactory.constructionExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+          Thread thread = new Thread(command);
+          threads.add(thread);
+          thread.start();
+        }
+      };
+      JtsSpatialContext parallelCtx = ctxFactory.newSpatialContext();
+      for (int i = 0; i < 10; i++) {
+        JtsGeometry actual = (JtsGeometry) wkt(parallelCtx, polyStr);
+        assertTrue(actual.toString(), expectedPoly.getGeom().equalsExact(actual.getGeom()));
+        assertTrue(actual.getBoundingBox().getCrossesDateLine());
+        actual = (JtsGeometry) wkt(parallelCtx, lineStr);
+        assertTrue(actual.toString(), expectedLine.getGeom().equalsExact(actual.getGeom()));
+        assertEquals(expectedLine.getBoundingBox(), actual.getBoundingBox());
+      }
+      assertFalse(threads.isEmpty());
+    } finally {
+      for (Thread thread : threads) {
+        thread.join();
+      }
+    }
+  }
+
+  @Test
+  public void testGeodesicRingContainsCircleCenter() throws ParseException {
+    // The great circle arc of the south edge bulges north to ~60.377 at longitude 0, so the center is
+    // outside the polygon when edges are arcs, like they are for distances, but inside if straight.
+    final String polyStr = "POLYGON((-10 60, 10 60, 10 70, 0 72, -10 70, -10 60))";
+    JtsGeometry poly = (JtsGeometry) wkt(ctxGeodesic, polyStr);
+    Circle circle = ctxGeodesic.makeCircle(0, 60.2, 0.05);
+    assertRelation(DISJOINT, poly, circle);
+    poly.index();
+    assertRelation(DISJOINT, poly, circle);
+    assertRelation(CONTAINS, poly, ctxGeodesic.makeCircle(0, 60.5, 0.05));
+    // the planar approximations must not contradict that
+    poly.computeApproximations();
+    assertRelation(DISJOINT, poly, circle);
+
+    // an arc that passes out of the bounding box of its vertexes
+    JtsGeometry line = (JtsGeometry) wkt(ctxGeodesic, "LINESTRING(-10 60, 10 60)");
+    assertRelation(INTERSECTS, line, ctxGeodesic.makeCircle(0, 60.377, 0.05));
+
+    // by default: straight edges, as with JTS
+    assertRelation(CONTAINS, wkt(ctx, polyStr), ctx.makeCircle(0, 60.2, 0.05));
+    assertRelation(DISJOINT, wkt(ctx, "LINESTRING(-10 60, 10 60)"), ctx.makeCircle(0, 60.377, 0.05));
+  }
+
+  @Test
+  public void testCircleRelateMatchesPointsAndBBox() throws ParseException {
+    // by default a circle sees the same straight edges as a point does, and stays within the bbox
+    JtsGeometry poly = (JtsGeometry) wkt(ctx, "POLYGON((0 60, 90 60, 90 70, 45 71, 0 70, 0 60))");
+    assertRelation(CONTAINS, poly, ctx.makePoint(45, 62));
+    assertRelation(CONTAINS, poly, ctx.makeCircle(45, 62, 0.01));
+    assertRelation(DISJOINT, poly, ctx.makeCircle(67.5, 71.4, 0.1));
+    poly.index();
+    assertRelation(CONTAINS, poly, ctx.makeCircle(45, 62, 0.01));
+    assertRelation(DISJOINT, poly, ctx.makeCircle(67.5, 71.4, 0.1));
+  }
+
   private Shape wkt(SpatialContext ctx, String wkt) throws ParseException {
     return ((WKTReader) ctx.getFormats().getWktReader()).parse(wkt);
   }
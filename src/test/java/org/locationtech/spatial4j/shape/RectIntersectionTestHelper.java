@@ -13,10 +13,14 @@ import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.impl.InfBufLine;
 import org.locationtech.spatial4j.shape.impl.PointImpl;
 
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
 import static org.locationtech.spatial4j.shape.SpatialRelation.DISJOINT;
+import static org.locationtech.spatial4j.shape.SpatialRelation.WITHIN;
 
 public abstract class RectIntersectionTestHelper<S extends Shape> extends RandomizedShapeTest {
 
@@ -103,6 +107,16 @@ public abstract class RectIntersectionTestHelper<S extends Shape> extends Random
 
       TestLog.log("S-R Rel: {}, Shape {}, Rectangle {}", ic, s, r);
 
+      // the boolean predicates agree with relate()
+      assertEquals("intersects", ic.intersects(), ShapeUtils.intersects(s, r));
+      assertEquals("intersects", ic.intersects(), ShapeUtils.intersects(r, s));
+      // (when equal, relate() could be either CONTAINS or WITHIN)
+      assertEquals("contains", ic == CONTAINS,
+          ShapeUtils.contains(s, r) && (ic != WITHIN || !ShapeUtils.within(s, r)));
+      assertEquals("within", ic == WITHIN,
+          ShapeUtils.within(s, r) && (ic != CONTAINS || !ShapeUtils.contains(s, r)));
+      assertContainsXY(s, r);
+
       if (ic != DISJOINT) {
         assertTrue("if not disjoint then the shape's bbox shouldn't be disjoint",
                 s.getBoundingBox().relate(r).intersects());
@@ -185,6 +199,24 @@ public abstract class RectIntersectionTestHelper<S extends Shape> extends Random
     System.out.println("Laps: "+laps + " CWIDbD: "+i_C+","+i_W+","+i_I+","+i_D+","+i_bboxD);
   }
 
+  /** Shape.contains(x,y) and its bulk form agree with relate() on points in the rectangle. */
+  private void assertContainsXY(S s, Rectangle r) {
+    final int numPoints = 4;
+    double[] xs = new double[numPoints], ys = new double[numPoints];
+    BitSet expected = new BitSet();
+    for (int i = 0; i < numPoints; i++) {
+      Point p = randomPointIn(r);
+      xs[i] = p.getX();
+      ys[i] = p.getY();
+      boolean contains = s.relate(p).intersects();
+      assertEquals("contains(x,y) " + p, contains, ShapeUtils.contains(s, p.getX(), p.getY()));
+      expected.set(i, contains);
+    }
+    BitSet result = new BitSet();
+    ShapeUtils.contains(s, xs, ys, numPoints, result);
+    assertEquals(expected, result);
+  }
+
   protected void onAssertFail(AssertionError e, S s, Rectangle r, SpatialRelation ic) {
     throw e;
   }
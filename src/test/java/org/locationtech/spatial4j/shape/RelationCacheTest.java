@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2015 Voyager Search and others
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Apache License, Version 2.0 which
+ * accompanies this distribution and is available at
+ *    http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+
+package org.locationtech.spatial4j.shape;
+
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RelationCacheTest extends RandomizedShapeTest {
+
+  public RelationCacheTest() {
+    super(SpatialContext.GEO);
+  }
+
+  @Test
+  public void testSameResults() {
+    RelationCache cache = new RelationCache(50);
+    Shape indexed = ctx.makeCircle(0, 0, 30);
+    for (int i = 0; i < 1000; i++) {
+      // few distinct rectangles so that there are hits
+      double x = randomInt(20) * 10 - 100, y = randomInt(10) * 10 - 50;
+      Rectangle query = ctx.makeRectangle(x, x + 10, y, y + 10);
+      assertEquals(indexed.relate(query), cache.relate(indexed, query));
+    }
+    assertEquals(1000, cache.getHitCount() + cache.getMissCount());
+    assertTrue(cache.getHitCount() > 0);
+    assertTrue(cache.getWeight() <= 50);
+    assertEquals(cache.getMissCount() - cache.size(), cache.getEvictionCount());
+  }
+
+  @Test
+  public void testKeyIsIndexedIdentity() {
+    RelationCache cache = new RelationCache(10);
+    Shape indexed1 = ctx.makeCircle(0, 0, 30);
+    Shape indexed2 = ctx.makeCircle(0, 0, 30);//equal but not the same
+    Point query = ctx.makePoint(1, 1);
+    cache.relate(indexed1, query);
+    cache.relate(indexed1, ctx.makePoint(1, 1));
+    cache.relate(indexed2, query);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void testEvictionPolicy() {
+    Shape indexed = ctx.makeCircle(0, 0, 30);
+    Point a = ctx.makePoint(1, 1), b = ctx.makePoint(2, 2), c = ctx.makePoint(3, 3);
+    for (RelationCache.EvictionPolicy policy : Arrays.asList(RelationCache.LRU, RelationCache.FIFO)) {
+      RelationCache cache = new RelationCache(2, 1, RelationCache.DEFAULT_WEIGHER, policy);
+      cache.relate(indexed, a);
+      cache.relate(indexed, b);
+      cache.relate(indexed, a);//hit; promotes a if LRU
+      cache.relate(indexed, c);//evicts b if LRU, else a
+      assertEquals(1, cache.getEvictionCount());
+      long misses = cache.getMissCount();
+      cache.relate(indexed, policy == RelationCache.LRU ? a : b);
+      assertEquals(misses, cache.getMissCount());
+    }
+  }
+
+  @Test
+  public void testWeight() {
+    Shape indexed = ctx.makeCircle(0, 0, 30);
+    ShapeCollection<Point> multiPoint = new ShapeCollection<>(
+        Arrays.asList(ctx.makePoint(1, 1), ctx.makePoint(2, 2), ctx.makePoint(3, 3)), ctx);
+    RelationCache cache = new RelationCache(4, 1, RelationCache.DEFAULT_WEIGHER, RelationCache.LRU);
+    cache.relate(indexed, ctx.makePoint(5, 5));
+    cache.relate(indexed, ctx.makePoint(6, 6));
+    cache.relate(indexed, multiPoint);
+    assertEquals(2, cache.size());//the first point was evicted to make room
+    assertEquals(4, cache.getWeight());
+
+    RelationCache tinyCache = new RelationCache(2, 1, RelationCache.DEFAULT_WEIGHER, RelationCache.LRU);
+    tinyCache.relate(indexed, multiPoint);
+    assertEquals(0, tinyCache.size());//too heavy to cache
+  }
+
+  @Test
+  public void testVertexCount() {
+    assertEquals(1, RelationCache.vertexCount(ctx.makePoint(1, 1)));
+    assertEquals(1, RelationCache.vertexCount(ctx.makeRectangle(1, 2, 1, 2)));
+    assertEquals(2, RelationCache.vertexCount(ctx.makeBufferedLineString(
+        Arrays.asList(ctx.makePoint(1, 1), ctx.makePoint(2, 2)), 1)));
+    JtsSpatialContext jtsCtx = JtsSpatialContext.GEO;
+    Shape polygon = jtsCtx.getShapeFactory().polygon()
+        .pointXY(0, 0).pointXY(10, 0).pointXY(5, 10).pointXY(0, 0).build();
+    assertEquals(4, RelationCache.vertexCount(polygon));
+    assertEquals(5, RelationCache.vertexCount(new ShapeCollection<>(
+        Arrays.asList(polygon, jtsCtx.makePoint(1, 1)), jtsCtx)));
+    assertEquals(4, RelationCache.DEFAULT_WEIGHER.weigh(ctx.makePoint(0, 0), polygon));
+    assertEquals(4, ((BaseShape<?>) polygon).getVertexCount());
+  }
+
+}
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.locationtech.spatial4j.shape.SpatialRelation.CONTAINS;
 
@@ -67,6 +68,26 @@ public class ShapeCollectionTest extends RandomizedShapeTest {
     assertEquals(WORLD180, getLonRangeString(s.getBoundingBox()));
   }
 
+  @Test
+  public void testPrepareSubclass() {
+    ctx = SpatialContext.GEO;
+    class MyCollection extends ShapeCollection<Rectangle> {
+      MyCollection(List<Rectangle> shapes, boolean indexShapes) {
+        super(shapes, SpatialContext.GEO, indexShapes);
+      }
+
+      @Override
+      protected ShapeCollection<Rectangle> newPreparedCollection(List<Rectangle> preparedShapes) {
+        return new MyCollection(preparedShapes, true);
+      }
+    }
+    MyCollection collection = new MyCollection(Arrays.asList(ctx.makeRectangle(0, 10, 0, 10)), false);
+    ShapeCollection<Rectangle> prepared = collection.prepare();
+    assertSame(MyCollection.class, prepared.getClass());
+    assertEquals(collection, prepared);
+    assertSame(prepared, prepared.prepare());
+  }
+
   @Test
   public void testRectIntersect() {
     SpatialContext ctx = new SpatialContextFactory()
@@ -97,6 +118,12 @@ public class ShapeCollectionTest extends RandomizedShapeTest {
         shapes.add(randomRectangle( i < 2 ? nearP : null));
       }
       ShapeCollection shapeCollection = new ShapeCollection<Rectangle>(shapes, ctx);
+      if (randomBoolean()) {
+        ShapeCollection prepared = shapeCollection.prepare();
+        assertEquals(shapeCollection, prepared);
+        assertSame(prepared, prepared.prepare());
+        shapeCollection = prepared;
+      }
 
       //test shapeCollection.getBoundingBox();
       Rectangle msBbox = shapeCollection.getBoundingBox();
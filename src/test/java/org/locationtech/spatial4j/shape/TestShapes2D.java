@@ -61,6 +61,8 @@ public class TestShapes2D extends AbstractTestShapes {
     Rectangle bbox = pt.getBoundingBox();
     assertFalse(msg,bbox.hasArea());
     assertEquals(msg,pt,bbox.getCenter());
+    bbox.reset(1, 1, 1, 1);//a copy; the point isn't affected
+    assertEquals(msg,pt,pt.getBoundingBox().getCenter());
 
     assertRelation(msg, CONTAINS, pt, pt2);
     assertRelation(msg, DISJOINT, pt, ctx.makePoint(0, 1));
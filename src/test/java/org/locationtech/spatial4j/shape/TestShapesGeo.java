@@ -228,6 +228,35 @@ public class TestShapesGeo extends AbstractTestShapes {
     testCircleIntersect();
   }
 
+  /** GeoCircle has a Haversine specific containment shortcut; compare to the same math without it. */
+  @Test @Repeat(iterations = 1)
+  public void testGeoCircleHaversineShortcut() {
+    SpatialContext fastCtx = new SpatialContextFactory(){{geo = true; distCalc = new GeodesicSphereDistCalc.Haversine();}}
+        .newSpatialContext();
+    SpatialContext slowCtx = new SpatialContextFactory(){{geo = true; distCalc = new GeodesicSphereDistCalc.Haversine(){};}}
+        .newSpatialContext();
+    for (int i = 0; i < 100; i++) {
+      double x = randomIntBetween(-180, 180), y = randomIntBetween(-90, 90);
+      double radius = randomBoolean() ? randomDouble() * 180 : randomDouble() * 0.01;
+      Circle fast = fastCtx.makeCircle(x, y, radius);
+      Circle slow = slowCtx.makeCircle(x, y, radius);
+      for (int j = 0; j < 100; j++) {
+        Point pt;
+        if (randomBoolean()) {
+          // just inside or outside the edge
+          double dist = radius * (1 + (randomDouble() - 0.5) * 1e-9);
+          pt = fastCtx.getDistCalc().pointOnBearing(fast.getCenter(), dist, randomDouble() * 360, fastCtx, null);
+        } else {
+          pt = fastCtx.makePoint(randomIntBetween(-180, 180), randomIntBetween(-90, 90));
+        }
+        assertEquals(fast + " " + pt, slow.relate(pt), fast.relate(pt));
+        Rectangle rect = fastCtx.makeRectangle(pt.getX(), Math.min(180, pt.getX() + randomDouble() * radius),
+            pt.getY(), Math.min(90, pt.getY() + randomDouble() * radius));
+        assertEquals(fast + " " + rect, slow.relate(rect), fast.relate(rect));
+      }
+    }
+  }
+
 
   @Test
   public void testEmptyLineString() {